@@ -0,0 +1,255 @@
+/*
+ * SPDX-License-Identifier: Apache-2.0
+ *
+ * Copyright 2026 Querqy Contributors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package querqy.benchmarks;
+
+import querqy.BloomFilter;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * <p>Generates the rules, term corpora and query logs used by the benchmarks.</p>
+ *
+ * <p>All data is derived from a fixed seed so that two runs of the same benchmark with the same parameters see
+ * exactly the same rules and queries. Words are built from syllables and are unique per index, so that a rule set
+ * of n rules has n distinct inputs. Query terms are drawn from a vocabulary that is twice as large as the number of
+ * rule inputs and the draw is skewed towards low indexes. This gives a query log with repeating head queries in which
+ * roughly half of the terms do not match any rule.</p>
+ */
+public final class BenchmarkData {
+
+    public static final long SEED = 20260101L;
+
+    private static final String[] SYLLABLES = {
+            "ka", "lo", "mi", "ne", "ru", "sa", "te", "vo", "bi", "da", "fu", "ge", "ho", "ji", "ku", "la",
+            "ma", "no", "pe", "ri", "so", "tu", "wa", "ze", "be", "ci", "do", "fa", "gi", "he", "lu", "mo"
+    };
+
+    private BenchmarkData() {
+    }
+
+    /**
+     * @param index A non-negative index
+     * @return The word for this index. Different indexes produce different words.
+     */
+    public static String word(final int index) {
+        final StringBuilder sb = new StringBuilder();
+        int i = index;
+        do {
+            sb.append(SYLLABLES[i % SYLLABLES.length]);
+            i /= SYLLABLES.length;
+        } while (i > 0);
+        // make sure that no word is a prefix of a longer word that is used as a rule input
+        return sb.append('x').toString();
+    }
+
+    /**
+     * <p>Creates common rules with the given number of inputs. Every third rule has a two-term input. Rules contain a
+     * mix of SYNONYM, UP, DOWN, FILTER and DELETE instructions.</p>
+     *
+     * @param numRules The number of rules
+     * @return The rules text
+     */
+    public static String commonRules(final int numRules) {
+        final Random random = new Random(SEED);
+        final StringBuilder sb = new StringBuilder(numRules * 48);
+        for (int i = 0; i < numRules; i++) {
+            sb.append(word(i));
+            if (i % 3 == 0) {
+                sb.append(' ').append(word(i + 1));
+            }
+            sb.append(" =>\n");
+            sb.append("  SYNONYM: ").append(word(numRules * 2 + random.nextInt(numRules))).append('\n');
+            switch (i % 5) {
+                case 0 -> sb.append("  UP(").append(10 + random.nextInt(90)).append("): ")
+                        .append(word(random.nextInt(numRules))).append('\n');
+                case 1 -> sb.append("  DOWN(").append(10 + random.nextInt(90)).append("): ")
+                        .append(word(random.nextInt(numRules))).append('\n');
+                case 2 -> sb.append("  FILTER: * ").append(BenchmarkSearchEngineRequestAdapter.FILTER_FIELD)
+                        .append(':').append(word(random.nextInt(100))).append('\n');
+                case 3 -> sb.append("  SYNONYM: ").append(word(random.nextInt(numRules))).append(' ')
+                        .append(word(random.nextInt(numRules))).append('\n');
+                default -> {
+                    if (i % 3 == 0) {
+                        sb.append("  DELETE: ").append(word(i + 1)).append('\n');
+                    }
+                }
+            }
+        }
+        return sb.toString();
+    }
+
+    /**
+     * @param numRules The number of rules
+     * @return Rules for the replace rewriter, including some prefix and suffix rules
+     */
+    public static String replaceRules(final int numRules) {
+        final StringBuilder sb = new StringBuilder(numRules * 24);
+        for (int i = 0; i < numRules; i++) {
+            if (i % 100 == 1) {
+                sb.append(word(i)).append("* => ").append(word(i)).append('\n');
+            } else if (i % 100 == 2) {
+                sb.append('*').append(word(i)).append(" => ").append(word(i)).append('\n');
+            } else {
+                sb.append(word(i)).append("; ").append(word(i)).append("s => ").append(word(numRules * 2 + i))
+                        .append('\n');
+            }
+        }
+        return sb.toString();
+    }
+
+    /**
+     * @param numRules The number of rules
+     * @return Rules for the regex replace rewriter. Half of the rules use a capturing group.
+     */
+    public static String regexReplaceRules(final int numRules) {
+        final StringBuilder sb = new StringBuilder(numRules * 32);
+        for (int i = 0; i < numRules; i++) {
+            if (i % 2 == 0) {
+                sb.append(word(i)).append("(\\d+) => ").append(word(i)).append(" ${1}\n");
+            } else {
+                sb.append(word(i)).append(" \\d{1,3} ").append(word(i + 1)).append(" => ")
+                        .append(word(numRules * 2 + i)).append('\n');
+            }
+        }
+        return sb.toString();
+    }
+
+    /**
+     * @param numUnits The number of unit terms
+     * @return A number-unit rewriter configuration with one definition per 10 units
+     */
+    public static String numberUnitConfig(final int numUnits) {
+        final StringBuilder sb = new StringBuilder(numUnits * 64);
+        sb.append("{\"numberUnitDefinitions\": [");
+        for (int i = 0; i < numUnits; i += 10) {
+            if (i > 0) {
+                sb.append(',');
+            }
+            sb.append("{\"units\": [");
+            for (int j = i; j < Math.min(i + 10, numUnits); j++) {
+                if (j > i) {
+                    sb.append(',');
+                }
+                sb.append("{\"term\": \"").append(word(j)).append("\", \"multiplier\": ").append(1 + j % 10)
+                        .append('}');
+            }
+            sb.append("], \"fields\": [{\"fieldName\": \"num").append(i % 7).append("\", \"scale\": 1}],")
+                    .append("\"boost\": {\"percentageLowerBoundary\": 10, \"percentageUpperBoundary\": 10},")
+                    .append("\"filter\": {\"percentageLowerBoundary\": 20, \"percentageUpperBoundary\": 20}}");
+        }
+        sb.append("]}");
+        return sb.toString();
+    }
+
+    /**
+     * <p>Creates a term corpus in the TSV format of {@link querqy.rewriter.wordbreak.TsvDfCoocTermCorpus}. Each
+     * term co-occurs with its neighbours so that compounds made of adjacent words can be verified.</p>
+     *
+     * @param numTerms The number of terms
+     * @param hashFunctions The number of hash functions of the bloom filters
+     * @return The TSV
+     */
+    public static String coocTermCorpus(final int numTerms, final int hashFunctions) {
+        final StringBuilder sb = new StringBuilder(numTerms * 80);
+        for (int i = 0; i < numTerms; i++) {
+            final BloomFilter bloomFilter = new BloomFilter(256, hashFunctions);
+            for (int j = Math.max(0, i - 3); j < Math.min(numTerms, i + 4); j++) {
+                if (j != i) {
+                    bloomFilter.add(word(j));
+                }
+            }
+            sb.append(word(i)).append('\t').append(1 + (numTerms - i) / 10).append('\t').append(bloomFilter.toHex())
+                    .append('\n');
+        }
+        return sb.toString();
+    }
+
+    /**
+     * @param vocabularySize The size of the vocabulary from which terms are drawn
+     * @param numQueries The number of queries
+     * @return Queries of 1 to 4 terms
+     */
+    public static List<String> queries(final int vocabularySize, final int numQueries) {
+        return queries(vocabularySize, numQueries, QueryStyle.PLAIN);
+    }
+
+    /**
+     * @param vocabularySize The size of the vocabulary from which terms are drawn
+     * @param numQueries The number of queries
+     * @param style Decides about numbers and compounds in the generated queries
+     * @return Queries of 1 to 4 terms
+     */
+    public static List<String> queries(final int vocabularySize, final int numQueries, final QueryStyle style) {
+        final Random random = new Random(SEED);
+        final List<String> queries = new ArrayList<>(numQueries);
+        final StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < numQueries; i++) {
+            sb.setLength(0);
+            final int numTerms = 1 + random.nextInt(4);
+            for (int t = 0; t < numTerms; t++) {
+                if (t > 0) {
+                    sb.append(' ');
+                }
+                final int index = skewed(random, vocabularySize);
+                final QueryStyle termStyle = style == QueryStyle.MIXED
+                        ? QueryStyle.values()[random.nextInt(QueryStyle.MIXED.ordinal())]
+                        : style;
+                switch (termStyle) {
+                    case WITH_NUMBERS -> {
+                        if (random.nextBoolean()) {
+                            sb.append(1 + random.nextInt(500)).append(' ');
+                        }
+                        sb.append(word(index));
+                    }
+                    case COMPOUNDS -> {
+                        if (random.nextBoolean()) {
+                            sb.append(word(index)).append(word(index + 1));
+                        } else {
+                            sb.append(word(index));
+                        }
+                    }
+                    case REGEX -> {
+                        sb.append(word(index));
+                        if (random.nextBoolean()) {
+                            sb.append(random.nextInt(1000));
+                        }
+                    }
+                    default -> sb.append(word(index));
+                }
+            }
+            queries.add(sb.toString());
+        }
+        return queries;
+    }
+
+    private static int skewed(final Random random, final int size) {
+        final double d = random.nextDouble();
+        return (int) (d * d * d * size);
+    }
+
+    /**
+     * How query terms are generated. {@link #MIXED} chooses one of the other styles per term and must remain the last
+     * constant.
+     */
+    public enum QueryStyle {
+        PLAIN, WITH_NUMBERS, COMPOUNDS, REGEX, MIXED
+    }
+
+}
@@ -0,0 +1,185 @@
+/*
+ * SPDX-License-Identifier: Apache-2.0
+ *
+ * Copyright 2026 Querqy Contributors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package querqy.benchmarks;
+
+import querqy.model.BooleanParent;
+import querqy.model.BoostQuery;
+import querqy.model.Clause;
+import querqy.model.QuerqyQuery;
+import querqy.model.StringRawQuery;
+import querqy.parser.WhiteSpaceQuerqyParser;
+import querqy.rewrite.RewriteChain;
+import querqy.rewrite.RewriterFactory;
+import querqy.rewrite.lookup.preprocessing.LookupPreprocessorType;
+import querqy.rewriter.commonrules.SimpleCommonRulesRewriterFactory;
+import querqy.rewriter.commonrules.WhiteSpaceQuerqyParserFactory;
+import querqy.rewriter.commonrules.model.BoostInstruction.BoostMethod;
+import querqy.rewriter.commonrules.select.ExpressionCriteriaSelectionStrategyFactory;
+import querqy.rewriter.numberunit.NumberUnitQueryCreator;
+import querqy.rewriter.numberunit.NumberUnitRewriterFactory;
+import querqy.rewriter.numberunit.model.PerUnitNumberUnitDefinition;
+import querqy.rewriter.regexreplace.RegexReplaceRewriterFactory;
+import querqy.rewriter.replace.ReplaceRewriterFactory;
+import querqy.rewriter.wordbreak.TsvDfCoocTermCorpus;
+import querqy.rewriter.wordbreak.WordBreakCompoundRewriterFactory;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.StringReader;
+import java.io.UncheckedIOException;
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+/**
+ * The rewriters that can be benchmarked, configured with generated rules from {@link BenchmarkData}.
+ */
+public enum BenchmarkRewriters {
+
+    COMMON_RULES(BenchmarkData.QueryStyle.PLAIN) {
+        @Override
+        List<RewriterFactory> createFactories(final int numRules) throws IOException {
+            return List.of(new SimpleCommonRulesRewriterFactory("common_rules",
+                    new StringReader(BenchmarkData.commonRules(numRules)), false, BoostMethod.ADDITIVE,
+                    new WhiteSpaceQuerqyParserFactory(), Collections.emptyMap(),
+                    new ExpressionCriteriaSelectionStrategyFactory(), false, LookupPreprocessorType.LOWERCASE));
+        }
+    },
+
+    REPLACE(BenchmarkData.QueryStyle.PLAIN) {
+        @Override
+        List<RewriterFactory> createFactories(final int numRules) throws IOException {
+            return List.of(new ReplaceRewriterFactory("replace", reader(BenchmarkData.replaceRules(numRules)), true,
+                    ";", new WhiteSpaceQuerqyParser()));
+        }
+    },
+
+    WORD_BREAK(BenchmarkData.QueryStyle.COMPOUNDS) {
+        @Override
+        List<RewriterFactory> createFactories(final int numRules) throws IOException {
+            final TsvDfCoocTermCorpus corpus = TsvDfCoocTermCorpus.builder()
+                    .reader(new StringReader(BenchmarkData.coocTermCorpus(numRules, 3)))
+                    .hashFunctions(3)
+                    .build();
+            return List.of(new WordBreakCompoundRewriterFactory("word_break", corpus, true, 1, 3,
+                    Collections.singletonList("for"), false, 5, true, Collections.emptyList(), "german", "german",
+                    null, 1f));
+        }
+    },
+
+    NUMBER_UNIT(BenchmarkData.QueryStyle.WITH_NUMBERS) {
+        @Override
+        List<RewriterFactory> createFactories(final int numRules) throws IOException {
+            return List.of(new NumberUnitRewriterFactory("number_unit", BenchmarkData.numberUnitConfig(numRules),
+                    RawRangeQueryCreator::new));
+        }
+    },
+
+    REGEX_REPLACE(BenchmarkData.QueryStyle.REGEX) {
+        @Override
+        List<RewriterFactory> createFactories(final int numRules) throws IOException {
+            return List.of(new RegexReplaceRewriterFactory("regex_replace",
+                    reader(BenchmarkData.regexReplaceRules(numRules)), true));
+        }
+    },
+
+    /**
+     * All of the above in the order in which they are typically configured.
+     */
+    ALL(BenchmarkData.QueryStyle.MIXED) {
+        @Override
+        List<RewriterFactory> createFactories(final int numRules) throws IOException {
+            final List<RewriterFactory> factories = new ArrayList<>();
+            for (final BenchmarkRewriters rewriters : List.of(REPLACE, REGEX_REPLACE, NUMBER_UNIT, WORD_BREAK,
+                    COMMON_RULES)) {
+                factories.addAll(rewriters.createFactories(numRules));
+            }
+            return factories;
+        }
+    };
+
+    private final BenchmarkData.QueryStyle queryStyle;
+
+    BenchmarkRewriters(final BenchmarkData.QueryStyle queryStyle) {
+        this.queryStyle = queryStyle;
+    }
+
+    /**
+     * @param numRules The number of generated rules per rewriter
+     * @return The rewriter factories in the order in which they are applied
+     */
+    abstract List<RewriterFactory> createFactories(int numRules) throws IOException;
+
+    public RewriteChain createRewriteChain(final int numRules) throws IOException {
+        return new RewriteChain(createFactories(numRules));
+    }
+
+    /**
+     * @return The style of the queries that exercise this rewriter
+     */
+    public BenchmarkData.QueryStyle getQueryStyle() {
+        return queryStyle;
+    }
+
+    private static InputStreamReader reader(final String text) {
+        return new InputStreamReader(new ByteArrayInputStream(text.getBytes(UTF_8)), UTF_8);
+    }
+
+    static RewriteChain createRewriteChainUnchecked(final BenchmarkRewriters rewriters, final int numRules) {
+        try {
+            return rewriters.createRewriteChain(numRules);
+        } catch (final IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Creates raw range queries of the form field:value, which is what
+     * {@link BenchmarkSearchEngineRequestAdapter#rawQueryToQuery(querqy.model.RawQuery)} understands.
+     */
+    static class RawRangeQueryCreator extends NumberUnitQueryCreator {
+
+        RawRangeQueryCreator(final int scale) {
+            super(scale);
+        }
+
+        @Override
+        public QuerqyQuery<BooleanParent> createFilterQuery(
+                final BigDecimal value, final List<PerUnitNumberUnitDefinition> perUnitNumberUnitDefinitions) {
+            return rawQuery(value, perUnitNumberUnitDefinitions);
+        }
+
+        @Override
+        public BoostQuery createBoostQuery(
+                final BigDecimal value, final List<PerUnitNumberUnitDefinition> perUnitNumberUnitDefinitions) {
+            return new BoostQuery(rawQuery(value, perUnitNumberUnitDefinitions), 1f);
+        }
+
+        private StringRawQuery rawQuery(final BigDecimal value,
+                                        final List<PerUnitNumberUnitDefinition> perUnitNumberUnitDefinitions) {
+            final PerUnitNumberUnitDefinition definition = perUnitNumberUnitDefinitions.get(0);
+            return new StringRawQuery(null, definition.numberUnitDefinition.fields.get(0).fieldName + ":"
+                    + value.multiply(definition.multiplier).toPlainString(), Clause.Occur.SHOULD, true);
+        }
+    }
+
+}
@@ -0,0 +1,273 @@
+/*
+ * SPDX-License-Identifier: Apache-2.0
+ *
+ * Copyright 2026 Querqy Contributors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package querqy.benchmarks;
+
+import org.apache.lucene.analysis.Analyzer;
+import org.apache.lucene.index.Term;
+import org.apache.lucene.search.BooleanQuery;
+import org.apache.lucene.search.MatchAllDocsQuery;
+import org.apache.lucene.search.Query;
+import org.apache.lucene.search.TermQuery;
+import querqy.lucene.LuceneSearchEngineRequestAdapter;
+import querqy.lucene.QuerySimilarityScoring;
+import querqy.lucene.rewrite.SearchFieldsAndBoosting.FieldBoostModel;
+import querqy.lucene.rewrite.cache.TermQueryCache;
+import querqy.lucene.rewrite.infologging.InfoLoggingContext;
+import querqy.model.QuerqyQuery;
+import querqy.model.RawQuery;
+import querqy.model.StringRawQuery;
+import querqy.parser.QuerqyParser;
+import querqy.rewrite.RewriteChain;
+import querqy.rewrite.RewriteLoggingConfig;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * <p>A {@link LuceneSearchEngineRequestAdapter} for a single benchmark request. It can also be used as a plain
+ * {@link querqy.rewrite.SearchEngineRequestAdapter} when only the rewrite chain is benchmarked.</p>
+ *
+ * <p>Raw queries are expected in the form {@code field:value} and are turned into {@link TermQuery}s.</p>
+ */
+public class BenchmarkSearchEngineRequestAdapter implements LuceneSearchEngineRequestAdapter {
+
+    public static final String FILTER_FIELD = "brand";
+
+    private final RewriteChain rewriteChain;
+    private final String queryString;
+    private final Analyzer queryAnalyzer;
+    private final Map<String, Float> queryFields;
+    private final QuerySimilarityScoring querySimilarityScoring;
+    private final FieldBoostModel fieldBoostModel;
+    private final TermQueryCache termQueryCache;
+    private final Map<String, String> params;
+    private final Map<String, Object> context = new HashMap<>();
+
+    public BenchmarkSearchEngineRequestAdapter(final RewriteChain rewriteChain, final Map<String, String> params) {
+        this(rewriteChain, null, null, Collections.emptyMap(), QuerySimilarityScoring.DFC, FieldBoostModel.FIXED,
+                null, params);
+    }
+
+    public BenchmarkSearchEngineRequestAdapter(final RewriteChain rewriteChain,
+                                               final String queryString,
+                                               final Analyzer queryAnalyzer,
+                                               final Map<String, Float> queryFields,
+                                               final QuerySimilarityScoring querySimilarityScoring,
+                                               final FieldBoostModel fieldBoostModel,
+                                               final TermQueryCache termQueryCache,
+                                               final Map<String, String> params) {
+        this.rewriteChain = rewriteChain;
+        this.queryString = queryString;
+        this.queryAnalyzer = queryAnalyzer;
+        this.queryFields = queryFields;
+        this.querySimilarityScoring = querySimilarityScoring;
+        this.fieldBoostModel = fieldBoostModel;
+        this.termQueryCache = termQueryCache;
+        this.params = params;
+    }
+
+    @Override
+    public RewriteChain getRewriteChain() {
+        return rewriteChain;
+    }
+
+    @Override
+    public Map<String, Object> getContext() {
+        return context;
+    }
+
+    @Override
+    public Optional<String> getRequestParam(final String name) {
+        return Optional.ofNullable(params.get(name));
+    }
+
+    @Override
+    public String[] getRequestParams(final String name) {
+        final String value = params.get(name);
+        return value == null ? new String[0] : new String[] {value};
+    }
+
+    @Override
+    public Optional<Boolean> getBooleanRequestParam(final String name) {
+        return getRequestParam(name).map(Boolean::parseBoolean);
+    }
+
+    @Override
+    public Optional<Integer> getIntegerRequestParam(final String name) {
+        return getRequestParam(name).map(Integer::parseInt);
+    }
+
+    @Override
+    public Optional<Float> getFloatRequestParam(final String name) {
+        return getRequestParam(name).map(Float::parseFloat);
+    }
+
+    @Override
+    public Optional<Double> getDoubleRequestParam(final String name) {
+        return getRequestParam(name).map(Double::parseDouble);
+    }
+
+    @Override
+    public boolean isDebugQuery() {
+        return false;
+    }
+
+    @Override
+    public RewriteLoggingConfig getRewriteLoggingConfig() {
+        return RewriteLoggingConfig.off();
+    }
+
+    @Override
+    public String getQueryString() {
+        return queryString;
+    }
+
+    @Override
+    public boolean isMatchAllQuery(final String queryString) {
+        return "*:*".equals(queryString);
+    }
+
+    @Override
+    public boolean needsScores() {
+        return true;
+    }
+
+    @Override
+    public Analyzer getQueryAnalyzer() {
+        return queryAnalyzer;
+    }
+
+    @Override
+    public Optional<TermQueryCache> getTermQueryCache() {
+        return Optional.ofNullable(termQueryCache);
+    }
+
+    @Override
+    public boolean addQuerqyBoostQueriesToMainQuery() {
+        return true;
+    }
+
+    @Override
+    public Optional<QuerySimilarityScoring> getUserQuerySimilarityScoring() {
+        return Optional.of(querySimilarityScoring);
+    }
+
+    @Override
+    public Optional<QuerySimilarityScoring> getBoostQuerySimilarityScoring() {
+        return Optional.of(querySimilarityScoring);
+    }
+
+    @Override
+    public Map<String, Float> getQueryFieldsAndBoostings() {
+        return queryFields;
+    }
+
+    @Override
+    public Map<String, Float> getGeneratedQueryFieldsAndBoostings() {
+        return Collections.emptyMap();
+    }
+
+    @Override
+    public Optional<QuerqyParser> createQuerqyParser() {
+        return Optional.empty();
+    }
+
+    @Override
+    public boolean useFieldBoostingInQuerqyBoostQueries() {
+        return true;
+    }
+
+    @Override
+    public Optional<Float> getTiebreaker() {
+        return Optional.empty();
+    }
+
+    @Override
+    public Optional<Float> getMultiMatchTiebreaker() {
+        return Optional.empty();
+    }
+
+    @Override
+    public Query applyMinimumShouldMatch(final BooleanQuery query) {
+        return query;
+    }
+
+    @Override
+    public Optional<Float> getUserQueryWeight() {
+        return Optional.empty();
+    }
+
+    @Override
+    public Optional<Float> getGeneratedFieldBoost() {
+        return Optional.empty();
+    }
+
+    @Override
+    public Optional<Float> getPositiveQuerqyBoostWeight() {
+        return Optional.empty();
+    }
+
+    @Override
+    public Optional<Float> getNegativeQuerqyBoostWeight() {
+        return Optional.empty();
+    }
+
+    @Override
+    public List<Query> getAdditiveBoosts(final QuerqyQuery<?> userQuery) {
+        return Collections.emptyList();
+    }
+
+    @Override
+    public List<Query> getMultiplicativeBoosts(final QuerqyQuery<?> userQuery) {
+        return Collections.emptyList();
+    }
+
+    @Override
+    public Optional<Query> parseRankQuery() {
+        return Optional.empty();
+    }
+
+    @Override
+    public Query rawQueryToQuery(final RawQuery rawQuery) throws SyntaxException {
+        if (!(rawQuery instanceof StringRawQuery)) {
+            throw new SyntaxException("Unsupported raw query: " + rawQuery);
+        }
+        final String query = ((StringRawQuery) rawQuery).getQueryString().trim();
+        if ("*:*".equals(query)) {
+            return new MatchAllDocsQuery();
+        }
+        final int pos = query.indexOf(':');
+        if (pos < 1) {
+            throw new SyntaxException("Expected field:value but got " + query);
+        }
+        return new TermQuery(new Term(query.substring(0, pos), query.substring(pos + 1)));
+    }
+
+    @Override
+    public Optional<FieldBoostModel> getFieldBoostModel() {
+        return Optional.ofNullable(fieldBoostModel);
+    }
+
+    @Override
+    public Optional<InfoLoggingContext> getInfoLoggingContext() {
+        return Optional.empty();
+    }
+}
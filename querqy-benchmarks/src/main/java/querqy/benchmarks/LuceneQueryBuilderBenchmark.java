@@ -0,0 +1,151 @@
+/*
+ * SPDX-License-Identifier: Apache-2.0
+ *
+ * Copyright 2026 Querqy Contributors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package querqy.benchmarks;
+
+import org.apache.lucene.analysis.Analyzer;
+import org.apache.lucene.analysis.standard.StandardAnalyzer;
+import org.apache.lucene.search.Query;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import querqy.lucene.QuerySimilarityScoring;
+import querqy.lucene.rewrite.FieldBoostTermQueryBuilder;
+import querqy.lucene.rewrite.LuceneQueryBuilder;
+import querqy.lucene.rewrite.SearchFieldsAndBoosting;
+import querqy.lucene.rewrite.SearchFieldsAndBoosting.FieldBoostModel;
+import querqy.lucene.rewrite.SimilarityTermQueryBuilder;
+import querqy.lucene.rewrite.TermQueryBuilder;
+import querqy.lucene.rewrite.cache.SegmentedLRUTermQueryCache;
+import querqy.lucene.rewrite.cache.TermQueryCache;
+import querqy.model.ExpandedQuery;
+import querqy.model.QuerqyQuery;
+import querqy.parser.WhiteSpaceQuerqyParser;
+import querqy.rewrite.RewriteChain;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * <p>Measures {@link LuceneQueryBuilder#createQuery(QuerqyQuery)} for user queries that were rewritten by common rules
+ * (mostly synonyms), comparing the single-pass mode with the {@link querqy.lucene.rewrite.LuceneQueryFactory} tree.
+ * Rewriting happens in the setup and is not measured.</p>
+ *
+ * <p>Document frequency correction always needs the factory tree, so only the scorings without DFC are
+ * parameters. Run with {@code -prof gc} to compare {@code gc.alloc.rate.norm}.</p>
+ */
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 2, jvmArgsAppend = {"-Xms4g", "-Xmx4g"})
+public class LuceneQueryBuilderBenchmark {
+
+    @State(Scope.Benchmark)
+    public static class QueryState {
+
+        @Param({"10000"})
+        public int numRules;
+
+        @Param({"10"})
+        public int numFields;
+
+        @Param({"SIMILARITY_SCORE_ON", "SIMILARITY_SCORE_OFF"})
+        public QuerySimilarityScoring querySimilarityScoring;
+
+        @Param({"FIXED", "PRMS"})
+        public FieldBoostModel fieldBoostModel;
+
+        /**
+         * The maximum size of a shared {@link SegmentedLRUTermQueryCache} or 0 for no term query cache
+         */
+        @Param({"0", "100000"})
+        public int termQueryCacheSize;
+
+        @Param({"true", "false"})
+        public boolean singlePass;
+
+        QuerqyQuery<?>[] queries;
+        Analyzer analyzer;
+        Map<String, Float> queryFields;
+        TermQueryCache termQueryCache;
+
+        @Setup(Level.Trial)
+        public void setUp() {
+            final RewriteChain rewriteChain = BenchmarkRewriters.createRewriteChainUnchecked(
+                    BenchmarkRewriters.COMMON_RULES, numRules);
+            final List<String> queryLog = BenchmarkData.queries(numRules * 2, 10_000,
+                    BenchmarkRewriters.COMMON_RULES.getQueryStyle());
+            final WhiteSpaceQuerqyParser parser = new WhiteSpaceQuerqyParser();
+            queries = new QuerqyQuery<?>[queryLog.size()];
+            for (int i = 0; i < queries.length; i++) {
+                final ExpandedQuery query = new ExpandedQuery(parser.parse(queryLog.get(i)));
+                queries[i] = rewriteChain.rewrite(query,
+                        new BenchmarkSearchEngineRequestAdapter(rewriteChain, Collections.emptyMap()))
+                        .getExpandedQuery().getUserQuery();
+            }
+
+            analyzer = new StandardAnalyzer();
+            queryFields = new LinkedHashMap<>();
+            for (int i = 0; i < numFields; i++) {
+                queryFields.put("f" + i, 1f + i);
+            }
+            termQueryCache = termQueryCacheSize > 0 ? new SegmentedLRUTermQueryCache(termQueryCacheSize) : null;
+        }
+
+        LuceneQueryBuilder createQueryBuilder() {
+            final TermQueryBuilder termQueryBuilder = querySimilarityScoring == QuerySimilarityScoring.SIMILARITY_SCORE_ON
+                    ? new SimilarityTermQueryBuilder()
+                    : new FieldBoostTermQueryBuilder();
+            final LuceneQueryBuilder builder = new LuceneQueryBuilder(termQueryBuilder, analyzer,
+                    new SearchFieldsAndBoosting(fieldBoostModel, queryFields, queryFields, 0.8f), 0.1f, 1f,
+                    termQueryCache, null);
+            builder.setSinglePassEnabled(singlePass);
+            return builder;
+        }
+    }
+
+    @State(Scope.Thread)
+    public static class QueryCursor {
+
+        int position = 0;
+
+        QuerqyQuery<?> next(final QuerqyQuery<?>[] queries) {
+            final QuerqyQuery<?> query = queries[position];
+            position = (position + 1) % queries.length;
+            return query;
+        }
+    }
+
+    @Benchmark
+    public Query createQuery(final QueryState state, final QueryCursor cursor) {
+        return state.createQueryBuilder().createQuery(cursor.next(state.queries));
+    }
+
+}
@@ -0,0 +1,189 @@
+/*
+ * SPDX-License-Identifier: Apache-2.0
+ *
+ * Copyright 2026 Querqy Contributors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package querqy.benchmarks;
+
+import org.apache.lucene.analysis.Analyzer;
+import org.apache.lucene.analysis.standard.StandardAnalyzer;
+import org.apache.lucene.document.Document;
+import org.apache.lucene.document.Field;
+import org.apache.lucene.document.StringField;
+import org.apache.lucene.document.TextField;
+import org.apache.lucene.index.DirectoryReader;
+import org.apache.lucene.index.IndexWriter;
+import org.apache.lucene.index.IndexWriterConfig;
+import org.apache.lucene.search.IndexSearcher;
+import org.apache.lucene.search.ScoreMode;
+import org.apache.lucene.search.Weight;
+import org.apache.lucene.store.ByteBuffersDirectory;
+import org.apache.lucene.store.Directory;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import querqy.lucene.LuceneQueries;
+import querqy.lucene.LuceneSearchEngineRequestAdapter.SyntaxException;
+import querqy.lucene.QueryParsingController;
+import querqy.lucene.QuerySimilarityScoring;
+import querqy.lucene.rewrite.SearchFieldsAndBoosting.FieldBoostModel;
+import querqy.lucene.rewrite.cache.SegmentedLRUTermQueryCache;
+import querqy.lucene.rewrite.cache.TermQueryCache;
+import querqy.rewrite.RewriteChain;
+
+import java.io.IOException;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * <p>Measures {@link QueryParsingController#process()} - rewriting plus Lucene query construction - against an
+ * in-memory index. {@link #processAndCreateWeight} additionally creates the {@link Weight} of the main query, which
+ * is where document frequency correction and PRMS collect their term statistics.</p>
+ */
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 2, jvmArgsAppend = {"-Xms4g", "-Xmx4g"})
+public class QueryParsingControllerBenchmark {
+
+    @State(Scope.Benchmark)
+    public static class IndexState {
+
+        @Param({"COMMON_RULES", "ALL"})
+        public BenchmarkRewriters rewriters;
+
+        @Param({"10000", "100000"})
+        public int numRules;
+
+        @Param({"5"})
+        public int numFields;
+
+        @Param({"DFC", "SIMILARITY_SCORE_ON"})
+        public QuerySimilarityScoring querySimilarityScoring;
+
+        @Param({"FIXED", "PRMS"})
+        public FieldBoostModel fieldBoostModel;
+
+        @Param({"50000"})
+        public int numDocs;
+
+        /**
+         * The maximum size of a shared {@link SegmentedLRUTermQueryCache} or 0 for no term query cache
+         */
+        @Param({"0", "100000"})
+        public int termQueryCacheSize;
+
+        RewriteChain rewriteChain;
+        String[] queries;
+        Analyzer analyzer;
+        Map<String, Float> queryFields;
+        Directory directory;
+        DirectoryReader reader;
+        IndexSearcher searcher;
+        TermQueryCache termQueryCache;
+
+        @Setup(Level.Trial)
+        public void setUp() throws IOException {
+            rewriteChain = BenchmarkRewriters.createRewriteChainUnchecked(rewriters, numRules);
+            final List<String> queryLog = BenchmarkData.queries(numRules * 2, 10_000, rewriters.getQueryStyle());
+            queries = queryLog.toArray(new String[0]);
+
+            analyzer = new StandardAnalyzer();
+            queryFields = new LinkedHashMap<>();
+            for (int i = 0; i < numFields; i++) {
+                queryFields.put("f" + i, 1f + i);
+            }
+            termQueryCache = termQueryCacheSize > 0 ? new SegmentedLRUTermQueryCache(termQueryCacheSize) : null;
+
+            directory = new ByteBuffersDirectory();
+            final Random random = new Random(BenchmarkData.SEED);
+            try (final IndexWriter writer = new IndexWriter(directory, new IndexWriterConfig(analyzer))) {
+                final StringBuilder sb = new StringBuilder();
+                for (int d = 0; d < numDocs; d++) {
+                    final Document doc = new Document();
+                    for (int f = 0; f < numFields; f++) {
+                        sb.setLength(0);
+                        final int numTerms = 1 + random.nextInt(8);
+                        for (int t = 0; t < numTerms; t++) {
+                            sb.append(BenchmarkData.word(random.nextInt(numRules * 3))).append(' ');
+                        }
+                        doc.add(new TextField("f" + f, sb.toString(), Field.Store.NO));
+                    }
+                    doc.add(new StringField(BenchmarkSearchEngineRequestAdapter.FILTER_FIELD,
+                            BenchmarkData.word(random.nextInt(100)), Field.Store.NO));
+                    writer.addDocument(doc);
+                    if (d % 5000 == 4999) {
+                        // leave a realistic number of segments
+                        writer.flush();
+                    }
+                }
+            }
+            reader = DirectoryReader.open(directory);
+            searcher = new IndexSearcher(reader);
+        }
+
+        @TearDown(Level.Trial)
+        public void tearDown() throws IOException {
+            reader.close();
+            directory.close();
+        }
+
+        BenchmarkSearchEngineRequestAdapter createRequestAdapter(final String queryString) {
+            return new BenchmarkSearchEngineRequestAdapter(rewriteChain, queryString, analyzer, queryFields,
+                    querySimilarityScoring, fieldBoostModel, termQueryCache, Collections.emptyMap());
+        }
+    }
+
+    @State(Scope.Thread)
+    public static class QueryCursor {
+
+        int position = 0;
+
+        String next(final String[] queries) {
+            final String query = queries[position];
+            position = (position + 1) % queries.length;
+            return query;
+        }
+    }
+
+    @Benchmark
+    public LuceneQueries process(final IndexState state, final QueryCursor cursor) throws SyntaxException {
+        return new QueryParsingController(state.createRequestAdapter(cursor.next(state.queries))).process();
+    }
+
+    @Benchmark
+    public Weight processAndCreateWeight(final IndexState state, final QueryCursor cursor)
+            throws SyntaxException, IOException {
+        final LuceneQueries queries = new QueryParsingController(
+                state.createRequestAdapter(cursor.next(state.queries))).process();
+        return state.searcher.createWeight(state.searcher.rewrite(queries.mainQuery), ScoreMode.COMPLETE, 1f);
+    }
+
+}
@@ -0,0 +1,104 @@
+/*
+ * SPDX-License-Identifier: Apache-2.0
+ *
+ * Copyright 2026 Querqy Contributors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package querqy.benchmarks;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import querqy.model.ExpandedQuery;
+import querqy.parser.WhiteSpaceQuerqyParser;
+import querqy.rewrite.RewriteChain;
+import querqy.rewrite.RewriteChainOutput;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * <p>Measures {@link RewriteChain#rewrite(ExpandedQuery, querqy.rewrite.SearchEngineRequestAdapter)} per rewriter
+ * and for a chain of all rewriters.</p>
+ *
+ * <p>Each invocation parses the next query from a generated query log and rewrites it. {@link #parseOnly} measures
+ * the parsing part alone so that it can be subtracted. Run with {@code -prof gc} to get
+ * {@code gc.alloc.rate.norm}.</p>
+ */
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 2, jvmArgsAppend = {"-Xms4g", "-Xmx4g"})
+public class RewriteChainBenchmark {
+
+    @State(Scope.Benchmark)
+    public static class ChainState {
+
+        @Param({"COMMON_RULES", "REPLACE", "WORD_BREAK", "NUMBER_UNIT", "REGEX_REPLACE", "ALL"})
+        public BenchmarkRewriters rewriters;
+
+        @Param({"10000", "100000", "1000000"})
+        public int numRules;
+
+        @Param({"10000"})
+        public int numQueries;
+
+        RewriteChain rewriteChain;
+        String[] queries;
+
+        @Setup(Level.Trial)
+        public void setUp() {
+            rewriteChain = BenchmarkRewriters.createRewriteChainUnchecked(rewriters, numRules);
+            final List<String> queryLog = BenchmarkData.queries(numRules * 2, numQueries, rewriters.getQueryStyle());
+            queries = queryLog.toArray(new String[0]);
+        }
+    }
+
+    @State(Scope.Thread)
+    public static class QueryCursor {
+
+        final WhiteSpaceQuerqyParser parser = new WhiteSpaceQuerqyParser();
+        int position = 0;
+
+        String next(final String[] queries) {
+            final String query = queries[position];
+            position = (position + 1) % queries.length;
+            return query;
+        }
+    }
+
+    @Benchmark
+    public RewriteChainOutput rewrite(final ChainState chain, final QueryCursor cursor) {
+        final ExpandedQuery query = new ExpandedQuery(cursor.parser.parse(cursor.next(chain.queries)));
+        return chain.rewriteChain.rewrite(query,
+                new BenchmarkSearchEngineRequestAdapter(chain.rewriteChain, Collections.emptyMap()));
+    }
+
+    @Benchmark
+    public ExpandedQuery parseOnly(final ChainState chain, final QueryCursor cursor) {
+        return new ExpandedQuery(cursor.parser.parse(cursor.next(chain.queries)));
+    }
+
+}
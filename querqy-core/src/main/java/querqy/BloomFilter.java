@@ -17,6 +17,7 @@
  */
 package querqy;
 
+import java.nio.LongBuffer;
 import java.nio.charset.StandardCharsets;
 import java.util.Arrays;
 
@@ -32,6 +33,8 @@ public final class BloomFilter {
     private static final long MURMUR_C1 = 0x87c37b91114253d5L;
     private static final long MURMUR_C2 = 0x4cf5ad432745937fL;
 
+    private static final ThreadLocal<Murmur3Hasher> HASHERS = ThreadLocal.withInitial(Murmur3Hasher::new);
+
     private final int bits;
     private final int hashFunctions;
     private final long[] words;
@@ -74,9 +77,29 @@ public final class BloomFilter {
     }
 
     public boolean contains(final CharSequence term) {
-        final byte[] bytes = term.toString().getBytes(StandardCharsets.UTF_8);
-        final long[] h = murmur3_128(bytes, 0, bytes.length);
-        final long h1 = h[0], h2 = h[1];
+        final Murmur3Hasher hasher = HASHERS.get();
+        hasher.hash(term);
+        return containsHash(hasher.h1, hasher.h2);
+    }
+
+    /**
+     * Checks a batch of terms against this filter, reusing the same hash state for all of them.
+     *
+     * @param terms the terms to look up
+     * @return {@code true} iff every term is (probably) contained
+     */
+    public boolean containsAll(final Iterable<? extends CharSequence> terms) {
+        final Murmur3Hasher hasher = HASHERS.get();
+        for (final CharSequence term : terms) {
+            hasher.hash(term);
+            if (!containsHash(hasher.h1, hasher.h2)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private boolean containsHash(final long h1, final long h2) {
         for (int i = 0; i < hashFunctions; i++) {
             final int pos = (int) ((h1 + (long) i * h2) & (bits - 1));
             if ((words[pos >>> 6] & (1L << (pos & 63))) == 0) {
@@ -86,6 +109,37 @@ public final class BloomFilter {
         return true;
     }
 
+    /**
+     * Checks whether a term is contained in a bloom filter whose words are kept in a buffer, for example in a
+     * memory-mapped file, without copying the words onto the heap.
+     *
+     * @param words         buffer that holds the words of the filter
+     * @param offset        index of the first word of the filter in {@code words}
+     * @param bits          number of bits of the filter
+     * @param hashFunctions number of hash functions used when the filter was built
+     * @param term          the term to look up
+     */
+    public static boolean contains(final LongBuffer words, final int offset, final int bits, final int hashFunctions,
+                                   final CharSequence term) {
+        final Murmur3Hasher hasher = HASHERS.get();
+        hasher.hash(term);
+        final long h1 = hasher.h1, h2 = hasher.h2;
+        for (int i = 0; i < hashFunctions; i++) {
+            final int pos = (int) ((h1 + (long) i * h2) & (bits - 1));
+            if ((words.get(offset + (pos >>> 6)) & (1L << (pos & 63))) == 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * @return a copy of the 64-bit words of this filter
+     */
+    public long[] toWords() {
+        return words.clone();
+    }
+
     public void saturate() {
         Arrays.fill(words, -1L);
     }
@@ -121,7 +175,7 @@ public final class BloomFilter {
     // https://github.com/aappleby/smhasher
     // -------------------------------------------------------------------------
 
-    private static long[] murmur3_128(final byte[] data, final int offset, final int len) {
+    static long[] murmur3_128(final byte[] data, final int offset, final int len) {
         long h1 = 0L, h2 = 0L;
 
         final int nblocks = len >>> 4;
@@ -166,6 +220,92 @@ public final class BloomFilter {
         return new long[]{h1, h2};
     }
 
+    /**
+     * Computes the same hash as {@link #murmur3_128(byte[], int, int)} over the UTF-8 encoding of a CharSequence,
+     * but encodes the chars on the fly instead of materialising a byte array. The result is kept in {@link #h1} and
+     * {@link #h2}, so that a (thread-local) instance can be reused without allocating.
+     *
+     * <p>Unpaired surrogates are encoded as '?', like {@link String#getBytes(java.nio.charset.Charset)} does.</p>
+     */
+    static final class Murmur3Hasher {
+
+        long h1;
+        long h2;
+
+        // the current, incomplete 16-byte block, little-endian
+        private long k1;
+        private long k2;
+        private int len;
+
+        void hash(final CharSequence term) {
+            h1 = 0L;
+            h2 = 0L;
+            k1 = 0L;
+            k2 = 0L;
+            len = 0;
+
+            final int length = term.length();
+            for (int i = 0; i < length; i++) {
+                final char c = term.charAt(i);
+                if (c < 0x80) {
+                    update(c);
+                } else if (c < 0x800) {
+                    update(0xc0 | (c >>> 6));
+                    update(0x80 | (c & 0x3f));
+                } else if (Character.isSurrogate(c)) {
+                    final char low;
+                    if (Character.isHighSurrogate(c) && i + 1 < length
+                            && Character.isLowSurrogate(low = term.charAt(i + 1))) {
+                        final int cp = Character.toCodePoint(c, low);
+                        update(0xf0 | (cp >>> 18));
+                        update(0x80 | ((cp >>> 12) & 0x3f));
+                        update(0x80 | ((cp >>> 6) & 0x3f));
+                        update(0x80 | (cp & 0x3f));
+                        i++;
+                    } else {
+                        update('?');
+                    }
+                } else {
+                    update(0xe0 | (c >>> 12));
+                    update(0x80 | ((c >>> 6) & 0x3f));
+                    update(0x80 | (c & 0x3f));
+                }
+            }
+
+            switch (len & 15) {
+                case 15: case 14: case 13: case 12: case 11: case 10: case 9:
+                    k2 *= MURMUR_C2; k2 = Long.rotateLeft(k2, 33); k2 *= MURMUR_C1; h2 ^= k2;
+                case 8: case 7: case 6: case 5: case 4: case 3: case 2: case 1:
+                    k1 *= MURMUR_C1; k1 = Long.rotateLeft(k1, 31); k1 *= MURMUR_C2; h1 ^= k1;
+                default: break;
+            }
+
+            h1 ^= len; h2 ^= len;
+            h1 += h2;  h2 += h1;
+            h1 = fmix64(h1); h2 = fmix64(h2);
+            h1 += h2;  h2 += h1;
+        }
+
+        private void update(final int b) {
+            final int blockPos = len & 15;
+            if (blockPos < 8) {
+                k1 |= ((long) (b & 0xff)) << (blockPos << 3);
+            } else {
+                k2 |= ((long) (b & 0xff)) << ((blockPos - 8) << 3);
+            }
+            len++;
+            if (blockPos == 15) {
+                k1 *= MURMUR_C1; k1 = Long.rotateLeft(k1, 31); k1 *= MURMUR_C2; h1 ^= k1;
+                h1 = Long.rotateLeft(h1, 27); h1 += h2; h1 = h1 * 5 + 0x52dce729L;
+
+                k2 *= MURMUR_C2; k2 = Long.rotateLeft(k2, 33); k2 *= MURMUR_C1; h2 ^= k2;
+                h2 = Long.rotateLeft(h2, 31); h2 += h1; h2 = h2 * 5 + 0x38495ab5L;
+                k1 = 0L;
+                k2 = 0L;
+            }
+        }
+    }
+
     private static long fmix64(long k) {
         k ^= k >>> 33;
         k *= 0xff51afd7ed558ccdL;
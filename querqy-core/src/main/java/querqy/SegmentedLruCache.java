@@ -0,0 +1,170 @@
+/*
+ * SPDX-License-Identifier: Apache-2.0
+ *
+ * Copyright 2026 Querqy Contributors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package querqy;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.BiConsumer;
+
+/**
+ * <p>A size-bounded map that can be shared by threads. It is split into segments that are locked independently.
+ * Each segment evicts its least recently used entries.</p>
+ *
+ * <p>The maximum size is split evenly between the segments, so that an entry can be evicted before the cache as a
+ * whole has reached its maximum size.</p>
+ *
+ * @param <K> The key type
+ * @param <V> The value type
+ */
+public class SegmentedLruCache<K, V> {
+
+    static final int NUM_SEGMENTS = 16;
+
+    private final Segment<K, V>[] segments;
+    private final LongAdder evictionCount = new LongAdder();
+
+    /**
+     * @param maxSize The maximum number of entries
+     */
+    public SegmentedLruCache(final int maxSize) {
+        this(maxSize, Math.min(NUM_SEGMENTS, maxSize));
+    }
+
+    @SuppressWarnings("unchecked")
+    SegmentedLruCache(final int maxSize, final int numSegments) {
+        if (maxSize < 1) {
+            throw new IllegalArgumentException("maxSize must be >= 1");
+        }
+        if (numSegments < 1 || numSegments > maxSize) {
+            throw new IllegalArgumentException("numSegments must be between 1 and maxSize");
+        }
+        segments = new Segment[numSegments];
+        for (int i = 0; i < numSegments; i++) {
+            segments[i] = new Segment<>(maxSize / numSegments + (i < maxSize % numSegments ? 1 : 0), evictionCount);
+        }
+    }
+
+    /**
+     * @param key The key
+     * @return The value or null if there is no entry for the key
+     */
+    public V get(final K key) {
+        return segmentFor(key).get(key);
+    }
+
+    /**
+     * Adds an entry. This might evict the least recently used entry of the segment.
+     *
+     * @param key The key
+     * @param value The value, must not be null
+     */
+    public void put(final K key, final V value) {
+        if (value == null) {
+            throw new IllegalArgumentException("value must not be null");
+        }
+        segmentFor(key).put(key, value);
+    }
+
+    /**
+     * Calls the action for all entries. Only one segment is locked at a time, so that this is not a snapshot of the
+     * whole cache.
+     *
+     * @param action The action
+     */
+    public void forEach(final BiConsumer<? super K, ? super V> action) {
+        for (final Segment<K, V> segment : segments) {
+            segment.forEach(action);
+        }
+    }
+
+    /**
+     * Removes all entries. The eviction count is not reset.
+     */
+    public void clear() {
+        for (final Segment<K, V> segment : segments) {
+            segment.clear();
+        }
+    }
+
+    /**
+     * @return The current number of entries
+     */
+    public int size() {
+        int size = 0;
+        for (final Segment<K, V> segment : segments) {
+            size += segment.size();
+        }
+        return size;
+    }
+
+    /**
+     * @return The number of entries that were evicted to keep the size limit
+     */
+    public long getEvictionCount() {
+        return evictionCount.sum();
+    }
+
+    int getNumSegments() {
+        return segments.length;
+    }
+
+    private Segment<K, V> segmentFor(final K key) {
+        final int h = key.hashCode();
+        return segments[((h ^ (h >>> 16)) & 0x7fffffff) % segments.length];
+    }
+
+    private static class Segment<K, V> {
+
+        private final LinkedHashMap<K, V> entries;
+
+        Segment(final int maxSize, final LongAdder evictionCount) {
+            entries = new LinkedHashMap<K, V>(16, 0.75f, true) {
+                @Override
+                protected boolean removeEldestEntry(final Map.Entry<K, V> eldest) {
+                    if (size() > maxSize) {
+                        evictionCount.increment();
+                        return true;
+                    }
+                    return false;
+                }
+            };
+        }
+
+        synchronized V get(final K key) {
+            return entries.get(key);
+        }
+
+        synchronized void put(final K key, final V value) {
+            entries.put(key, value);
+        }
+
+        synchronized void forEach(final BiConsumer<? super K, ? super V> action) {
+            entries.forEach(action);
+        }
+
+        synchronized void clear() {
+            entries.clear();
+        }
+
+        synchronized int size() {
+            return entries.size();
+        }
+    }
+
+}
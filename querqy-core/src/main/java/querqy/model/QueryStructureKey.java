@@ -0,0 +1,166 @@
+/*
+ * SPDX-License-Identifier: Apache-2.0
+ *
+ * Copyright 2026 Querqy Contributors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package querqy.model;
+
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * <p>Creates a string that identifies the structure of a {@link QuerqyQuery}, including terms, fields, boosts, occur
+ * values and whether nodes were generated. Two queries that only differ by their parents or by object identity -
+ * for example a query and its clone - get the same key.</p>
+ *
+ * <p>Keys can be used to cache values that are derived from a query.</p>
+ */
+public final class QueryStructureKey {
+
+    private QueryStructureKey() {
+    }
+
+    /**
+     * @param query The query
+     * @param includeRawQueries Iff true, raw queries are written to the key by their query string. Otherwise, no key
+     *                          is created for queries that contain a raw query.
+     * @return The key or null if the query contains a {@link RawQuery} and includeRawQueries is false, or if it
+     * contains a raw query that has parameters
+     */
+    public static String create(final QuerqyQuery<?> query, final boolean includeRawQueries) {
+        final KeyWriter keyWriter = new KeyWriter(includeRawQueries);
+        query.accept(keyWriter);
+        return keyWriter.isComplete ? keyWriter.key.toString() : null;
+    }
+
+    /**
+     * Appends a string to a key, prefixed with its length so that no separator needs to be escaped.
+     *
+     * @param key The key
+     * @param s The string to append
+     */
+    public static void appendString(final StringBuilder key, final CharSequence s) {
+        key.append(s.length()).append(':').append(s);
+    }
+
+    private static class KeyWriter implements NodeVisitor<Void> {
+
+        final StringBuilder key = new StringBuilder();
+        final boolean includeRawQueries;
+        boolean isComplete = true;
+
+        KeyWriter(final boolean includeRawQueries) {
+            this.includeRawQueries = includeRawQueries;
+        }
+
+        @Override
+        public Void visit(final MatchAllQuery query) {
+            key.append('A').append(flag(query.isGenerated()));
+            return null;
+        }
+
+        @Override
+        public Void visit(final Query query) {
+            key.append('Q').append(flag(query.isGenerated()));
+            visitClauses(query.getClauses());
+            return null;
+        }
+
+        @Override
+        public Void visit(final DisjunctionMaxQuery disjunctionMaxQuery) {
+            appendClause('D', disjunctionMaxQuery);
+            disjunctionMaxQuery.getTieBreaker().ifPresent(tieBreaker -> key.append('t').append(tieBreaker));
+            key.append('(');
+            for (final DisjunctionMaxClause clause : disjunctionMaxQuery.getClauses()) {
+                clause.accept(this);
+            }
+            key.append(')');
+            return null;
+        }
+
+        @Override
+        public Void visit(final BooleanQuery booleanQuery) {
+            appendClause('B', booleanQuery);
+            visitClauses(booleanQuery.getClauses());
+            return null;
+        }
+
+        @Override
+        public Void visit(final Term term) {
+            key.append('T').append(flag(term.isGenerated()));
+            if (term.getField() != null) {
+                appendString(key.append('f'), term.getField());
+            }
+            appendString(key, term.getValue());
+            if (term instanceof BoostedTerm) {
+                key.append('^').append(((BoostedTerm) term).getBoost());
+            }
+            return null;
+        }
+
+        @Override
+        public Void visit(final RawQuery rawQuery) {
+            if (!includeRawQueries) {
+                isComplete = false;
+                return null;
+            }
+            appendClause('R', rawQuery);
+            if (rawQuery instanceof StringRawQuery) {
+                appendString(key, ((StringRawQuery) rawQuery).getQueryString());
+            } else if (rawQuery instanceof ParametrizedRawQuery
+                    && ((ParametrizedRawQuery) rawQuery).getParts().stream()
+                    .noneMatch(part -> part.type == ParametrizedRawQuery.Part.Type.PARAMETER)) {
+                appendString(key, ((ParametrizedRawQuery) rawQuery).buildQueryString(Function.identity()));
+            } else {
+                // parameter values are only known per request, and we can't tell what other implementations contain
+                isComplete = false;
+            }
+            return null;
+        }
+
+        @Override
+        public Void visit(final PhraseQuery phraseQuery) {
+            appendClause('P', phraseQuery);
+            if (phraseQuery.getField() != null) {
+                appendString(key.append('f'), phraseQuery.getField());
+            }
+            key.append('~').append(phraseQuery.getSlop());
+            if (phraseQuery instanceof BoostedPhraseQuery) {
+                key.append('^').append(((BoostedPhraseQuery) phraseQuery).getBoost());
+            }
+            key.append('(');
+            phraseQuery.getTerms().forEach(term -> appendString(key, term));
+            key.append(')');
+            return null;
+        }
+
+        private void visitClauses(final List<BooleanClause> clauses) {
+            key.append('(');
+            for (final BooleanClause clause : clauses) {
+                clause.accept(this);
+            }
+            key.append(')');
+        }
+
+        private void appendClause(final char type, final Clause<?> clause) {
+            key.append(type).append(flag(clause.isGenerated())).append(clause.getOccur().ordinal());
+        }
+
+        private static char flag(final boolean generated) {
+            return generated ? 'g' : 'u';
+        }
+    }
+
+}
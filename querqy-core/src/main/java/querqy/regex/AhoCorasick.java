@@ -0,0 +1,146 @@
+/*
+ * SPDX-License-Identifier: Apache-2.0
+ *
+ * Copyright 2026 Querqy Contributors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package querqy.regex;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.Queue;
+import java.util.TreeMap;
+
+/**
+ * <p>An Aho–Corasick automaton that finds out whether any of a set of literals occurs in an input in a single pass
+ * over the input.</p>
+ *
+ * <p>The goto function of each node is kept in a sorted char array with parallel targets. Failure links are
+ * resolved at build time so that the scan only follows array lookups. Instances are immutable.</p>
+ */
+final class AhoCorasick {
+
+    private static final char[] NO_CHARS = new char[0];
+    private static final int[] NO_TARGETS = new int[0];
+
+    private final char[][] chars;
+    private final int[][] targets;
+    private final int[] fail;
+    private final boolean[] output;
+
+    AhoCorasick(final Collection<String> literals) {
+
+        final List<TreeMap<Character, Integer>> trie = new ArrayList<>();
+        trie.add(new TreeMap<>());
+        final List<Boolean> terminal = new ArrayList<>();
+        terminal.add(false);
+
+        for (final String literal : literals) {
+            if (literal.isEmpty()) {
+                throw new IllegalArgumentException("Literal must not be empty");
+            }
+            int node = 0;
+            for (int i = 0, len = literal.length(); i < len; i++) {
+                final Integer next = trie.get(node).get(literal.charAt(i));
+                if (next == null) {
+                    trie.add(new TreeMap<>());
+                    terminal.add(false);
+                    final int created = trie.size() - 1;
+                    trie.get(node).put(literal.charAt(i), created);
+                    node = created;
+                } else {
+                    node = next;
+                }
+            }
+            terminal.set(node, true);
+        }
+
+        final int size = trie.size();
+        chars = new char[size][];
+        targets = new int[size][];
+        fail = new int[size];
+        output = new boolean[size];
+
+        for (int node = 0; node < size; node++) {
+            final TreeMap<Character, Integer> children = trie.get(node);
+            if (children.isEmpty()) {
+                chars[node] = NO_CHARS;
+                targets[node] = NO_TARGETS;
+            } else {
+                chars[node] = new char[children.size()];
+                targets[node] = new int[children.size()];
+                int i = 0;
+                for (final var entry : children.entrySet()) {
+                    chars[node][i] = entry.getKey();
+                    targets[node][i] = entry.getValue();
+                    i++;
+                }
+            }
+            output[node] = terminal.get(node);
+        }
+
+        // breadth-first, so that the failure link of a node's parent is known when we get to the node
+        final Queue<Integer> queue = new ArrayDeque<>();
+        for (final int child : targets[0]) {
+            fail[child] = 0;
+            queue.add(child);
+        }
+        while (!queue.isEmpty()) {
+            final int node = queue.poll();
+            for (int i = 0; i < chars[node].length; i++) {
+                final char c = chars[node][i];
+                final int child = targets[node][i];
+                int f = fail[node];
+                int next = transition(f, c);
+                while (next < 0 && f != 0) {
+                    f = fail[f];
+                    next = transition(f, c);
+                }
+                fail[child] = next < 0 ? 0 : next;
+                output[child] |= output[fail[child]];
+                queue.add(child);
+            }
+        }
+    }
+
+    /**
+     * @param input The input
+     * @return true iff at least one of the literals occurs in the input
+     */
+    boolean containsAny(final CharSequence input) {
+        int node = 0;
+        for (int pos = 0, len = input.length(); pos < len; pos++) {
+            final char c = input.charAt(pos);
+            int next = transition(node, c);
+            while (next < 0 && node != 0) {
+                node = fail[node];
+                next = transition(node, c);
+            }
+            node = next < 0 ? 0 : next;
+            if (output[node]) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private int transition(final int node, final char c) {
+        final int idx = Arrays.binarySearch(chars[node], c);
+        return idx < 0 ? -1 : targets[node][idx];
+    }
+
+}
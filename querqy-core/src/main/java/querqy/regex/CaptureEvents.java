@@ -17,32 +17,104 @@
  */
 package querqy.regex;
 
-import java.util.HashMap;
-import java.util.Map;
-import java.util.Objects;
+import querqy.regex.NFAState.GroupEnd;
+import querqy.regex.NFAState.GroupStart;
 
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * <p>The positions at which capture groups started and ended in a thread of the {@link NFAMatcher}.</p>
+ *
+ * <p>Positions are kept in an int array with two slots per group (start, end), where {@link #UNSET} marks a position
+ * that has not been seen yet. Instances are immutable so that threads can share their slots. Setting a position
+ * creates a copy only if it changes a slot (copy-on-write).</p>
+ */
 final class CaptureEvents {
 
-    final Map<Integer, Integer> start = new HashMap<>();
-    final Map<Integer, Integer> end   = new HashMap<>();
+    static final int UNSET = -1;
+
+    static final CaptureEvents EMPTY = new CaptureEvents(new int[0]);
+
+    private final int[] slots;
+    private int hash = 0;
+
+    private CaptureEvents(final int[] slots) {
+        this.slots = slots;
+    }
+
+    int getStart(final int group) {
+        final int idx = 2 * group;
+        return idx < slots.length ? slots[idx] : UNSET;
+    }
 
-    CaptureEvents copy() {
-        final CaptureEvents c = new CaptureEvents();
-        c.start.putAll(this.start);
-        c.end.putAll(this.end);
-        return c;
+    int getEnd(final int group) {
+        final int idx = 2 * group + 1;
+        return idx < slots.length ? slots[idx] : UNSET;
+    }
+
+    /**
+     * Sets the group starts and ends to a position.
+     *
+     * @return this object if no slot changed, a copy with the changed slots otherwise
+     */
+    CaptureEvents withGroupMarkers(final List<GroupStart> groupStarts, final List<GroupEnd> groupEnds,
+                                   final int groupDelta, final int startPosition, final int endPosition) {
+        int[] copy = null;
+        for (final GroupStart gs : groupStarts) {
+            copy = set(copy, 2 * (gs.group() + groupDelta), startPosition);
+        }
+        for (final GroupEnd ge : groupEnds) {
+            copy = set(copy, 2 * (ge.group() + groupDelta) + 1, endPosition);
+        }
+        return copy == null ? this : new CaptureEvents(copy);
+    }
+
+    private int[] set(final int[] copy, final int idx, final int position) {
+        final int[] current = copy == null ? slots : copy;
+        if (idx < current.length && current[idx] == position) {
+            return copy;
+        }
+        final int[] target;
+        if (idx >= current.length) {
+            target = Arrays.copyOf(current, Math.max((idx | 1) + 1, current.length + 4));
+            Arrays.fill(target, current.length, target.length, UNSET);
+        } else {
+            target = copy == null ? slots.clone() : copy;
+        }
+        target[idx] = position;
+        return target;
+    }
+
+    /**
+     * @return The length of the slots without trailing unset slots
+     */
+    private int usedLength() {
+        int len = slots.length;
+        while (len > 0 && slots[len - 1] == UNSET) {
+            len--;
+        }
+        return len;
     }
 
     @Override
     public boolean equals(final Object o) {
+        if (this == o) return true;
         if (!(o instanceof CaptureEvents other)) return false;
-        return this.start.equals(other.start) && this.end.equals(other.end);
-
+        final int len = usedLength();
+        return len == other.usedLength() && Arrays.equals(slots, 0, len, other.slots, 0, len);
     }
 
     @Override
     public int hashCode() {
-        return Objects.hash(start, end);
+        int h = hash;
+        if (h == 0) {
+            h = 1;
+            for (int i = 0, len = usedLength(); i < len; i++) {
+                h = 31 * h + slots[i];
+            }
+            hash = h;
+        }
+        return h;
     }
 }
-
@@ -0,0 +1,182 @@
+/*
+ * SPDX-License-Identifier: Apache-2.0
+ *
+ * Copyright 2026 Querqy Contributors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package querqy.regex;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * <p>A set of chars, represented as sorted, disjoint and non-adjacent inclusive ranges. This is the predicate of all
+ * character classes that are created by the {@link RegexParser}. Unlike a lambda, it can be compared, combined and
+ * written to a {@link RegexMapSnapshot}.</p>
+ */
+public final class CharRanges implements CharPredicate {
+
+    public static final CharRanges ALL = new CharRanges(new char[] {Character.MIN_VALUE, Character.MAX_VALUE});
+
+    public static final CharRanges NONE = new CharRanges(new char[0]);
+
+    public static final CharRanges DIGITS = fromPredicate(Character::isDigit);
+
+    // from0, to0, from1, to1, ...
+    private final char[] bounds;
+
+    private CharRanges(final char[] bounds) {
+        this.bounds = bounds;
+    }
+
+    /**
+     * @param bounds The bounds of the ranges: from0, to0, from1, to1, ... The ranges must be sorted, disjoint and
+     *               non-adjacent.
+     * @return The char ranges
+     */
+    static CharRanges ofBounds(final char[] bounds) {
+        if (bounds.length % 2 != 0) {
+            throw new IllegalArgumentException("Expected an even number of bounds");
+        }
+        for (int i = 0; i < bounds.length; i += 2) {
+            if (bounds[i] > bounds[i + 1] || (i > 0 && bounds[i] <= bounds[i - 1] + 1)) {
+                throw new IllegalArgumentException("Ranges must be sorted, disjoint and non-adjacent");
+            }
+        }
+        return new CharRanges(bounds.clone());
+    }
+
+    static CharRanges fromPredicate(final CharPredicate predicate) {
+        final List<char[]> ranges = new ArrayList<>();
+        int from = -1;
+        for (int c = Character.MIN_VALUE; c <= Character.MAX_VALUE; c++) {
+            final boolean matches = predicate.matches((char) c);
+            if (matches && from < 0) {
+                from = c;
+            } else if (!matches && from >= 0) {
+                ranges.add(new char[] {(char) from, (char) (c - 1)});
+                from = -1;
+            }
+        }
+        if (from >= 0) {
+            ranges.add(new char[] {(char) from, Character.MAX_VALUE});
+        }
+        return fromSortedDisjoint(ranges);
+    }
+
+    /**
+     * @param ranges Inclusive ranges [from, to] in any order, which may overlap
+     * @return The union of the ranges
+     */
+    static CharRanges union(final Collection<char[]> ranges) {
+        final List<char[]> sorted = new ArrayList<>(ranges);
+        sorted.sort((r1, r2) -> Character.compare(r1[0], r2[0]));
+        final List<char[]> merged = new ArrayList<>();
+        for (final char[] range : sorted) {
+            if (range[0] > range[1]) {
+                throw new IllegalArgumentException("Invalid range: " + range[0] + "-" + range[1]);
+            }
+            if (!merged.isEmpty() && range[0] <= merged.getLast()[1] + 1) {
+                final char[] last = merged.getLast();
+                last[1] = (char) Math.max(last[1], range[1]);
+            } else {
+                merged.add(new char[] {range[0], range[1]});
+            }
+        }
+        return fromSortedDisjoint(merged);
+    }
+
+    private static CharRanges fromSortedDisjoint(final List<char[]> ranges) {
+        final char[] bounds = new char[ranges.size() * 2];
+        for (int i = 0; i < ranges.size(); i++) {
+            bounds[2 * i] = ranges.get(i)[0];
+            bounds[2 * i + 1] = ranges.get(i)[1];
+        }
+        return new CharRanges(bounds);
+    }
+
+    public CharRanges intersect(final CharRanges other) {
+        final List<char[]> result = new ArrayList<>();
+        int i = 0;
+        int j = 0;
+        while (i < bounds.length && j < other.bounds.length) {
+            final char from = (char) Math.max(bounds[i], other.bounds[j]);
+            final char to = (char) Math.min(bounds[i + 1], other.bounds[j + 1]);
+            if (from <= to) {
+                result.add(new char[] {from, to});
+            }
+            if (bounds[i + 1] < other.bounds[j + 1]) {
+                i += 2;
+            } else {
+                j += 2;
+            }
+        }
+        return fromSortedDisjoint(result);
+    }
+
+    public CharRanges negate() {
+        final List<char[]> result = new ArrayList<>();
+        int next = Character.MIN_VALUE;
+        for (int i = 0; i < bounds.length; i += 2) {
+            if (bounds[i] > next) {
+                result.add(new char[] {(char) next, (char) (bounds[i] - 1)});
+            }
+            next = bounds[i + 1] + 1;
+        }
+        if (next <= Character.MAX_VALUE) {
+            result.add(new char[] {(char) next, Character.MAX_VALUE});
+        }
+        return fromSortedDisjoint(result);
+    }
+
+    @Override
+    public boolean matches(final char c) {
+        // find the last range that starts at or before c
+        int lo = 0;
+        int hi = bounds.length / 2 - 1;
+        while (lo <= hi) {
+            final int mid = (lo + hi) >>> 1;
+            if (bounds[2 * mid] <= c) {
+                if (c <= bounds[2 * mid + 1]) {
+                    return true;
+                }
+                lo = mid + 1;
+            } else {
+                hi = mid - 1;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * @return A copy of the bounds: from0, to0, from1, to1, ...
+     */
+    char[] getBounds() {
+        return bounds.clone();
+    }
+
+    @Override
+    public boolean equals(final Object o) {
+        if (this == o) return true;
+        if (!(o instanceof CharRanges other)) return false;
+        return Arrays.equals(bounds, other.bounds);
+    }
+
+    @Override
+    public int hashCode() {
+        return Arrays.hashCode(bounds);
+    }
+}
@@ -44,4 +44,19 @@ public class CharacterClass {
 
         return negated != base;
     }
+
+    CharRanges toRanges() {
+        final List<char[]> union = new ArrayList<>();
+        for (final char c : singles) {
+            union.add(new char[] {c, c});
+        }
+        for (final Range range : ranges) {
+            union.add(new char[] {range.from(), range.to()});
+        }
+        CharRanges result = CharRanges.union(union);
+        for (final CharacterClass cc : intersections) {
+            result = result.intersect(cc.toRanges());
+        }
+        return negated ? result.negate() : result;
+    }
 }
@@ -0,0 +1,133 @@
+/*
+ * SPDX-License-Identifier: Apache-2.0
+ *
+ * Copyright 2026 Querqy Contributors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package querqy.regex;
+
+import querqy.regex.MatchResult.GroupMatch;
+
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.Set;
+
+/**
+ * <p>An unmodifiable map view from group index to {@link GroupMatch} over the {@link CaptureEvents} of a match.</p>
+ *
+ * <p>Group 0 is the whole input. The other groups are only contained if they have both a start and an end. The
+ * {@link GroupMatch} objects are created on access, so that matches whose groups are never read don't need to
+ * allocate them.</p>
+ */
+final class GroupMatchesView extends AbstractMap<Integer, GroupMatch> {
+
+    private final CharSequence input;
+    private final CaptureEvents captures;
+    private final int groupCount;
+    private Set<Entry<Integer, GroupMatch>> entrySet = null;
+
+    GroupMatchesView(final CharSequence input, final CaptureEvents captures, final int groupCount) {
+        this.input = input;
+        this.captures = captures;
+        this.groupCount = groupCount;
+    }
+
+    private boolean hasGroup(final int group) {
+        if (group == 0) {
+            return true;
+        }
+        if (group < 0 || group > groupCount) {
+            return false;
+        }
+        final int start = captures.getStart(group);
+        final int end = captures.getEnd(group);
+        return start != CaptureEvents.UNSET && end != CaptureEvents.UNSET && start <= end;
+    }
+
+    private GroupMatch groupMatch(final int group) {
+        if (group == 0) {
+            return new GroupMatch(input, 0);
+        }
+        final int start = captures.getStart(group);
+        return new GroupMatch(input.subSequence(start, captures.getEnd(group)), start);
+    }
+
+    @Override
+    public GroupMatch get(final Object key) {
+        return (key instanceof Integer group) && hasGroup(group) ? groupMatch(group) : null;
+    }
+
+    @Override
+    public boolean containsKey(final Object key) {
+        return (key instanceof Integer group) && hasGroup(group);
+    }
+
+    @Override
+    public int size() {
+        int size = 0;
+        for (int g = 0; g <= groupCount; g++) {
+            if (hasGroup(g)) {
+                size++;
+            }
+        }
+        return size;
+    }
+
+    @Override
+    public Set<Entry<Integer, GroupMatch>> entrySet() {
+        if (entrySet == null) {
+            entrySet = new AbstractSet<>() {
+
+                @Override
+                public Iterator<Entry<Integer, GroupMatch>> iterator() {
+                    return new Iterator<>() {
+
+                        int next = nextGroup(0);
+
+                        private int nextGroup(final int from) {
+                            int g = from;
+                            while (g <= groupCount && !hasGroup(g)) {
+                                g++;
+                            }
+                            return g;
+                        }
+
+                        @Override
+                        public boolean hasNext() {
+                            return next <= groupCount;
+                        }
+
+                        @Override
+                        public Entry<Integer, GroupMatch> next() {
+                            if (!hasNext()) {
+                                throw new NoSuchElementException();
+                            }
+                            final int group = next;
+                            next = nextGroup(group + 1);
+                            return new SimpleImmutableEntry<>(group, groupMatch(group));
+                        }
+                    };
+                }
+
+                @Override
+                public int size() {
+                    return GroupMatchesView.this.size();
+                }
+            };
+        }
+        return entrySet;
+    }
+}
@@ -0,0 +1,253 @@
+/*
+ * SPDX-License-Identifier: Apache-2.0
+ *
+ * Copyright 2026 Querqy Contributors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package querqy.regex;
+
+import querqy.regex.NFAState.SuffixTransition;
+
+import java.util.ArrayDeque;
+import java.util.BitSet;
+import java.util.Deque;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * <p>A DFA that is built lazily from an NFA by subset construction while matching. It only answers whether an input
+ * is accepted and ignores capture groups, which makes it much cheaper than the {@link NFAMatcher}.</p>
+ *
+ * <p>DFA states and their transitions are cached. If the cache grows beyond maxStates, it is flushed and states
+ * of the current scan are computed without caching them. Instances are thread-safe.</p>
+ */
+final class LazyDFA<T> {
+
+    private static final int ASCII_SIZE = 128;
+
+    /**
+     * An NFA state in the context of a suffix transition. This mirrors {@link ActiveState} without the captures.
+     */
+    record Item<T>(NFAState<T> state, SuffixTransition<T> suffixTransition) {
+
+        boolean isAccepting() {
+            return suffixTransition != null ? !suffixTransition.accepting().isEmpty() : !state.accepting.isEmpty();
+        }
+    }
+
+    static final class DFAState<T> {
+
+        final Set<Item<T>> items;
+        final List<Item<T>> itemList;
+        final boolean accepting;
+        private final AtomicReferenceArray<DFAState<T>> asciiTransitions = new AtomicReferenceArray<>(ASCII_SIZE);
+        private final Map<Character, DFAState<T>> otherTransitions = new ConcurrentHashMap<>();
+
+        DFAState(final Set<Item<T>> items) {
+            this.items = items;
+            this.itemList = List.copyOf(items);
+            boolean acc = false;
+            for (final Item<T> item : itemList) {
+                if (item.isAccepting()) {
+                    acc = true;
+                    break;
+                }
+            }
+            this.accepting = acc;
+        }
+
+        boolean isDead() {
+            return items.isEmpty();
+        }
+
+        DFAState<T> getTransition(final char c) {
+            return c < ASCII_SIZE ? asciiTransitions.get(c) : otherTransitions.get(c);
+        }
+
+        void setTransition(final char c, final DFAState<T> target) {
+            if (c < ASCII_SIZE) {
+                asciiTransitions.set(c, target);
+            } else {
+                otherTransitions.put(c, target);
+            }
+        }
+    }
+
+    private static final class Cache<T> {
+
+        final Map<Set<Item<T>>, DFAState<T>> states = new ConcurrentHashMap<>();
+        final DFAState<T> start;
+        final DFAState<T> dead = new DFAState<>(Set.of());
+
+        Cache(final DFAState<T> start) {
+            this.start = start;
+            states.put(start.items, start);
+        }
+    }
+
+    private final NFAState<T> nfaStart;
+    private final int maxStates;
+    private volatile Cache<T> cache;
+
+    /**
+     * @param nfaStart The start state of the NFA
+     * @param maxStates The max. number of DFA states to keep in the cache
+     */
+    LazyDFA(final NFAState<T> nfaStart, final int maxStates) {
+        if (maxStates < 0) {
+            throw new IllegalArgumentException("maxStates must not be negative");
+        }
+        this.nfaStart = nfaStart;
+        this.maxStates = maxStates;
+        this.cache = newCache();
+    }
+
+    /**
+     * @param input The input
+     * @return true iff the whole input is accepted
+     */
+    boolean matches(final CharSequence input) {
+        final Cache<T> c = cache;
+        DFAState<T> state = c.start;
+        for (int pos = 0, len = input.length(); pos < len; pos++) {
+            state = next(c, state, input.charAt(pos));
+            if (state.isDead()) {
+                return false;
+            }
+        }
+        return state.accepting;
+    }
+
+    /**
+     * Scans the input once from position from and collects the lengths of all accepted spans that start at from.
+     *
+     * @param input The input
+     * @param from The start position (inclusive)
+     * @param to The max. end position of the spans (inclusive)
+     * @return A bit set that contains every length l for which the input from from to from + l is accepted
+     */
+    BitSet acceptedLengths(final CharSequence input, final int from, final int to) {
+        final BitSet lengths = new BitSet();
+        final Cache<T> c = cache;
+        DFAState<T> state = c.start;
+        if (state.accepting) {
+            lengths.set(0);
+        }
+        for (int pos = from; pos < to; pos++) {
+            state = next(c, state, input.charAt(pos));
+            if (state.isDead()) {
+                break;
+            }
+            if (state.accepting) {
+                lengths.set(pos + 1 - from);
+            }
+        }
+        return lengths;
+    }
+
+    int getCachedStateCount() {
+        return cache.states.size();
+    }
+
+    private DFAState<T> next(final Cache<T> c, final DFAState<T> state, final char ch) {
+        final DFAState<T> cached = state.getTransition(ch);
+        if (cached != null) {
+            return cached;
+        }
+
+        final Set<Item<T>> targets = step(state, ch);
+
+        DFAState<T> target;
+        if (targets.isEmpty()) {
+            target = c.dead;
+        } else {
+            target = c.states.get(targets);
+            if (target == null) {
+                if (c.states.size() >= maxStates) {
+                    // Flush the cache for subsequent scans but don't cache anything more in the states that we are
+                    // still using in this scan
+                    if (maxStates > 0 && cache == c) {
+                        cache = newCache();
+                    }
+                    return new DFAState<>(targets);
+                }
+                final DFAState<T> created = new DFAState<>(targets);
+                final DFAState<T> existing = c.states.putIfAbsent(targets, created);
+                target = existing != null ? existing : created;
+            }
+        }
+        state.setTransition(ch, target);
+        return target;
+
+    }
+
+    private Cache<T> newCache() {
+        return new Cache<>(new DFAState<>(epsilonClosure(Set.of(new Item<>(nfaStart, null)))));
+    }
+
+    private static <T> Set<Item<T>> step(final DFAState<T> state, final char c) {
+        final Set<Item<T>> next = new HashSet<>();
+        for (final Item<T> item : state.itemList) {
+            final NFAState<T> s = item.state();
+            final Set<NFAState<T>> literalTargets = s.charTransitions.get(c);
+            if (literalTargets != null) {
+                for (final NFAState<T> t : literalTargets) {
+                    next.add(new Item<>(t, item.suffixTransition()));
+                }
+            }
+            for (final CharClassTransition<T> t : s.charClassTransitions) {
+                if (t.predicate().matches(c)) {
+                    next.add(new Item<>(t.target(), item.suffixTransition()));
+                }
+            }
+        }
+        return next.isEmpty() ? Set.of() : epsilonClosure(next);
+    }
+
+    /**
+     * Same as {@link NFAMatcher}'s epsilon closure, including how suffix transitions are passed on, but without
+     * captures.
+     */
+    private static <T> Set<Item<T>> epsilonClosure(final Set<Item<T>> items) {
+        final Set<Item<T>> closure = new HashSet<>(items);
+        final Deque<Item<T>> stack = new ArrayDeque<>(items);
+
+        while (!stack.isEmpty()) {
+            final Item<T> cur = stack.pop();
+            final SuffixTransition<T> suffixTransition = cur.suffixTransition();
+            final boolean keepSuffix = suffixTransition != null && suffixTransition.groupsBeforeSuffix() > 0;
+
+            for (final NFAState<T> next : cur.state().epsilonTransitions) {
+                final Item<T> item = new Item<>(next, keepSuffix ? suffixTransition : null);
+                if (closure.add(item)) {
+                    stack.push(item);
+                }
+            }
+
+            for (final SuffixTransition<T> sTransition : cur.state().getSuffixTransitions()) {
+                final Item<T> item = new Item<>(sTransition.suffix().start(), sTransition);
+                if (closure.add(item)) {
+                    stack.push(item);
+                }
+            }
+        }
+
+        return Set.copyOf(closure);
+    }
+
+}
@@ -76,7 +76,7 @@ public final class NFACompiler<T> {
         if (s instanceof CharSymbol cs) {
             start.addCharTransition(cs.getValue(), accept);
         } else if (s instanceof CharClassSymbol cc) {
-            start.charClassTransitions.add(new CharClassTransition<>(cc::matches, accept));
+            start.charClassTransitions.add(new CharClassTransition<>(cc.getRanges(), accept));
         }
         return new NFAFragment<>(start, Set.of(accept));
     }
@@ -18,17 +18,20 @@
 package querqy.regex;
 
 import querqy.regex.ActiveState.SuffixActiveState;
-import querqy.regex.MatchResult.GroupMatch;
-import querqy.regex.NFAState.GroupEnd;
-import querqy.regex.NFAState.GroupStart;
 
 import java.util.ArrayDeque;
 import java.util.Deque;
-import java.util.HashMap;
 import java.util.HashSet;
-import java.util.Map;
+import java.util.List;
 import java.util.Set;
 
+/**
+ * <p>Simulates an NFA over the whole input and collects the matches of all accepting states, including the positions
+ * of their capture groups.</p>
+ *
+ * <p>Each thread of the simulation is an {@link ActiveState}, which tracks its capture positions in the int slots of
+ * an immutable {@link CaptureEvents} object. Threads share slots until a group marker changes a position.</p>
+ */
 public class NFAMatcher<T> {
 
     private Set<ActiveState<T>> epsilonClosure(final Set<ActiveState<T>> states, final int position) {
@@ -51,16 +54,9 @@ public class NFAMatcher<T> {
 
             for (final NFAState<T> next : s.epsilonTransitions) {
 
-                // copy FIRST
-                CaptureEvents cap = cur.captures.copy();
-
-                // THEN apply group markers of *next*
-                for (final GroupStart gs : next.groupStarts) {
-                    cap.start.put(gs.group() + groupDelta, position);
-                }
-                for (final GroupEnd ge : next.groupEnds) {
-                    cap.end.put(ge.group() + groupDelta, position);
-                }
+                // apply group markers of *next*
+                final CaptureEvents cap = cur.captures.withGroupMarkers(next.groupStarts, next.groupEnds, groupDelta,
+                        position, position);
 
                 final ActiveState<T> ns = groupDelta > 0
                         ? new SuffixActiveState<>(next, cap, suffixTransition) : new ActiveState<>(next, cap);
@@ -72,18 +68,11 @@ public class NFAMatcher<T> {
 
 
             for (final NFAState.SuffixTransition<T> sTransition: s.getSuffixTransitions()) {
-                // copy FIRST
-                CaptureEvents cap = cur.captures.copy();
+                final NFAState<T> suffixStart = sTransition.suffix().start();
+                final CaptureEvents cap = cur.captures.withGroupMarkers(suffixStart.groupStarts,
+                        suffixStart.groupEnds, sTransition.groupsBeforeSuffix(), position, position);
 
-                // THEN apply group markers of *next*
-                for (final GroupStart gs : sTransition.suffix().start().groupStarts) {
-                    cap.start.put(gs.group() + sTransition.groupsBeforeSuffix(), position);
-                }
-                for (final GroupEnd ge : sTransition.suffix().start().groupEnds) {
-                    cap.end.put(ge.group() +  sTransition.groupsBeforeSuffix(), position);
-                }
-
-                final SuffixActiveState<T> ns = new SuffixActiveState<>(sTransition.suffix().start(), cap, sTransition);
+                final SuffixActiveState<T> ns = new SuffixActiveState<>(suffixStart, cap, sTransition);
 
                 if (closure.add(ns)) {
                     stack.push(ns);
@@ -95,53 +84,23 @@ public class NFAMatcher<T> {
         return closure;
     }
 
-    private static Map<Integer, GroupMatch> materializeGroups(final CaptureEvents events, final int groupCount,
-                                                                          final CharSequence input) {
-        final Map<Integer, GroupMatch> result = new HashMap<>();
-
-        // group 0 = whole match
-        result.put(0, new GroupMatch(input, 0));
-
-        for (int g = 1; g <= groupCount; g++) {
-            final Integer s = events.start.get(g);
-            final Integer e = events.end.get(g);
-            if (s != null && e != null && s <= e) {
-                result.put(g, new GroupMatch(input.subSequence(s, e), s));
-            }
-        }
-        return result;
-    }
-
-    private ActiveState<T> fromCapture(final NFAState<T> state, CaptureEvents cap, final ActiveState<T> source, final int currentPos) {
-        final ActiveState<T> copy;
-        final int groupDelta;
-        if (source instanceof ActiveState.SuffixActiveState<T> suffixActiveState) {
-            copy = new SuffixActiveState<>(state, cap.copy(), suffixActiveState.suffixTransition);
-            groupDelta = suffixActiveState.suffixTransition.groupsBeforeSuffix();
+    private ActiveState<T> fromCapture(final NFAState<T> state, final ActiveState<T> source, final int currentPos) {
+        if (source instanceof SuffixActiveState<T> suffixActiveState) {
+            return new SuffixActiveState<>(state, source.captures.withGroupMarkers(List.of(), state.groupEnds,
+                    suffixActiveState.suffixTransition.groupsBeforeSuffix(), currentPos + 1, currentPos + 1),
+                    suffixActiveState.suffixTransition);
         } else {
-            copy = new ActiveState<T>(state, cap.copy());
-            groupDelta = 0;
+            return new ActiveState<>(state, source.captures.withGroupMarkers(List.of(), state.groupEnds, 0,
+                    currentPos + 1, currentPos + 1));
         }
-
-        for (final GroupEnd groupEnd: state.groupEnds) {
-            copy.captures.end.put(groupEnd.group() + groupDelta, currentPos + 1);
-        }
-        return copy;
     }
 
     public Set<MatchResult<T>> matchAll(final NFAState<T> start, final CharSequence input, final int offset) {
         Set<MatchResult<T>> results = new HashSet<>();
 
         // deal with start node:
-        final CaptureEvents capStart = new CaptureEvents();
-
-        for (final GroupStart gs : start.groupStarts) {
-            capStart.start.put(gs.group(), offset);
-        }
-        for (final GroupEnd ge : start.groupEnds) {
-            capStart.end.put(ge.group(), offset);
-        }
-
+        final CaptureEvents capStart = CaptureEvents.EMPTY.withGroupMarkers(start.groupStarts, start.groupEnds, 0,
+                offset, offset);
 
         Set<ActiveState<T>> current = epsilonClosure(Set.of(new ActiveState<>(start, capStart)), offset);
 
@@ -151,19 +110,18 @@ public class NFAMatcher<T> {
 
             for (ActiveState<T> as : current) {
                 NFAState<T> s = as.state;
-                CaptureEvents cap = as.captures;
 
                 // literal transitions
                 Set<NFAState<T>> literalTargets = s.charTransitions.get(c);
                 if (literalTargets != null) {
                     for (final NFAState<T> t: literalTargets) {
-                        next.add(fromCapture(t, cap, as, pos));
+                        next.add(fromCapture(t, as, pos));
                     }
                 }
 
                 for (final CharClassTransition<T> t: s.charClassTransitions) {
                     if (t.predicate().matches(c)) {
-                        next.add(fromCapture(t.target(), cap, as, pos));
+                        next.add(fromCapture(t.target(), as, pos));
                     }
                 }
 
@@ -180,7 +138,7 @@ public class NFAMatcher<T> {
         // collect matches from all accepting states
         for (final ActiveState<T> as: current) {
             for (final RegexEntry<T> re: as.getAccepting()) {
-                results.add(new MatchResult<>(re.value(), materializeGroups(as.captures, re.groupCount(), input)));
+                results.add(new MatchResult<>(re.value(), new GroupMatchesView(input, as.captures, re.groupCount())));
             }
         }
 
@@ -188,5 +146,3 @@ public class NFAMatcher<T> {
     }
 
 }
-
-
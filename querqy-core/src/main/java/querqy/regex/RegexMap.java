@@ -19,6 +19,8 @@ package querqy.regex;
 
 
 import java.util.ArrayDeque;
+import java.util.BitSet;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
@@ -26,8 +28,19 @@ import java.util.Map;
 import java.util.Queue;
 import java.util.Set;
 
+/**
+ * <p>Maps regular expressions to values and finds the values of all expressions that match an input.</p>
+ *
+ * <p>Matching runs in up to three phases: if every expression contains a literal that all of its matches must
+ * contain, an {@link AhoCorasick} automaton over these literals rejects inputs that contain none of them. Then a
+ * {@link LazyDFA}, which is built from the combined NFA of all expressions while matching, decides whether the input
+ * is accepted at all. Only accepted inputs are passed to the {@link NFAMatcher}, which resolves the capture
+ * groups.</p>
+ */
 public class RegexMap<T> {
 
+    public static final int DEFAULT_MAX_DFA_STATES = 2048;
+
     protected record Prefix<T>(NFAState<T> state, int nextGroupIndex) {}
 
     protected Map<String, Prefix<T>> prefixes = new HashMap<>();
@@ -36,6 +49,46 @@ public class RegexMap<T> {
     protected NFAState<T> prefixlessStart = new NFAState<>();
     protected final NFAMatcher<T> matcher = new NFAMatcher<>();
 
+    private final int maxDfaStates;
+    private volatile LazyDFA<T> dfa = null;
+
+    private final Set<String> requiredLiterals = new HashSet<>();
+    private boolean allPatternsHaveRequiredLiterals = true;
+    private volatile AhoCorasick prefilter = null;
+
+    public RegexMap() {
+        this(DEFAULT_MAX_DFA_STATES);
+    }
+
+    /**
+     * @param maxDfaStates The max. number of DFA states to cache. The DFA cache is flushed when it reaches this size.
+     *                     If 0, DFA states are computed for each input without caching them.
+     */
+    public RegexMap(final int maxDfaStates) {
+        if (maxDfaStates < 0) {
+            throw new IllegalArgumentException("maxDfaStates must not be negative");
+        }
+        this.maxDfaStates = maxDfaStates;
+    }
+
+    /**
+     * Creates a RegexMap from its parts. Used for reading a {@link RegexMapSnapshot}.
+     */
+    RegexMap(final int maxDfaStates, final NFAState<T> prefixlessStart, final Map<String, Prefix<T>> prefixes,
+             final Map<String, NFASuffix<T>> suffixes, final Set<String> requiredLiterals,
+             final boolean allPatternsHaveRequiredLiterals) {
+        this(maxDfaStates);
+        this.prefixlessStart = prefixlessStart;
+        this.prefixes = prefixes;
+        this.suffixes = suffixes;
+        this.requiredLiterals.addAll(requiredLiterals);
+        this.allPatternsHaveRequiredLiterals = allPatternsHaveRequiredLiterals;
+    }
+
+    int getMaxDfaStates() {
+        return maxDfaStates;
+    }
+
     public void put(final String pattern, T value) {
         put(pattern, value, null, null);
     }
@@ -44,6 +97,9 @@ public class RegexMap<T> {
 
         //String patternString = replaceExactlyOnceQuantifier(pattern);
 
+        dfa = null;
+        prefilter = null;
+
         final RegexParser parser = new RegexParser();
 
         final int nextGroupIndex;
@@ -81,6 +137,7 @@ public class RegexMap<T> {
         }
 
         final List<Symbol> ast = parser.parse(patternString, nextGroupIndex);
+        addRequiredLiteral(ast, prefix, suffix);
 
         final NFACompiler<T> compiler = new NFACompiler<>();
         final NFAFragment<T> nfaFragment = compiler.compileSequence(ast);
@@ -111,6 +168,21 @@ public class RegexMap<T> {
         }
     }
 
+    private void addRequiredLiteral(final List<Symbol> ast, final String prefix, final String suffix) {
+        String literal = RequiredLiterals.longestRequiredLiteral(ast);
+        if (literal.isEmpty() && prefix != null) {
+            literal = RequiredLiterals.longestRequiredLiteral(new RegexParser().parse(prefix));
+        }
+        if (literal.isEmpty() && suffix != null) {
+            literal = RequiredLiterals.longestRequiredLiteral(new RegexParser().parse(suffix));
+        }
+        if (literal.isEmpty()) {
+            allPatternsHaveRequiredLiterals = false;
+        } else {
+            requiredLiterals.add(literal);
+        }
+    }
+
     NFASuffix<T> getOrCreateSuffix(final String suffixPattern) {
         NFASuffix<T> suffix = suffixes.get(suffixPattern);
         if (suffix == null) {
@@ -172,7 +244,74 @@ public class RegexMap<T> {
     }
 
     public Set<MatchResult<T>> getAll(final CharSequence input) {
+        if (!mayMatch(input) || !getDfa().matches(input)) {
+            return Collections.emptySet();
+        }
         return matcher.matchAll(prefixlessStart, input, 0);
     }
 
+    /**
+     * <p>Finds the lengths of all matches that start at a given position in a single scan over the input. This is
+     * much cheaper than calling {@link #getAll(CharSequence)} for each candidate end position. Capture groups are
+     * not resolved, use {@link #getAll(CharSequence)} on the accepted spans to get them.</p>
+     *
+     * @param input The input
+     * @param from The start position of the matches (inclusive)
+     * @param to The max. end position of the matches (inclusive)
+     * @return A bit set that contains every length l for which some expression matches input[from, from + l)
+     */
+    public BitSet getMatchLengths(final CharSequence input, final int from, final int to) {
+        return getDfa().acceptedLengths(input, from, to);
+    }
+
+    /**
+     * <p>Checks in a single pass over the input whether any expression could match the input or a part of it. If this
+     * method returns false, neither the input nor any of its substrings will match. A return value of true does not
+     * guarantee a match.</p>
+     *
+     * <p>The check can only reject inputs if every expression contains a required literal.</p>
+     *
+     * @param input The input
+     * @return false if no expression can match the input or any of its substrings
+     */
+    public boolean mayMatch(final CharSequence input) {
+        return !allPatternsHaveRequiredLiterals || getPrefilter().containsAny(input);
+    }
+
+    Set<String> getRequiredLiterals() {
+        return requiredLiterals;
+    }
+
+    boolean allPatternsHaveRequiredLiterals() {
+        return allPatternsHaveRequiredLiterals;
+    }
+
+    AhoCorasick getPrefilter() {
+        AhoCorasick current = prefilter;
+        if (current == null) {
+            synchronized (this) {
+                current = prefilter;
+                if (current == null) {
+                    current = new AhoCorasick(requiredLiterals);
+                    prefilter = current;
+                }
+            }
+        }
+        return current;
+    }
+
+    LazyDFA<T> getDfa() {
+        LazyDFA<T> current = dfa;
+        if (current == null) {
+            synchronized (this) {
+                current = dfa;
+                if (current == null) {
+                    current = new LazyDFA<>(prefixlessStart, maxDfaStates);
+                    dfa = current;
+                }
+            }
+        }
+        return current;
+    }
+
 }
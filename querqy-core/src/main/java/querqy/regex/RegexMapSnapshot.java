@@ -0,0 +1,443 @@
+/*
+ * SPDX-License-Identifier: Apache-2.0
+ *
+ * Copyright 2026 Querqy Contributors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package querqy.regex;
+
+import querqy.regex.NFAState.GroupEnd;
+import querqy.regex.NFAState.GroupStart;
+import querqy.regex.NFAState.SuffixTransition;
+
+import java.io.DataOutput;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Set;
+
+/**
+ * <p>Writes a compiled {@link RegexMap} into a binary snapshot and reads it back, so that the regular expressions
+ * don't have to be parsed and compiled again when the map is loaded.</p>
+ *
+ * <p>The snapshot contains the NFA states with all their transitions, the shared prefixes and suffixes and the
+ * required literals of the prefilter. Character classes are stored as {@link CharRanges}. Values are written and read
+ * by a {@link ValueWriter} and a {@link ValueReader}. Reading a snapshot creates the NFA on the heap, as matching
+ * needs the object graph, but it only needs a single pass over the (usually memory-mapped) snapshot.</p>
+ */
+public final class RegexMapSnapshot {
+
+    /**
+     * "QRNF"
+     */
+    static final int MAGIC = 0x51524e46;
+
+    public static final int FORMAT_VERSION = 2;
+
+    @FunctionalInterface
+    public interface ValueWriter<T> {
+        void write(T value, DataOutput out) throws IOException;
+    }
+
+    @FunctionalInterface
+    public interface ValueReader<T> {
+        T read(ByteBuffer buffer) throws IOException;
+    }
+
+    private RegexMapSnapshot() {
+    }
+
+    /**
+     * Writes a snapshot of a RegexMap.
+     *
+     * @param regexMap The map. It must not be changed while it is written.
+     * @param valueWriter Writes the values of the map
+     * @param out The output. It will not be closed.
+     * @throws IOException if the output cannot be written
+     */
+    public static <T> void write(final RegexMap<T> regexMap, final ValueWriter<T> valueWriter,
+                                 final OutputStream out) throws IOException {
+
+        final Graph<T> graph = new Graph<>(regexMap);
+        final DataOutputStream data = new DataOutputStream(out);
+
+        data.writeInt(MAGIC);
+        data.writeInt(FORMAT_VERSION);
+        data.writeInt(regexMap.getMaxDfaStates());
+
+        data.writeInt(graph.values.size());
+        for (final T value : graph.values) {
+            valueWriter.write(value, data);
+        }
+
+        data.writeInt(graph.charRanges.size());
+        for (final CharRanges ranges : graph.charRanges.keySet()) {
+            final char[] bounds = ranges.getBounds();
+            data.writeInt(bounds.length);
+            for (final char bound : bounds) {
+                data.writeChar(bound);
+            }
+        }
+
+        data.writeInt(graph.suffixes.size());
+        for (final NFASuffix<T> suffix : graph.suffixes.keySet()) {
+            data.writeInt(graph.states.get(suffix.start()));
+            data.writeInt(suffix.suffixGroupCount());
+        }
+
+        data.writeInt(graph.suffixTransitions.size());
+        for (final SuffixTransition<T> transition : graph.suffixTransitions.keySet()) {
+            data.writeInt(graph.suffixes.get(transition.suffix()));
+            data.writeInt(transition.groupsBeforeSuffix());
+            writeEntries(transition.accepting(), graph, data);
+        }
+
+        data.writeInt(graph.states.size());
+        for (final NFAState<T> state : graph.stateOrder) {
+            data.writeInt(state.groupStarts.size());
+            for (final GroupStart groupStart : state.groupStarts) {
+                data.writeInt(groupStart.group());
+            }
+            data.writeInt(state.groupEnds.size());
+            for (final GroupEnd groupEnd : state.groupEnds) {
+                data.writeInt(groupEnd.group());
+            }
+            data.writeInt(state.epsilonTransitions.size());
+            for (final NFAState<T> target : state.epsilonTransitions) {
+                data.writeInt(graph.states.get(target));
+            }
+            data.writeInt(state.charTransitions.size());
+            for (final Map.Entry<Character, Set<NFAState<T>>> entry : state.charTransitions.entrySet()) {
+                data.writeChar(entry.getKey());
+                data.writeInt(entry.getValue().size());
+                for (final NFAState<T> target : entry.getValue()) {
+                    data.writeInt(graph.states.get(target));
+                }
+            }
+            data.writeInt(state.charClassTransitions.size());
+            for (final CharClassTransition<T> transition : state.charClassTransitions) {
+                data.writeInt(graph.charRanges.get((CharRanges) transition.predicate()));
+                data.writeInt(graph.states.get(transition.target()));
+            }
+            data.writeInt(state.getSuffixTransitions().size());
+            for (final SuffixTransition<T> transition : state.getSuffixTransitions()) {
+                data.writeInt(graph.suffixTransitions.get(transition));
+            }
+            writeEntries(state.accepting, graph, data);
+        }
+
+        data.writeInt(graph.states.get(regexMap.prefixlessStart));
+
+        data.writeInt(regexMap.prefixes.size());
+        for (final Map.Entry<String, RegexMap.Prefix<T>> entry : regexMap.prefixes.entrySet()) {
+            writeString(entry.getKey(), data);
+            data.writeInt(graph.states.get(entry.getValue().state()));
+            data.writeInt(entry.getValue().nextGroupIndex());
+        }
+
+        data.writeInt(regexMap.suffixes.size());
+        for (final Map.Entry<String, NFASuffix<T>> entry : regexMap.suffixes.entrySet()) {
+            writeString(entry.getKey(), data);
+            data.writeInt(graph.suffixes.get(entry.getValue()));
+        }
+
+        data.writeBoolean(regexMap.allPatternsHaveRequiredLiterals());
+        final Set<String> requiredLiterals = regexMap.getRequiredLiterals();
+        data.writeInt(requiredLiterals.size());
+        for (final String literal : requiredLiterals) {
+            writeString(literal, data);
+        }
+
+        data.flush();
+    }
+
+    /**
+     * Memory-maps a snapshot file and reads the RegexMap from it.
+     *
+     * @param path The snapshot file
+     * @param valueReader Reads the values of the map
+     * @return The RegexMap
+     * @throws IOException if the file cannot be read or if it is not a valid snapshot
+     */
+    public static <T> RegexMap<T> open(final Path path, final ValueReader<T> valueReader) throws IOException {
+        try (final FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            final long size = channel.size();
+            if (size > Integer.MAX_VALUE) {
+                throw new IOException("Snapshot too large: " + size + " bytes");
+            }
+            return read(channel.map(FileChannel.MapMode.READ_ONLY, 0, size), valueReader);
+        }
+    }
+
+    /**
+     * Reads a RegexMap from a buffer, starting at the buffer's position. The position of the buffer will be at the end
+     * of the snapshot afterwards.
+     *
+     * @param buffer The buffer
+     * @param valueReader Reads the values of the map
+     * @return The RegexMap
+     * @throws IOException if the buffer does not contain a valid snapshot
+     */
+    public static <T> RegexMap<T> read(final ByteBuffer buffer, final ValueReader<T> valueReader) throws IOException {
+        try {
+            final int magic = buffer.getInt();
+            if (magic != MAGIC) {
+                throw new IOException("Not a regex map snapshot");
+            }
+            final int version = buffer.getInt();
+            if (version != FORMAT_VERSION) {
+                throw new IOException("Unsupported regex map snapshot format version " + version + ", expected "
+                        + FORMAT_VERSION + ". Please recreate the snapshot.");
+            }
+            final int maxDfaStates = buffer.getInt();
+            if (maxDfaStates < 0) {
+                throw new IOException("Corrupt regex map snapshot: invalid maxDfaStates " + maxDfaStates);
+            }
+
+            // a value can be stored in zero bytes, so we can only limit the initial capacity
+            final int numValues = readLength(buffer, 0);
+            final List<T> values = new ArrayList<>(Math.min(numValues, buffer.remaining()));
+            for (int i = 0; i < numValues; i++) {
+                values.add(valueReader.read(buffer));
+            }
+
+            final CharRanges[] charRanges = new CharRanges[readLength(buffer, Integer.BYTES)];
+            for (int i = 0; i < charRanges.length; i++) {
+                final char[] bounds = new char[readLength(buffer, Character.BYTES)];
+                for (int j = 0; j < bounds.length; j++) {
+                    bounds[j] = buffer.getChar();
+                }
+                charRanges[i] = CharRanges.ofBounds(bounds);
+            }
+
+            // the states are referenced before they are read
+            final int numSuffixes = readLength(buffer, 2 * Integer.BYTES);
+            final int[] suffixStartIds = new int[numSuffixes];
+            final int[] suffixGroupCounts = new int[numSuffixes];
+            for (int i = 0; i < numSuffixes; i++) {
+                suffixStartIds[i] = buffer.getInt();
+                suffixGroupCounts[i] = buffer.getInt();
+            }
+            final int numSuffixTransitions = readLength(buffer, 3 * Integer.BYTES);
+            final int[] transitionSuffixIds = new int[numSuffixTransitions];
+            final int[] transitionGroupsBefore = new int[numSuffixTransitions];
+            final List<Set<RegexEntry<T>>> transitionAccepting = new ArrayList<>(numSuffixTransitions);
+            for (int i = 0; i < numSuffixTransitions; i++) {
+                transitionSuffixIds[i] = buffer.getInt();
+                transitionGroupsBefore[i] = buffer.getInt();
+                transitionAccepting.add(readEntries(buffer, values));
+            }
+
+            // each state has seven counts: group starts and ends, epsilon, char, char class and suffix transitions
+            // and accepting entries
+            final int numStates = readLength(buffer, 7 * Integer.BYTES);
+            final List<NFAState<T>> states = new ArrayList<>(numStates);
+            for (int i = 0; i < numStates; i++) {
+                states.add(new NFAState<>());
+            }
+
+            final List<NFASuffix<T>> suffixes = new ArrayList<>(numSuffixes);
+            for (int i = 0; i < numSuffixes; i++) {
+                suffixes.add(new NFASuffix<>(states.get(suffixStartIds[i]), suffixGroupCounts[i]));
+            }
+            final List<SuffixTransition<T>> suffixTransitions = new ArrayList<>(numSuffixTransitions);
+            for (int i = 0; i < numSuffixTransitions; i++) {
+                suffixTransitions.add(new SuffixTransition<>(suffixes.get(transitionSuffixIds[i]),
+                        transitionAccepting.get(i), transitionGroupsBefore[i]));
+            }
+
+            for (final NFAState<T> state : states) {
+                for (int i = 0, n = buffer.getInt(); i < n; i++) {
+                    state.addGroupStart(buffer.getInt());
+                }
+                for (int i = 0, n = buffer.getInt(); i < n; i++) {
+                    state.addGroupEnd(buffer.getInt());
+                }
+                for (int i = 0, n = buffer.getInt(); i < n; i++) {
+                    state.addEpsilon(states.get(buffer.getInt()));
+                }
+                for (int i = 0, n = buffer.getInt(); i < n; i++) {
+                    final char c = buffer.getChar();
+                    for (int j = 0, numTargets = buffer.getInt(); j < numTargets; j++) {
+                        state.addCharTransition(c, states.get(buffer.getInt()));
+                    }
+                }
+                for (int i = 0, n = buffer.getInt(); i < n; i++) {
+                    final CharRanges ranges = charRanges[buffer.getInt()];
+                    state.addCharClassTransition(new CharClassTransition<>(ranges, states.get(buffer.getInt())));
+                }
+                for (int i = 0, n = buffer.getInt(); i < n; i++) {
+                    state.addSuffixTransition(suffixTransitions.get(buffer.getInt()));
+                }
+                state.accepting.addAll(readEntries(buffer, values));
+            }
+
+            final NFAState<T> prefixlessStart = states.get(buffer.getInt());
+
+            final Map<String, RegexMap.Prefix<T>> prefixes = new HashMap<>();
+            for (int i = 0, n = buffer.getInt(); i < n; i++) {
+                final String prefix = readString(buffer);
+                prefixes.put(prefix, new RegexMap.Prefix<>(states.get(buffer.getInt()), buffer.getInt()));
+            }
+
+            final Map<String, NFASuffix<T>> suffixesByPattern = new HashMap<>();
+            for (int i = 0, n = buffer.getInt(); i < n; i++) {
+                final String suffix = readString(buffer);
+                suffixesByPattern.put(suffix, suffixes.get(buffer.getInt()));
+            }
+
+            final boolean allPatternsHaveRequiredLiterals = buffer.get() != 0;
+            final Set<String> requiredLiterals = new HashSet<>();
+            for (int i = 0, n = buffer.getInt(); i < n; i++) {
+                requiredLiterals.add(readString(buffer));
+            }
+
+            return new RegexMap<>(maxDfaStates, prefixlessStart, prefixes, suffixesByPattern,
+                    requiredLiterals, allPatternsHaveRequiredLiterals);
+
+        } catch (final BufferUnderflowException | IndexOutOfBoundsException | IllegalArgumentException e) {
+            throw new IOException("Corrupt regex map snapshot", e);
+        }
+    }
+
+    private static <T> void writeEntries(final Set<RegexEntry<T>> entries, final Graph<T> graph,
+                                         final DataOutput out) throws IOException {
+        out.writeInt(entries.size());
+        for (final RegexEntry<T> entry : entries) {
+            out.writeInt(graph.valueIds.get(entry.value()));
+            out.writeInt(entry.groupCount());
+        }
+    }
+
+    private static <T> Set<RegexEntry<T>> readEntries(final ByteBuffer buffer, final List<T> values)
+            throws IOException {
+        final int n = readLength(buffer, 2 * Integer.BYTES);
+        final Set<RegexEntry<T>> entries = new HashSet<>(n * 2);
+        for (int i = 0; i < n; i++) {
+            entries.add(new RegexEntry<>(values.get(buffer.getInt()), buffer.getInt()));
+        }
+        return entries;
+    }
+
+    private static void writeString(final String s, final DataOutput out) throws IOException {
+        final byte[] bytes = s.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    private static String readString(final ByteBuffer buffer) throws IOException {
+        final byte[] bytes = new byte[readLength(buffer, 1)];
+        buffer.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Reads the number of elements that follow in the buffer and checks it against the remaining bytes before
+     * anything is allocated for the elements.
+     *
+     * @param buffer The buffer
+     * @param minBytesPerElement The min. number of bytes that each element takes in the snapshot
+     * @return The number of elements
+     * @throws IOException if the number is negative or if the elements cannot fit into the remaining bytes
+     */
+    static int readLength(final ByteBuffer buffer, final int minBytesPerElement) throws IOException {
+        final int length = buffer.getInt();
+        if (length < 0 || (long) length * minBytesPerElement > buffer.remaining()) {
+            throw new IOException("Corrupt regex map snapshot: invalid length " + length);
+        }
+        return length;
+    }
+
+    /**
+     * Assigns ids to all objects of the NFA, in the order in which they will be written.
+     */
+    private static final class Graph<T> {
+
+        final Map<NFAState<T>, Integer> states = new IdentityHashMap<>();
+        final Map<NFASuffix<T>, Integer> suffixes = new LinkedHashMap<>();
+        final Map<SuffixTransition<T>, Integer> suffixTransitions = new LinkedHashMap<>();
+        final Map<CharRanges, Integer> charRanges = new LinkedHashMap<>();
+        final Map<T, Integer> valueIds = new IdentityHashMap<>();
+        final List<T> values = new ArrayList<>();
+        // IdentityHashMap doesn't keep the insertion order
+        final List<NFAState<T>> stateOrder = new ArrayList<>();
+
+        Graph(final RegexMap<T> regexMap) {
+            final Queue<NFAState<T>> queue = new ArrayDeque<>();
+            addState(regexMap.prefixlessStart, queue);
+            regexMap.prefixes.values().forEach(prefix -> addState(prefix.state(), queue));
+            regexMap.suffixes.values().forEach(suffix -> addSuffix(suffix, queue));
+
+            while (!queue.isEmpty()) {
+                final NFAState<T> state = queue.poll();
+                state.epsilonTransitions.forEach(target -> addState(target, queue));
+                state.charTransitions.values().forEach(targets -> targets.forEach(t -> addState(t, queue)));
+                for (final CharClassTransition<T> transition : state.charClassTransitions) {
+                    if (!(transition.predicate() instanceof CharRanges ranges)) {
+                        throw new IllegalStateException("Cannot write character class predicate of type "
+                                + transition.predicate().getClass().getName());
+                    }
+                    charRanges.putIfAbsent(ranges, charRanges.size());
+                    addState(transition.target(), queue);
+                }
+                for (final SuffixTransition<T> transition : state.getSuffixTransitions()) {
+                    if (!suffixTransitions.containsKey(transition)) {
+                        suffixTransitions.put(transition, suffixTransitions.size());
+                        addSuffix(transition.suffix(), queue);
+                        transition.accepting().forEach(entry -> addValue(entry.value()));
+                    }
+                }
+                state.accepting.forEach(entry -> addValue(entry.value()));
+            }
+        }
+
+        private void addState(final NFAState<T> state, final Queue<NFAState<T>> queue) {
+            if (!states.containsKey(state)) {
+                states.put(state, states.size());
+                stateOrder.add(state);
+                queue.add(state);
+            }
+        }
+
+        private void addSuffix(final NFASuffix<T> suffix, final Queue<NFAState<T>> queue) {
+            if (!suffixes.containsKey(suffix)) {
+                suffixes.put(suffix, suffixes.size());
+                addState(suffix.start(), queue);
+            }
+        }
+
+        private void addValue(final T value) {
+            if (!valueIds.containsKey(value)) {
+                valueIds.put(value, values.size());
+                values.add(value);
+            }
+        }
+    }
+
+}
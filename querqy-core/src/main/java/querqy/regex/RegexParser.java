@@ -156,7 +156,7 @@ public final class RegexParser {
         final String classText = input.substring(start, pos);
 
         final CharacterClass cc = CharClassParser.parse(classText);
-        return new CharClassSymbol(cc::matches);
+        return new CharClassSymbol(cc.toRanges());
 
     }
     private Symbol parseEscaped() {
@@ -0,0 +1,67 @@
+/*
+ * SPDX-License-Identifier: Apache-2.0
+ *
+ * Copyright 2026 Querqy Contributors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package querqy.regex;
+
+import querqy.regex.Symbol.CharSymbol;
+import querqy.regex.Symbol.GroupSymbol;
+
+import java.util.List;
+
+/**
+ * <p>Finds a literal that every match of a pattern must contain. The analysis is conservative: it only follows
+ * sequences of {@link CharSymbol}s and groups that occur at least once. Alternations and character classes end a
+ * literal.</p>
+ */
+final class RequiredLiterals {
+
+    private RequiredLiterals() {
+    }
+
+    /**
+     * @param symbols The parsed pattern
+     * @return The longest literal that must occur in every match, or an empty string if there is no such literal
+     */
+    static String longestRequiredLiteral(final List<Symbol> symbols) {
+        final StringBuilder run = new StringBuilder();
+        String best = "";
+
+        for (final Symbol symbol : symbols) {
+
+            if (symbol instanceof CharSymbol cs && symbol.getMinOccur() > 0) {
+                run.append(String.valueOf(cs.getValue()).repeat(symbol.getMinOccur()));
+                if (symbol.getMaxOccur() != symbol.getMinOccur()) {
+                    best = longer(best, run);
+                    run.setLength(0);
+                }
+            } else {
+                best = longer(best, run);
+                run.setLength(0);
+                if (symbol instanceof GroupSymbol gs && symbol.getMinOccur() > 0) {
+                    best = longer(best, longestRequiredLiteral(gs.getChildren()));
+                }
+            }
+        }
+
+        return longer(best, run);
+    }
+
+    private static String longer(final String best, final CharSequence candidate) {
+        return candidate.length() > best.length() ? candidate.toString() : best;
+    }
+
+}
@@ -52,28 +52,30 @@ public abstract class Symbol {
     }
 
     static class CharClassSymbol extends Symbol {
-        private final CharPredicate predicate;
+        private final CharRanges ranges;
 
-        CharClassSymbol(final CharPredicate predicate) {
-            this.predicate = predicate;
+        CharClassSymbol(final CharRanges ranges) {
+            this.ranges = ranges;
         }
 
         boolean matches(final char c) {
-            return predicate.matches(c);
+            return ranges.matches(c);
         }
-    }
 
-    final static CharPredicate ANY_CHAR_PREDICATE = c -> true;
+        CharRanges getRanges() {
+            return ranges;
+        }
+    }
 
     public static final class AnyCharSymbol extends CharClassSymbol {
         AnyCharSymbol() {
-            super(ANY_CHAR_PREDICATE);
+            super(CharRanges.ALL);
         }
     }
 
     public static final class AnyDigitSymbol extends CharClassSymbol {
         AnyDigitSymbol () {
-            super(Character::isDigit);
+            super(CharRanges.DIGITS);
         }
     }
 
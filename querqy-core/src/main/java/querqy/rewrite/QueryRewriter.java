@@ -27,6 +27,9 @@ import querqy.model.Term;
  * <p>A query rewriter.</p>
  * <p>Query rewriter implementations shall guarantee to preserve the number of top-level query clauses of the
  * {@link ExpandedQuery#userQuery} when rewriting the query.</p>
+ * <p>A rewriter that keeps all per-request state in local variables or in an object that it creates for each call
+ * of {@link #rewrite(ExpandedQuery, SearchEngineRequestAdapter)} is thread-safe. Its {@link RewriterFactory} can
+ * return the same instance for all requests instead of creating a new rewriter per request.</p>
  * 
  * @author rene
  *
@@ -20,12 +20,15 @@ package querqy.rewrite;
 import java.util.Collections;
 import java.util.HashSet;
 import java.util.List;
+import java.util.Optional;
 import java.util.Set;
 
 import querqy.model.ExpandedQuery;
 import querqy.model.Query;
 import querqy.rewrite.logging.RewriteChainLog;
 import querqy.rewrite.logging.RewriterLog;
+import querqy.rewrite.metrics.RewriteChainListener;
+import querqy.rewrite.metrics.ThreadAllocation;
 
 /**
  * The chain of rewriters to manipulate a {@link Query}.
@@ -36,13 +39,35 @@ import querqy.rewrite.logging.RewriterLog;
 public class RewriteChain {
 
     private final List<RewriterFactory> factories;
+    private final RewriteChainCache cache;
+    private final RewriteChainListener listener;
 
     public RewriteChain() {
         this(Collections.emptyList());
     }
 
     public RewriteChain(final List<RewriterFactory> factories) {
+        this(factories, null);
+    }
+
+    /**
+     * @param factories The rewriter factories
+     * @param cache The cache for the rewrite output or null if the output should not be cached
+     */
+    public RewriteChain(final List<RewriterFactory> factories, final RewriteChainCache cache) {
+        this(factories, cache, null);
+    }
+
+    /**
+     * @param factories The rewriter factories
+     * @param cache The cache for the rewrite output or null if the output should not be cached
+     * @param listener The listener for measurements of the rewriters or null if nothing should be measured
+     */
+    public RewriteChain(final List<RewriterFactory> factories, final RewriteChainCache cache,
+                        final RewriteChainListener listener) {
         this.factories = factories;
+        this.cache = cache;
+        this.listener = listener;
         ensureThatRewriterIdsAreValid();
     }
 
@@ -50,6 +75,14 @@ public class RewriteChain {
         return factories;
     }
 
+    public Optional<RewriteChainCache> getCache() {
+        return Optional.ofNullable(cache);
+    }
+
+    public Optional<RewriteChainListener> getListener() {
+        return Optional.ofNullable(listener);
+    }
+
     private void ensureThatRewriterIdsAreValid() {
         final Set<String> rewriterIds = new HashSet<>();
 
@@ -71,7 +104,13 @@ public class RewriteChain {
     public RewriteChainOutput rewrite(final ExpandedQuery query,
                                       final SearchEngineRequestAdapter searchEngineRequestAdapter) {
 
-        final RewritingExecutor executor = new RewritingExecutor(factories, searchEngineRequestAdapter, query);
+        if (cache != null) {
+            return cache.rewrite(factories, query, searchEngineRequestAdapter,
+                    () -> new RewritingExecutor(factories, searchEngineRequestAdapter, query, listener).rewrite());
+        }
+
+        final RewritingExecutor executor = new RewritingExecutor(factories, searchEngineRequestAdapter, query,
+                listener);
         return executor.rewrite();
     }
 
@@ -86,12 +125,18 @@ public class RewriteChain {
 
         private final RewriteChainLog.RewriteChainLogBuilder rewriteChainLogBuilder = RewriteChainLog.builder();
 
+        private final RewriteChainListener listener;
+        private final boolean trackAllocations;
+
         public RewritingExecutor(
                 final List<RewriterFactory> rewriterFactories,
                 final SearchEngineRequestAdapter searchEngineRequestAdapter,
-                final ExpandedQuery expandedQuery
+                final ExpandedQuery expandedQuery,
+                final RewriteChainListener listener
         ) {
             this.rewriterFactories = rewriterFactories;
+            this.listener = listener;
+            this.trackAllocations = listener != null && listener.isAllocationTrackingEnabled();
 
             this.searchEngineRequestAdapter = searchEngineRequestAdapter;
             this.rewriteLoggingConfig = searchEngineRequestAdapter.getRewriteLoggingConfig();
@@ -100,8 +145,11 @@ public class RewriteChain {
         }
 
         public RewriteChainOutput rewrite() {
+            final long chainStart = listener != null ? System.nanoTime() : 0L;
+
             for (final RewriterFactory factory : rewriterFactories) {
-                final RewriterOutput rewriterOutput = applyFactory(factory);
+                final RewriterOutput rewriterOutput = listener != null
+                        ? applyFactoryAndMeasure(factory) : applyFactory(factory);
 
                 if (rewriteLoggingConfig.isActive() && rewriterOutput.getRewriterLog().isPresent()) {
                     addLogIfRewritingHasBeenApplied(
@@ -111,9 +159,27 @@ public class RewriteChain {
                 expandedQuery = rewriterOutput.getExpandedQuery();
             }
 
+            if (listener != null) {
+                listener.afterRewriteChain(System.nanoTime() - chainStart);
+            }
+
             return buildOutput();
         }
 
+        private RewriterOutput applyFactoryAndMeasure(final RewriterFactory factory) {
+            final long allocatedBefore = trackAllocations ? ThreadAllocation.currentThreadAllocatedBytes() : -1L;
+            final long start = System.nanoTime();
+
+            final RewriterOutput rewriterOutput = applyFactory(factory);
+
+            final long elapsed = System.nanoTime() - start;
+            final long allocated = trackAllocations
+                    ? ThreadAllocation.currentThreadAllocatedBytes() - allocatedBefore : -1L;
+            listener.afterRewriter(factory.getRewriterId(), rewriterOutput, elapsed, allocated);
+
+            return rewriterOutput;
+        }
+
         private RewriterOutput applyFactory(final RewriterFactory factory) {
             final QueryRewriter rewriter = factory.createRewriter(searchEngineRequestAdapter);
             return rewriter.rewrite(expandedQuery, searchEngineRequestAdapter);
@@ -0,0 +1,338 @@
+/*
+ * SPDX-License-Identifier: Apache-2.0
+ *
+ * Copyright 2026 Querqy Contributors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package querqy.rewrite;
+
+import querqy.SegmentedLruCache;
+import querqy.model.BooleanClause;
+import querqy.model.BooleanParent;
+import querqy.model.BooleanQuery;
+import querqy.model.BoostQuery;
+import querqy.model.DisjunctionMaxClause;
+import querqy.model.DisjunctionMaxQuery;
+import querqy.model.ExpandedQuery;
+import querqy.model.QuerqyQuery;
+import querqy.model.Query;
+import querqy.model.QueryStructureKey;
+import querqy.model.RawQuery;
+import querqy.rewrite.logging.RewriteChainLog;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongSupplier;
+import java.util.function.Supplier;
+
+/**
+ * <p>A cache for the output of a {@link RewriteChain}, see {@link RewriteChain#RewriteChain(List, RewriteChainCache)}.
+ * </p>
+ *
+ * <p>The cache key is made from the exact structure of the user query (including fields, boosts, occur and the
+ * generated flag), the logging config and the request parameters that the rewriter factories declare in
+ * {@link RewriterFactory#getRewriteCacheKeyParams()}. A request is rewritten without the cache if</p>
+ * <ul>
+ *     <li>a factory in the chain does not declare its parameters,</li>
+ *     <li>the user query contains a {@link RawQuery} or the input already has filter or boost queries,</li>
+ *     <li>the request is a debug request or its context is not empty before rewriting.</li>
+ * </ul>
+ *
+ * <p>A cache entry remembers the {@link RewriterFactory#getRewriteCacheVersion()} of each factory. The entry is
+ * discarded if a version has changed, for example after the rules of a factory have been changed. Entries also
+ * expire after the time to live. The values that the rewriters put into the request context are stored with the
+ * entry and copied into the context again for each cache hit.</p>
+ *
+ * <p>The entries are kept in a {@link SegmentedLruCache}.</p>
+ */
+public class RewriteChainCache {
+
+    private final SegmentedLruCache<String, Entry> cache;
+    private final long timeToLiveNanos;
+    private final LongSupplier nanoTicker;
+
+    private final LongAdder hitCount = new LongAdder();
+    private final LongAdder missCount = new LongAdder();
+
+    /**
+     * @param maxSize The maximum number of entries
+     * @param timeToLive The time after which an entry expires
+     */
+    public RewriteChainCache(final int maxSize, final Duration timeToLive) {
+        this(maxSize, timeToLive, System::nanoTime);
+    }
+
+    RewriteChainCache(final int maxSize, final Duration timeToLive, final LongSupplier nanoTicker) {
+        if (timeToLive == null || timeToLive.isNegative() || timeToLive.isZero()) {
+            throw new IllegalArgumentException("timeToLive must be > 0");
+        }
+        this.timeToLiveNanos = timeToLive.toNanos();
+        this.nanoTicker = nanoTicker;
+        this.cache = new SegmentedLruCache<>(maxSize);
+    }
+
+    /**
+     * Rewrites the query using the cache.
+     *
+     * @param factories The factories of the rewrite chain
+     * @param query The query to rewrite
+     * @param searchEngineRequestAdapter The request adapter
+     * @param rewriting Rewrites the query if there is no cached output
+     * @return The output of the rewrite chain
+     */
+    RewriteChainOutput rewrite(final List<RewriterFactory> factories, final ExpandedQuery query,
+                               final SearchEngineRequestAdapter searchEngineRequestAdapter,
+                               final Supplier<RewriteChainOutput> rewriting) {
+
+        final String key = createKey(factories, query, searchEngineRequestAdapter);
+        if (key == null) {
+            return rewriting.get();
+        }
+
+        final Object[] versions = new Object[factories.size()];
+        for (int i = 0; i < versions.length; i++) {
+            versions[i] = factories.get(i).getRewriteCacheVersion();
+        }
+
+        final Entry entry = cache.get(key);
+        if (entry != null && isValid(entry, versions)) {
+            hitCount.increment();
+            final Map<String, Object> context = searchEngineRequestAdapter.getContext();
+            entry.context.forEach((name, value) -> context.put(name, copyValue(value)));
+            return entry.createOutput();
+        }
+
+        missCount.increment();
+        final RewriteChainOutput output = rewriting.get();
+
+        final Map<String, Object> context = new LinkedHashMap<>();
+        searchEngineRequestAdapter.getContext().forEach((name, value) -> context.put(name, copyValue(value)));
+
+        cache.put(key, new Entry(copy(output.getExpandedQuery()), output.getRewriteLog().orElse(null), context,
+                versions, nanoTicker.getAsLong()));
+
+        return output;
+    }
+
+    private boolean isValid(final Entry entry, final Object[] versions) {
+        if (nanoTicker.getAsLong() - entry.created > timeToLiveNanos || entry.versions.length != versions.length) {
+            return false;
+        }
+        for (int i = 0; i < versions.length; i++) {
+            if (entry.versions[i] != versions[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Removes all entries.
+     */
+    public void invalidateAll() {
+        cache.clear();
+    }
+
+    /**
+     * @return The number of entries (including expired entries that have not been removed yet)
+     */
+    public int size() {
+        return cache.size();
+    }
+
+    public long getHitCount() {
+        return hitCount.sum();
+    }
+
+    public long getMissCount() {
+        return missCount.sum();
+    }
+
+    public long getEvictionCount() {
+        return cache.getEvictionCount();
+    }
+
+    /**
+     * Creates the cache key.
+     *
+     * @return The key or null if the output of the rewrite chain must not be cached for this request
+     */
+    static String createKey(final List<RewriterFactory> factories, final ExpandedQuery query,
+                            final SearchEngineRequestAdapter searchEngineRequestAdapter) {
+
+        final Map<String, Object> context = searchEngineRequestAdapter.getContext();
+        if (searchEngineRequestAdapter.isDebugQuery() || context == null || !context.isEmpty()
+                || !isEmpty(query.getFilterQueries()) || !isEmpty(query.getBoostUpQueries())
+                || !isEmpty(query.getBoostDownQueries()) || !isEmpty(query.getMultiplicativeBoostQueries())) {
+            return null;
+        }
+
+        final String queryKey = QueryStructureKey.create(query.getUserQuery(), false);
+        if (queryKey == null) {
+            return null;
+        }
+        final StringBuilder key = new StringBuilder(queryKey);
+
+        final RewriteLoggingConfig loggingConfig = searchEngineRequestAdapter.getRewriteLoggingConfig();
+        if (loggingConfig.isActive()) {
+            key.append("|log:").append(loggingConfig.hasDetails());
+            new TreeSet<>(loggingConfig.getIncludedRewriters()).forEach(id -> appendString(key.append(','), id));
+        }
+
+        for (final RewriterFactory factory : factories) {
+            final Optional<Set<String>> params = factory.getRewriteCacheKeyParams();
+            if (!params.isPresent()) {
+                return null;
+            }
+            appendString(key.append('|'), factory.getRewriterId());
+            for (final String name : new TreeSet<>(params.get())) {
+                appendString(key.append(';'), name);
+                for (final String value : searchEngineRequestAdapter.getRequestParams(name)) {
+                    appendString(key.append('='), value);
+                }
+            }
+        }
+
+        return key.toString();
+    }
+
+    private static boolean isEmpty(final Collection<?> collection) {
+        return collection == null || collection.isEmpty();
+    }
+
+    private static void appendString(final StringBuilder key, final CharSequence s) {
+        QueryStructureKey.appendString(key, s);
+    }
+
+    private static Object copyValue(final Object value) {
+        if (value instanceof Map) {
+            final Map<Object, Object> copy = new LinkedHashMap<>();
+            ((Map<?, ?>) value).forEach((k, v) -> copy.put(k, copyValue(v)));
+            return copy;
+        }
+        if (value instanceof Set) {
+            final Set<Object> copy = new LinkedHashSet<>();
+            ((Set<?>) value).forEach(v -> copy.add(copyValue(v)));
+            return copy;
+        }
+        if (value instanceof Collection) {
+            final List<Object> copy = new ArrayList<>();
+            ((Collection<?>) value).forEach(v -> copy.add(copyValue(v)));
+            return copy;
+        }
+        return value;
+    }
+
+    private static ExpandedQuery copy(final ExpandedQuery query) {
+        final ExpandedQuery copy = new ExpandedQuery(copy(query.getUserQuery()));
+        if (query.getFilterQueries() != null) {
+            query.getFilterQueries().forEach(filterQuery -> copy.addFilterQuery(copy(filterQuery)));
+        }
+        if (query.getBoostUpQueries() != null) {
+            query.getBoostUpQueries().forEach(boostQuery -> copy.addBoostUpQuery(copy(boostQuery)));
+        }
+        if (query.getBoostDownQueries() != null) {
+            query.getBoostDownQueries().forEach(boostQuery -> copy.addBoostDownQuery(copy(boostQuery)));
+        }
+        if (query.getMultiplicativeBoostQueries() != null) {
+            query.getMultiplicativeBoostQueries()
+                    .forEach(boostQuery -> copy.addMultiplicativeBoostQuery(copy(boostQuery)));
+        }
+        return copy;
+    }
+
+    private static BoostQuery copy(final BoostQuery boostQuery) {
+        final QuerqyQuery<?> query = boostQuery.getQuery();
+        return new BoostQuery(copy(query), boostQuery.getBoost());
+    }
+
+    /**
+     * Deep copy that keeps the generated flag of each node. We can't use clone(null) for boolean queries as it
+     * passes the generated flag of the root on to all clauses.
+     */
+    private static QuerqyQuery<?> copy(final QuerqyQuery<?> query) {
+        if (query instanceof Query) {
+            final Query copy = new Query(query.isGenerated());
+            copyClauses((BooleanQuery) query, copy);
+            return copy;
+        }
+        if (query instanceof BooleanQuery) {
+            return copy((BooleanQuery) query, null);
+        }
+        // leaf queries keep their own generated flag
+        return (QuerqyQuery<?>) query.clone(null);
+    }
+
+    private static void copyClauses(final BooleanQuery source, final BooleanQuery target) {
+        for (final BooleanClause clause : source.getClauses()) {
+            if (clause instanceof BooleanQuery) {
+                target.addClause(copy((BooleanQuery) clause, target));
+            } else if (clause instanceof DisjunctionMaxQuery) {
+                final DisjunctionMaxQuery dmq = (DisjunctionMaxQuery) clause;
+                final DisjunctionMaxQuery dmqCopy = new DisjunctionMaxQuery(target, dmq.occur, dmq.isGenerated(),
+                        dmq.getTieBreaker().orElse(null));
+                for (final DisjunctionMaxClause dmqClause : dmq.getClauses()) {
+                    dmqCopy.addClause(dmqClause instanceof BooleanQuery
+                            ? copy((BooleanQuery) dmqClause, dmqCopy)
+                            : dmqClause.clone(dmqCopy, dmqClause.isGenerated()));
+                }
+                target.addClause(dmqCopy);
+            } else {
+                target.addClause(clause.clone(target, clause.isGenerated()));
+            }
+        }
+    }
+
+    private static BooleanQuery copy(final BooleanQuery bq, final BooleanParent newParent) {
+        final BooleanQuery copy = new BooleanQuery(newParent, bq.occur, bq.isGenerated());
+        copyClauses(bq, copy);
+        return copy;
+    }
+
+    private static class Entry {
+
+        final ExpandedQuery expandedQuery;
+        final RewriteChainLog rewriteLog;
+        final Map<String, Object> context;
+        final Object[] versions;
+        final long created;
+
+        Entry(final ExpandedQuery expandedQuery, final RewriteChainLog rewriteLog,
+              final Map<String, Object> context, final Object[] versions, final long created) {
+            this.expandedQuery = expandedQuery;
+            this.rewriteLog = rewriteLog;
+            this.context = context;
+            this.versions = versions;
+            this.created = created;
+        }
+
+        RewriteChainOutput createOutput() {
+            // the caller may change the query, never hand out the cached instance
+            return RewriteChainOutput.builder()
+                    .expandedQuery(copy(expandedQuery))
+                    .rewriteLog(rewriteLog)
+                    .build();
+        }
+    }
+
+}
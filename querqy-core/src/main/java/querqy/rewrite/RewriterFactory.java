@@ -18,6 +18,7 @@
 package querqy.rewrite;
 
 import java.util.Collections;
+import java.util.Optional;
 import java.util.Set;
 
 import querqy.model.Term;
@@ -34,6 +35,13 @@ public abstract class RewriterFactory {
         this.rewriterId = rewriterId;
     }
 
+    /**
+     * Get the rewriter for a request. Implementations can return the same instance for every request if the
+     * rewriter is thread-safe (see {@link QueryRewriter}).
+     *
+     * @param searchEngineRequestAdapter The request adapter
+     * @return The rewriter
+     */
     public abstract QueryRewriter createRewriter(SearchEngineRequestAdapter searchEngineRequestAdapter);
 
     /**
@@ -63,5 +71,28 @@ public abstract class RewriterFactory {
         return rewriterId;
     }
 
+    /**
+     * <p>Get the names of the request parameters that influence the output of the rewriters that will be created by
+     * this class. The output of a {@link RewriteChain} can only be cached by a {@link RewriteChainCache} if all
+     * factories in the chain return their parameters.</p>
+     * <p>Return an empty set if the output only depends on the query, and an empty Optional if the output
+     * depends on anything else in the request.</p>
+     *
+     * @return The parameter names, defaults to an empty Optional (output cannot be cached)
+     */
+    public Optional<Set<String>> getRewriteCacheKeyParams() {
+        return Optional.empty();
+    }
+
+    /**
+     * <p>Get an object that identifies the current configuration of this factory. Cached rewrite output is discarded
+     * if the factory returns a different object (by identity) than at the time the output was cached.</p>
+     *
+     * @return The version, defaults to this factory
+     */
+    public Object getRewriteCacheVersion() {
+        return this;
+    }
+
 
 }
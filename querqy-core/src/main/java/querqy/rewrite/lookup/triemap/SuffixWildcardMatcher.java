@@ -26,6 +26,7 @@ import querqy.rewrite.lookup.triemap.suffix.SuffixWildcardRule;
 import querqy.rewrite.lookup.triemap.suffix.SuffixWildcardRules;
 import querqy.rewriter.commonrules.model.TermMatch;
 import querqy.rewriter.commonrules.model.TermMatches;
+import querqy.trie.LookupCursor;
 import querqy.trie.State;
 import querqy.trie.States;
 
@@ -54,6 +55,7 @@ public class SuffixWildcardMatcher<T> {
     private final SuffixWildcardRules<T> rules;
     private final LookupPreprocessor preprocessor;
     private final Set<SuffixWildcardRule<T>> rulesWithoutLeftContext;
+    private final LookupCursor<List<SuffixWildcardRule<T>>> cursor = new LookupCursor<>();
 
     private final List<Match<T>> matches = new ArrayList<>();
 
@@ -127,7 +129,7 @@ public class SuffixWildcardMatcher<T> {
     }
 
     private void checkSuffixMatch(final Term term, final CharSequence termKey) {
-        final States<List<SuffixWildcardRule<T>>> states = rules.getSuffixStates(termKey);
+        final States<List<SuffixWildcardRule<T>>> states = rules.getSuffixStates(termKey, cursor);
         final List<State<List<SuffixWildcardRule<T>>>> prefixes = states.getPrefixes();
         if (prefixes == null) {
             return;
@@ -171,11 +173,12 @@ public class SuffixWildcardMatcher<T> {
     private void advanceLeftContext(final Term term, final CharSequence termKey) {
 
         for (final LeftContextPending<T> pending : previousLeftContextPending) {
-            final States<List<SuffixWildcardRule<T>>> states = rules.getNextLeftContextStates(pending.state, termKey);
+            final States<List<SuffixWildcardRule<T>>> states = rules.getNextLeftContextStates(pending.state, termKey,
+                    cursor);
             registerLeftContextStates(states, concat(pending.matchedTerms, term));
         }
 
-        final States<List<SuffixWildcardRule<T>>> freshStates = rules.getLeftContextStates(termKey);
+        final States<List<SuffixWildcardRule<T>>> freshStates = rules.getLeftContextStates(termKey, cursor);
         registerLeftContextStates(freshStates, Collections.singletonList(term));
     }
 
@@ -57,6 +57,10 @@ public class TrieMapLookupQueryVisitorFactory<ValueT> {
         return trieMap;
     }
 
+    public SuffixWildcardRules<ValueT> getSuffixWildcardRules() {
+        return suffixWildcardRules;
+    }
+
     public static <ValueT> TrieMapLookupQueryVisitorFactory<ValueT> of(final TrieMap<ValueT> trieMap,
                                                                       final LookupConfig lookupConfig,
                                                                       final SuffixWildcardRules<ValueT> suffixWildcardRules) {
@@ -21,14 +21,21 @@ import querqy.CompoundCharSequence;
 import querqy.model.Term;
 import querqy.rewrite.lookup.LookupConfig;
 import querqy.rewrite.lookup.triemap.model.TrieMapSequence;
+import querqy.trie.LookupCursor;
 import querqy.trie.States;
 import querqy.trie.TrieMap;
 
 
+/**
+ * Looks up the terms of a query in a {@link TrieMap}. A TrieMapSequenceLookup is created per query lookup and must
+ * not be shared between threads. It reuses a {@link LookupCursor} across its lookups and returns the shared
+ * {@link States#unknown()} for terms that do not match, so that only matches create objects.
+ */
 public class TrieMapSequenceLookup<ValueT> {
 
     private final TrieMap<ValueT> trieMap;
     private final LookupConfig lookupConfig;
+    private final LookupCursor<ValueT> cursor = new LookupCursor<>();
 
     TrieMapSequenceLookup(final TrieMap<ValueT> trieMap, final LookupConfig lookupConfig) {
         this.trieMap = trieMap;
@@ -38,14 +45,16 @@ public class TrieMapSequenceLookup<ValueT> {
     public States<ValueT> evaluateTerm(final Term term) {
         // TODO: why with field?
         final CharSequence lookupCharSequence = createLookupCharSequence(term);
-        return trieMap.get(lookupCharSequence);
+        trieMap.lookup(lookupCharSequence, cursor);
+        return cursor.toStates();
     }
 
     public States<ValueT> evaluateNextTerm(final TrieMapSequence<ValueT> sequence, final Term term) {
         final CharSequence lookupCharSequence = new CompoundCharSequence(
                 null, " ", createLookupCharSequence(term));
 
-        return trieMap.get(lookupCharSequence, sequence.getStates().getStateForCompleteSequence());
+        trieMap.lookup(lookupCharSequence, sequence.getStates().getStateForCompleteSequence(), cursor);
+        return cursor.toStates();
     }
 
     private CharSequence createLookupCharSequence(final Term term) {
@@ -19,6 +19,7 @@ package querqy.rewrite.lookup.triemap.suffix;
 
 import querqy.CompoundCharSequence;
 import querqy.ReverseComparableCharSequence;
+import querqy.trie.LookupCursor;
 import querqy.trie.State;
 import querqy.trie.States;
 import querqy.trie.TrieMap;
@@ -78,6 +79,17 @@ public class SuffixWildcardRules<T> {
         return suffixTrieMap.get(new ReverseComparableCharSequence(termKey));
     }
 
+    /**
+     * Like {@link #getSuffixStates(CharSequence)} but looks up the term using the given cursor.
+     *
+     * @return The States of the lookup, the shared {@link States#unknown()} if nothing matched
+     */
+    public States<List<SuffixWildcardRule<T>>> getSuffixStates(
+            final CharSequence termKey, final LookupCursor<List<SuffixWildcardRule<T>>> cursor) {
+        suffixTrieMap.lookup(new ReverseComparableCharSequence(termKey), cursor);
+        return cursor.toStates();
+    }
+
     /**
      * Starts a fresh left-context match at {@code termKey} (mirroring {@code TrieMapSequenceLookup#evaluateTerm}).
      */
@@ -85,6 +97,17 @@ public class SuffixWildcardRules<T> {
         return leftContextTrieMap.get(termKey);
     }
 
+    /**
+     * Like {@link #getLeftContextStates(CharSequence)} but looks up the term using the given cursor.
+     *
+     * @return The States of the lookup, the shared {@link States#unknown()} if nothing matched
+     */
+    public States<List<SuffixWildcardRule<T>>> getLeftContextStates(
+            final CharSequence termKey, final LookupCursor<List<SuffixWildcardRule<T>>> cursor) {
+        leftContextTrieMap.lookup(termKey, cursor);
+        return cursor.toStates();
+    }
+
     /**
      * Extends a pending left-context match with one more term (mirroring
      * {@code TrieMapSequenceLookup#evaluateNextTerm}).
@@ -95,4 +118,16 @@ public class SuffixWildcardRules<T> {
         return leftContextTrieMap.get(lookupCharSequence, priorState);
     }
 
+    /**
+     * Like {@link #getNextLeftContextStates(State, CharSequence)} but looks up the term using the given cursor.
+     *
+     * @return The States of the lookup, the shared {@link States#unknown()} if nothing matched
+     */
+    public States<List<SuffixWildcardRule<T>>> getNextLeftContextStates(
+            final State<List<SuffixWildcardRule<T>>> priorState, final CharSequence termKey,
+            final LookupCursor<List<SuffixWildcardRule<T>>> cursor) {
+        leftContextTrieMap.lookup(new CompoundCharSequence(null, " ", termKey), priorState, cursor);
+        return cursor.toStates();
+    }
+
 }
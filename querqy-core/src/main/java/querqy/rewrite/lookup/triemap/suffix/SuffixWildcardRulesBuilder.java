@@ -18,6 +18,7 @@
 package querqy.rewrite.lookup.triemap.suffix;
 
 import querqy.ReverseComparableCharSequence;
+import querqy.trie.CompiledTrieMap;
 import querqy.trie.State;
 import querqy.trie.States;
 import querqy.trie.TrieMap;
@@ -65,7 +66,8 @@ public class SuffixWildcardRulesBuilder<T> {
     }
 
     public SuffixWildcardRules<T> build() {
-        return new SuffixWildcardRules<>(suffixTrieMap, leftContextTrieMap,
+        return new SuffixWildcardRules<>(CompiledTrieMap.compile(suffixTrieMap),
+                CompiledTrieMap.compile(leftContextTrieMap),
                 Collections.unmodifiableList(new ArrayList<>(rulesWithoutLeftContext)));
     }
 
@@ -0,0 +1,158 @@
+/*
+ * SPDX-License-Identifier: Apache-2.0
+ *
+ * Copyright 2026 Querqy Contributors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package querqy.rewrite.metrics;
+
+import querqy.rewrite.RewriterOutput;
+import querqy.rewrite.logging.RewriterLog;
+
+import java.util.Collections;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * <p>A {@link RewriteChainListener} that keeps a latency histogram and counters per rewriter. Call
+ * {@link #getRewriterStats()} and {@link #getChainStats()} to scrape the current values.</p>
+ *
+ * <p>The number of matches of a rewriter is the number of action logs in its {@link RewriterLog}. Action logs are
+ * only created if the request asks for rewrite logging with details, otherwise only the number of requests for which
+ * the rewriter applied any rewriting is known.</p>
+ */
+public class HistogramRewriteChainListener implements RewriteChainListener {
+
+    private final boolean trackAllocations;
+    private final Map<String, RewriterMetrics> metrics = new ConcurrentHashMap<>();
+    private final LatencyHistogram chainLatency = new LatencyHistogram();
+
+    public HistogramRewriteChainListener() {
+        this(false);
+    }
+
+    /**
+     * @param trackAllocations Iff true, measure the bytes allocated by each rewriter (if supported by the JVM)
+     */
+    public HistogramRewriteChainListener(final boolean trackAllocations) {
+        this.trackAllocations = trackAllocations && ThreadAllocation.isSupported();
+    }
+
+    @Override
+    public void afterRewriter(final String rewriterId, final RewriterOutput output, final long elapsedNanos,
+                              final long allocatedBytes) {
+        final RewriterMetrics rewriterMetrics = metrics.computeIfAbsent(rewriterId, id -> new RewriterMetrics());
+        rewriterMetrics.latency.record(elapsedNanos);
+        if (allocatedBytes >= 0) {
+            rewriterMetrics.allocatedBytes.add(allocatedBytes);
+        }
+        output.getRewriterLog().ifPresent(log -> {
+            if (log.hasAppliedRewriting()) {
+                rewriterMetrics.appliedCount.increment();
+            }
+            if (log.getActionLogs() != null) {
+                rewriterMetrics.matchCount.add(log.getActionLogs().size());
+            }
+        });
+    }
+
+    @Override
+    public void afterRewriteChain(final long elapsedNanos) {
+        chainLatency.record(elapsedNanos);
+    }
+
+    @Override
+    public boolean isAllocationTrackingEnabled() {
+        return trackAllocations;
+    }
+
+    /**
+     * @return The stats by rewriter id, sorted by id
+     */
+    public Map<String, RewriterStats> getRewriterStats() {
+        final Map<String, RewriterStats> stats = new TreeMap<>();
+        metrics.forEach((id, rewriterMetrics) -> stats.put(id, rewriterMetrics.toStats(trackAllocations)));
+        return Collections.unmodifiableMap(stats);
+    }
+
+    /**
+     * @return The latency of the whole chain
+     */
+    public LatencyHistogram.Snapshot getChainStats() {
+        return chainLatency.snapshot();
+    }
+
+    private static class RewriterMetrics {
+
+        final LatencyHistogram latency = new LatencyHistogram();
+        final LongAdder allocatedBytes = new LongAdder();
+        final LongAdder appliedCount = new LongAdder();
+        final LongAdder matchCount = new LongAdder();
+
+        RewriterStats toStats(final boolean trackAllocations) {
+            return new RewriterStats(latency.snapshot(), trackAllocations ? allocatedBytes.sum() : -1L,
+                    appliedCount.sum(), matchCount.sum());
+        }
+    }
+
+    /**
+     * The measurements for a single rewriter.
+     */
+    public static class RewriterStats {
+
+        private final LatencyHistogram.Snapshot latency;
+        private final long allocatedBytes;
+        private final long appliedCount;
+        private final long matchCount;
+
+        RewriterStats(final LatencyHistogram.Snapshot latency, final long allocatedBytes, final long appliedCount,
+                      final long matchCount) {
+            this.latency = latency;
+            this.allocatedBytes = allocatedBytes;
+            this.appliedCount = appliedCount;
+            this.matchCount = matchCount;
+        }
+
+        /**
+         * @return The latency in nanoseconds. The count of the histogram is the number of requests.
+         */
+        public LatencyHistogram.Snapshot getLatency() {
+            return latency;
+        }
+
+        /**
+         * @return The total number of bytes allocated by the rewriter or -1 if allocations are not tracked
+         */
+        public long getAllocatedBytes() {
+            return allocatedBytes;
+        }
+
+        /**
+         * @return The number of requests for which the rewriter changed the query
+         */
+        public long getAppliedCount() {
+            return appliedCount;
+        }
+
+        /**
+         * @return The number of matches (action logs) of the rewriter
+         */
+        public long getMatchCount() {
+            return matchCount;
+        }
+    }
+
+}
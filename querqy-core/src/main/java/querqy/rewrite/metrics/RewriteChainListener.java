@@ -0,0 +1,59 @@
+/*
+ * SPDX-License-Identifier: Apache-2.0
+ *
+ * Copyright 2026 Querqy Contributors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package querqy.rewrite.metrics;
+
+import querqy.rewrite.RewriteChain;
+import querqy.rewrite.RewriterOutput;
+
+/**
+ * <p>Receives measurements from a {@link RewriteChain}, see
+ * {@link RewriteChain#RewriteChain(java.util.List, querqy.rewrite.RewriteChainCache, RewriteChainListener)}.</p>
+ *
+ * <p>Listeners are called on the request thread and must be thread-safe and fast.</p>
+ */
+public interface RewriteChainListener {
+
+    /**
+     * Called after a rewriter of the chain has been created and applied.
+     *
+     * @param rewriterId The id of the rewriter
+     * @param output The output of the rewriter
+     * @param elapsedNanos The time for creating and applying the rewriter
+     * @param allocatedBytes The bytes allocated by the request thread while creating and applying the rewriter, or -1
+     *                       if allocations are not tracked (see {@link #isAllocationTrackingEnabled()})
+     */
+    void afterRewriter(String rewriterId, RewriterOutput output, long elapsedNanos, long allocatedBytes);
+
+    /**
+     * Called after the whole chain has been applied. It is not called if the output was taken from a cache.
+     *
+     * @param elapsedNanos The time for applying all rewriters
+     */
+    default void afterRewriteChain(long elapsedNanos) {
+    }
+
+    /**
+     * Tracking allocations needs support by the JVM and adds a small overhead to each rewriter.
+     *
+     * @return true if allocated bytes should be measured
+     */
+    default boolean isAllocationTrackingEnabled() {
+        return false;
+    }
+
+}
@@ -35,6 +35,9 @@ import java.util.Objects;
  * <pre>
  (01 OR 012345) (23 OR 012345) (45 OR 012345)
  </pre>
+ * <p>An instance of exactly this class can be shared between requests: {@link #rewrite(ExpandedQuery,
+ * SearchEngineRequestAdapter)} visits the query with a new instance that holds the state of the call. Subclasses
+ * visit the query themselves and must be created per request.</p>
  *
  * @author Daniel Wrigley
  */
@@ -60,12 +63,15 @@ public class NumberConcatenationRewriter extends AbstractNodeVisitor<Node> imple
     public RewriterOutput rewrite(final ExpandedQuery query, final SearchEngineRequestAdapter requestAdapter) {
         final QuerqyQuery<?> userQuery = query.getUserQuery();
         if (userQuery instanceof Query){
-            previousTerm = null;
-            termsToAdd = new LinkedList<>();
-            numberOfClauses = ((Query) userQuery).getClauses().size();
-            clauseCount = 1;
-            visit((Query) userQuery);
-            for (Term term : termsToAdd) {
+            final NumberConcatenationRewriter visitor = getClass() == NumberConcatenationRewriter.class
+                    ? new NumberConcatenationRewriter(acceptGeneratedTerms, minimumLengthOfResultingQueryTerm) : this;
+            visitor.previousTerm = null;
+            visitor.termsToAdd = new LinkedList<>();
+            visitor.numberTermsToAdd.clear();
+            visitor.numberOfClauses = ((Query) userQuery).getClauses().size();
+            visitor.clauseCount = 1;
+            visitor.visit((Query) userQuery);
+            for (Term term : visitor.termsToAdd) {
                 term.getParent().addClause(term);
             }
         }
@@ -22,6 +22,8 @@ import querqy.rewrite.QueryRewriter;
 import querqy.rewrite.RewriterFactory;
 import querqy.rewrite.SearchEngineRequestAdapter;
 
+import java.util.Collections;
+import java.util.Optional;
 import java.util.Set;
 
 /**
@@ -33,6 +35,7 @@ public class NumberConcatenationRewriterFactory extends RewriterFactory {
 
     protected final boolean acceptGeneratedTerms;
     protected int minimumLengthOfResultingQueryTerm;
+    private final NumberConcatenationRewriter rewriter;
 
     public NumberConcatenationRewriterFactory(final String rewriterId) {
 
@@ -48,11 +51,12 @@ public class NumberConcatenationRewriterFactory extends RewriterFactory {
         super(rewriterId);
         this.acceptGeneratedTerms = acceptGeneratedTerms;
         this.minimumLengthOfResultingQueryTerm = minimumLengthOfResultingQueryTerm;
+        this.rewriter = new NumberConcatenationRewriter(acceptGeneratedTerms, minimumLengthOfResultingQueryTerm);
     }
 
     @Override
     public QueryRewriter createRewriter(final SearchEngineRequestAdapter searchEngineRequestAdapter) {
-        return new NumberConcatenationRewriter(acceptGeneratedTerms, minimumLengthOfResultingQueryTerm);
+        return rewriter;
     }
 
     @Override
@@ -60,4 +64,8 @@ public class NumberConcatenationRewriterFactory extends RewriterFactory {
         return QueryRewriter.EMPTY_GENERABLE_TERMS;
     }
 
+    @Override
+    public Optional<Set<String>> getRewriteCacheKeyParams() {
+        return Optional.of(Collections.emptySet());
+    }
 }
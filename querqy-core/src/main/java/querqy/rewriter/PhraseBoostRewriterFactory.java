@@ -24,7 +24,9 @@ import querqy.rewrite.SearchEngineRequestAdapter;
 import querqy.rewriter.PhraseBoostRewriter.FieldAndBoost;
 import querqy.rewriter.PhraseBoostRewriter.PhraseTypeConfig;
 
+import java.util.Collections;
 import java.util.List;
+import java.util.Optional;
 import java.util.Set;
 import java.util.stream.Collectors;
 
@@ -98,4 +100,9 @@ public class PhraseBoostRewriterFactory extends RewriterFactory {
     public Set<Term> getCacheableGenerableTerms() {
         return QueryRewriter.EMPTY_GENERABLE_TERMS;
     }
+
+    @Override
+    public Optional<Set<String>> getRewriteCacheKeyParams() {
+        return Optional.of(Collections.emptySet());
+    }
 }
@@ -33,6 +33,9 @@ import java.util.List;
  (A OR AB) (B OR AB OR BC) (C OR BC)
  </pre>
  * <p>The resulting structure has the same number of clauses like the original query.<P>
+ * <p>An instance of exactly this class can be shared between requests: {@link #rewrite(ExpandedQuery,
+ * SearchEngineRequestAdapter)} visits the query with a new instance that holds the state of the call. Subclasses
+ * visit the query themselves and must be created per request.</p>
  * 
  * @author muellenborn
  * @author René Kriegler, @renekrie
@@ -55,10 +58,12 @@ public class ShingleRewriter extends AbstractNodeVisitor<Node> implements QueryR
     public RewriterOutput rewrite(final ExpandedQuery query, final SearchEngineRequestAdapter requestAdapter) {
         final QuerqyQuery<?> userQuery = query.getUserQuery();
         if (userQuery != null && userQuery instanceof Query){
-            previousTerm = null;
-            termsToAdd = new LinkedList<>();
-            visit((Query) userQuery);
-            for (Term term : termsToAdd) {
+            final ShingleRewriter visitor = getClass() == ShingleRewriter.class
+                    ? new ShingleRewriter(acceptGeneratedTerms) : this;
+            visitor.previousTerm = null;
+            visitor.termsToAdd = new LinkedList<>();
+            visitor.visit((Query) userQuery);
+            for (Term term : visitor.termsToAdd) {
                 term.getParent().addClause(term);
             }
         }
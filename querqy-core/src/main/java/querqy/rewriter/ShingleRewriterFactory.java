@@ -22,6 +22,8 @@ import querqy.rewrite.QueryRewriter;
 import querqy.rewrite.RewriterFactory;
 import querqy.rewrite.SearchEngineRequestAdapter;
 
+import java.util.Collections;
+import java.util.Optional;
 import java.util.Set;
 
 /**
@@ -30,6 +32,7 @@ import java.util.Set;
 public class ShingleRewriterFactory extends RewriterFactory {
 
     protected final boolean acceptGeneratedTerms;
+    private final ShingleRewriter rewriter;
 
     public ShingleRewriterFactory(final String rewriterId) {
 
@@ -39,11 +42,12 @@ public class ShingleRewriterFactory extends RewriterFactory {
     public ShingleRewriterFactory(final String rewriterId, final boolean acceptGeneratedTerms) {
         super(rewriterId);
         this.acceptGeneratedTerms = acceptGeneratedTerms;
+        this.rewriter = new ShingleRewriter(acceptGeneratedTerms);
     }
 
     @Override
     public QueryRewriter createRewriter(SearchEngineRequestAdapter searchEngineRequestAdapter) {
-        return new ShingleRewriter(acceptGeneratedTerms);
+        return rewriter;
     }
 
     @Override
@@ -54,4 +58,9 @@ public class ShingleRewriterFactory extends RewriterFactory {
     public boolean isAcceptGeneratedTerms() {
         return acceptGeneratedTerms;
     }
+
+    @Override
+    public Optional<Set<String>> getRewriteCacheKeyParams() {
+        return Optional.of(Collections.emptySet());
+    }
 }
@@ -46,6 +46,10 @@ import java.util.List;
 import java.util.stream.Collectors;
 
 /**
+ * <p>An instance of exactly this class keeps no per-request state and can be shared between requests that use the
+ * same {@link SelectionStrategy}. Subclasses get the state of the request in the protected fields before
+ * {@link #rewriteBooleanQuery(BooleanQuery)} is called and must be created per request.</p>
+ *
  * @author rene
  *
  */
@@ -55,10 +59,8 @@ public class CommonRulesRewriter implements QueryRewriter {
 
     protected ExpandedQuery expandedQuery;
     protected SearchEngineRequestAdapter searchEngineRequestAdapter;
-
     protected SelectionStrategy selectionStrategy;
-
-    private final RewriterLog.RewriterLogBuilder rewriterLogBuilder = RewriterLog.builder();
+    private RewriterLog.RewriterLogBuilder rewriterLogBuilder;
 
     public CommonRulesRewriter(
             final TrieMapLookupQueryVisitorFactory<InstructionsSupplier> trieMapLookupQueryVisitorFactory, final SelectionStrategy selectionStrategy) {
@@ -70,13 +72,22 @@ public class CommonRulesRewriter implements QueryRewriter {
     public RewriterOutput rewrite(final ExpandedQuery query, final SearchEngineRequestAdapter searchEngineRequestAdapter) {
 
         final QuerqyQuery<?> userQuery = query.getUserQuery();
+        final boolean shared = getClass() == CommonRulesRewriter.class;
+        final RewriterLog.RewriterLogBuilder rewriterLogBuilder = RewriterLog.builder();
 
-        if (userQuery instanceof Query) {
-
+        if (!shared) {
             this.expandedQuery = query;
             this.searchEngineRequestAdapter = searchEngineRequestAdapter;
+            this.rewriterLogBuilder = rewriterLogBuilder;
+        }
 
-            rewriteBooleanQuery((BooleanQuery) query.getUserQuery());
+        if (userQuery instanceof Query) {
+
+            if (shared) {
+                rewriteBooleanQuery((BooleanQuery) userQuery, query, searchEngineRequestAdapter, rewriterLogBuilder);
+            } else {
+                rewriteBooleanQuery((BooleanQuery) userQuery);
+            }
 
             if (((Query) userQuery).isEmpty()
                     && (query.getBoostUpQueries() != null || query.getFilterQueries() != null)) {
@@ -90,7 +101,17 @@ public class CommonRulesRewriter implements QueryRewriter {
                 .build();
     }
 
+    TrieMapLookupQueryVisitorFactory<InstructionsSupplier> getTrieMapLookupQueryVisitorFactory() {
+        return trieMapLookupQueryVisitorFactory;
+    }
+
     protected void rewriteBooleanQuery(final BooleanQuery booleanQuery) {
+        rewriteBooleanQuery(booleanQuery, expandedQuery, searchEngineRequestAdapter, rewriterLogBuilder);
+    }
+
+    private void rewriteBooleanQuery(final BooleanQuery booleanQuery, final ExpandedQuery expandedQuery,
+                                     final SearchEngineRequestAdapter searchEngineRequestAdapter,
+                                     final RewriterLog.RewriterLogBuilder rewriterLogBuilder) {
 
         final TopRewritingActionCollector collector = selectionStrategy.createTopRewritingActionCollector();
 
@@ -112,16 +133,11 @@ public class CommonRulesRewriter implements QueryRewriter {
 
             rewriterLogBuilder.hasAppliedRewriting(true);
             if (searchEngineRequestAdapter.getRewriteLoggingConfig().hasDetails()) {
-                appendActionLogs(action);
+                rewriterLogBuilder.addActionLogs(new ActionLogConverter(action).convert());
             }
         }
     }
 
-    private void appendActionLogs(final Action action) {
-        final ActionLog actionLog = new ActionLogConverter(action).convert();
-        rewriterLogBuilder.addActionLogs(actionLog);
-    }
-
     private static class ActionLogConverter {
 
         private final Action action;
@@ -0,0 +1,430 @@
+/*
+ * SPDX-License-Identifier: Apache-2.0
+ *
+ * Copyright 2026 Querqy Contributors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package querqy.rewriter.commonrules;
+
+import lombok.EqualsAndHashCode;
+import lombok.RequiredArgsConstructor;
+import querqy.model.Input;
+import querqy.rewrite.QuerqyTemplateEngine;
+import querqy.rewrite.RuleParseException;
+import querqy.rewrite.TemplateParseException;
+import querqy.rewrite.lookup.LookupConfig;
+import querqy.rewrite.lookup.preprocessing.LookupPreprocessor;
+import querqy.rewrite.lookup.triemap.TrieMapLookupQueryVisitorFactory;
+import querqy.rewrite.lookup.triemap.suffix.SuffixWildcardRules;
+import querqy.rewriter.commonrules.model.InputSequenceNormalizer;
+import querqy.rewriter.commonrules.model.Instructions;
+import querqy.rewriter.commonrules.model.InstructionsSupplier;
+import querqy.rewriter.commonrules.model.PrefixTerm;
+import querqy.rewriter.commonrules.model.SuffixTerm;
+import querqy.rewriter.commonrules.model.Term;
+import querqy.rewriter.commonrules.model.TrieMapRulesCollectionBuilder;
+import querqy.rewriter.commonrules.rules.factory.RuleParserFactory;
+import querqy.rewriter.commonrules.rules.factory.TextParserFactory;
+import querqy.rewriter.commonrules.rules.factory.config.RuleParserConfig;
+import querqy.rewriter.commonrules.rules.factory.config.TextParserConfig;
+import querqy.rewriter.commonrules.rules.property.PropertyParser;
+import querqy.rewriter.commonrules.rules.rule.Rule;
+import querqy.rewriter.commonrules.rules.rule.RuleParser;
+import querqy.rewriter.commonrules.rules.rule.skeleton.RuleSkeleton;
+import querqy.trie.CompiledTrieMap;
+import querqy.trie.State;
+import querqy.trie.TrieMap;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * <p>An immutable version of the rules of a {@link SimpleCommonRulesRewriterFactory}, together with the lookup
+ * structures that were built from them.</p>
+ *
+ * <p>A RulesCollection keeps the input and the instructions of the rules by their id, so that a {@link RulesDelta}
+ * can be applied without re-parsing the unchanged rules. Applying a delta creates a new RulesCollection and leaves
+ * this one untouched, so that rewriters that are still using it are not affected. Only the trie paths of the inputs
+ * in the delta are copied, all other nodes are shared with this RulesCollection. As a {@link CompiledTrieMap} cannot
+ * be changed, the first delta converts it into a {@link TrieMap}.</p>
+ */
+class RulesCollection {
+
+    private static final Comparator<Instructions> BY_ORD = Comparator.comparingInt(Instructions::getOrd);
+
+    private final RuleParserConfig ruleParserConfig;
+    private final LookupPreprocessor lookupPreprocessor;
+    /**
+     * The rules by id or null if rules cannot be changed
+     */
+    private final Map<Object, RuleEntry> rulesById;
+    private final int nextOrd;
+    private final TrieMapLookupQueryVisitorFactory<InstructionsSupplier> trieMapLookupQueryVisitorFactory;
+
+    private RulesCollection(final RuleParserConfig ruleParserConfig, final LookupPreprocessor lookupPreprocessor,
+                            final Map<Object, RuleEntry> rulesById, final int nextOrd,
+                            final TrieMapLookupQueryVisitorFactory<InstructionsSupplier>
+                                    trieMapLookupQueryVisitorFactory) {
+        this.ruleParserConfig = ruleParserConfig;
+        this.lookupPreprocessor = lookupPreprocessor;
+        this.rulesById = rulesById;
+        this.nextOrd = nextOrd;
+        this.trieMapLookupQueryVisitorFactory = trieMapLookupQueryVisitorFactory;
+    }
+
+    /**
+     * Creates a RulesCollection from parsed rules. Rules with boolean input cannot be changed later.
+     *
+     * @param rules The rules as returned from {@link RuleParser#finish()}
+     * @param ruleParserConfig The config that was used for parsing the rules
+     * @param lookupPreprocessor The preprocessor for the rule input
+     * @return The rules collection
+     */
+    static RulesCollection of(final List<Rule> rules, final RuleParserConfig ruleParserConfig,
+                              final LookupPreprocessor lookupPreprocessor) {
+
+        if (ruleParserConfig.isAllowedToParseBooleanInput()) {
+            final TrieMapRulesCollectionBuilder builder = new TrieMapRulesCollectionBuilder(lookupPreprocessor);
+            rules.forEach(builder::addRule);
+            return new RulesCollection(null, lookupPreprocessor, null, -1,
+                    createLookupQueryVisitorFactory(builder, lookupPreprocessor));
+        }
+
+        final Map<Object, RuleEntry> rulesById = new HashMap<>(rules.size() * 2);
+        int maxOrd = -1;
+        for (final Rule rule : rules) {
+            final RuleEntry entry = new RuleEntry(rule);
+            rulesById.put(entry.instructions.getId(), entry);
+            maxOrd = Math.max(maxOrd, entry.instructions.getOrd());
+        }
+        final TrieMapRulesCollectionBuilder builder = new TrieMapRulesCollectionBuilder(lookupPreprocessor);
+        addRules(builder, rulesById.values());
+        return new RulesCollection(ruleParserConfig, lookupPreprocessor, rulesById, maxOrd + 1,
+                createLookupQueryVisitorFactory(builder, lookupPreprocessor));
+    }
+
+    /**
+     * Creates a RulesCollection that cannot be changed.
+     *
+     * @param trieMapLookupQueryVisitorFactory The lookup structures
+     * @return The rules collection
+     */
+    static RulesCollection of(final TrieMapLookupQueryVisitorFactory<InstructionsSupplier>
+                                      trieMapLookupQueryVisitorFactory) {
+        return new RulesCollection(null, null, null, -1, trieMapLookupQueryVisitorFactory);
+    }
+
+    TrieMapLookupQueryVisitorFactory<InstructionsSupplier> getTrieMapLookupQueryVisitorFactory() {
+        return trieMapLookupQueryVisitorFactory;
+    }
+
+    boolean isChangeable() {
+        return rulesById != null;
+    }
+
+    /**
+     * @return The number of rules or -1 if the rules are not known
+     */
+    int size() {
+        return rulesById == null ? -1 : rulesById.size();
+    }
+
+    /**
+     * <p>Applies a delta. Only the rules in the delta are parsed. A changed rule keeps the position (ord) of the
+     * rule that it replaces, added rules are appended to the end.</p>
+     *
+     * <p>A rule with an <code>_id</code> replaces the rule that has the same id. A rule without an <code>_id</code>
+     * replaces the rule without an <code>_id</code> that has the same input. It is rejected if more than one such
+     * rule exists.</p>
+     *
+     * @param delta The delta
+     * @return A new RulesCollection
+     * @throws IOException if the rules in the delta cannot be parsed or if a rule without an id is ambiguous
+     * @throws IllegalStateException if this collection cannot be changed
+     */
+    RulesCollection apply(final RulesDelta delta) throws IOException {
+
+        if (!isChangeable()) {
+            throw new IllegalStateException("Rules cannot be changed incrementally if they were loaded from a rules "
+                    + "index or if boolean input is allowed");
+        }
+
+        final Map<Object, RuleEntry> newRulesById = new HashMap<>(rulesById);
+        final List<RuleEntry> removedRules = new ArrayList<>();
+        for (final Object id : delta.getRemovedIds()) {
+            final RuleEntry removed = newRulesById.remove(id);
+            if (removed != null) {
+                removedRules.add(removed);
+            }
+        }
+
+        final List<RuleEntry> addedRules = new ArrayList<>();
+        Map<String, List<RuleEntry>> rulesWithDefaultIdByInput = null;
+        int ord = nextOrd;
+        final Set<Object> deltaIds = new HashSet<>();
+        try {
+            for (final RuleSkeleton skeleton : parseSkeletons(delta.getRules())) {
+
+                int ruleOrd = ord;
+                if (!skeleton.getProperties().containsKey(PropertyParser.ID)) {
+                    // The default id (input#ord) depends on the ord. Find the rule with the same input and re-use its
+                    // ord so that we get the same id.
+                    if (rulesWithDefaultIdByInput == null) {
+                        rulesWithDefaultIdByInput = indexRulesWithDefaultIdByInput(newRulesById);
+                    }
+                    final List<RuleEntry> currentRules = rulesWithDefaultIdByInput.get(skeleton.getInputSkeleton());
+                    if (currentRules != null) {
+                        if (currentRules.size() > 1) {
+                            throw new RuleParseException("Rule for input " + skeleton.getInputSkeleton()
+                                    + " has no _id but there is more than one rule for this input");
+                        }
+                        ruleOrd = currentRules.get(0).instructions.getOrd();
+                    }
+                }
+
+                RuleEntry rule = new RuleEntry(parseRule(skeleton, ruleOrd));
+                final Object id = rule.instructions.getId();
+                if (!deltaIds.add(id)) {
+                    throw new RuleParseException("Duplicate ID: " + id);
+                }
+                final RuleEntry currentRule = newRulesById.get(id);
+                if (currentRule != null) {
+                    // keep the position of the rule in the configuration
+                    final int currentOrd = currentRule.instructions.getOrd();
+                    if (currentOrd != ruleOrd) {
+                        rule = new RuleEntry(parseRule(skeleton, currentOrd));
+                    }
+                    removedRules.add(currentRule);
+                } else {
+                    ord++;
+                }
+                newRulesById.put(id, rule);
+                addedRules.add(rule);
+            }
+        } catch (final RuleParseException | TemplateParseException e) {
+            throw new IOException(e);
+        }
+
+        return new RulesCollection(ruleParserConfig, lookupPreprocessor, newRulesById, ord,
+                update(removedRules, addedRules, newRulesById));
+    }
+
+    /**
+     * Creates the lookup structures for the new rules by changing the values of the trie for the inputs of the
+     * removed and the added rules. The suffix wildcard rules are only rebuilt if the delta contains such a rule.
+     */
+    private TrieMapLookupQueryVisitorFactory<InstructionsSupplier> update(final List<RuleEntry> removedRules,
+                                                                        final List<RuleEntry> addedRules,
+                                                                        final Map<Object, RuleEntry> newRulesById) {
+
+        final InputSequenceNormalizer normalizer = new InputSequenceNormalizer(lookupPreprocessor);
+        final Set<Object> removedIds = new HashSet<>();
+        // the instructions to add by trie key, including the keys that only lose instructions
+        final Map<TrieKey, List<Instructions>> addedInstructions = new LinkedHashMap<>();
+        boolean hasSuffixWildcardRule = false;
+
+        for (final RuleEntry rule : removedRules) {
+            removedIds.add(rule.instructions.getId());
+            if (rule.hasSuffixTerm()) {
+                hasSuffixWildcardRule = true;
+            } else {
+                for (final TrieKey key : rule.trieKeys(normalizer)) {
+                    addedInstructions.computeIfAbsent(key, k -> new ArrayList<>(1));
+                }
+            }
+        }
+
+        for (final RuleEntry rule : addedRules) {
+            if (rule.hasSuffixTerm()) {
+                hasSuffixWildcardRule = true;
+            } else {
+                for (final TrieKey key : rule.trieKeys(normalizer)) {
+                    addedInstructions.computeIfAbsent(key, k -> new ArrayList<>(1)).add(rule.instructions);
+                }
+            }
+        }
+
+        TrieMap<InstructionsSupplier> trieMap = trieMapLookupQueryVisitorFactory.getTrieMap();
+        if (trieMap instanceof CompiledTrieMap) {
+            trieMap = ((CompiledTrieMap<InstructionsSupplier>) trieMap).toTrieMap();
+        }
+
+        for (final Map.Entry<TrieKey, List<Instructions>> entry : addedInstructions.entrySet()) {
+            final TrieKey key = entry.getKey();
+            final List<Instructions> instructionsList = new ArrayList<>();
+            final InstructionsSupplier current = getValue(trieMap, key);
+            if (current != null) {
+                for (final Instructions instructions : current.getInstructionsList()) {
+                    if (!removedIds.contains(instructions.getId())) {
+                        instructionsList.add(instructions);
+                    }
+                }
+            }
+            instructionsList.addAll(entry.getValue());
+            instructionsList.sort(BY_ORD);
+            trieMap = trieMap.copyWith(key.seq, instructionsList.isEmpty()
+                    ? null : new InstructionsSupplier(instructionsList, null), key.isPrefix);
+        }
+
+        final SuffixWildcardRules<InstructionsSupplier> suffixWildcardRules;
+        if (hasSuffixWildcardRule) {
+            final TrieMapRulesCollectionBuilder builder = new TrieMapRulesCollectionBuilder(lookupPreprocessor);
+            final List<RuleEntry> suffixRules = new ArrayList<>();
+            for (final RuleEntry rule : newRulesById.values()) {
+                if (rule.hasSuffixTerm()) {
+                    suffixRules.add(rule);
+                }
+            }
+            addRules(builder, suffixRules);
+            suffixWildcardRules = builder.getSuffixWildcardRules();
+        } else {
+            suffixWildcardRules = trieMapLookupQueryVisitorFactory.getSuffixWildcardRules();
+        }
+
+        return TrieMapLookupQueryVisitorFactory.of(trieMap, createLookupConfig(lookupPreprocessor),
+                suffixWildcardRules);
+    }
+
+    private static InstructionsSupplier getValue(final TrieMap<InstructionsSupplier> trieMap, final TrieKey key) {
+        if (!key.isPrefix) {
+            return trieMap.get(key.seq).getStateForCompleteSequence().value;
+        }
+        final List<State<InstructionsSupplier>> prefixes = trieMap.get(key.seq).getPrefixes();
+        if (prefixes != null) {
+            for (final State<InstructionsSupplier> state : prefixes) {
+                if (state.isFinal() && state.index == key.seq.length() - 1) {
+                    return state.value;
+                }
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Indexes the rules that have a default id (<code>input#ord</code>) by their input.
+     */
+    private static Map<String, List<RuleEntry>> indexRulesWithDefaultIdByInput(
+            final Map<Object, RuleEntry> rulesById) {
+        final Map<String, List<RuleEntry>> index = new HashMap<>();
+        rulesById.forEach((id, rule) -> {
+            if (id instanceof String) {
+                final String suffix = "#" + rule.instructions.getOrd();
+                final String idString = (String) id;
+                if (idString.endsWith(suffix)) {
+                    index.computeIfAbsent(idString.substring(0, idString.length() - suffix.length()),
+                            input -> new ArrayList<>(1)).add(rule);
+                }
+            }
+        });
+        return index;
+    }
+
+    private List<RuleSkeleton> parseSkeletons(final String rules) throws IOException, TemplateParseException {
+        final QuerqyTemplateEngine querqyTemplateEngine = new QuerqyTemplateEngine(new StringReader(rules));
+        return TextParserFactory.of(TextParserConfig.builder()
+                        .rulesContentReader(querqyTemplateEngine.renderedRules.reader)
+                        .isMultiLineRulesConfig(true)
+                        .lineNumberMappings(querqyTemplateEngine.renderedRules.lineNumberMapping)
+                        .build())
+                .createRuleSkeletonParser()
+                .parse();
+    }
+
+    private Rule parseRule(final RuleSkeleton skeleton, final int ord) {
+        final RuleParser ruleParser = RuleParserFactory.of(ruleParserConfig).createRuleParser();
+        ruleParser.parse(skeleton, ord);
+        return ruleParser.finish().get(0);
+    }
+
+    private static void addRules(final TrieMapRulesCollectionBuilder builder, final Collection<RuleEntry> rules) {
+        final List<RuleEntry> sortedRules = new ArrayList<>(rules);
+        sortedRules.sort(Comparator.comparingInt(rule -> rule.instructions.getOrd()));
+        for (final RuleEntry rule : sortedRules) {
+            builder.addRule(rule.input, rule.instructions);
+        }
+    }
+
+    private static TrieMapLookupQueryVisitorFactory<InstructionsSupplier> createLookupQueryVisitorFactory(
+            final TrieMapRulesCollectionBuilder builder, final LookupPreprocessor lookupPreprocessor) {
+        // the mutable trie is only needed while the rules are collected, replace it with its compact form
+        return TrieMapLookupQueryVisitorFactory.of(
+                CompiledTrieMap.compile(builder.getTrieMap()),
+                createLookupConfig(lookupPreprocessor),
+                builder.getSuffixWildcardRules()
+        );
+    }
+
+    private static LookupConfig createLookupConfig(final LookupPreprocessor lookupPreprocessor) {
+        return LookupConfig.builder()
+                .hasBoundaries(true)
+                .preprocessor(lookupPreprocessor)
+                .build();
+    }
+
+    /**
+     * What is needed to re-create the lookup structures for a rule. The instructions of a rule are also referenced
+     * from the trie, the InstructionsSupplier of the parsed rule is not kept.
+     */
+    private static final class RuleEntry {
+
+        final Input.SimpleInput input;
+        final Instructions instructions;
+
+        RuleEntry(final Rule rule) {
+            this.input = rule.getInput();
+            this.instructions = rule.getInstructionsSupplier().getInstructionsList().get(0);
+        }
+
+        boolean hasSuffixTerm() {
+            for (final Term term : input.getInputTerms()) {
+                if (term instanceof SuffixTerm) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        List<TrieKey> trieKeys(final InputSequenceNormalizer normalizer) {
+            final List<Term> inputTerms = input.getInputTerms();
+            final boolean isPrefix = !inputTerms.isEmpty()
+                    && inputTerms.get(inputTerms.size() - 1) instanceof PrefixTerm;
+            final List<TrieKey> keys = new ArrayList<>();
+            for (final CharSequence seq : normalizer.getNormalizedInputSequences(input)) {
+                keys.add(new TrieKey(seq.toString(), isPrefix));
+            }
+            return keys;
+        }
+    }
+
+    /**
+     * A sequence in the trie and whether the rule is stored as its value or as its prefix value
+     */
+    @RequiredArgsConstructor
+    @EqualsAndHashCode
+    private static final class TrieKey {
+
+        final String seq;
+        final boolean isPrefix;
+    }
+
+}
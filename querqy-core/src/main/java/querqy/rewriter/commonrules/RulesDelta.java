@@ -0,0 +1,51 @@
+/*
+ * SPDX-License-Identifier: Apache-2.0
+ *
+ * Copyright 2026 Querqy Contributors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package querqy.rewriter.commonrules;
+
+import lombok.Builder;
+import lombok.Builder.Default;
+import lombok.Getter;
+import lombok.Singular;
+
+import java.util.Set;
+
+/**
+ * <p>A change to the rules of a {@link SimpleCommonRulesRewriterFactory}, see
+ * {@link SimpleCommonRulesRewriterFactory#applyRulesDelta(RulesDelta)}.</p>
+ *
+ * <p>Rules are identified by their <code>_id</code> property. A rule without an <code>_id</code> replaces the
+ * current rule without an <code>_id</code> that has the same input, or it is added if there is no such rule. It is
+ * rejected if there is more than one rule without an <code>_id</code> for this input.</p>
+ */
+@Builder
+@Getter
+public class RulesDelta {
+
+    /**
+     * Added or changed rules in the common rules format. A rule replaces the current rule that has the same id (or
+     * the same input if the rule has no id).
+     */
+    @Default private final String rules = "";
+
+    /**
+     * The ids of the rules to remove. The removal is applied before the rules are added or changed. Unknown ids are
+     * ignored.
+     */
+    @Singular private final Set<Object> removedIds;
+
+}
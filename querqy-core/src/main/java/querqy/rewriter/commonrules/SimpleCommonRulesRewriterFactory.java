@@ -22,8 +22,10 @@ import java.io.Reader;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.List;
 import java.util.Map;
 import java.util.Objects;
+import java.util.Optional;
 import java.util.Set;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
@@ -34,27 +36,25 @@ import querqy.rewrite.QueryRewriter;
 import querqy.rewrite.RewriterFactory;
 import querqy.rewrite.SearchEngineRequestAdapter;
 import querqy.rewrite.TemplateParseException;
+import querqy.rewriter.commonrules.index.RulesIndex;
 import querqy.rewriter.commonrules.model.BoostInstruction.BoostMethod;
 import querqy.rewriter.commonrules.model.Instruction;
 import querqy.rewriter.commonrules.model.Instructions;
 import querqy.rewriter.commonrules.model.InstructionsSupplier;
-import querqy.rewriter.commonrules.model.TrieMapRulesCollectionBuilder;
 import querqy.rewriter.commonrules.select.SelectionStrategy;
 import querqy.rewriter.commonrules.select.RuleSelectionParams;
 import querqy.rewriter.commonrules.select.SelectionStrategyFactory;
 import querqy.rewrite.lookup.LookupConfig;
-import querqy.rewrite.lookup.preprocessing.LookupPreprocessor;
 import querqy.rewrite.lookup.preprocessing.LookupPreprocessorFactory;
 import querqy.rewrite.lookup.preprocessing.LookupPreprocessorType;
 import querqy.rewrite.lookup.triemap.TrieMapLookupQueryVisitorFactory;
 import querqy.rewrite.RuleParseException;
-import querqy.rewriter.commonrules.rules.RulesParser;
-import querqy.rewriter.commonrules.rules.factory.RulesParserFactory;
+import querqy.rewriter.commonrules.rules.RuleBatchParser;
+import querqy.rewriter.commonrules.rules.factory.TextParserFactory;
 import querqy.rewriter.commonrules.rules.factory.config.RuleParserConfig;
-import querqy.rewriter.commonrules.rules.factory.config.RulesParserConfig;
 import querqy.rewriter.commonrules.rules.factory.config.TextParserConfig;
 import querqy.rewriter.commonrules.rules.instruction.InstructionType;
-import querqy.trie.TrieMap;
+import querqy.rewriter.commonrules.rules.rule.skeleton.RuleSkeleton;
 
 import static querqy.rewriter.commonrules.rules.instruction.InstructionType.DECORATE;
 import static querqy.rewriter.commonrules.rules.instruction.InstructionType.DELETE;
@@ -77,7 +77,13 @@ public class SimpleCommonRulesRewriterFactory extends RewriterFactory {
     private final SelectionStrategyFactory defaultSelectionStrategyFactory;
     private final boolean buildTermCache;
 
-    private final TrieMapLookupQueryVisitorFactory<InstructionsSupplier> trieMapLookupQueryVisitorFactory;
+    private volatile RulesCollection rulesCollection;
+
+    /**
+     * The last rewriter that was created. It is handed out again as long as the rules and the selection strategy do
+     * not change.
+     */
+    private volatile CommonRulesRewriter sharedRewriter;
 
 
     /**
@@ -104,9 +110,43 @@ public class SimpleCommonRulesRewriterFactory extends RewriterFactory {
                                             final boolean buildTermCache,
                                             final LookupPreprocessorType lookupPreprocessorType
     ) throws IOException {
+        this(rewriterId, reader, allowBooleanInput, boostMethod, querqyParserFactory, selectionStrategyFactories,
+                defaultSelectionStrategyFactory, buildTermCache, lookupPreprocessorType, 1);
+    }
+
+    /**
+     *
+     * @param rewriterId The id of this rewriter
+     * @param reader The reader to access the rewriter configuration
+     * @param allowBooleanInput Iff true, rule input can have boolean expressions
+     * @param boostMethod The {@link querqy.rewriter.commonrules.model.BoostInstruction.BoostMethod} to use when creating
+     *                    {@link querqy.rewriter.commonrules.model.BoostInstruction}s
+     * @param querqyParserFactory A parser for the right-hand side of rules
+     * @param selectionStrategyFactories A mapping between names of rule selection strategies and their factories.
+     * @param defaultSelectionStrategyFactory The default {@link SelectionStrategyFactory} to be used if no strategy is
+     *                                       specified as a request parameter
+     * @param buildTermCache If true, build the term cache for terms from the rhs of rules
+     * @param parallelism The number of threads for parsing the rules
+     * @throws IOException if rules cannot be read or parsed
+     */
+    public SimpleCommonRulesRewriterFactory(final String rewriterId,
+                                            final Reader reader,
+                                            final boolean allowBooleanInput,
+                                            final BoostMethod boostMethod,
+                                            final QuerqyParserFactory querqyParserFactory,
+                                            final Map<String, SelectionStrategyFactory> selectionStrategyFactories,
+                                            final SelectionStrategyFactory defaultSelectionStrategyFactory,
+                                            final boolean buildTermCache,
+                                            final LookupPreprocessorType lookupPreprocessorType,
+                                            final int parallelism
+    ) throws IOException {
 
         super(rewriterId);
 
+        if (parallelism < 1) {
+            throw new IllegalArgumentException("parallelism must be >= 1");
+        }
+
         this.strategyParam = RuleSelectionParams.getStrategyParamName(rewriterId);
 
         this.selectionStrategyFactories = new HashMap<>(selectionStrategyFactories);
@@ -121,37 +161,19 @@ public class SimpleCommonRulesRewriterFactory extends RewriterFactory {
         try {
             final QuerqyTemplateEngine querqyTemplateEngine = new QuerqyTemplateEngine(reader);
 
-            final LookupPreprocessor lookupPreprocessor = LookupPreprocessorFactory.fromType(lookupPreprocessorType);
+            final RuleParserConfig ruleParserConfig = ruleParserConfig(allowBooleanInput, boostMethod,
+                    querqyParserFactory, parallelism);
 
-            final TrieMapRulesCollectionBuilder rulesCollectionBuilder =
-                    new TrieMapRulesCollectionBuilder(lookupPreprocessor);
-
-            final RulesParserConfig config = RulesParserConfig.builder()
-                    .textParserConfig(TextParserConfig.builder()
+            final List<RuleSkeleton> skeletons = TextParserFactory.of(TextParserConfig.builder()
                             .rulesContentReader(querqyTemplateEngine.renderedRules.reader)
                             .isMultiLineRulesConfig(true)
                             .lineNumberMappings(querqyTemplateEngine.renderedRules.lineNumberMapping)
                             .build())
-                    .ruleParserConfig(RuleParserConfig.builder()
-                            .isAllowedToParseBooleanInput(allowBooleanInput)
-                            .boostMethod(boostMethod)
-                            .querqyParserFactory(querqyParserFactory)
-                            .allowedInstructionTypes(ALLOWED_TYPES)
-                            .build())
-                    .rulesCollectionBuilder(rulesCollectionBuilder)
-                    .build();
-
-            final RulesParser rulesParser = RulesParserFactory.textParser(config);
-            final TrieMap<InstructionsSupplier> trieMap = rulesParser.parse();
+                    .createRuleSkeletonParser()
+                    .parse();
 
-            trieMapLookupQueryVisitorFactory = TrieMapLookupQueryVisitorFactory.of(
-                    trieMap,
-                    LookupConfig.builder()
-                            .hasBoundaries(true)
-                            .preprocessor(lookupPreprocessor)
-                            .build(),
-                    rulesCollectionBuilder.getSuffixWildcardRules()
-            );
+            rulesCollection = RulesCollection.of(RuleBatchParser.of(ruleParserConfig).parse(skeletons), ruleParserConfig,
+                    LookupPreprocessorFactory.fromType(lookupPreprocessorType));
 
             // should be closed already in RulesParser - passing Readers as arguments should be avoided
             // and refactored as suggested above
@@ -168,6 +190,68 @@ public class SimpleCommonRulesRewriterFactory extends RewriterFactory {
         }
     }
 
+    /**
+     * Creates the factory from a precompiled {@link RulesIndex}. The instructions of a rule are only loaded when the
+     * rule is matched for the first time, unless the term cache is built, which needs all instructions.
+     *
+     * @param rewriterId The id of this rewriter
+     * @param rulesIndex The rules index
+     * @param selectionStrategyFactories A mapping between names of rule selection strategies and their factories.
+     * @param defaultSelectionStrategyFactory The default {@link SelectionStrategyFactory} to be used if no strategy is
+     *                                       specified as a request parameter
+     * @param buildTermCache If true, build the term cache for terms from the rhs of rules
+     */
+    public SimpleCommonRulesRewriterFactory(final String rewriterId,
+                                            final RulesIndex rulesIndex,
+                                            final Map<String, SelectionStrategyFactory> selectionStrategyFactories,
+                                            final SelectionStrategyFactory defaultSelectionStrategyFactory,
+                                            final boolean buildTermCache) {
+
+        super(rewriterId);
+
+        this.strategyParam = RuleSelectionParams.getStrategyParamName(rewriterId);
+
+        this.selectionStrategyFactories = new HashMap<>(selectionStrategyFactories);
+
+        this.defaultSelectionStrategyFactory = Objects.requireNonNull(defaultSelectionStrategyFactory);
+
+        this.buildTermCache = buildTermCache;
+
+        rulesCollection = RulesCollection.of(TrieMapLookupQueryVisitorFactory.of(
+                rulesIndex.getTrieMap(),
+                LookupConfig.builder()
+                        .hasBoundaries(true)
+                        .preprocessor(LookupPreprocessorFactory.fromType(rulesIndex.getLookupPreprocessorType()))
+                        .build(),
+                rulesIndex.getSuffixWildcardRules()
+        ));
+    }
+
+    /**
+     * @return The configuration for parsing rules with the given settings, restricted to the instruction types that
+     * are supported by this rewriter.
+     */
+    public static RuleParserConfig ruleParserConfig(final boolean allowBooleanInput, final BoostMethod boostMethod,
+                                                    final QuerqyParserFactory querqyParserFactory) {
+        return ruleParserConfig(allowBooleanInput, boostMethod, querqyParserFactory, 1);
+    }
+
+    /**
+     * @return The configuration for parsing rules with the given settings and number of parser threads, restricted to
+     * the instruction types that are supported by this rewriter.
+     */
+    public static RuleParserConfig ruleParserConfig(final boolean allowBooleanInput, final BoostMethod boostMethod,
+                                                    final QuerqyParserFactory querqyParserFactory,
+                                                    final int parallelism) {
+        return RuleParserConfig.builder()
+                .isAllowedToParseBooleanInput(allowBooleanInput)
+                .boostMethod(boostMethod)
+                .querqyParserFactory(querqyParserFactory)
+                .allowedInstructionTypes(ALLOWED_TYPES)
+                .parallelism(parallelism)
+                .build();
+    }
+
     @Override
     public QueryRewriter createRewriter(final SearchEngineRequestAdapter searchEngineRequestAdapter) {
 
@@ -182,7 +266,80 @@ public class SimpleCommonRulesRewriterFactory extends RewriterFactory {
                 }).orElse(defaultSelectionStrategyFactory) // strategy not specified in params
                 .createSelectionStrategy(getRewriterId(), searchEngineRequestAdapter);
 
-        return new CommonRulesRewriter(trieMapLookupQueryVisitorFactory, selectionStrategy);
+        final TrieMapLookupQueryVisitorFactory<InstructionsSupplier> trieMapLookupQueryVisitorFactory =
+                rulesCollection.getTrieMapLookupQueryVisitorFactory();
+
+        final CommonRulesRewriter rewriter = sharedRewriter;
+        if (rewriter != null && rewriter.selectionStrategy == selectionStrategy
+                && rewriter.getTrieMapLookupQueryVisitorFactory() == trieMapLookupQueryVisitorFactory) {
+            return rewriter;
+        }
+
+        final CommonRulesRewriter newRewriter = new CommonRulesRewriter(trieMapLookupQueryVisitorFactory,
+                selectionStrategy);
+        sharedRewriter = newRewriter;
+        return newRewriter;
+    }
+
+    /**
+     * <p>Applies a change to the rules. Only the rules in the delta are parsed, the unchanged rules are re-used. The
+     * new rules are published atomically: rewriters that are created afterwards see all changes, rewriters that were
+     * created before keep the rules that were current at their creation.</p>
+     *
+     * <p>If the delta cannot be parsed, the current rules remain unchanged. Terms of changed rules are not added to
+     * the term cache (see {@link #getCacheableGenerableTerms()}).</p>
+     *
+     * @param delta The change
+     * @throws IOException if the rules in the delta cannot be parsed
+     * @throws IllegalStateException if the rules were loaded from a {@link RulesIndex} or if boolean input is allowed
+     */
+    public synchronized void applyRulesDelta(final RulesDelta delta) throws IOException {
+        rulesCollection = rulesCollection.apply(delta);
+    }
+
+    /**
+     * @return The number of rules or -1 if the number is not known (rules loaded from a {@link RulesIndex} or boolean
+     * input)
+     */
+    public int getRuleCount() {
+        return rulesCollection.size();
+    }
+
+    RulesCollection getRulesCollection() {
+        return rulesCollection;
+    }
+
+    /**
+     * The strategy parameter of this rewriter and the request parameters of all configured
+     * {@link SelectionStrategyFactory}s. The output is not cacheable if one of the factories does not declare its
+     * parameters.
+     */
+    @Override
+    public Optional<Set<String>> getRewriteCacheKeyParams() {
+        final String rewriterId = getRewriterId();
+        final Set<String> params = new HashSet<>();
+        params.add(strategyParam);
+        for (final SelectionStrategyFactory factory : selectionStrategyFactories.values()) {
+            final Optional<Set<String>> factoryParams = factory.getRequestParamNames(rewriterId);
+            if (!factoryParams.isPresent()) {
+                return Optional.empty();
+            }
+            params.addAll(factoryParams.get());
+        }
+        final Optional<Set<String>> defaultParams = defaultSelectionStrategyFactory.getRequestParamNames(rewriterId);
+        if (!defaultParams.isPresent()) {
+            return Optional.empty();
+        }
+        params.addAll(defaultParams.get());
+        return Optional.of(params);
+    }
+
+    /**
+     * @return The current rules, so that cached rewrite output is discarded after {@link #applyRulesDelta(RulesDelta)}
+     */
+    @Override
+    public Object getRewriteCacheVersion() {
+        return rulesCollection;
     }
 
     @Override
@@ -200,7 +357,7 @@ public class SimpleCommonRulesRewriterFactory extends RewriterFactory {
 
         final Set<Instruction> result = new HashSet<>();
 
-        for (final InstructionsSupplier instructionsSupplier : trieMapLookupQueryVisitorFactory.getTrieMap()) {
+        for (final InstructionsSupplier instructionsSupplier : rulesCollection.getTrieMapLookupQueryVisitorFactory().getTrieMap()) {
             for (final Instructions instructions : instructionsSupplier.getInstructionsList()) {
                 result.addAll(instructions);
             }
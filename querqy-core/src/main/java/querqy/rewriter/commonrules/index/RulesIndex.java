@@ -0,0 +1,294 @@
+/*
+ * SPDX-License-Identifier: Apache-2.0
+ *
+ * Copyright 2026 Querqy Contributors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package querqy.rewriter.commonrules.index;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import querqy.rewrite.RuleParseException;
+import querqy.rewrite.lookup.preprocessing.LookupPreprocessorFactory;
+import querqy.rewrite.lookup.preprocessing.LookupPreprocessorType;
+import querqy.rewrite.lookup.triemap.suffix.SuffixWildcardRules;
+import querqy.rewriter.commonrules.model.Instructions;
+import querqy.rewriter.commonrules.model.InstructionsSupplier;
+import querqy.rewriter.commonrules.model.TrieMapRulesCollectionBuilder;
+import querqy.rewriter.commonrules.rules.factory.RuleParserFactory;
+import querqy.rewriter.commonrules.rules.factory.config.RuleParserConfig;
+import querqy.rewriter.commonrules.rules.instruction.InstructionType;
+import querqy.rewriter.commonrules.rules.instruction.skeleton.InstructionSkeleton;
+import querqy.rewriter.commonrules.rules.rule.Rule;
+import querqy.rewriter.commonrules.rules.rule.RuleParser;
+import querqy.rewriter.commonrules.rules.rule.skeleton.RuleSkeleton;
+import querqy.trie.MappedTrieMap;
+import querqy.trie.TrieMap;
+
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.IntBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * <p>A binary rules index that was written by {@link RulesIndexCompiler}.</p>
+ *
+ * <p>The index is usually memory-mapped from a file. The lookup trie is read directly from the mapped file and not
+ * copied onto the heap. The {@link Instructions} of a rule are created from the stored rule skeleton when the rule is
+ * matched for the first time and then kept on the heap. Rules with a leading wildcard input are loaded when the index
+ * is opened.</p>
+ *
+ * <p>A RulesIndex is thread-safe.</p>
+ */
+public class RulesIndex {
+
+    /**
+     * "QRIX"
+     */
+    static final int MAGIC = 0x51524958;
+
+    public static final int FORMAT_VERSION = 1;
+
+    private static final TypeReference<Map<String, Object>> PROPERTIES_TYPE =
+            new TypeReference<Map<String, Object>>() {};
+
+    private final LookupPreprocessorType lookupPreprocessorType;
+    private final MappedTrieMap<InstructionsSupplier> trieMap;
+    private final SuffixWildcardRules<InstructionsSupplier> suffixWildcardRules;
+
+    private final IntBuffer valueOffsets;
+    private final IntBuffer valueRuleIds;
+    private final AtomicReferenceArray<InstructionsSupplier> values;
+
+    private final int numRules;
+    private final IntBuffer skeletonOffsets;
+    private final ByteBuffer skeletonData;
+    private final AtomicReferenceArray<Instructions> instructions;
+    private final AtomicInteger loadedRuleCount = new AtomicInteger();
+
+    private final RuleParserFactory ruleParserFactory;
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    private RulesIndex(final ByteBuffer buffer, final RuleParserConfig ruleParserConfig) throws IOException {
+
+        if (ruleParserConfig.isAllowedToParseBooleanInput()) {
+            throw new IllegalArgumentException("Boolean input is not supported by the rules index");
+        }
+        this.ruleParserFactory = RuleParserFactory.of(ruleParserConfig);
+
+        try {
+            final int magic = buffer.getInt();
+            if (magic != MAGIC) {
+                throw new IOException("Not a rules index");
+            }
+            final int version = buffer.getInt();
+            if (version != FORMAT_VERSION) {
+                throw new IOException("Unsupported rules index format version " + version + ", expected "
+                        + FORMAT_VERSION + ". Please recompile the index.");
+            }
+            lookupPreprocessorType = LookupPreprocessorType.fromString(readUTF(buffer));
+
+            trieMap = MappedTrieMap.read(buffer, this::getValue);
+
+            final int numValues = buffer.getInt();
+            valueOffsets = slice(buffer, (numValues + 1) * Integer.BYTES).asIntBuffer();
+            valueRuleIds = slice(buffer, valueOffsets.get(numValues) * Integer.BYTES).asIntBuffer();
+            values = new AtomicReferenceArray<>(numValues);
+
+            final int numSuffixRules = buffer.getInt();
+            final int[] suffixRuleIds = new int[numSuffixRules];
+            for (int i = 0; i < numSuffixRules; i++) {
+                suffixRuleIds[i] = buffer.getInt();
+            }
+
+            numRules = buffer.getInt();
+            skeletonOffsets = slice(buffer, (numRules + 1) * Integer.BYTES).asIntBuffer();
+            skeletonData = slice(buffer, skeletonOffsets.get(numRules));
+            instructions = new AtomicReferenceArray<>(numRules);
+
+            suffixWildcardRules = loadSuffixWildcardRules(suffixRuleIds);
+
+        } catch (final BufferUnderflowException | IndexOutOfBoundsException | IllegalArgumentException e) {
+            throw new IOException("Corrupt rules index", e);
+        }
+    }
+
+    /**
+     * Memory-maps a rules index file.
+     *
+     * @param path The index file
+     * @param ruleParserConfig The configuration for creating the instructions. It must be equivalent to the
+     *                         configuration that was used for compiling the index.
+     * @return The rules index
+     * @throws IOException if the file cannot be read or if it is not a valid rules index
+     */
+    public static RulesIndex open(final Path path, final RuleParserConfig ruleParserConfig) throws IOException {
+        try (final FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            final long size = channel.size();
+            if (size > Integer.MAX_VALUE) {
+                throw new IOException("Rules index too large: " + size + " bytes");
+            }
+            // the mapping remains valid after the channel has been closed
+            return read(channel.map(FileChannel.MapMode.READ_ONLY, 0, size), ruleParserConfig);
+        }
+    }
+
+    /**
+     * Reads a rules index from a buffer, starting at the buffer's position. The buffer must not be changed
+     * afterwards.
+     *
+     * @param buffer The buffer
+     * @param ruleParserConfig The configuration for creating the instructions
+     * @return The rules index
+     * @throws IOException if the buffer does not contain a valid rules index
+     */
+    public static RulesIndex read(final ByteBuffer buffer, final RuleParserConfig ruleParserConfig)
+            throws IOException {
+        return new RulesIndex(buffer.duplicate(), ruleParserConfig);
+    }
+
+    public LookupPreprocessorType getLookupPreprocessorType() {
+        return lookupPreprocessorType;
+    }
+
+    /**
+     * @return The lookup trie. Its values are loaded on first access.
+     */
+    public TrieMap<InstructionsSupplier> getTrieMap() {
+        return trieMap;
+    }
+
+    public SuffixWildcardRules<InstructionsSupplier> getSuffixWildcardRules() {
+        return suffixWildcardRules;
+    }
+
+    /**
+     * @return The number of rules in the index
+     */
+    public int getRuleCount() {
+        return numRules;
+    }
+
+    /**
+     * @return The number of rules whose instructions have been loaded so far
+     */
+    public int getLoadedRuleCount() {
+        return loadedRuleCount.get();
+    }
+
+    private InstructionsSupplier getValue(final int valueId) {
+        final InstructionsSupplier value = values.get(valueId);
+        if (value != null) {
+            return value;
+        }
+        final List<Instructions> instructionsList = new ArrayList<>();
+        for (int i = valueOffsets.get(valueId), end = valueOffsets.get(valueId + 1); i < end; i++) {
+            instructionsList.add(getInstructions(valueRuleIds.get(i)));
+        }
+        // another thread might have been faster
+        values.compareAndSet(valueId, null, new InstructionsSupplier(instructionsList, null));
+        return values.get(valueId);
+    }
+
+    private Instructions getInstructions(final int ruleId) {
+        final Instructions ruleInstructions = instructions.get(ruleId);
+        return ruleInstructions != null ? ruleInstructions : loadRule(ruleId).getInstructionsSupplier()
+                .getInstructionsList().get(0);
+    }
+
+    private Rule loadRule(final int ruleId) {
+        final RuleParser ruleParser = ruleParserFactory.createRuleParser();
+        ruleParser.parse(readSkeleton(ruleId), ruleId);
+        final List<Rule> rules = ruleParser.finish();
+        if (rules.size() != 1) {
+            throw new RuleParseException("Expected exactly one rule for rule id " + ruleId);
+        }
+        final Rule rule = rules.get(0);
+        if (instructions.compareAndSet(ruleId, null, rule.getInstructionsSupplier().getInstructionsList().get(0))) {
+            loadedRuleCount.incrementAndGet();
+            return rule;
+        }
+        return Rule.of(rule.getInput(), new InstructionsSupplier(instructions.get(ruleId)));
+    }
+
+    private SuffixWildcardRules<InstructionsSupplier> loadSuffixWildcardRules(final int[] suffixRuleIds) {
+        if (suffixRuleIds.length == 0) {
+            return SuffixWildcardRules.empty();
+        }
+        final TrieMapRulesCollectionBuilder builder = new TrieMapRulesCollectionBuilder(
+                LookupPreprocessorFactory.fromType(lookupPreprocessorType));
+        for (final int ruleId : suffixRuleIds) {
+            builder.addRule(loadRule(ruleId));
+        }
+        return builder.getSuffixWildcardRules();
+    }
+
+    private RuleSkeleton readSkeleton(final int ruleId) {
+
+        final ByteBuffer data = skeletonData.duplicate();
+        data.position(skeletonOffsets.get(ruleId));
+
+        final RuleSkeleton.RuleSkeletonBuilder builder = RuleSkeleton.builder().inputSkeleton(readString(data));
+        final int numInstructions = data.getInt();
+        for (int i = 0; i < numInstructions; i++) {
+            builder.instructionSkeleton(InstructionSkeleton.builder()
+                    .type(InstructionType.valueOf(readString(data)))
+                    .parameter(readString(data))
+                    .value(readString(data))
+                    .build());
+        }
+        final String properties = readString(data);
+        if (properties != null) {
+            try {
+                builder.properties(objectMapper.readValue(properties, PROPERTIES_TYPE));
+            } catch (final IOException e) {
+                throw new RuleParseException("Could not read properties of rule " + ruleId, e);
+            }
+        }
+        return builder.build();
+    }
+
+    private static String readString(final ByteBuffer buffer) {
+        final int length = buffer.getInt();
+        if (length < 0) {
+            return null;
+        }
+        final byte[] bytes = new byte[length];
+        buffer.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    // the format of DataOutput.writeUTF for the ASCII strings that we write with it
+    private static String readUTF(final ByteBuffer buffer) {
+        final byte[] bytes = new byte[buffer.getShort() & 0xffff];
+        buffer.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private static ByteBuffer slice(final ByteBuffer buffer, final int length) {
+        final ByteBuffer slice = buffer.slice(buffer.position(), length);
+        buffer.position(buffer.position() + length);
+        return slice;
+    }
+
+}
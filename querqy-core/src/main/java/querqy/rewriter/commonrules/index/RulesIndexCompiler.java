@@ -0,0 +1,254 @@
+/*
+ * SPDX-License-Identifier: Apache-2.0
+ *
+ * Copyright 2026 Querqy Contributors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package querqy.rewriter.commonrules.index;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import querqy.rewrite.QuerqyTemplateEngine;
+import querqy.rewrite.RuleParseException;
+import querqy.rewrite.TemplateParseException;
+import querqy.rewrite.lookup.preprocessing.LookupPreprocessorFactory;
+import querqy.rewrite.lookup.preprocessing.LookupPreprocessorType;
+import querqy.rewriter.commonrules.SimpleCommonRulesRewriterFactory;
+import querqy.rewriter.commonrules.WhiteSpaceQuerqyParserFactory;
+import querqy.rewriter.commonrules.model.BoostInstruction.BoostMethod;
+import querqy.rewriter.commonrules.model.Instructions;
+import querqy.rewriter.commonrules.model.InstructionsSupplier;
+import querqy.rewriter.commonrules.model.SuffixTerm;
+import querqy.rewriter.commonrules.model.Term;
+import querqy.rewriter.commonrules.model.TrieMapRulesCollectionBuilder;
+import querqy.rewriter.commonrules.rules.RuleBatchParser;
+import querqy.rewriter.commonrules.rules.factory.TextParserFactory;
+import querqy.rewriter.commonrules.rules.factory.config.RuleParserConfig;
+import querqy.rewriter.commonrules.rules.factory.config.TextParserConfig;
+import querqy.rewriter.commonrules.rules.instruction.skeleton.InstructionSkeleton;
+import querqy.rewriter.commonrules.rules.rule.Rule;
+import querqy.rewriter.commonrules.rules.rule.skeleton.RuleSkeleton;
+import querqy.trie.CompiledTrieMap;
+
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * <p>Parses common rules and writes them into a binary rules index that can be loaded with
+ * {@link RulesIndex#open(Path, RuleParserConfig)}.</p>
+ *
+ * <p>The index contains the lookup trie in its array form (see {@link CompiledTrieMap}) and a skeleton of each rule,
+ * i.e. its input, its instructions and its properties. The rules are fully parsed and validated when the index is
+ * compiled, but only the skeletons are stored. {@link RulesIndex} creates the {@link Instructions} of a rule when it
+ * is matched for the first time.</p>
+ *
+ * <p>Boolean input is not supported, as its literals are shared between rules and cannot be loaded per rule.</p>
+ */
+public class RulesIndexCompiler {
+
+    private final RuleParserConfig ruleParserConfig;
+    private final LookupPreprocessorType lookupPreprocessorType;
+
+    /**
+     * @param ruleParserConfig The configuration for parsing the rules. It must be equivalent to the configuration that
+     *                         will be passed to {@link RulesIndex#open(Path, RuleParserConfig)}.
+     * @param lookupPreprocessorType The preprocessor to apply to the rule input
+     */
+    public RulesIndexCompiler(final RuleParserConfig ruleParserConfig,
+                              final LookupPreprocessorType lookupPreprocessorType) {
+        if (ruleParserConfig.isAllowedToParseBooleanInput()) {
+            throw new IllegalArgumentException("Boolean input is not supported by the rules index");
+        }
+        this.ruleParserConfig = ruleParserConfig;
+        this.lookupPreprocessorType = lookupPreprocessorType;
+    }
+
+    /**
+     * Compiles the rules and writes the index to a file.
+     *
+     * @param rules The rules
+     * @param target The index file
+     * @throws IOException if the rules cannot be read or parsed or if the file cannot be written
+     */
+    public void compile(final Reader rules, final Path target) throws IOException {
+        try (final OutputStream out = new BufferedOutputStream(Files.newOutputStream(target))) {
+            compile(rules, out);
+        }
+    }
+
+    /**
+     * Compiles the rules and writes the index to a stream.
+     *
+     * @param rules The rules
+     * @param out The output. It will not be closed.
+     * @throws IOException if the rules cannot be read or parsed or if the output cannot be written
+     */
+    public void compile(final Reader rules, final OutputStream out) throws IOException {
+
+        final List<RuleSkeleton> skeletons;
+        final TrieMapRulesCollectionBuilder rulesCollectionBuilder = new TrieMapRulesCollectionBuilder(
+                LookupPreprocessorFactory.fromType(lookupPreprocessorType));
+        final List<Integer> suffixRuleIds = new ArrayList<>();
+
+        try {
+            final QuerqyTemplateEngine querqyTemplateEngine = new QuerqyTemplateEngine(rules);
+            skeletons = TextParserFactory.of(TextParserConfig.builder()
+                            .rulesContentReader(querqyTemplateEngine.renderedRules.reader)
+                            .isMultiLineRulesConfig(true)
+                            .lineNumberMappings(querqyTemplateEngine.renderedRules.lineNumberMapping)
+                            .build())
+                    .createRuleSkeletonParser()
+                    .parse();
+
+            // the position of a rule in the index must equal its ord
+            for (final Rule rule : RuleBatchParser.of(ruleParserConfig).parse(skeletons)) {
+                if (hasSuffixTerm(rule)) {
+                    for (final Instructions instructions : rule.getInstructionsSupplier().getInstructionsList()) {
+                        suffixRuleIds.add(instructions.getOrd());
+                    }
+                }
+                rulesCollectionBuilder.addRule(rule);
+            }
+
+        } catch (final RuleParseException | TemplateParseException e) {
+            throw new IOException(e);
+        }
+
+        final CompiledTrieMap<InstructionsSupplier> trieMap = CompiledTrieMap.compile(
+                rulesCollectionBuilder.getTrieMap());
+
+        final DataOutputStream dataOut = new DataOutputStream(out);
+        dataOut.writeInt(RulesIndex.MAGIC);
+        dataOut.writeInt(RulesIndex.FORMAT_VERSION);
+        dataOut.writeUTF(lookupPreprocessorType.getName());
+
+        // trie
+        final Map<InstructionsSupplier, Integer> valueIds = new IdentityHashMap<>();
+        final List<InstructionsSupplier> values = new ArrayList<>();
+        trieMap.writeTo(dataOut, value -> valueIds.computeIfAbsent(value, v -> {
+            values.add(v);
+            return values.size() - 1;
+        }));
+
+        // values: the ords of the rules that make up a value
+        dataOut.writeInt(values.size());
+        int offset = 0;
+        dataOut.writeInt(offset);
+        for (final InstructionsSupplier value : values) {
+            offset += value.getInstructionsList().size();
+            dataOut.writeInt(offset);
+        }
+        for (final InstructionsSupplier value : values) {
+            for (final Instructions instructions : value.getInstructionsList()) {
+                dataOut.writeInt(instructions.getOrd());
+            }
+        }
+
+        dataOut.writeInt(suffixRuleIds.size());
+        for (final int ruleId : suffixRuleIds) {
+            dataOut.writeInt(ruleId);
+        }
+
+        // rule skeletons
+        final ByteArrayOutputStream skeletonBytes = new ByteArrayOutputStream();
+        final DataOutputStream skeletonOut = new DataOutputStream(skeletonBytes);
+        final ObjectMapper objectMapper = new ObjectMapper();
+        dataOut.writeInt(skeletons.size());
+        dataOut.writeInt(0);
+        for (final RuleSkeleton skeleton : skeletons) {
+            writeSkeleton(skeleton, skeletonOut, objectMapper);
+            dataOut.writeInt(skeletonOut.size());
+        }
+        skeletonOut.flush();
+        skeletonBytes.writeTo(dataOut);
+
+        dataOut.flush();
+
+    }
+
+    private static boolean hasSuffixTerm(final Rule rule) {
+        for (final Term term : rule.getInput().getInputTerms()) {
+            if (term instanceof SuffixTerm) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static void writeSkeleton(final RuleSkeleton skeleton, final DataOutputStream out,
+                                      final ObjectMapper objectMapper) throws IOException {
+        writeString(skeleton.getInputSkeleton(), out);
+        final List<InstructionSkeleton> instructionSkeletons = skeleton.getInstructionSkeletons();
+        out.writeInt(instructionSkeletons.size());
+        for (final InstructionSkeleton instructionSkeleton : instructionSkeletons) {
+            writeString(instructionSkeleton.getType().name(), out);
+            writeString(instructionSkeleton.getParameter().orElse(null), out);
+            writeString(instructionSkeleton.getValue().orElse(null), out);
+        }
+        if (skeleton.hasProperties()) {
+            try {
+                writeString(objectMapper.writeValueAsString(skeleton.getProperties()), out);
+            } catch (final JsonProcessingException e) {
+                throw new IOException("Could not write properties of rule " + skeleton.getInputSkeleton(), e);
+            }
+        } else {
+            writeString(null, out);
+        }
+    }
+
+    private static void writeString(final String str, final DataOutputStream out) throws IOException {
+        if (str == null) {
+            out.writeInt(-1);
+        } else {
+            final byte[] bytes = str.getBytes(StandardCharsets.UTF_8);
+            out.writeInt(bytes.length);
+            out.write(bytes);
+        }
+    }
+
+    /**
+     * Compiles a rules file using the {@link RuleParserConfig} of {@link SimpleCommonRulesRewriterFactory} with
+     * additive boosting and the {@link WhiteSpaceQuerqyParserFactory}.
+     *
+     * @param args The rules file, the index file and optionally the name of the {@link LookupPreprocessorType}
+     *             (default: lowercase)
+     * @throws IOException if the rules cannot be read or parsed or if the index cannot be written
+     */
+    public static void main(final String[] args) throws IOException {
+        if (args.length < 2 || args.length > 3) {
+            System.err.println("Usage: RulesIndexCompiler <rules file> <index file> [none|lowercase|german]");
+            System.exit(1);
+        }
+        final LookupPreprocessorType lookupPreprocessorType = args.length == 3
+                ? LookupPreprocessorType.fromString(args[2]) : LookupPreprocessorType.LOWERCASE;
+        try (final Reader reader = Files.newBufferedReader(Paths.get(args[0]), StandardCharsets.UTF_8)) {
+            new RulesIndexCompiler(SimpleCommonRulesRewriterFactory.ruleParserConfig(false, BoostMethod.ADDITIVE,
+                    new WhiteSpaceQuerqyParserFactory()), lookupPreprocessorType)
+                    .compile(reader, Paths.get(args[1]));
+        }
+    }
+
+}
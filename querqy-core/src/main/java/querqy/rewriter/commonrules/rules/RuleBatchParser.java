@@ -0,0 +1,131 @@
+/*
+ * SPDX-License-Identifier: Apache-2.0
+ *
+ * Copyright 2026 Querqy Contributors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package querqy.rewriter.commonrules.rules;
+
+import lombok.RequiredArgsConstructor;
+import querqy.rewrite.RuleParseException;
+import querqy.rewriter.commonrules.model.Instructions;
+import querqy.rewriter.commonrules.rules.factory.RuleParserFactory;
+import querqy.rewriter.commonrules.rules.factory.config.RuleParserConfig;
+import querqy.rewriter.commonrules.rules.rule.Rule;
+import querqy.rewriter.commonrules.rules.rule.RuleParser;
+import querqy.rewriter.commonrules.rules.rule.skeleton.RuleSkeleton;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+/**
+ * <p>Parses a list of rule skeletons into rules. The ord of a rule is the position of its skeleton in the list.</p>
+ *
+ * <p>If {@link RuleParserConfig#getParallelism()} is greater than 1, the skeletons are split into contiguous shards
+ * that are parsed on a {@link ForkJoinPool}, each shard by its own {@link RuleParser}. The result is the same as for
+ * sequential parsing, including the check for duplicate rule ids. Rules with boolean input are always parsed
+ * sequentially, as their literals are shared between rules.</p>
+ */
+@RequiredArgsConstructor(staticName = "of")
+public class RuleBatchParser {
+
+    /**
+     * Minimum number of skeletons per shard. Smaller rule sets are not worth the overhead of parallel parsing.
+     */
+    static final int MIN_SHARD_SIZE = 256;
+
+    private final RuleParserConfig ruleParserConfig;
+
+    public List<Rule> parse(final List<RuleSkeleton> skeletons) {
+
+        final int numShards = Math.min(ruleParserConfig.getParallelism() * 4, skeletons.size() / MIN_SHARD_SIZE);
+
+        if (numShards < 2 || ruleParserConfig.isAllowedToParseBooleanInput()) {
+            return parseShard(skeletons, 0, skeletons.size());
+        }
+
+        final ForkJoinPool pool = new ForkJoinPool(ruleParserConfig.getParallelism());
+        final List<ShardResult> results;
+        try {
+            results = pool.submit(() -> IntStream.range(0, numShards)
+                    .parallel()
+                    .mapToObj(shard -> parseShardSafely(skeletons,
+                            (int) ((long) skeletons.size() * shard / numShards),
+                            (int) ((long) skeletons.size() * (shard + 1) / numShards)))
+                    .collect(Collectors.toList()))
+                    .get();
+        } catch (final InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuleParseException("Interrupted while parsing rules");
+        } catch (final ExecutionException e) {
+            final Throwable cause = e.getCause();
+            throw cause instanceof RuntimeException
+                    ? (RuntimeException) cause : new RuleParseException(cause.getMessage(), cause);
+        } finally {
+            pool.shutdown();
+        }
+
+        // report the first error in rule order, like the sequential parser
+        final List<Rule> rules = new ArrayList<>(skeletons.size());
+        final Set<Object> knownIds = new HashSet<>();
+        for (final ShardResult result : results) {
+            if (result.exception != null) {
+                throw result.exception;
+            }
+            for (final Rule rule : result.rules) {
+                for (final Instructions instructions : rule.getInstructionsSupplier().getInstructionsList()) {
+                    if (!knownIds.add(instructions.getId())) {
+                        throw new RuleParseException("Duplicate ID: " + instructions.getId());
+                    }
+                }
+                rules.add(rule);
+            }
+        }
+        return rules;
+    }
+
+    private ShardResult parseShardSafely(final List<RuleSkeleton> skeletons, final int start, final int end) {
+        try {
+            return new ShardResult(parseShard(skeletons, start, end), null);
+        } catch (final RuleParseException e) {
+            return new ShardResult(null, e);
+        }
+    }
+
+    private List<Rule> parseShard(final List<RuleSkeleton> skeletons, final int start, final int end) {
+        final RuleParser ruleParser = RuleParserFactory.of(ruleParserConfig).createRuleParser();
+        for (int ord = start; ord < end; ord++) {
+            ruleParser.parse(skeletons.get(ord), ord);
+        }
+        return ruleParser.finish();
+    }
+
+    private static class ShardResult {
+
+        final List<Rule> rules;
+        final RuleParseException exception;
+
+        ShardResult(final List<Rule> rules, final RuleParseException exception) {
+            this.rules = rules;
+            this.exception = exception;
+        }
+    }
+
+}
@@ -36,6 +36,12 @@ public class RuleParserConfig {
     @Default private final boolean isAllowedToParseBooleanInput = false;
     @Default private final BoostMethod boostMethod = BoostMethod.ADDITIVE;
 
+    /**
+     * The number of threads for parsing a list of rules, see
+     * {@link querqy.rewriter.commonrules.rules.RuleBatchParser}
+     */
+    @Default private final int parallelism = 1;
+
     public static RuleParserConfig defaultConfig() {
         return RuleParserConfig.builder().build();
     }
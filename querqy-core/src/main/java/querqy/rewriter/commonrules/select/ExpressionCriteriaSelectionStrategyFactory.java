@@ -21,7 +21,11 @@ import querqy.rewrite.SearchEngineRequestAdapter;
 import querqy.rewriter.commonrules.model.*;
 
 import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Optional;
+import java.util.Set;
 import java.util.regex.Pattern;
 import java.util.stream.Collectors;
 
@@ -29,12 +33,41 @@ public class ExpressionCriteriaSelectionStrategyFactory implements SelectionStra
 
     public static final Limit DEFAULT_LIMIT = new Limit(-1, false);
 
+    /**
+     * The strategy for requests without selection parameters. It is shared so that rewriters can be re-used.
+     */
+    static final SelectionStrategy DEFAULT_CRITERIA_SELECTION_STRATEGY = new CriteriaSelectionStrategy(
+            new Criteria(Sorting.DEFAULT_SORTING, DEFAULT_LIMIT, Collections.emptyList()));
+
     private final Pattern SORT_SPLIT_PARAM_PATTERN = Pattern.compile("[ ]+");
 
     @Override
     public SelectionStrategy createSelectionStrategy(final String rewriterId,
                                                      final SearchEngineRequestAdapter searchEngineRequestAdapter) {
-        return new CriteriaSelectionStrategy(retrieveCriteriaFromRequest(rewriterId, searchEngineRequestAdapter));
+        final Criteria criteria = retrieveCriteriaFromRequest(rewriterId, searchEngineRequestAdapter);
+        if (criteria.getSorting() == Sorting.DEFAULT_SORTING && criteria.getLimit() == DEFAULT_LIMIT
+                && criteria.getFilters().isEmpty()) {
+            return DEFAULT_CRITERIA_SELECTION_STRATEGY;
+        }
+        return new CriteriaSelectionStrategy(criteria);
+    }
+
+    /**
+     * @return The sort, limit and filter parameters of the rewriter. Subclasses might read further parameters, so
+     * their parameters are only known if they override this method.
+     */
+    @Override
+    public Optional<Set<String>> getRequestParamNames(final String rewriterId) {
+        return getClass() == ExpressionCriteriaSelectionStrategyFactory.class
+                ? Optional.of(getCriteriaParamNames(rewriterId)) : Optional.empty();
+    }
+
+    protected static Set<String> getCriteriaParamNames(final String rewriterId) {
+        return new HashSet<>(Arrays.asList(
+                RuleSelectionParams.getLimitParamName(rewriterId),
+                RuleSelectionParams.getIsUseLevelsForLimitParamName(rewriterId),
+                RuleSelectionParams.getSortParamName(rewriterId),
+                RuleSelectionParams.getFilterParamName(rewriterId)));
     }
 
     protected Criteria retrieveCriteriaFromRequest(final String rewriterId,
@@ -17,6 +17,9 @@
  */
 package querqy.rewriter.commonrules.select;
 
+import java.util.Optional;
+import java.util.Set;
+
 /**
  * This class allows to select rules by using filter expressions for primitive values. Syntax: &quot;name:value&quot;
  */
@@ -29,6 +32,12 @@ public class PrimitiveValueSelectionStrategyFactory extends ExpressionCriteriaSe
 
     }
 
+    @Override
+    public Optional<Set<String>> getRequestParamNames(final String rewriterId) {
+        return getClass() == PrimitiveValueSelectionStrategyFactory.class
+                ? Optional.of(getCriteriaParamNames(rewriterId)) : Optional.empty();
+    }
+
     public static FilterCriterion criteriaToJsonPathExpressionCriterion(final String s) {
 
         final String str = s.trim();
@@ -19,11 +19,24 @@ package querqy.rewriter.commonrules.select;
 
 import querqy.rewrite.SearchEngineRequestAdapter;
 
+import java.util.Optional;
+import java.util.Set;
+
 public interface SelectionStrategyFactory {
 
     SelectionStrategy DEFAULT_SELECTION_STRATEGY = new ConfigurationOrderSelectionStrategy();
 
     SelectionStrategy createSelectionStrategy(String rewriterId, SearchEngineRequestAdapter searchEngineRequestAdapter);
 
+    /**
+     * <p>Get the names of the request parameters that {@link #createSelectionStrategy(String,
+     * SearchEngineRequestAdapter)} reads. The output of the rewriter can only be cached if the names are known.</p>
+     *
+     * @param rewriterId The id of the rewriter
+     * @return The parameter names, defaults to an empty Optional (parameters not known)
+     */
+    default Optional<Set<String>> getRequestParamNames(final String rewriterId) {
+        return Optional.empty();
+    }
 
 }
@@ -28,7 +28,9 @@ import querqy.trie.TrieMap;
 
 import java.io.IOException;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
+import java.util.Optional;
 import java.util.Set;
 import java.util.function.IntFunction;
 
@@ -117,4 +119,9 @@ public class NumberUnitRewriterFactory extends RewriterFactory {
     public Set<Term> getCacheableGenerableTerms() {
         return QueryRewriter.EMPTY_GENERABLE_TERMS;
     }
+
+    @Override
+    public Optional<Set<String>> getRewriteCacheKeyParams() {
+        return Optional.of(Collections.emptySet());
+    }
 }
@@ -37,6 +37,11 @@ import java.util.Collection;
 import java.util.LinkedList;
 import java.util.List;
 
+/**
+ * <p>An instance of exactly this class can be shared between requests: {@link #rewrite(ExpandedQuery,
+ * SearchEngineRequestAdapter)} collects the query terms with a new instance for each call. Subclasses collect the
+ * terms themselves and must be created per request.</p>
+ */
 public class RegexReplaceRewriter extends AbstractNodeVisitor<Node> implements QueryRewriter {
 
     private final RegexReplacing regexReplacing;
@@ -55,13 +60,15 @@ public class RegexReplaceRewriter extends AbstractNodeVisitor<Node> implements Q
             return RewriterOutput.builder().expandedQuery(expandedQuery).build();
         }
 
-        collectedTerms = new LinkedList<>();
-        visit((Query) querqyQuery);
+        final RegexReplaceRewriter visitor = getClass() == RegexReplaceRewriter.class
+                ? new RegexReplaceRewriter(regexReplacing) : this;
+        visitor.collectedTerms = new LinkedList<>();
+        visitor.visit((Query) querqyQuery);
 
         final List<ActionLog> actionLogs = searchEngineRequestAdapter.getRewriteLoggingConfig().hasDetails()
                 ? new ArrayList<>() : null;
 
-        final String queryString = String.join(" ", collectedTerms);
+        final String queryString = String.join(" ", visitor.collectedTerms);
 
         return regexReplacing.replace(queryString).map(replacementResult ->
                         RewriterOutput.builder()
@@ -23,22 +23,44 @@ import querqy.rewrite.SearchEngineRequestAdapter;
 
 import java.io.IOException;
 import java.io.InputStreamReader;
+import java.util.Collections;
+import java.util.Optional;
+import java.util.Set;
 
 public class RegexReplaceRewriterFactory extends RewriterFactory {
 
     private final RegexReplacing replacing;
+    private final RegexReplaceRewriter rewriter;
 
     public RegexReplaceRewriterFactory(final String rewriterId, final InputStreamReader reader,
                                        final boolean ignoreCase) throws IOException {
         super(rewriterId);
 
         this.replacing = new RegexReplaceRewriterRulesParser(reader, ignoreCase).parserConfig();
+        this.rewriter = new RegexReplaceRewriter(replacing);
 
     }
 
+    /**
+     * Creates the factory from patterns that have already been compiled, for example from a snapshot that was loaded
+     * with {@link RegexReplacing#openSnapshot(java.nio.file.Path)}.
+     *
+     * @param rewriterId The rewriter id
+     * @param replacing The compiled patterns
+     */
+    public RegexReplaceRewriterFactory(final String rewriterId, final RegexReplacing replacing) {
+        super(rewriterId);
+        this.replacing = replacing;
+        this.rewriter = new RegexReplaceRewriter(replacing);
+    }
+
     @Override
     public QueryRewriter createRewriter(final SearchEngineRequestAdapter searchEngineRequestAdapter) {
+        return rewriter;
+    }
 
-        return new RegexReplaceRewriter(replacing);
+    @Override
+    public Optional<Set<String>> getRewriteCacheKeyParams() {
+        return Optional.of(Collections.emptySet());
     }
 }
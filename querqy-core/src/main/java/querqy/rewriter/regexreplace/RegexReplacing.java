@@ -21,12 +21,21 @@ import querqy.LowerCaseCharSequence;
 import querqy.regex.MatchResult;
 import querqy.regex.MatchResult.GroupMatch;
 import querqy.regex.RegexMap;
+import querqy.regex.RegexMapSnapshot;
 import querqy.rewrite.logging.ActionLog;
 import querqy.rewrite.logging.InstructionLog;
 import querqy.rewrite.logging.MatchLog;
 
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
 import java.util.ArrayList;
-import java.util.Collections;
+import java.util.BitSet;
 import java.util.Comparator;
 import java.util.HashMap;
 import java.util.HashSet;
@@ -39,7 +48,7 @@ public class RegexReplacing {
 
     static final Comparator<MatchResult<Replacement>> WEIGHT_COMPARATOR = (m1, m2) -> {
 
-        if (m1 == m2) return 0;
+        if (m1 == m2 || m1.value() == m2.value()) return 0;
 
         final Replacement replacement1 = m1.value();
         final Replacement replacement2 = m2.value();
@@ -88,14 +97,28 @@ public class RegexReplacing {
      */
     private static final int MAX_MATCH_SPAN_TOKENS = 32;
 
-    private final RegexMap<Replacement> regexMap = new RegexMap<>();
+    /**
+     * "QRRR"
+     */
+    static final int SNAPSHOT_MAGIC = 0x51525252;
+
+    public static final int SNAPSHOT_FORMAT_VERSION = 1;
+
+    private final RegexMap<Replacement> regexMap;
     private final boolean ignoreCase;
     private final List<ActionLog> actionLogs;
-    private int addCount = 0;
+    private int addCount;
 
     public RegexReplacing(final boolean ignoreCase, final List<ActionLog> actionLogs) {
+        this(ignoreCase, actionLogs, new RegexMap<>(), 0);
+    }
+
+    private RegexReplacing(final boolean ignoreCase, final List<ActionLog> actionLogs,
+                           final RegexMap<Replacement> regexMap, final int addCount) {
         this.ignoreCase = ignoreCase;
         this.actionLogs = actionLogs;
+        this.regexMap = regexMap;
+        this.addCount = addCount;
     }
 
     public RegexReplacing() {
@@ -107,6 +130,66 @@ public class RegexReplacing {
         regexMap.put("(" + pattern + ")", Replacement.build(replacementString, addCount++));
     }
 
+    /**
+     * Writes the compiled patterns and replacements into a binary snapshot, which can be loaded with
+     * {@link #openSnapshot(Path)} without parsing and compiling the patterns again.
+     *
+     * @param out The output. It will not be closed.
+     * @throws IOException if the output cannot be written
+     */
+    public void writeSnapshot(final OutputStream out) throws IOException {
+        final DataOutputStream data = new DataOutputStream(out);
+        data.writeInt(SNAPSHOT_MAGIC);
+        data.writeInt(SNAPSHOT_FORMAT_VERSION);
+        data.writeBoolean(ignoreCase);
+        data.writeInt(addCount);
+        RegexMapSnapshot.write(regexMap, Replacement::write, data);
+        data.flush();
+    }
+
+    /**
+     * Memory-maps and reads a snapshot that was written by {@link #writeSnapshot(OutputStream)}.
+     *
+     * @param path The snapshot file
+     * @return The RegexReplacing
+     * @throws IOException if the file cannot be read or if it is not a valid snapshot
+     */
+    public static RegexReplacing openSnapshot(final Path path) throws IOException {
+        try (final FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            final long size = channel.size();
+            if (size > Integer.MAX_VALUE) {
+                throw new IOException("Snapshot too large: " + size + " bytes");
+            }
+            return readSnapshot(channel.map(FileChannel.MapMode.READ_ONLY, 0, size));
+        }
+    }
+
+    /**
+     * Reads a snapshot that was written by {@link #writeSnapshot(OutputStream)}, starting at the buffer's position.
+     *
+     * @param buffer The buffer
+     * @return The RegexReplacing
+     * @throws IOException if the buffer does not contain a valid snapshot
+     */
+    public static RegexReplacing readSnapshot(final ByteBuffer buffer) throws IOException {
+        final ByteBuffer data = buffer.duplicate();
+        try {
+            if (data.getInt() != SNAPSHOT_MAGIC) {
+                throw new IOException("Not a regex replace snapshot");
+            }
+            final int version = data.getInt();
+            if (version != SNAPSHOT_FORMAT_VERSION) {
+                throw new IOException("Unsupported regex replace snapshot format version " + version
+                        + ", expected " + SNAPSHOT_FORMAT_VERSION + ". Please recreate the snapshot.");
+            }
+            final boolean ignoreCase = data.get() != 0;
+            final int addCount = data.getInt();
+            return new RegexReplacing(ignoreCase, null, RegexMapSnapshot.read(data, Replacement::read), addCount);
+        } catch (final BufferUnderflowException e) {
+            throw new IOException("Corrupt regex replace snapshot", e);
+        }
+    }
+
     public Optional<ReplacementResult> replace(final CharSequence input) {
         final CharSequence inputSeq = ignoreCase ? new LowerCaseCharSequence(input) : input;
         final List<PositionedMatch> sortedMatches = computeSortedMatches(inputSeq);
@@ -119,7 +202,7 @@ public class RegexReplacing {
      * from, that corresponds to position 0 of {@code input} - i.e. {@code input} is understood as
      * the window {@code [originOffset, originOffset + input.length())} of that original input.
      * This lets every recursive call reuse the single, already-computed {@code sortedMatches}
-     * (via {@link #matchesInWindow(List, int, int)}) instead of re-scanning its own substring.
+     * (via {@link #bestMatchInWindow(List, int, int)}) instead of re-scanning its own substring.
      */
     private Optional<ReplacementResult> replace(final CharSequence input, final int depth, final int originOffset,
                                                 final List<PositionedMatch> sortedMatches) {
@@ -127,12 +210,12 @@ public class RegexReplacing {
             return Optional.empty();
         }
 
-        final Set<MatchResult<Replacement>> all = matchesInWindow(sortedMatches, originOffset, input.length());
-        if (all.isEmpty()) {
+        final MatchResult<Replacement> best = bestMatchInWindow(sortedMatches, originOffset, input.length());
+        if (best == null) {
             return Optional.empty();
         }
 
-        return Optional.of(applyReplacement(Collections.min(all, WEIGHT_COMPARATOR), input, depth, originOffset,
+        return Optional.of(applyReplacement(best, input, depth, originOffset,
                 sortedMatches));
 
     }
@@ -149,17 +232,33 @@ public class RegexReplacing {
      * subsequent token boundary (up to {@link #MAX_MATCH_SPAN_TOKENS} tokens ahead), keeping
      * whatever matches. Positions in the resulting {@link MatchResult}s are shifted back to be
      * relative to the original {@code input}.
+     * <p>
+     * All candidates for a start position are checked in a single scan using
+     * {@link RegexMap#getMatchLengths(CharSequence, int, int)}, so that capture groups only need to be
+     * resolved for the candidates that actually match. Before that, {@link RegexMap#mayMatch(CharSequence)}
+     * rejects inputs that contain none of the literals required by the patterns.
      */
     private Set<MatchResult<Replacement>> findAllMatches(final CharSequence input) {
-        final List<int[]> tokens = tokenize(input);
         final Set<MatchResult<Replacement>> results = new HashSet<>();
+        if (!regexMap.mayMatch(input)) {
+            return results;
+        }
+        final List<int[]> tokens = tokenize(input);
 
         for (int startIdx = 0; startIdx < tokens.size(); startIdx++) {
             final int startOffset = tokens.get(startIdx)[0];
             final int maxEndIdx = Math.min(tokens.size(), startIdx + MAX_MATCH_SPAN_TOKENS);
+            final BitSet matchLengths = regexMap.getMatchLengths(input, startOffset,
+                    tokens.get(maxEndIdx - 1)[1]);
+            if (matchLengths.isEmpty()) {
+                continue;
+            }
 
             for (int endIdx = startIdx; endIdx < maxEndIdx; endIdx++) {
                 final int endOffset = tokens.get(endIdx)[1];
+                if (!matchLengths.get(endOffset - startOffset)) {
+                    continue;
+                }
                 final CharSequence candidate = input.subSequence(startOffset, endOffset);
                 for (final MatchResult<Replacement> matchResult : regexMap.getAll(candidate)) {
                     results.add(shiftPositions(matchResult, startOffset));
@@ -217,7 +316,7 @@ public class RegexReplacing {
 
     /**
      * Computes every match in {@code input} once and indexes it by position, sorted by start, so
-     * that {@link #matchesInWindow(List, int, int)} can look up matches for any sub-range of
+     * that {@link #bestMatchInWindow(List, int, int)} can look up matches for any sub-range of
      * {@code input} without re-running {@link #findAllMatches(CharSequence)}.
      */
     private List<PositionedMatch> computeSortedMatches(final CharSequence input) {
@@ -233,29 +332,32 @@ public class RegexReplacing {
     }
 
     /**
-     * Returns every match in {@code sortedMatches} that lies entirely within the window
+     * Returns the best match according to {@link #WEIGHT_COMPARATOR} of all matches in
+     * {@code sortedMatches} that lie entirely within the window
      * {@code [originOffset, originOffset + windowLength)}, with positions shifted to be relative
      * to the window's own start (i.e. as if freshly computed by {@link #findAllMatches} on that
-     * window alone). A match that starts inside the window but extends past its end is excluded -
-     * it belongs to a sibling window (e.g. a longer pattern spanning past a split point chosen by
-     * an ancestor call), not this one.
+     * window alone), or null if there is no such match. Of equally good matches, the one that
+     * starts first wins. A match that starts inside the window but extends past its end is
+     * excluded - it belongs to a sibling window (e.g. a longer pattern spanning past a split point
+     * chosen by an ancestor call), not this one.
      */
-    private static Set<MatchResult<Replacement>> matchesInWindow(final List<PositionedMatch> sortedMatches,
-                                                                  final int originOffset, final int windowLength) {
+    private static MatchResult<Replacement> bestMatchInWindow(final List<PositionedMatch> sortedMatches,
+                                                              final int originOffset, final int windowLength) {
         final int windowEnd = originOffset + windowLength;
-        final Set<MatchResult<Replacement>> result = new HashSet<>();
+        MatchResult<Replacement> best = null;
 
         for (int idx = lowerBound(sortedMatches, originOffset); idx < sortedMatches.size(); idx++) {
             final PositionedMatch positioned = sortedMatches.get(idx);
             if (positioned.start() >= windowEnd) {
                 break;
             }
-            if (positioned.end() <= windowEnd) {
-                result.add(shiftPositions(positioned.matchResult(), -originOffset));
+            if (positioned.end() <= windowEnd
+                    && (best == null || WEIGHT_COMPARATOR.compare(positioned.matchResult(), best) < 0)) {
+                best = positioned.matchResult();
             }
         }
 
-        return result;
+        return best == null ? null : shiftPositions(best, -originOffset);
     }
 
     /** Returns the index of the first entry in {@code sortedMatches} with start >= target. */
@@ -19,6 +19,10 @@ package querqy.rewriter.regexreplace;
 
 import querqy.regex.MatchResult.GroupMatch;
 
+import java.io.DataOutput;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
@@ -40,6 +44,53 @@ public class Replacement {
         return new Replacement(parse(input), weight);
     }
 
+    void write(final DataOutput out) throws IOException {
+        out.writeFloat(weight);
+        out.writeInt(symbols.size());
+        for (final Symbol symbol : symbols) {
+            switch (symbol) {
+                case CharSeq charSeq -> {
+                    final byte[] bytes = charSeq.value().toString().getBytes(StandardCharsets.UTF_8);
+                    out.writeByte(0);
+                    out.writeInt(bytes.length);
+                    out.write(bytes);
+                }
+                case Placeholder placeholder -> {
+                    out.writeByte(1);
+                    out.writeInt(placeholder.index());
+                }
+            }
+        }
+    }
+
+    static Replacement read(final ByteBuffer buffer) throws IOException {
+        final float weight = buffer.getFloat();
+        // each symbol takes at least a type byte and an int
+        final int numSymbols = readLength(buffer, 1 + Integer.BYTES);
+        final List<Symbol> symbols = new ArrayList<>(numSymbols);
+        for (int i = 0; i < numSymbols; i++) {
+            final byte type = buffer.get();
+            switch (type) {
+                case 0 -> {
+                    final byte[] bytes = new byte[readLength(buffer, 1)];
+                    buffer.get(bytes);
+                    symbols.add(new CharSeq(new String(bytes, StandardCharsets.UTF_8)));
+                }
+                case 1 -> symbols.add(new Placeholder(buffer.getInt()));
+                default -> throw new IOException("Unknown replacement symbol type " + type);
+            }
+        }
+        return new Replacement(symbols, weight);
+    }
+
+    private static int readLength(final ByteBuffer buffer, final int minBytesPerElement) throws IOException {
+        final int length = buffer.getInt();
+        if (length < 0 || (long) length * minBytesPerElement > buffer.remaining()) {
+            throw new IOException("Corrupt regex replace snapshot: invalid length " + length);
+        }
+        return length;
+    }
+
     public String apply(final Map<Integer, GroupMatch> groups) {
         return symbols.stream().map(symbol -> symbol.get(groups))
                 .collect(Collectors.joining(""));
@@ -43,6 +43,11 @@ import java.util.Collection;
 import java.util.LinkedList;
 import java.util.List;
 
+/**
+ * <p>An instance of exactly this class can be shared between requests: {@link #rewrite(ExpandedQuery,
+ * SearchEngineRequestAdapter)} collects the query terms with a new instance for each call. Subclasses collect the
+ * terms themselves and must be created per request.</p>
+ */
 public class ReplaceRewriter extends AbstractNodeVisitor<Node> implements QueryRewriter {
 
     private final SequenceLookup<ReplaceInstruction> sequenceLookup;
@@ -51,7 +56,6 @@ public class ReplaceRewriter extends AbstractNodeVisitor<Node> implements QueryR
         this.sequenceLookup = sequenceLookup;
     }
 
-    private boolean hasReplacement = false;
     private LinkedList<CharSequence> collectedTerms;
     protected SearchEngineRequestAdapter searchEngineRequestAdapter;
 
@@ -65,17 +69,22 @@ public class ReplaceRewriter extends AbstractNodeVisitor<Node> implements QueryR
             return RewriterOutput.builder().expandedQuery(expandedQuery).build();
         }
 
-        collectedTerms = new LinkedList<>();
-        this.searchEngineRequestAdapter = searchEngineRequestAdapter;
+        final ReplaceRewriter visitor = getClass() == ReplaceRewriter.class
+                ? new ReplaceRewriter(sequenceLookup) : this;
+        visitor.collectedTerms = new LinkedList<>();
+        visitor.searchEngineRequestAdapter = searchEngineRequestAdapter;
+
+        visitor.visit((Query) querqyQuery);
 
-        visit((Query) querqyQuery);
+        final LinkedList<CharSequence> collectedTerms = visitor.collectedTerms;
+        boolean hasReplacement = false;
 
         final List<ActionLog> actionLogs = searchEngineRequestAdapter.getRewriteLoggingConfig().hasDetails()
                 ? new ArrayList<>() : null;
 
         final List<ExactMatch<ReplaceInstruction>> exactMatches = sequenceLookup.findExactMatches(collectedTerms);
         if (!exactMatches.isEmpty()) {
-            this.hasReplacement = true;
+            hasReplacement = true;
 
             final List<ExactMatch<ReplaceInstruction>> exactMatchesFiltered =
                     LookupUtils.removeSubsetsAndSmallerOverlaps(exactMatches);
@@ -94,7 +103,7 @@ public class ReplaceRewriter extends AbstractNodeVisitor<Node> implements QueryR
 
         final List<SuffixMatch<ReplaceInstruction>> suffixMatches = sequenceLookup.findSingleTermSuffixMatches(collectedTerms);
         if (!suffixMatches.isEmpty()) {
-            this.hasReplacement = true;
+            hasReplacement = true;
 
             suffixMatches.sort(LookupUtils.COMPARE_SUFFIX_MATCH_BY_LOOKUP_OFFSET_DESC);
 
@@ -110,7 +119,7 @@ public class ReplaceRewriter extends AbstractNodeVisitor<Node> implements QueryR
 
         final List<PrefixMatch<ReplaceInstruction>> prefixMatches = sequenceLookup.findSingleTermPrefixMatches(collectedTerms);
         if (!prefixMatches.isEmpty()) {
-            this.hasReplacement = true;
+            hasReplacement = true;
 
             prefixMatches.sort(LookupUtils.COMPARE_PREFIX_MATCH_BY_LOOKUP_OFFSET_DESC);
 
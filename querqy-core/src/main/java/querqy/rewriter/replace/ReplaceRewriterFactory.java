@@ -27,12 +27,15 @@ import querqy.trie.SequenceLookup;
 
 import java.io.IOException;
 import java.io.InputStreamReader;
+import java.util.Collections;
+import java.util.Optional;
 import java.util.Set;
 
 public class ReplaceRewriterFactory extends RewriterFactory {
 
     private final SequenceLookup<ReplaceInstruction> sequenceLookup;
     private final boolean ignoreCase;
+    private final ReplaceRewriter rewriter;
 
     public ReplaceRewriterFactory(final String id,
                                   final InputStreamReader reader,
@@ -42,15 +45,21 @@ public class ReplaceRewriterFactory extends RewriterFactory {
         super(id);
         this.ignoreCase = ignoreCase;
         sequenceLookup = new querqy.rewriter.replace.ReplaceRewriterParser(reader, this.ignoreCase, inputDelimiter, querqyParser).parseConfig();
+        rewriter = new ReplaceRewriter(sequenceLookup);
     }
 
     @Override
     public QueryRewriter createRewriter(SearchEngineRequestAdapter searchEngineRequestAdapter) {
-        return new ReplaceRewriter(sequenceLookup);
+        return rewriter;
     }
 
     @Override
     public Set<Term> getCacheableGenerableTerms() {
         return QueryRewriter.EMPTY_GENERABLE_TERMS;
     }
+
+    @Override
+    public Optional<Set<String>> getRewriteCacheKeyParams() {
+        return Optional.of(Collections.emptySet());
+    }
 }
@@ -0,0 +1,297 @@
+/*
+ * SPDX-License-Identifier: Apache-2.0
+ *
+ * Copyright 2026 Querqy Contributors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package querqy.rewriter.wordbreak;
+
+import querqy.LowerCaseCharSequence;
+import querqy.SegmentedLruCache;
+
+import java.io.BufferedOutputStream;
+import java.io.BufferedReader;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.Reader;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * <p>A {@link WordBreaker} that caches the results of another WordBreaker.</p>
+ *
+ * <p>The cache key is made from the word (lowercased if lowerCaseKeys is true), maxDecompoundExpansions and
+ * verifyCollation. A cache entry remembers the {@link TermCorpus#getCacheVersion()} of the corpus it was computed
+ * against and it is discarded if the version has changed.</p>
+ *
+ * <p>The entries are kept in a {@link SegmentedLruCache}. They can be saved to a file and loaded again, so that a
+ * restarted instance starts with a warm cache, and they can be precomputed from a query log.</p>
+ */
+public class CachingWordBreaker implements WordBreaker {
+
+    /**
+     * "QWBC"
+     */
+    static final int MAGIC = 0x51574243;
+
+    public static final int FORMAT_VERSION = 1;
+
+    private final WordBreaker delegate;
+    private final boolean lowerCaseKeys;
+    private final SegmentedLruCache<Key, Entry> cache;
+
+    private final LongAdder hitCount = new LongAdder();
+    private final LongAdder missCount = new LongAdder();
+
+    /**
+     * @param delegate The WordBreaker that computes the results
+     * @param lowerCaseKeys Iff true, words are lowercased for the cache key. Only set this if the delegate lowercases
+     *                      its input.
+     * @param maxSize The maximum number of entries
+     */
+    public CachingWordBreaker(final WordBreaker delegate, final boolean lowerCaseKeys, final int maxSize) {
+        this.cache = new SegmentedLruCache<>(maxSize);
+        this.delegate = Objects.requireNonNull(delegate);
+        this.lowerCaseKeys = lowerCaseKeys;
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * <p>The returned list and arrays are shared between calls and must not be modified.</p>
+     */
+    @Override
+    public List<CharSequence[]> breakWord(final CharSequence word, final TermCorpus termCorpus,
+                                          final int maxDecompoundExpansions,
+                                          final boolean verifyCollation) throws IOException {
+
+        final Key key = new Key(toKeyWord(word), maxDecompoundExpansions, verifyCollation);
+        final Object version = termCorpus.getCacheVersion();
+        final Entry entry = cache.get(key);
+        if (entry != null && entry.version == version) {
+            hitCount.increment();
+            return entry.result;
+        }
+
+        missCount.increment();
+        final List<CharSequence[]> result = copy(delegate.breakWord(word, termCorpus, maxDecompoundExpansions,
+                verifyCollation));
+        cache.put(key, new Entry(result, version));
+        return result;
+    }
+
+    /**
+     * Breaks all whitespace-separated words of a query log, one query per line, so that the results are cached.
+     *
+     * @param queryLog The query log. It will not be closed.
+     * @param termCorpus The term corpus
+     * @param maxDecompoundExpansions The maxDecompoundExpansions that the rewriter will use
+     * @param verifyCollation The verifyCollation setting that the rewriter will use
+     * @return The number of words that were not cached yet
+     * @throws IOException if the query log cannot be read
+     */
+    public int precompute(final Reader queryLog, final TermCorpus termCorpus, final int maxDecompoundExpansions,
+                          final boolean verifyCollation) throws IOException {
+        final long missesBefore = missCount.sum();
+        final BufferedReader br = queryLog instanceof BufferedReader
+                ? (BufferedReader) queryLog
+                : new BufferedReader(queryLog);
+        String line;
+        while ((line = br.readLine()) != null) {
+            for (final String word : line.trim().split("\\s+")) {
+                if (!word.isEmpty()) {
+                    breakWord(word, termCorpus, maxDecompoundExpansions, verifyCollation);
+                }
+            }
+        }
+        return (int) (missCount.sum() - missesBefore);
+    }
+
+    /**
+     * Writes all valid entries to a file.
+     *
+     * @param path The file
+     * @param termCorpus The corpus that the entries must have been computed against
+     * @throws IOException if the file cannot be written
+     */
+    public void save(final Path path, final TermCorpus termCorpus) throws IOException {
+        final Object version = termCorpus.getCacheVersion();
+        final List<Map.Entry<Key, Entry>> entries = new ArrayList<>();
+        cache.forEach((key, entry) -> {
+            if (entry.version == version) {
+                entries.add(Map.entry(key, entry));
+            }
+        });
+
+        try (final OutputStream os = new BufferedOutputStream(Files.newOutputStream(path))) {
+            final DataOutputStream out = new DataOutputStream(os);
+            out.writeInt(MAGIC);
+            out.writeInt(FORMAT_VERSION);
+            out.writeInt(entries.size());
+            for (final Map.Entry<Key, Entry> entry : entries) {
+                final Key key = entry.getKey();
+                writeString(out, key.word);
+                out.writeInt(key.maxDecompoundExpansions);
+                out.writeBoolean(key.verifyCollation);
+                final List<CharSequence[]> result = entry.getValue().result;
+                out.writeInt(result.size());
+                for (final CharSequence[] parts : result) {
+                    out.writeInt(parts.length);
+                    for (final CharSequence part : parts) {
+                        writeString(out, part);
+                    }
+                }
+            }
+            out.flush();
+        }
+    }
+
+    /**
+     * Loads entries from a file that was written by {@link #save(Path, TermCorpus)}. The entries are considered
+     * valid for the current version of the term corpus, which must be the corpus that they were computed against.
+     *
+     * @param path The file
+     * @param termCorpus The term corpus
+     * @return The number of loaded entries
+     * @throws IOException if the file cannot be read or is not a valid cache file
+     */
+    public int load(final Path path, final TermCorpus termCorpus) throws IOException {
+        final ByteBuffer buffer = ByteBuffer.wrap(Files.readAllBytes(path));
+        final Object version = termCorpus.getCacheVersion();
+        try {
+            if (buffer.getInt() != MAGIC) {
+                throw new IOException("Not a word break cache file: " + path);
+            }
+            final int formatVersion = buffer.getInt();
+            if (formatVersion != FORMAT_VERSION) {
+                throw new IOException("Unsupported word break cache format version " + formatVersion
+                        + ", expected " + FORMAT_VERSION + ". Please recreate the cache file.");
+            }
+            // word length, maxDecompoundExpansions, verifyCollation, number of results
+            final int numEntries = readLength(buffer, 13);
+            for (int i = 0; i < numEntries; i++) {
+                final Key key = new Key(readString(buffer), buffer.getInt(), buffer.get() != 0);
+                // a result is at least its number of parts
+                final int numResults = readLength(buffer, 4);
+                final List<CharSequence[]> result = new ArrayList<>(numResults);
+                for (int j = 0; j < numResults; j++) {
+                    // a part is at least its length
+                    final int numParts = readLength(buffer, 4);
+                    final CharSequence[] parts = new CharSequence[numParts];
+                    for (int k = 0; k < numParts; k++) {
+                        parts[k] = readString(buffer);
+                    }
+                    result.add(parts);
+                }
+                cache.put(key, new Entry(List.copyOf(result), version));
+            }
+            return numEntries;
+        } catch (final BufferUnderflowException | IndexOutOfBoundsException | IllegalArgumentException e) {
+            throw new IOException("Corrupt word break cache file: " + path, e);
+        }
+    }
+
+    public long getHitCount() {
+        return hitCount.sum();
+    }
+
+    public long getMissCount() {
+        return missCount.sum();
+    }
+
+    public int size() {
+        return cache.size();
+    }
+
+    public void clear() {
+        cache.clear();
+    }
+
+    public WordBreaker getDelegate() {
+        return delegate;
+    }
+
+    private String toKeyWord(final CharSequence word) {
+        // lowercase char by char like the delegate does
+        return lowerCaseKeys
+                ? new StringBuilder(word.length()).append(new LowerCaseCharSequence(word)).toString()
+                : word.toString();
+    }
+
+    private static List<CharSequence[]> copy(final List<CharSequence[]> result) {
+        final List<CharSequence[]> copy = new ArrayList<>(result.size());
+        for (final CharSequence[] parts : result) {
+            if (parts == null) {
+                continue;
+            }
+            final CharSequence[] partsCopy = new CharSequence[parts.length];
+            for (int i = 0; i < parts.length; i++) {
+                partsCopy[i] = parts[i].toString();
+            }
+            copy.add(partsCopy);
+        }
+        return List.copyOf(copy);
+    }
+
+    private static void writeString(final DataOutputStream out, final CharSequence s) throws IOException {
+        final byte[] bytes = s.toString().getBytes(StandardCharsets.UTF_8);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    /**
+     * Reads a length and checks that the remaining buffer can hold that many elements.
+     */
+    private static int readLength(final ByteBuffer buffer, final int minBytesPerElement) throws IOException {
+        final int length = buffer.getInt();
+        if (length < 0 || (long) length * minBytesPerElement > buffer.remaining()) {
+            throw new IOException("Corrupt word break cache file: invalid length " + length);
+        }
+        return length;
+    }
+
+    private static String readString(final ByteBuffer buffer) {
+        final int length = buffer.getInt();
+        if (length < 0 || length > buffer.remaining()) {
+            throw new IllegalArgumentException("Invalid string length " + length);
+        }
+        final String s = new String(buffer.array(), buffer.arrayOffset() + buffer.position(), length,
+                StandardCharsets.UTF_8);
+        buffer.position(buffer.position() + length);
+        return s;
+    }
+
+    private record Key(String word, int maxDecompoundExpansions, boolean verifyCollation) {}
+
+    private static final class Entry {
+
+        final List<CharSequence[]> result;
+        final Object version;
+
+        Entry(final List<CharSequence[]> result, final Object version) {
+            this.result = result;
+            this.version = version;
+        }
+    }
+
+}
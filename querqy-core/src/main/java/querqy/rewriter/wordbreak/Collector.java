@@ -157,12 +157,32 @@ public class Collector {
     public CollectionState collect(final CharSequence left, final CharSequence right,
                                    final int rightDf, final float weightMorphologicalPattern) {
 
+        if (maxEvaluations <= evaluations) {
+            return CollectionState.MAX_EVALUATIONS_REACHED;
+        }
+        return collect(left, right, termCorpus.docFreq(left), rightDf, weightMorphologicalPattern, null);
+    }
+
+    /**
+     * Same as {@link #collect(CharSequence, CharSequence, int, float)} but with corpus lookups that have already been
+     * made by the caller.
+     *
+     * @param left The modifier character sequence
+     * @param right The head character sequence
+     * @param leftDf The document frequency of the left term in the corpus
+     * @param rightDf The document frequency of the right term in the corpus
+     * @param weightMorphologicalPattern The weight of this specific morphological pattern.
+     * @param coExist Whether left and right co-occur in the corpus, or null to look it up if needed
+     * @return The state of candidate collection
+     */
+    CollectionState collect(final CharSequence left, final CharSequence right, final int leftDf,
+                            final int rightDf, final float weightMorphologicalPattern, final Boolean coExist) {
+
         if (maxEvaluations <= evaluations) {
             return CollectionState.MAX_EVALUATIONS_REACHED;
         }
         evaluations++;
 
-        final int leftDf = termCorpus.docFreq(left);
         if (leftDf >= minSuggestionFrequency) {
 
             final float score = weightDfObservation == 0f ? weightMorphologicalPattern
@@ -173,7 +193,7 @@ public class Collector {
             if (verifyCollation) {
 
                 if (((collection.size() < maxDecompoundExpansions) || (score > collection.element().score))
-                        && termCorpus.coExist(left, right)) {
+                        && (coExist != null ? coExist : termCorpus.coExist(left, right))) {
                     collection.offer(new Suggestion(new CharSequence[]{left, right}, score));
 
                     if (collection.size() > maxDecompoundExpansions) {
@@ -207,6 +227,10 @@ public class Collector {
         return evaluations >= maxEvaluations;
     }
 
+    int remainingEvaluations() {
+        return Math.max(0, maxEvaluations - evaluations);
+    }
+
     /**
      * Get the collected results ordered by decreasing score. This resets the internal result queue.
      *
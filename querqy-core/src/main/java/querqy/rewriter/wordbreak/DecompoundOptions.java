@@ -0,0 +1,55 @@
+/*
+ * SPDX-License-Identifier: Apache-2.0
+ *
+ * Copyright 2026 Querqy Contributors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package querqy.rewriter.wordbreak;
+
+import lombok.Builder;
+import lombok.Builder.Default;
+import lombok.Getter;
+
+import java.util.concurrent.Executor;
+
+/**
+ * Options for running the decompounding of the {@link WordBreakCompoundRewriterFactory}: caching of the results and
+ * parallel corpus lookups.
+ */
+@Builder
+@Getter
+public class DecompoundOptions {
+
+    /**
+     * The max. number of words whose decompounding results are cached, see {@link CachingWordBreaker}. 0 disables
+     * the cache.
+     */
+    @Default private final int cacheSize = 0;
+
+    /**
+     * Runs the corpus lookups for long compounds in parallel, see {@link MorphologicalWordBreaker}. If null, lookups
+     * are made sequentially.
+     */
+    @Default private final Executor executor = null;
+
+    /**
+     * The min. number of word breaks that a word must have for its lookups to be made in parallel
+     */
+    @Default private final int minParallelWordBreaks = MorphologicalWordBreaker.DEFAULT_MIN_PARALLEL_WORD_BREAKS;
+
+    public static DecompoundOptions defaultOptions() {
+        return DecompoundOptions.builder().build();
+    }
+
+}
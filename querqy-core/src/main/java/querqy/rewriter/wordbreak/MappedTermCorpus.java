@@ -0,0 +1,207 @@
+/*
+ * SPDX-License-Identifier: Apache-2.0
+ *
+ * Copyright 2026 Querqy Contributors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package querqy.rewriter.wordbreak;
+
+import querqy.BloomFilter;
+
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.IntBuffer;
+import java.nio.LongBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * <p>{@link TermCorpus} implementation backed by a binary corpus file that was written by
+ * {@link MappedTermCorpusCompiler}.</p>
+ *
+ * <p>The file is memory-mapped and queried in place: terms are looked up by binary search in a sorted term
+ * dictionary, and docFreqs and co-occurrence bloom filters are read from fixed-width regions of the file. Unlike
+ * {@link TsvDfCoocTermCorpus}, the corpus needs almost no heap, no matter how many terms it contains.</p>
+ *
+ * <p>A MappedTermCorpus is thread-safe.</p>
+ */
+public class MappedTermCorpus implements TermCorpus {
+
+    /**
+     * "QTCP"
+     */
+    static final int MAGIC = 0x51544350;
+
+    public static final int FORMAT_VERSION = 1;
+
+    private final int numTerms;
+    private final int numDocs;
+    private final boolean collationSupported;
+    private final int hashFunctions;
+    private final int bloomWords;
+
+    private final IntBuffer termOffsets;
+    private final CharBuffer termChars;
+    private final IntBuffer docFreqs;
+    private final LongBuffer blooms;
+
+    private MappedTermCorpus(final ByteBuffer buffer) throws IOException {
+        try {
+            final int magic = buffer.getInt();
+            if (magic != MAGIC) {
+                throw new IOException("Not a term corpus");
+            }
+            final int version = buffer.getInt();
+            if (version != FORMAT_VERSION) {
+                throw new IOException("Unsupported term corpus format version " + version + ", expected "
+                        + FORMAT_VERSION + ". Please recompile the corpus.");
+            }
+            numTerms = buffer.getInt();
+            numDocs = buffer.getInt();
+            collationSupported = buffer.getInt() != 0;
+            hashFunctions = buffer.getInt();
+            bloomWords = buffer.getInt();
+            final int numTermChars = buffer.getInt();
+
+            // the bloom words come first, so that they are aligned to 8 bytes
+            blooms = slice(buffer, (long) numTerms * bloomWords * Long.BYTES).asLongBuffer();
+            docFreqs = slice(buffer, (long) numTerms * Integer.BYTES).asIntBuffer();
+            termOffsets = slice(buffer, (long) (numTerms + 1) * Integer.BYTES).asIntBuffer();
+            termChars = slice(buffer, (long) numTermChars * Character.BYTES).asCharBuffer();
+
+            if (termOffsets.get(numTerms) != numTermChars) {
+                throw new IOException("Corrupt term corpus");
+            }
+
+        } catch (final BufferUnderflowException | IndexOutOfBoundsException | IllegalArgumentException e) {
+            throw new IOException("Corrupt term corpus", e);
+        }
+    }
+
+    /**
+     * Memory-maps a term corpus file.
+     *
+     * @param path The corpus file
+     * @return The term corpus
+     * @throws IOException if the file cannot be read or if it is not a valid term corpus
+     */
+    public static MappedTermCorpus open(final Path path) throws IOException {
+        try (final FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            final long size = channel.size();
+            if (size > Integer.MAX_VALUE) {
+                throw new IOException("Term corpus too large: " + size + " bytes");
+            }
+            // the mapping remains valid after the channel has been closed
+            return read(channel.map(FileChannel.MapMode.READ_ONLY, 0, size));
+        }
+    }
+
+    /**
+     * Reads a term corpus from a buffer, starting at the buffer's position. The buffer must not be changed
+     * afterwards.
+     *
+     * @param buffer The buffer
+     * @return The term corpus
+     * @throws IOException if the buffer does not contain a valid term corpus
+     */
+    public static MappedTermCorpus read(final ByteBuffer buffer) throws IOException {
+        return new MappedTermCorpus(buffer.duplicate());
+    }
+
+    /**
+     * @param term The term
+     * @return The index of the term in the dictionary or -1 if it is not contained
+     */
+    int indexOf(final CharSequence term) {
+        int lo = 0;
+        int hi = numTerms - 1;
+        while (lo <= hi) {
+            final int mid = (lo + hi) >>> 1;
+            final int comp = compareTerm(mid, term);
+            if (comp < 0) {
+                lo = mid + 1;
+            } else if (comp > 0) {
+                hi = mid - 1;
+            } else {
+                return mid;
+            }
+        }
+        return -1;
+    }
+
+    // same order as String.compareTo
+    private int compareTerm(final int index, final CharSequence term) {
+        final int start = termOffsets.get(index);
+        final int len = termOffsets.get(index + 1) - start;
+        final int termLen = term.length();
+        for (int i = 0, n = Math.min(len, termLen); i < n; i++) {
+            final char c1 = termChars.get(start + i);
+            final char c2 = term.charAt(i);
+            if (c1 != c2) {
+                return c1 - c2;
+            }
+        }
+        return len - termLen;
+    }
+
+    @Override
+    public boolean exists(final CharSequence term) {
+        return indexOf(term) >= 0;
+    }
+
+    @Override
+    public int docFreq(final CharSequence term) {
+        final int index = indexOf(term);
+        return index < 0 ? 0 : docFreqs.get(index);
+    }
+
+    @Override
+    public int numDocs() {
+        return numDocs;
+    }
+
+    @Override
+    public boolean isCollationSupported() {
+        return collationSupported;
+    }
+
+    @Override
+    public boolean coExist(final CharSequence term1, final CharSequence term2) {
+        if (!collationSupported) {
+            return TermCorpus.super.coExist(term1, term2);
+        }
+        final int index = indexOf(term1);
+        return index >= 0 && BloomFilter.contains(blooms, index * bloomWords, bloomWords * 64, hashFunctions, term2);
+    }
+
+    /**
+     * @return The number of terms in the corpus
+     */
+    public int size() {
+        return numTerms;
+    }
+
+    private static ByteBuffer slice(final ByteBuffer buffer, final long length) {
+        if (length > buffer.remaining()) {
+            throw new IndexOutOfBoundsException("Expected " + length + " bytes, found " + buffer.remaining());
+        }
+        final ByteBuffer slice = buffer.slice(buffer.position(), (int) length);
+        buffer.position(buffer.position() + (int) length);
+        return slice;
+    }
+
+}
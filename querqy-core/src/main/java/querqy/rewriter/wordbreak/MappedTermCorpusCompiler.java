@@ -0,0 +1,191 @@
+/*
+ * SPDX-License-Identifier: Apache-2.0
+ *
+ * Copyright 2026 Querqy Contributors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package querqy.rewriter.wordbreak;
+
+import querqy.BloomFilter;
+
+import java.io.BufferedOutputStream;
+import java.io.BufferedReader;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.Reader;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.TreeMap;
+
+/**
+ * <p>Converts a corpus in the TSV format of {@link TsvDfCoocTermCorpus} (term TAB docFreq TAB bloomHex) or of
+ * {@link TsvDfTermCorpus} (term TAB docFreq) into the binary format of {@link MappedTermCorpus}.</p>
+ *
+ * <p>The binary corpus contains the terms in a sorted dictionary, a docFreq per term and, for co-occurrence corpora,
+ * the words of the bloom filter per term. All bloom filters of a corpus must have the same size.</p>
+ *
+ * <p>Use {@link MappedTermCorpus#open(Path)} to load the result. If a term occurs more than once, the last line
+ * wins, as in the TSV corpora.</p>
+ */
+public class MappedTermCorpusCompiler {
+
+    private Reader reader;
+    private int hashFunctions = -1;
+    private int numDocs = -1;
+
+    /** Source of TSV lines; closed by the caller. */
+    public MappedTermCorpusCompiler reader(final Reader reader) {
+        this.reader = reader;
+        return this;
+    }
+
+    /**
+     * Number of hash functions used when building the bloom filters. If set, the TSV must contain a bloom filter per
+     * term, otherwise it must only contain the docFreq and the corpus will not support co-occurrence lookups.
+     */
+    public MappedTermCorpusCompiler hashFunctions(final int hashFunctions) {
+        if (hashFunctions < 1) {
+            throw new IllegalArgumentException("hashFunctions must be >= 1, got: " + hashFunctions);
+        }
+        this.hashFunctions = hashFunctions;
+        return this;
+    }
+
+    /**
+     * Total number of documents in the corpus, used for decompound scoring.
+     * If not set, the value is estimated as {@code numberOfTerms * 100}.
+     */
+    public MappedTermCorpusCompiler numDocs(final int numDocs) {
+        if (numDocs <= 0) {
+            throw new IllegalArgumentException("numDocs must be > 0, got: " + numDocs);
+        }
+        this.numDocs = numDocs;
+        return this;
+    }
+
+    /**
+     * Compiles the corpus and writes it to a file.
+     *
+     * @param target The corpus file
+     * @throws IOException if the TSV cannot be read or is invalid or if the file cannot be written
+     */
+    public void compile(final Path target) throws IOException {
+        try (final OutputStream out = new BufferedOutputStream(Files.newOutputStream(target))) {
+            compile(out);
+        }
+    }
+
+    /**
+     * Compiles the corpus and writes it to a stream.
+     *
+     * @param out The output. It will not be closed.
+     * @throws IOException if the TSV cannot be read or is invalid or if the output cannot be written
+     */
+    public void compile(final OutputStream out) throws IOException {
+        if (reader == null) {
+            throw new IllegalStateException("reader must be set");
+        }
+        final boolean withCooccurrence = hashFunctions > 0;
+
+        final TreeMap<String, TermEntry> entries = new TreeMap<>();
+        int bloomWords = -1;
+
+        final BufferedReader br = reader instanceof BufferedReader
+                ? (BufferedReader) reader
+                : new BufferedReader(reader);
+
+        String line;
+        int lineNumber = 0;
+        int termCount = 0;
+        while ((line = br.readLine()) != null) {
+            lineNumber++;
+            line = line.trim();
+            if (line.isEmpty()) {
+                continue;
+            }
+            final int tab1 = line.indexOf('\t');
+            if (tab1 < 0) {
+                throw new IOException("Missing first TAB on line " + lineNumber + ": " + line);
+            }
+            final int tab2 = line.indexOf('\t', tab1 + 1);
+            if (withCooccurrence && tab2 < 0) {
+                throw new IOException("Missing second TAB on line " + lineNumber + ": " + line);
+            }
+            final String term = line.substring(0, tab1).trim();
+            final int df = Integer.parseInt(line.substring(tab1 + 1, withCooccurrence ? tab2 : line.length()).trim());
+            if (df <= 0) {
+                throw new IOException("docFreq must be > 0 on line " + lineNumber + ": " + line);
+            }
+            long[] words = null;
+            if (withCooccurrence) {
+                words = BloomFilter.fromHex(line.substring(tab2 + 1).trim(), hashFunctions).toWords();
+                if (bloomWords < 0) {
+                    bloomWords = words.length;
+                } else if (words.length != bloomWords) {
+                    throw new IOException("All bloom filters must have the same size, found different size on line "
+                            + lineNumber);
+                }
+            }
+            entries.put(term, new TermEntry(df, words));
+            termCount++;
+        }
+
+        final int numTerms = entries.size();
+        final int resolvedNumDocs = numDocs >= 0 ? numDocs : termCount * 100;
+        final int wordsPerTerm = Math.max(bloomWords, 0);
+
+        long numTermChars = 0;
+        for (final String term : entries.keySet()) {
+            numTermChars += term.length();
+        }
+        if (numTermChars > Integer.MAX_VALUE) {
+            throw new IOException("Too many term chars: " + numTermChars);
+        }
+
+        final DataOutputStream data = new DataOutputStream(out);
+        data.writeInt(MappedTermCorpus.MAGIC);
+        data.writeInt(MappedTermCorpus.FORMAT_VERSION);
+        data.writeInt(numTerms);
+        data.writeInt(resolvedNumDocs);
+        data.writeInt(withCooccurrence ? 1 : 0);
+        data.writeInt(withCooccurrence ? hashFunctions : 0);
+        data.writeInt(wordsPerTerm);
+        data.writeInt((int) numTermChars);
+
+        for (final TermEntry entry : entries.values()) {
+            if (entry.bloomWords() != null) {
+                for (final long word : entry.bloomWords()) {
+                    data.writeLong(word);
+                }
+            }
+        }
+        for (final TermEntry entry : entries.values()) {
+            data.writeInt(entry.docFreq());
+        }
+        int offset = 0;
+        for (final String term : entries.keySet()) {
+            data.writeInt(offset);
+            offset += term.length();
+        }
+        data.writeInt(offset);
+        for (final String term : entries.keySet()) {
+            data.writeChars(term);
+        }
+        data.flush();
+    }
+
+    private record TermEntry(int docFreq, long[] bloomWords) {}
+
+}
@@ -20,18 +20,37 @@ package querqy.rewriter.wordbreak;
 import querqy.LowerCaseCharSequence;
 
 import java.io.IOException;
+import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.function.Supplier;
 
+/**
+ * <p>Breaks a word into a modifier and a head, using the word breaks suggested by a {@link Morphology} and the
+ * {@link TermCorpus} for ranking and verification.</p>
+ *
+ * <p>If an {@link Executor} is set, the corpus lookups for words with at least minParallelWordBreaks suggested
+ * word breaks are made in parallel. The lookup results are then passed to the {@link Collector} in the same order
+ * as in the sequential mode, so that both modes return the same results.</p>
+ *
+ * <p>In both modes, the heads and the modifiers of each word break are looked up in the corpus in batches (see
+ * {@link TermCorpus#docFreqs(List)} and {@link TermCorpus#coExist(List, CharSequence)}).</p>
+ */
 public class MorphologicalWordBreaker implements WordBreaker {
 
     public static final float DEFAULT_WEIGHT_MORPHOLOGICAL_PATTERN = 0.8f;
+    public static final int DEFAULT_MIN_PARALLEL_WORD_BREAKS = 8;
     private final int minBreakLength;
     private final int maxEvaluations;
     private final boolean lowerCaseInput;
     private final int minSuggestionFrequency;
     final float weightDfObservation;
     private final Morphology morphology;
+    private final Executor executor;
+    private final int minParallelWordBreaks;
 
     public MorphologicalWordBreaker(final Morphology morphology,
                                     final boolean lowerCaseInput, final int minSuggestionFrequency,
@@ -44,7 +63,33 @@ public class MorphologicalWordBreaker implements WordBreaker {
                                     final boolean lowerCaseInput, final int minSuggestionFrequency,
                                     final int minBreakLength, final int maxEvaluations,
                                     final float weightMorphologicalPattern) {
+        this(morphology, lowerCaseInput, minSuggestionFrequency, minBreakLength, maxEvaluations,
+                weightMorphologicalPattern, null, DEFAULT_MIN_PARALLEL_WORD_BREAKS);
+    }
+
+    /**
+     * @param morphology The morphology that suggests the word breaks
+     * @param lowerCaseInput Iff true, lowercase the input word
+     * @param minSuggestionFrequency The min. docFreq of each part
+     * @param minBreakLength The min. length of the input word
+     * @param maxEvaluations The max. number of candidates to evaluate
+     * @param weightMorphologicalPattern The weight of the morphological pattern vs. the observed docFreqs
+     * @param executor Runs corpus lookups in parallel. If null, all lookups are made sequentially.
+     * @param minParallelWordBreaks The min. number of suggested word breaks for which lookups are made in parallel.
+     *                              This is also the number of word breaks whose lookups are submitted at once.
+     */
+    public MorphologicalWordBreaker(final Morphology morphology,
+                                    final boolean lowerCaseInput, final int minSuggestionFrequency,
+                                    final int minBreakLength, final int maxEvaluations,
+                                    final float weightMorphologicalPattern,
+                                    final Executor executor, final int minParallelWordBreaks) {
 
+        if (minParallelWordBreaks < 1) {
+            throw new IllegalArgumentException("minParallelWordBreaks >= 1 required. Actual value: "
+                    + minParallelWordBreaks);
+        }
+        this.executor = executor;
+        this.minParallelWordBreaks = minParallelWordBreaks;
         this.minBreakLength = minBreakLength;
         this.maxEvaluations = maxEvaluations;
         this.lowerCaseInput = lowerCaseInput;
@@ -69,7 +114,7 @@ public class MorphologicalWordBreaker implements WordBreaker {
         final Collector collector = new Collector(minSuggestionFrequency, maxDecompoundExpansions, maxEvaluations,
                 verifyCollation, termCorpus, weightDfObservation);
 
-        collectSuggestions(word, termCorpus, collector);
+        collectSuggestions(word, termCorpus, collector, verifyCollation);
 
         return collector.flushResults();
 
@@ -77,7 +122,7 @@ public class MorphologicalWordBreaker implements WordBreaker {
 
 
     private void collectSuggestions(final CharSequence word, final TermCorpus termCorpus,
-                                    final Collector collector) {
+                                    final Collector collector, final boolean verifyCollation) {
         final int termLength = Character.codePointCount(word, 0, word.length());
         if (termLength < minBreakLength) {
             return;
@@ -91,25 +136,146 @@ public class MorphologicalWordBreaker implements WordBreaker {
         // Generation of suggestions happens here -
         final List<WordBreak> suggestedWordBreaks = morphology.suggestWordBreaks(input, minBreakLength);
 
+        if (executor != null && suggestedWordBreaks.size() >= minParallelWordBreaks) {
+            collectSuggestionsInParallel(suggestedWordBreaks, termCorpus, collector, verifyCollation);
+            return;
+        }
+
+        final List<CharSequence> heads = new ArrayList<>(suggestedWordBreaks.size());
         for (final WordBreak suggestedWordBreak : suggestedWordBreaks) {
-            final int rightDf = termCorpus.docFreq(suggestedWordBreak.originalRight());
+            heads.add(suggestedWordBreak.originalRight());
+        }
+        final int[] rightDfs = termCorpus.docFreqs(heads);
 
-            if (rightDf < minSuggestionFrequency) {
+        for (int i = 0; i < rightDfs.length && !collector.maxEvaluationsReached(); i++) {
+            if (rightDfs[i] < minSuggestionFrequency) {
                 continue;
             }
+            final WordBreak suggestedWordBreak = suggestedWordBreaks.get(i);
+            final List<Suggestion> suggestions = limit(suggestedWordBreak.suggestions(),
+                    collector.remainingEvaluations());
+            collect(suggestions, suggestedWordBreak.originalRight(), rightDfs[i],
+                    probeModifiers(suggestions, suggestedWordBreak.originalRight(), termCorpus, verifyCollation),
+                    collector);
+        }
+    }
+
+    /**
+     * Looks up the docFreqs of the heads in parallel, then the docFreqs and, if needed, the co-occurrence of the
+     * modifiers that the sequential mode would evaluate, one batch per word break, and finally feeds the candidates
+     * in their original order into the collector. The word breaks are processed in batches of minParallelWordBreaks,
+     * so that no lookups are submitted for word breaks after maxEvaluations has been reached. Head lookups of the
+     * current batch that are no longer needed are cancelled.
+     */
+    private void collectSuggestionsInParallel(final List<WordBreak> suggestedWordBreaks, final TermCorpus termCorpus,
+                                              final Collector collector, final boolean verifyCollation) {
+
+        for (int from = 0; from < suggestedWordBreaks.size() && !collector.maxEvaluationsReached();
+                from += minParallelWordBreaks) {
+
+            final List<WordBreak> batch = suggestedWordBreaks.subList(from,
+                    Math.min(from + minParallelWordBreaks, suggestedWordBreaks.size()));
+
+            final List<CompletableFuture<Integer>> rightDfFutures = new ArrayList<>(batch.size());
+            for (final WordBreak wordBreak : batch) {
+                rightDfFutures.add(supply(() -> termCorpus.docFreq(wordBreak.originalRight())));
+            }
 
-            for (final Suggestion suggestion : suggestedWordBreak.suggestions()) {
-                final Collector.CollectionState collectionState = collector.collect(
-                        suggestion.sequence[0],
-                        suggestedWordBreak.originalRight(),
-                        rightDf,
-                        suggestion.score);
-                if (collectionState.isMaxEvaluationsReached()) {
-                    break;
+            final List<Candidates> candidates = new ArrayList<>();
+            int remainingEvaluations = collector.remainingEvaluations();
+            for (int i = 0; i < batch.size(); i++) {
+                if (remainingEvaluations == 0) {
+                    rightDfFutures.get(i).cancel(false);
+                    continue;
                 }
+                final int rightDf = join(rightDfFutures.get(i));
+                if (rightDf < minSuggestionFrequency) {
+                    continue;
+                }
+                final WordBreak wordBreak = batch.get(i);
+                final List<Suggestion> suggestions = limit(wordBreak.suggestions(), remainingEvaluations);
+                remainingEvaluations -= suggestions.size();
+                final CharSequence right = wordBreak.originalRight();
+                candidates.add(new Candidates(suggestions, right, rightDf,
+                        supply(() -> probeModifiers(suggestions, right, termCorpus, verifyCollation))));
+            }
+
+            for (final Candidates candidate : candidates) {
+                collect(candidate.suggestions(), candidate.right(), candidate.rightDf(), join(candidate.probes()),
+                        collector);
             }
         }
     }
 
+    /**
+     * Looks up the docFreqs of all modifiers of a word break in one batch and, if collation must be verified, whether
+     * the modifiers that are frequent enough co-occur with the head, again in one batch.
+     */
+    private Probes probeModifiers(final List<Suggestion> suggestions, final CharSequence right,
+                                  final TermCorpus termCorpus, final boolean verifyCollation) {
+        final List<CharSequence> lefts = new ArrayList<>(suggestions.size());
+        for (final Suggestion suggestion : suggestions) {
+            lefts.add(suggestion.sequence[0]);
+        }
+        final int[] leftDfs = lefts.isEmpty() ? new int[0] : termCorpus.docFreqs(lefts);
+        final boolean[] coExist = new boolean[leftDfs.length];
+
+        if (verifyCollation) {
+            final List<CharSequence> frequentLefts = new ArrayList<>(lefts.size());
+            for (int i = 0; i < leftDfs.length; i++) {
+                if (leftDfs[i] >= minSuggestionFrequency) {
+                    frequentLefts.add(lefts.get(i));
+                }
+            }
+            if (!frequentLefts.isEmpty()) {
+                final boolean[] found = termCorpus.coExist(frequentLefts, right);
+                int j = 0;
+                for (int i = 0; i < leftDfs.length; i++) {
+                    if (leftDfs[i] >= minSuggestionFrequency) {
+                        coExist[i] = found[j++];
+                    }
+                }
+            }
+        }
+        return new Probes(leftDfs, coExist);
+    }
+
+    private static void collect(final List<Suggestion> suggestions, final CharSequence right, final int rightDf,
+                                final Probes probes, final Collector collector) {
+        for (int i = 0; i < suggestions.size(); i++) {
+            final Collector.CollectionState collectionState = collector.collect(suggestions.get(i).sequence[0],
+                    right, probes.leftDfs()[i], rightDf, suggestions.get(i).score, probes.coExist()[i]);
+            if (collectionState.isMaxEvaluationsReached()) {
+                break;
+            }
+        }
+    }
+
+    private static <T> List<T> limit(final List<T> list, final int maxSize) {
+        return list.size() > maxSize ? list.subList(0, maxSize) : list;
+    }
+
+    private <T> CompletableFuture<T> supply(final Supplier<T> supplier) {
+        return CompletableFuture.supplyAsync(supplier, executor);
+    }
+
+    private static <T> T join(final CompletableFuture<T> future) {
+        try {
+            return future.join();
+        } catch (final CompletionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            if (e.getCause() instanceof Error) {
+                throw (Error) e.getCause();
+            }
+            throw e;
+        }
+    }
+
+    private record Probes(int[] leftDfs, boolean[] coExist) {}
+
+    private record Candidates(List<Suggestion> suggestions, CharSequence right, int rightDf,
+                              CompletableFuture<Probes> probes) {}
 
 }
@@ -17,6 +17,8 @@
  */
 package querqy.rewriter.wordbreak;
 
+import java.util.List;
+
 /**
  * Provides term lookup operations against a corpus (e.g. a Lucene index field).
  * Implementations are responsible for any field-name and case-normalization details.
@@ -36,6 +38,16 @@ public interface TermCorpus {
      */
     boolean isCollationSupported();
 
+    /**
+     * <p>Get an object that identifies the current content of this corpus. Results that were computed from the
+     * corpus can be cached as long as the corpus returns the same object (by identity).</p>
+     *
+     * @return The version, defaults to this corpus
+     */
+    default Object getCacheVersion() {
+        return this;
+    }
+
     /**
      * Returns {@code true} if {@code term1} and {@code term2} co-occur in at least one document.
      * Only valid when {@link #isCollationSupported()} returns {@code true}.
@@ -46,4 +58,55 @@ public interface TermCorpus {
         throw new UnsupportedOperationException(
                 "This TermCorpus implementation does not support co-occurrence lookup");
     }
+
+    /**
+     * Looks up the docFreqs of many terms at once. Implementations that can seek terms in order (like an index)
+     * should override this to look up all terms in a single pass.
+     *
+     * @param terms The terms
+     * @return The docFreq per term, in the order of {@code terms}
+     */
+    default int[] docFreqs(List<? extends CharSequence> terms) {
+        final int[] docFreqs = new int[terms.size()];
+        for (int i = 0; i < docFreqs.length; i++) {
+            docFreqs[i] = docFreq(terms.get(i));
+        }
+        return docFreqs;
+    }
+
+    /**
+     * Checks for many terms whether they co-occur with {@code term1} in at least one document.
+     * Only valid when {@link #isCollationSupported()} returns {@code true}.
+     *
+     * @param term1 The term to check all other terms against
+     * @param terms2 The other terms
+     * @return Per term in {@code terms2}, whether it co-occurs with {@code term1}
+     * @throws UnsupportedOperationException if this corpus does not support co-occurrence lookup
+     */
+    default boolean[] coExist(CharSequence term1, List<? extends CharSequence> terms2) {
+        final boolean[] coExist = new boolean[terms2.size()];
+        for (int i = 0; i < coExist.length; i++) {
+            coExist[i] = coExist(term1, terms2.get(i));
+        }
+        return coExist;
+    }
+
+    /**
+     * Checks for many terms whether {@code term2} co-occurs with them in at least one document. This is the
+     * counterpart of {@link #coExist(CharSequence, List)} for a fixed second term, for example for many modifiers
+     * that are checked against the same head.
+     * Only valid when {@link #isCollationSupported()} returns {@code true}.
+     *
+     * @param terms1 The terms to check against {@code term2}
+     * @param term2 The term that all other terms are checked against
+     * @return Per term in {@code terms1}, whether it co-occurs with {@code term2}
+     * @throws UnsupportedOperationException if this corpus does not support co-occurrence lookup
+     */
+    default boolean[] coExist(List<? extends CharSequence> terms1, CharSequence term2) {
+        final boolean[] coExist = new boolean[terms1.size()];
+        for (int i = 0; i < coExist.length; i++) {
+            coExist[i] = coExist(terms1.get(i), term2);
+        }
+        return coExist;
+    }
 }
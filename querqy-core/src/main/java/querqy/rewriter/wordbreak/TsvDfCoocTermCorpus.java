@@ -84,7 +84,8 @@ public class TsvDfCoocTermCorpus implements TermCorpus {
 
     @Override
     public boolean coExist(final CharSequence term1, final CharSequence term2) {
-        return lookup(term1).map(e -> e.bloomFilter().contains(term2)).orElse(false);
+        final State<TermEntry> state = trie.get(term1).getStateForCompleteSequence();
+        return state.isFinal() && state.getValue().bloomFilter().contains(term2);
     }
 
     public static class Builder {
@@ -17,12 +17,15 @@
  */
 package querqy.rewriter.wordbreak;
 
+import querqy.LowerCaseCharSequence;
 import querqy.model.Term;
 import querqy.rewrite.QueryRewriter;
 import querqy.rewrite.RewriterFactory;
 import querqy.rewrite.SearchEngineRequestAdapter;
 import querqy.trie.TrieMap;
 
+import java.io.IOException;
+import java.io.Reader;
 import java.util.Arrays;
 import java.util.Collection;
 import java.util.List;
@@ -109,6 +112,47 @@ public class WordBreakCompoundRewriterFactory extends RewriterFactory {
                                             final String compoundMorphologyName,
                                             final String optionalModifierPosition,
                                             final float optionalModifierBoost) {
+        this(rewriterId, termCorpus, lowerCaseInput, minSuggestionFreq, minBreakLength, reverseCompoundTriggerWords,
+                alwaysAddReverseCompounds, maxDecompoundExpansions, verifyDecompoundCollation, protectedWords,
+                decompoundMorphologyName, compoundMorphologyName, optionalModifierPosition, optionalModifierBoost,
+                DecompoundOptions.defaultOptions());
+    }
+
+    /**
+     * @param rewriterId                  The id of the rewriter
+     * @param termCorpus                  The term corpus for dictionary lookups
+     * @param lowerCaseInput              Iff true, lowercase input before matching it against the dictionary field.
+     * @param minSuggestionFreq           The minimum frequency of a suggestion in the dictionary field
+     * @param minBreakLength              The minimum word part length for decompounding
+     * @param reverseCompoundTriggerWords Query tokens in this list will trigger the creation of a reverse compound of the surrounding tokens.
+     * @param alwaysAddReverseCompounds   Iff true, reverse shingles will be added to the query
+     * @param maxDecompoundExpansions     The maximum number of decompounds to add to the query
+     * @param verifyDecompoundCollation   Iff true, verify that all parts of the compound cooccur in dictionaryField after decompounding
+     * @param protectedWords              Do not split these words
+     * @param decompoundMorphologyName    The name of decompounding morphology to use
+     * @param compoundMorphologyName      The name of compounding morphology to use
+     * @param optionalModifierPosition    Which part of a decompounded token, if any, is optional rather than
+     *                                    mandatory: one of {@link OptionalModifierPosition} (case-insensitive),
+     *                                    or {@code null}/empty for {@code NONE}.
+     * @param optionalModifierBoost       The boost applied to the optional part's term when it is present. Must
+     *                                    be {@code 1.0} if {@code optionalModifierPosition} is {@code NONE}.
+     * @param decompoundOptions           Caching and parallel lookups for decompounding
+     */
+    public WordBreakCompoundRewriterFactory(final String rewriterId,
+                                            final TermCorpus termCorpus,
+                                            final boolean lowerCaseInput,
+                                            final int minSuggestionFreq,
+                                            final int minBreakLength,
+                                            final List<String> reverseCompoundTriggerWords,
+                                            final boolean alwaysAddReverseCompounds,
+                                            final int maxDecompoundExpansions,
+                                            final boolean verifyDecompoundCollation,
+                                            final List<String> protectedWords,
+                                            final String decompoundMorphologyName,
+                                            final String compoundMorphologyName,
+                                            final String optionalModifierPosition,
+                                            final float optionalModifierBoost,
+                                            final DecompoundOptions decompoundOptions) {
         super(rewriterId);
         if (verifyDecompoundCollation && !termCorpus.isCollationSupported()) {
             throw new IllegalArgumentException(
@@ -139,9 +183,18 @@ public class WordBreakCompoundRewriterFactory extends RewriterFactory {
                 compoundMorphology.orElse(MorphologyProvider.DEFAULT),
                 lowerCaseInput, minSuggestionFreq);
 
-        wordBreaker = new MorphologicalWordBreaker(
+        final int cacheSize = decompoundOptions.getCacheSize();
+        if (cacheSize < 0) {
+            throw new IllegalArgumentException("decompound cacheSize >= 0 required. Actual value: " + cacheSize);
+        }
+        final WordBreaker morphologicalWordBreaker = new MorphologicalWordBreaker(
                 decompoundMorphology.orElse(MorphologyProvider.DEFAULT),
-                lowerCaseInput, minSuggestionFreq, minBreakLength, MAX_EVALUATIONS);
+                lowerCaseInput, minSuggestionFreq, minBreakLength, MAX_EVALUATIONS,
+                MorphologicalWordBreaker.DEFAULT_WEIGHT_MORPHOLOGICAL_PATTERN, decompoundOptions.getExecutor(),
+                decompoundOptions.getMinParallelWordBreaks());
+        wordBreaker = cacheSize > 0
+                ? new CachingWordBreaker(morphologicalWordBreaker, lowerCaseInput, cacheSize)
+                : morphologicalWordBreaker;
     }
 
     private static OptionalModifierPosition parseOptionalModifierPosition(final String name) {
@@ -173,6 +226,29 @@ public class WordBreakCompoundRewriterFactory extends RewriterFactory {
         return wordBreaker;
     }
 
+    /**
+     * @return The decompounding cache, if {@link DecompoundOptions#getCacheSize()} is greater than 0
+     */
+    public Optional<CachingWordBreaker> getDecompoundCache() {
+        return wordBreaker instanceof CachingWordBreaker
+                ? Optional.of((CachingWordBreaker) wordBreaker) : Optional.empty();
+    }
+
+    /**
+     * Decompounds all words of a query log, so that the results are in the decompounding cache.
+     *
+     * @param queryLog The query log, one query per line. It will not be closed.
+     * @return The number of words that were not cached yet
+     * @throws IOException if the query log cannot be read
+     * @throws IllegalStateException if there is no decompounding cache
+     */
+    public int precomputeDecompounds(final Reader queryLog) throws IOException {
+        return getDecompoundCache()
+                .orElseThrow(() -> new IllegalStateException(
+                        "DecompoundOptions.cacheSize must be greater than 0"))
+                .precompute(queryLog, termCorpus, maxDecompoundExpansions, verifyDecompoundCollation);
+    }
+
     public Compounder getCompounder() {
         return compounder;
     }
@@ -192,7 +268,7 @@ public class WordBreakCompoundRewriterFactory extends RewriterFactory {
     private static TrieMap<Boolean> buildWordLookup(final Collection<String> words, final boolean lowerCase) {
         final TrieMap<Boolean> result = new TrieMap<>();
         if (words != null) {
-            words.forEach(word -> result.put(lowerCase ? word.toLowerCase() : word, true));
+            words.forEach(word -> result.put(lowerCase ? new LowerCaseCharSequence(word) : word, true));
         }
         return result;
     }
@@ -0,0 +1,403 @@
+/*
+ * SPDX-License-Identifier: Apache-2.0
+ *
+ * Copyright 2026 Querqy Contributors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package querqy.trie;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+
+/**
+ * <p>Base class of the immutable TrieMaps that store their nodes in flat arrays.</p>
+ *
+ * <p>The nodes are numbered in breadth-first order, so that the children of a node occupy a contiguous range of ids.
+ * The children are sorted by their character and looked up by binary search (or a short linear scan for nodes with
+ * only a few children). The virtual root has id 0. Subclasses only provide access to the arrays.</p>
+ *
+ * @param <T> The value type
+ */
+abstract class ArrayTrieMap<T> extends TrieMap<T> {
+
+    /**
+     * Children lists up to this length are scanned linearly
+     */
+    private static final int LINEAR_SCAN_MAX_CHILDREN = 8;
+
+    /**
+     * @param nodeId The node id, must be greater than 0
+     * @return The character of the node
+     */
+    abstract char label(int nodeId);
+
+    /**
+     * @param nodeId The node id or the number of nodes
+     * @return The id of the first child of the node. The children of nodeId end before childrenStart(nodeId + 1).
+     */
+    abstract int childrenStart(int nodeId);
+
+    /**
+     * @return The value of the node or null
+     */
+    abstract T value(int nodeId);
+
+    /**
+     * @return The position of the prefix value of the node or -1 if the node has no prefix value
+     */
+    abstract int prefixPosition(int nodeId);
+
+    /**
+     * @param position A position returned by {@link #prefixPosition(int)}
+     * @return The prefix value, can be null
+     */
+    abstract T prefixValue(int position);
+
+    /**
+     * @return The number of nodes including the virtual root
+     */
+    abstract int numNodes();
+
+    /**
+     * @return The number of trie nodes, not counting the root
+     */
+    public int getNodeCount() {
+        return numNodes() - 1;
+    }
+
+    @Override
+    public void put(final CharSequence seq, final T value) {
+        throw new UnsupportedOperationException(getClass().getSimpleName() + " is immutable");
+    }
+
+    @Override
+    public void putPrefix(final CharSequence seq, final T value) {
+        throw new UnsupportedOperationException(getClass().getSimpleName() + " is immutable");
+    }
+
+    @Override
+    public TrieMap<T> copyWith(final CharSequence seq, final T value, final boolean isPrefix) {
+        throw new UnsupportedOperationException(getClass().getSimpleName() + " is immutable, use toTrieMap()");
+    }
+
+    /**
+     * Creates a mutable TrieMap with the same values and prefix values, for example to change it using
+     * {@link #copyWith(CharSequence, Object, boolean)}.
+     *
+     * @return The mutable TrieMap
+     */
+    @SuppressWarnings("unchecked")
+    public TrieMap<T> toTrieMap() {
+        final TrieMap<T> trieMap = new TrieMap<>();
+        final int numNodes = numNodes();
+        final Node<T>[] nodes = new Node[numNodes];
+        // the ids are assigned breadth-first, a node is always created before its children
+        for (int id = 0; id < numNodes; id++) {
+            Node<T> previous = null;
+            for (int child = childrenStart(id), end = childrenStart(id + 1); child < end; child++) {
+                final Node<T> node = new Node<>(label(child), value(child));
+                final int prefixPos = prefixPosition(child);
+                if (prefixPos >= 0) {
+                    node.prefixValue = prefixValue(prefixPos);
+                    node.hasPrefix = true;
+                }
+                if (previous != null) {
+                    previous.next = node;
+                } else if (id == 0) {
+                    trieMap.root = node;
+                } else {
+                    nodes[id].firstChild = node;
+                }
+                nodes[child] = node;
+                previous = node;
+            }
+        }
+        return trieMap;
+    }
+
+    @Override
+    public States<T> get(final CharSequence seq) {
+        if (seq.length() == 0) {
+            return States.unknown();
+        }
+        return get(0, seq);
+    }
+
+    @Override
+    public States<T> get(final CharSequence seq, final State<T> stateInfo) {
+        checkState(stateInfo);
+        if (seq.length() == 0) {
+            return States.unknown();
+        }
+        return get(stateInfo.nodeId, seq);
+    }
+
+    @Override
+    public void lookup(final CharSequence seq, final LookupCursor<T> cursor) {
+        cursor.reset();
+        if (seq.length() > 0) {
+            lookup(0, seq, cursor);
+        }
+    }
+
+    @Override
+    public void lookup(final CharSequence seq, final State<T> stateInfo, final LookupCursor<T> cursor) {
+        checkState(stateInfo);
+        cursor.reset();
+        if (seq.length() > 0) {
+            lookup(stateInfo.nodeId, seq, cursor);
+        }
+    }
+
+    private void checkState(final State<T> stateInfo) {
+        if (!stateInfo.isKnown()) {
+            throw new IllegalArgumentException("Known state expected");
+        }
+        if (stateInfo.nodeId < 0) {
+            throw new IllegalArgumentException("State was not created by a " + getClass().getSimpleName());
+        }
+    }
+
+    /**
+     * Like {@link #lookup(int, CharSequence, LookupCursor)} but creates the States. Nothing is allocated if there is
+     * no match.
+     */
+    private States<T> get(final int startNodeId, final CharSequence seq) {
+
+        final int last = seq.length() - 1;
+        int nodeId = startNodeId;
+        State<T> completeSequence = State.unknown();
+        // shortest prefix first
+        List<State<T>> prefixes = null;
+
+        for (int index = 0; index <= last; index++) {
+
+            final int child = findChild(nodeId, seq.charAt(index));
+            if (child < 0) {
+                break;
+            }
+
+            if (index == last) {
+                completeSequence = new State<>(true, value(child), null, index, child);
+                break;
+            }
+
+            final int prefixPos = prefixPosition(child);
+            if (prefixPos >= 0) {
+                if (prefixes == null) {
+                    prefixes = new ArrayList<>(2);
+                }
+                prefixes.add(new State<>(true, prefixValue(prefixPos), null,
+                        seq.charAt(0) == ' ' ? index - 1 : index, child));
+            }
+
+            nodeId = child;
+        }
+
+        if (prefixes == null) {
+            return completeSequence.isKnown() ? new States<>(completeSequence) : States.unknown();
+        }
+
+        final States<T> states = new States<>(completeSequence);
+        // TrieMap returns the longest prefix first
+        for (int i = prefixes.size() - 1; i >= 0; i--) {
+            states.addPrefix(prefixes.get(i));
+        }
+        return states;
+    }
+
+    private void lookup(final int startNodeId, final CharSequence seq, final LookupCursor<T> cursor) {
+
+        final int last = seq.length() - 1;
+        int nodeId = startNodeId;
+
+        for (int index = 0; index <= last; index++) {
+
+            final int child = findChild(nodeId, seq.charAt(index));
+            if (child < 0) {
+                return;
+            }
+
+            if (index == last) {
+                // do not add prefix match here, as we should have at least one char matching the wildcard
+                cursor.setCompleteSequence(value(child), null, index, child);
+                return;
+            }
+
+            final int prefixPos = prefixPosition(child);
+            if (prefixPos >= 0) {
+                cursor.addPrefix(prefixValue(prefixPos), null, seq.charAt(0) == ' ' ? index - 1 : index, child);
+            }
+
+            nodeId = child;
+        }
+
+    }
+
+    /**
+     * @return The id of the child of node nodeId that has the character ch or -1 if there is no such child
+     */
+    private int findChild(final int nodeId, final char ch) {
+
+        int low = childrenStart(nodeId);
+        int high = childrenStart(nodeId + 1) - 1;
+
+        if (high - low < LINEAR_SCAN_MAX_CHILDREN) {
+            for (int i = low; i <= high; i++) {
+                final char label = label(i);
+                if (label == ch) {
+                    return i;
+                }
+                if (label > ch) {
+                    return -1;
+                }
+            }
+            return -1;
+        }
+
+        while (low <= high) {
+            final int mid = (low + high) >>> 1;
+            final char label = label(mid);
+            if (label < ch) {
+                low = mid + 1;
+            } else if (label > ch) {
+                high = mid - 1;
+            } else {
+                return mid;
+            }
+        }
+        return -1;
+    }
+
+    @Override
+    public List<T> collectPartialMatchValues(final CharSequence seq) {
+        if (seq.isEmpty()) {
+            return Collections.emptyList();
+        }
+        final List<T> result = new ArrayList<>();
+        int nodeId = 0;
+        final int length = seq.length();
+        for (int pos = 0; pos < length; pos++) {
+            nodeId = findChild(nodeId, seq.charAt(pos));
+            if (nodeId < 0) {
+                break;
+            }
+            final T value = value(nodeId);
+            if (value != null) {
+                result.add(value);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Iterates over the values in depth-first order, the value of a node before its prefix value. Unlike the
+     * mutable TrieMap, the siblings are visited in the order of their characters.
+     *
+     * @return An iterator over all values and prefix values
+     */
+    @Override
+    public Iterator<T> iterator() {
+        return new ValueIterator();
+    }
+
+    private class ValueIterator implements Iterator<T> {
+
+        // depth-first stack of node ids
+        private int[] stack = new int[16];
+        private int stackSize = 0;
+
+        private int currentNodeId = -1;
+        private boolean currentValueDone = true;
+        private boolean currentPrefixDone = true;
+
+        private T nextValue = null;
+        private boolean hasNextValue = false;
+
+        ValueIterator() {
+            pushChildren(0);
+        }
+
+        private void pushChildren(final int nodeId) {
+            // push in reverse order so that the child with the smallest character is visited first
+            final int start = childrenStart(nodeId);
+            for (int child = childrenStart(nodeId + 1) - 1; child >= start; child--) {
+                if (stackSize == stack.length) {
+                    stack = Arrays.copyOf(stack, stackSize * 2);
+                }
+                stack[stackSize++] = child;
+            }
+        }
+
+        private boolean advance() {
+            while (true) {
+                if (!currentValueDone) {
+                    currentValueDone = true;
+                    final T value = value(currentNodeId);
+                    if (value != null) {
+                        nextValue = value;
+                        return true;
+                    }
+                }
+                if (!currentPrefixDone) {
+                    currentPrefixDone = true;
+                    final int pos = prefixPosition(currentNodeId);
+                    if (pos >= 0) {
+                        final T prefixValue = prefixValue(pos);
+                        if (prefixValue != null) {
+                            nextValue = prefixValue;
+                            return true;
+                        }
+                    }
+                }
+                if (stackSize == 0) {
+                    return false;
+                }
+                currentNodeId = stack[--stackSize];
+                currentValueDone = false;
+                currentPrefixDone = false;
+                pushChildren(currentNodeId);
+            }
+        }
+
+        @Override
+        public boolean hasNext() {
+            if (!hasNextValue) {
+                hasNextValue = advance();
+            }
+            return hasNextValue;
+        }
+
+        @Override
+        public T next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            hasNextValue = false;
+            final T value = nextValue;
+            nextValue = null;
+            return value;
+        }
+
+        @Override
+        public void remove() {
+            throw new UnsupportedOperationException();
+        }
+    }
+
+}
@@ -0,0 +1,213 @@
+/*
+ * SPDX-License-Identifier: Apache-2.0
+ *
+ * Copyright 2026 Querqy Contributors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package querqy.trie;
+
+import java.io.DataOutput;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.function.ToIntFunction;
+
+/**
+ * <p>An immutable {@link TrieMap} that stores its nodes in primitive arrays instead of one {@link Node} object per
+ * character.</p>
+ *
+ * <p>A CompiledTrieMap is created from a fully built, mutable TrieMap using {@link #compile(TrieMap)}. Lookups return
+ * the same {@link States} as the TrieMap it was compiled from. The only difference is the iteration order of the
+ * values, which follows the order of the characters rather than the insertion order. {@link State}s returned by a
+ * CompiledTrieMap can only be used to resume a lookup in the same CompiledTrieMap.</p>
+ *
+ * @param <T> The value type
+ */
+public class CompiledTrieMap<T> extends ArrayTrieMap<T> {
+
+    private static final Comparator<Node<?>> BY_CHARACTER = Comparator.comparingInt(node -> node.character);
+
+    // labels[id] is the character of node id
+    private final char[] labels;
+
+    // the children of node id are the nodes childrenStart[id] ... childrenStart[id + 1] - 1
+    private final int[] childrenStart;
+
+    private final Object[] values;
+
+    // ids of the nodes that have a prefix value, in ascending order, and the corresponding values
+    private final int[] prefixNodeIds;
+    private final Object[] prefixValues;
+
+    private CompiledTrieMap(final char[] labels, final int[] childrenStart, final Object[] values,
+                            final int[] prefixNodeIds, final Object[] prefixValues) {
+        this.labels = labels;
+        this.childrenStart = childrenStart;
+        this.values = values;
+        this.prefixNodeIds = prefixNodeIds;
+        this.prefixValues = prefixValues;
+    }
+
+    /**
+     * Creates an immutable, compact copy of the given TrieMap. The TrieMap is not referenced by the copy and it must
+     * not be changed while it is being compiled.
+     *
+     * @param trieMap The TrieMap to compile
+     * @param <T> The value type
+     * @return The compiled TrieMap
+     */
+    @SuppressWarnings("unchecked")
+    public static <T> CompiledTrieMap<T> compile(final TrieMap<T> trieMap) {
+
+        if (trieMap instanceof CompiledTrieMap) {
+            return (CompiledTrieMap<T>) trieMap;
+        }
+
+        final int numNodes = countNodes(trieMap.root) + 1; // + virtual root
+
+        final char[] labels = new char[numNodes];
+        final int[] childrenStart = new int[numNodes + 1];
+        final Object[] values = new Object[numNodes];
+        final List<Integer> prefixNodeIds = new ArrayList<>();
+        final List<Object> prefixValues = new ArrayList<>();
+
+        // breadth-first queue, the position in the queue is the node id
+        final Node<T>[] queue = new Node[numNodes];
+        int tail = 1;
+
+        for (int id = 0; id < numNodes; id++) {
+
+            final Node<T> node = queue[id];
+            final Node<T> firstChild;
+            if (node == null) {
+                firstChild = trieMap.root;
+            } else {
+                labels[id] = node.character;
+                values[id] = node.value;
+                if (node.hasPrefix) {
+                    prefixNodeIds.add(id);
+                    prefixValues.add(node.prefixValue);
+                }
+                firstChild = node.firstChild;
+            }
+
+            childrenStart[id] = tail;
+            final int start = tail;
+            for (Node<T> child = firstChild; child != null; child = child.next) {
+                queue[tail++] = child;
+            }
+            if (tail - start > 1) {
+                Arrays.sort(queue, start, tail, BY_CHARACTER);
+            }
+
+        }
+        childrenStart[numNodes] = tail;
+
+        final int[] prefixIds = new int[prefixNodeIds.size()];
+        for (int i = 0; i < prefixIds.length; i++) {
+            prefixIds[i] = prefixNodeIds.get(i);
+        }
+
+        return new CompiledTrieMap<>(labels, childrenStart, values, prefixIds, prefixValues.toArray());
+
+    }
+
+    private static int countNodes(final Node<?> root) {
+        if (root == null) {
+            return 0;
+        }
+        int count = 0;
+        final List<Node<?>> stack = new ArrayList<>();
+        stack.add(root);
+        while (!stack.isEmpty()) {
+            final Node<?> node = stack.remove(stack.size() - 1);
+            count++;
+            if (node.next != null) {
+                stack.add(node.next);
+            }
+            if (node.firstChild != null) {
+                stack.add(node.firstChild);
+            }
+        }
+        return count;
+    }
+
+    @Override
+    char label(final int nodeId) {
+        return labels[nodeId];
+    }
+
+    @Override
+    int childrenStart(final int nodeId) {
+        return childrenStart[nodeId];
+    }
+
+    @SuppressWarnings("unchecked")
+    @Override
+    T value(final int nodeId) {
+        return (T) values[nodeId];
+    }
+
+    @Override
+    int prefixPosition(final int nodeId) {
+        if (prefixNodeIds.length == 0) {
+            return -1;
+        }
+        final int pos = Arrays.binarySearch(prefixNodeIds, nodeId);
+        return pos < 0 ? -1 : pos;
+    }
+
+    @SuppressWarnings("unchecked")
+    @Override
+    T prefixValue(final int position) {
+        return (T) prefixValues[position];
+    }
+
+    @Override
+    int numNodes() {
+        return labels.length;
+    }
+
+    /**
+     * <p>Writes the trie in the format that {@link MappedTrieMap#read(java.nio.ByteBuffer, java.util.function.IntFunction)}
+     * reads. The values are not written. They are replaced with the ids returned by valueIds.</p>
+     *
+     * @param out The output
+     * @param valueIds Maps a value to an id &gt;= 0
+     * @throws IOException if the output cannot be written
+     */
+    public void writeTo(final DataOutput out, final ToIntFunction<T> valueIds) throws IOException {
+        final int numNodes = labels.length;
+        out.writeInt(numNodes);
+        for (final char label : labels) {
+            out.writeChar(label);
+        }
+        for (final int start : childrenStart) {
+            out.writeInt(start);
+        }
+        for (int i = 0; i < numNodes; i++) {
+            out.writeInt(values[i] == null ? -1 : valueIds.applyAsInt(value(i)));
+        }
+        out.writeInt(prefixNodeIds.length);
+        for (final int prefixNodeId : prefixNodeIds) {
+            out.writeInt(prefixNodeId);
+        }
+        for (int i = 0; i < prefixNodeIds.length; i++) {
+            out.writeInt(prefixValues[i] == null ? -1 : valueIds.applyAsInt(prefixValue(i)));
+        }
+    }
+
+}
@@ -0,0 +1,168 @@
+/*
+ * SPDX-License-Identifier: Apache-2.0
+ *
+ * Copyright 2026 Querqy Contributors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package querqy.trie;
+
+import java.util.Arrays;
+
+/**
+ * <p>A reusable holder for the result of a {@link TrieMap} lookup.</p>
+ *
+ * <p>{@link TrieMap#lookup(CharSequence, LookupCursor)} writes the result into the cursor instead of creating
+ * {@link States} and {@link State} objects. A lookup that neither matches the complete sequence nor a prefix does
+ * not allocate any object. {@link #toStates()} creates the {@link States} only when they need to be kept.</p>
+ *
+ * <p>A cursor is not thread-safe. It is meant to be owned by a single caller and reused for all lookups that this
+ * caller makes.</p>
+ *
+ * @param <T> The value type
+ */
+public class LookupCursor<T> {
+
+    private boolean known = false;
+    private T value = null;
+    private int index = -1;
+    private Node<T> node = null;
+    private int nodeId = -1;
+
+    // prefix matches in the order in which they were found (shortest prefix first)
+    private Object[] prefixValues = null;
+    private Node<?>[] prefixNodes = null;
+    private int[] prefixIndexes = null;
+    private int[] prefixNodeIds = null;
+    private int numPrefixes = 0;
+
+    private States<T> states = null;
+
+    /**
+     * Resets the cursor to the result of a lookup that did not match anything.
+     */
+    public void reset() {
+        known = false;
+        value = null;
+        index = -1;
+        node = null;
+        nodeId = -1;
+        if (numPrefixes > 0) {
+            Arrays.fill(prefixValues, 0, numPrefixes, null);
+            Arrays.fill(prefixNodes, 0, numPrefixes, null);
+            numPrefixes = 0;
+        }
+        states = null;
+    }
+
+    void setCompleteSequence(final T value, final Node<T> node, final int index, final int nodeId) {
+        this.known = true;
+        this.value = value;
+        this.node = node;
+        this.index = index;
+        this.nodeId = nodeId;
+    }
+
+    void addPrefix(final T prefixValue, final Node<T> prefixNode, final int prefixIndex, final int prefixNodeId) {
+        if (prefixValues == null) {
+            prefixValues = new Object[4];
+            prefixNodes = new Node<?>[4];
+            prefixIndexes = new int[4];
+            prefixNodeIds = new int[4];
+        } else if (numPrefixes == prefixValues.length) {
+            final int newLength = numPrefixes * 2;
+            prefixValues = Arrays.copyOf(prefixValues, newLength);
+            prefixNodes = Arrays.copyOf(prefixNodes, newLength);
+            prefixIndexes = Arrays.copyOf(prefixIndexes, newLength);
+            prefixNodeIds = Arrays.copyOf(prefixNodeIds, newLength);
+        }
+        prefixValues[numPrefixes] = prefixValue;
+        prefixNodes[numPrefixes] = prefixNode;
+        prefixIndexes[numPrefixes] = prefixIndex;
+        prefixNodeIds[numPrefixes] = prefixNodeId;
+        numPrefixes++;
+    }
+
+    /**
+     * @return true iff the complete sequence is known to the trie (see {@link State#isKnown()})
+     */
+    public boolean isKnown() {
+        return known;
+    }
+
+    /**
+     * @return true iff the complete sequence is known and has a value (see {@link State#isFinal()})
+     */
+    public boolean isFinal() {
+        return known && value != null;
+    }
+
+    /**
+     * @return The value of the complete sequence or null
+     */
+    public T getValue() {
+        return value;
+    }
+
+    /**
+     * @return The index of the last matching char of the complete sequence or -1 if it is not known
+     */
+    public int getIndex() {
+        return index;
+    }
+
+    public int getNumPrefixes() {
+        return numPrefixes;
+    }
+
+    /**
+     * @return true iff the complete sequence has a value or if there was at least one prefix match
+     */
+    public boolean hasMatch() {
+        return isFinal() || numPrefixes > 0;
+    }
+
+    /**
+     * @return The state of the complete sequence, the shared {@link State#unknown()} if it is not known
+     */
+    public State<T> getStateForCompleteSequence() {
+        return known ? new State<>(true, value, node, index, nodeId) : State.unknown();
+    }
+
+    /**
+     * <p>Creates the {@link States} for the current lookup result. They are equal to the States that
+     * {@link TrieMap#get(CharSequence)} would have returned. The shared {@link States#unknown()} is returned if there
+     * was no match at all.</p>
+     *
+     * <p>Repeated calls return the same instance until the next lookup.</p>
+     *
+     * @return The States for the current lookup result
+     */
+    @SuppressWarnings("unchecked")
+    public States<T> toStates() {
+        if (states == null) {
+            if (!known && numPrefixes == 0) {
+                states = States.unknown();
+            } else {
+                states = new States<>(getStateForCompleteSequence());
+                // TrieMap returns the longest prefix first
+                for (int i = numPrefixes - 1; i >= 0; i--) {
+                    states.addPrefix(new State<>(true, (T) prefixValues[i], (Node<T>) prefixNodes[i],
+                            prefixIndexes[i], prefixNodeIds[i]));
+                }
+            }
+        }
+        return states;
+    }
+
+}
@@ -0,0 +1,147 @@
+/*
+ * SPDX-License-Identifier: Apache-2.0
+ *
+ * Copyright 2026 Querqy Contributors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package querqy.trie;
+
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.IntBuffer;
+import java.util.function.IntFunction;
+
+/**
+ * <p>An immutable {@link TrieMap} that reads its nodes from a {@link ByteBuffer}, typically a memory-mapped file
+ * that was written by {@link CompiledTrieMap#writeTo(java.io.DataOutput, java.util.function.ToIntFunction)}. The
+ * nodes are not copied onto the heap.</p>
+ *
+ * <p>The buffer only contains value ids. They are resolved to values by a function that is passed to
+ * {@link #read(ByteBuffer, IntFunction)}, which allows for loading the values lazily. The function is called for
+ * every lookup that reaches a node with a value, so it should cache its results.</p>
+ *
+ * @param <T> The value type
+ */
+public class MappedTrieMap<T> extends ArrayTrieMap<T> {
+
+    private final CharBuffer labels;
+    private final IntBuffer childrenStart;
+    private final IntBuffer valueIds;
+    private final IntBuffer prefixNodeIds;
+    private final IntBuffer prefixValueIds;
+    private final IntFunction<T> valueResolver;
+    private final int numNodes;
+
+    private MappedTrieMap(final int numNodes, final CharBuffer labels, final IntBuffer childrenStart,
+                          final IntBuffer valueIds, final IntBuffer prefixNodeIds, final IntBuffer prefixValueIds,
+                          final IntFunction<T> valueResolver) {
+        this.numNodes = numNodes;
+        this.labels = labels;
+        this.childrenStart = childrenStart;
+        this.valueIds = valueIds;
+        this.prefixNodeIds = prefixNodeIds;
+        this.prefixValueIds = prefixValueIds;
+        this.valueResolver = valueResolver;
+    }
+
+    /**
+     * Creates a trie map that is backed by the buffer, starting at the buffer's position. The position is moved to
+     * the end of the trie data.
+     *
+     * @param buffer The buffer
+     * @param valueResolver Maps value ids to values
+     * @param <T> The value type
+     * @return The trie map
+     * @throws IOException if the buffer does not contain valid trie data
+     */
+    public static <T> MappedTrieMap<T> read(final ByteBuffer buffer, final IntFunction<T> valueResolver)
+            throws IOException {
+        try {
+            final int numNodes = buffer.getInt();
+            if (numNodes < 1) {
+                throw new IOException("Invalid number of trie nodes: " + numNodes);
+            }
+            final CharBuffer labels = slice(buffer, numNodes * Character.BYTES).asCharBuffer();
+            final IntBuffer childrenStart = slice(buffer, (numNodes + 1) * Integer.BYTES).asIntBuffer();
+            final IntBuffer valueIds = slice(buffer, numNodes * Integer.BYTES).asIntBuffer();
+            final int numPrefixes = buffer.getInt();
+            if (numPrefixes < 0) {
+                throw new IOException("Invalid number of prefixes: " + numPrefixes);
+            }
+            final IntBuffer prefixNodeIds = slice(buffer, numPrefixes * Integer.BYTES).asIntBuffer();
+            final IntBuffer prefixValueIds = slice(buffer, numPrefixes * Integer.BYTES).asIntBuffer();
+            if (childrenStart.get(numNodes) != numNodes) {
+                throw new IOException("Corrupt trie data");
+            }
+            return new MappedTrieMap<>(numNodes, labels, childrenStart, valueIds, prefixNodeIds, prefixValueIds,
+                    valueResolver);
+        } catch (final BufferUnderflowException | IndexOutOfBoundsException | IllegalArgumentException e) {
+            throw new IOException("Truncated trie data", e);
+        }
+    }
+
+    private static ByteBuffer slice(final ByteBuffer buffer, final int length) {
+        final ByteBuffer slice = buffer.slice(buffer.position(), length).order(buffer.order());
+        buffer.position(buffer.position() + length);
+        return slice;
+    }
+
+    @Override
+    char label(final int nodeId) {
+        return labels.get(nodeId);
+    }
+
+    @Override
+    int childrenStart(final int nodeId) {
+        return childrenStart.get(nodeId);
+    }
+
+    @Override
+    T value(final int nodeId) {
+        final int valueId = valueIds.get(nodeId);
+        return valueId < 0 ? null : valueResolver.apply(valueId);
+    }
+
+    @Override
+    int prefixPosition(final int nodeId) {
+        int low = 0;
+        int high = prefixNodeIds.limit() - 1;
+        while (low <= high) {
+            final int mid = (low + high) >>> 1;
+            final int midId = prefixNodeIds.get(mid);
+            if (midId < nodeId) {
+                low = mid + 1;
+            } else if (midId > nodeId) {
+                high = mid - 1;
+            } else {
+                return mid;
+            }
+        }
+        return -1;
+    }
+
+    @Override
+    T prefixValue(final int position) {
+        final int valueId = prefixValueIds.get(position);
+        return valueId < 0 ? null : valueResolver.apply(valueId);
+    }
+
+    @Override
+    int numNodes() {
+        return numNodes;
+    }
+
+}
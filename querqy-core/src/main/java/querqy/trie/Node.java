@@ -41,6 +41,18 @@ public class Node<T> {
         this(character, null);
     }
     
+    /**
+     * @return A copy of this node that shares the children and the next siblings with this node
+     */
+    Node<T> copy() {
+        final Node<T> copy = new Node<>(character, value);
+        copy.prefixValue = prefixValue;
+        copy.hasPrefix = hasPrefix;
+        copy.firstChild = firstChild;
+        copy.next = next;
+        return copy;
+    }
+
     public void putPrefix(final CharSequence seq, final int index, final T value) {
         put(seq, index, value, true);
     }
@@ -92,23 +104,18 @@ public class Node<T> {
                 return new States<>(new State<T>(true, value, this, index));
                 // do not add prefix match here, as we should have at least one char matching the wildcard
             } else {
-                if (firstChild == null) {
-                    States<T> states = new States<>(new State<T>(false, null, null));
-                    if (hasPrefix) {
-                        states.addPrefix(new State<>(true, prefixValue, this, seq.charAt(0) == ' ' ? index - 1 : index));
-                    }
-                    return states;
-                } else {
-                    States<T> states = firstChild.get(seq, index + 1);
-                    if (hasPrefix) {
-                        states.addPrefix(new State<>(true, prefixValue, this, seq.charAt(0) == ' ' ? index - 1 : index));
+                States<T> states = (firstChild == null) ? States.unknown() : firstChild.get(seq, index + 1);
+                if (hasPrefix) {
+                    if (states == States.<T>unknown()) {
+                        states = new States<>(State.unknown());
                     }
-                    return states;
+                    states.addPrefix(new State<>(true, prefixValue, this, seq.charAt(0) == ' ' ? index - 1 : index));
                 }
+                return states;
                 
             }
         } else {
-            return (next != null) ? next.get(seq, index) : new States<>(new State<T>(false, null, null));
+            return (next != null) ? next.get(seq, index) : States.unknown();
         }
     }
 
@@ -117,16 +124,16 @@ public class Node<T> {
             return new States<>(new State<T>(true, value, this, 0));
                 // do not add prefix match here, as we should have at least one char matching the wildcard
         } else {
-            return (next != null) ? next.get(ch) : new States<>(new State<T>(false, null, null));
+            return (next != null) ? next.get(ch) : States.unknown();
         }
     }
 
     public States<T> getNext(final char ch) {
-        return (firstChild != null) ? firstChild.get(ch) : new States<>(new State<T>(false, null, null));
+        return (firstChild != null) ? firstChild.get(ch) : States.unknown();
     }
 
     public States<T> getNext(final CharSequence seq, final int index) {
-        return (firstChild != null) ? firstChild.get(seq, index) : new States<>(new State<T>(false, null, null));
+        return (firstChild != null) ? firstChild.get(seq, index) : States.unknown();
     }
     
     public ValueIterator iterator() {
@@ -22,6 +22,8 @@ package querqy.trie;
  *
  */
 public class State<T> {
+
+    private static final State<?> UNKNOWN = new State<>(false, null, null);
     
     public final T value;
     public final boolean isKnown;
@@ -30,18 +32,37 @@ public class State<T> {
      * The index of the last matching char
      */
     public final int index;
+    /**
+     * The position of the trie node in a {@link CompiledTrieMap} or -1 if this state was not created by a
+     * CompiledTrieMap
+     */
+    final int nodeId;
     
     public State(final boolean isKnown, final T value, Node<T> node) {
         this(isKnown, value, node, -1);
     }
     
     public State(final boolean isKnown, final T value, final Node<T> node, final int index) {
+        this(isKnown, value, node, index, -1);
+    }
+
+    State(final boolean isKnown, final T value, final Node<T> node, final int index, final int nodeId) {
         this.isKnown = isKnown;
         this.value = value;
         this.node = node;
         this.index = index;
+        this.nodeId = nodeId;
     }
     
+    /**
+     * @param <T> The value type
+     * @return A shared instance of the state for a sequence that is not known to the trie
+     */
+    @SuppressWarnings("unchecked")
+    public static <T> State<T> unknown() {
+        return (State<T>) UNKNOWN;
+    }
+
     public boolean isKnown() {
         return isKnown;
     }
@@ -25,6 +25,8 @@ import java.util.List;
  *
  */
 public class States<T> {
+
+    private static final States<?> UNKNOWN = new States<>(State.unknown());
     
     private List<State<T>> prefixes = null;
     private final State<T> completeSequence;
@@ -32,8 +34,20 @@ public class States<T> {
     public States(final State<T> completeSequence) {
         this.completeSequence = completeSequence;
     }
+
+    /**
+     * @param <T> The value type
+     * @return A shared, immutable instance for a lookup that neither matched the complete sequence nor any prefix
+     */
+    @SuppressWarnings("unchecked")
+    public static <T> States<T> unknown() {
+        return (States<T>) UNKNOWN;
+    }
     
     public void addPrefix(final State<T> prefix) {
+        if (this == UNKNOWN) {
+            throw new UnsupportedOperationException("Cannot add a prefix to the shared unknown States");
+        }
         if (prefixes == null) {
             prefixes = new LinkedList<>();
         }
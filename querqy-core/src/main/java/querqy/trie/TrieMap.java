@@ -88,11 +88,49 @@ public class TrieMap<T> implements Iterable<T> {
         root.putPrefix(seq, 0, value);
     }
     
+    /**
+     * <p>Creates a TrieMap that maps seq to the given value and shares all other nodes with this TrieMap. Only the
+     * nodes on the path to seq and their preceding siblings are copied. This TrieMap stays unchanged, but it must not
+     * be changed using {@link #put(CharSequence, Object)} afterwards, as the change might be seen by the copy.</p>
+     *
+     * @param seq The sequence
+     * @param value The value or null to remove the value of seq
+     * @param isPrefix true if the value is the prefix value of seq, false if it is the value of the complete sequence
+     * @return The new TrieMap
+     */
+    public TrieMap<T> copyWith(final CharSequence seq, final T value, final boolean isPrefix) {
+        if (seq.length() == 0) {
+            throw new IllegalArgumentException("Must not put empty sequence into trie");
+        }
+        final TrieMap<T> copy = new TrieMap<>();
+        copy.root = copyWith(root, seq, 0, value, isPrefix);
+        return copy;
+    }
+
+    private static <T> Node<T> copyWith(final Node<T> node, final CharSequence seq, final int index, final T value,
+                                        final boolean isPrefix) {
+        final char ch = seq.charAt(index);
+        final Node<T> copy = (node == null) ? new Node<>(ch) : node.copy();
+        if (copy.character != ch) {
+            copy.next = copyWith(copy.next, seq, index, value, isPrefix);
+        } else if (index == seq.length() - 1) {
+            if (isPrefix) {
+                copy.prefixValue = value;
+                copy.hasPrefix = value != null;
+            } else {
+                copy.value = value;
+            }
+        } else {
+            copy.firstChild = copyWith(copy.firstChild, seq, index + 1, value, isPrefix);
+        }
+        return copy;
+    }
+
     public States<T> get(final CharSequence seq) {
         if (seq.length() == 0) {
-            return new States<>(new State<T>(false, null, null));
+            return States.unknown();
         }
-        return (root == null) ? new States<>(new State<T>(false, null, null)) : root.get(seq, 0);
+        return (root == null) ? States.unknown() : root.get(seq, 0);
     }
 
     public States<T> get(final CharSequence seq, final State<T> stateInfo) {
@@ -100,11 +138,67 @@ public class TrieMap<T> implements Iterable<T> {
             throw new IllegalArgumentException("Known state expected");
         }
         if (seq.length() == 0) {
-            return new States<>(new State<T>(false, null, null));
+            return States.unknown();
         }
         return stateInfo.node.getNext(seq, 0);
     }
 
+    /**
+     * <p>Looks up the sequence like {@link #get(CharSequence)} but writes the result into the given cursor. This
+     * does not allocate any object unless there was a prefix match.</p>
+     *
+     * @param seq The sequence to look up
+     * @param cursor The cursor that will hold the result. It is reset before the lookup.
+     */
+    public void lookup(final CharSequence seq, final LookupCursor<T> cursor) {
+        cursor.reset();
+        if (seq.length() > 0) {
+            lookup(root, seq, cursor);
+        }
+    }
+
+    /**
+     * <p>Continues a lookup from a known state like {@link #get(CharSequence, State)} but writes the result into the
+     * given cursor.</p>
+     *
+     * @param seq The sequence to look up
+     * @param stateInfo The known state from which to continue
+     * @param cursor The cursor that will hold the result. It is reset before the lookup.
+     */
+    public void lookup(final CharSequence seq, final State<T> stateInfo, final LookupCursor<T> cursor) {
+        if (!stateInfo.isKnown()) {
+            throw new IllegalArgumentException("Known state expected");
+        }
+        cursor.reset();
+        if (seq.length() > 0) {
+            lookup(stateInfo.node.firstChild, seq, cursor);
+        }
+    }
+
+    // Iterative version of Node.get(seq, index)
+    private void lookup(final Node<T> firstNode, final CharSequence seq, final LookupCursor<T> cursor) {
+        final int last = seq.length() - 1;
+        Node<T> node = firstNode;
+        for (int index = 0; node != null; index++) {
+            final char ch = seq.charAt(index);
+            while (node != null && node.character != ch) {
+                node = node.next;
+            }
+            if (node == null) {
+                return;
+            }
+            if (index == last) {
+                // do not add prefix match here, as we should have at least one char matching the wildcard
+                cursor.setCompleteSequence(node.value, node, index, -1);
+                return;
+            }
+            if (node.hasPrefix) {
+                cursor.addPrefix(node.prefixValue, node, seq.charAt(0) == ' ' ? index - 1 : index, -1);
+            }
+            node = node.firstChild;
+        }
+    }
+
     public List<T> collectPartialMatchValues(final CharSequence seq) {
         if (seq.isEmpty()) {
             return Collections.emptyList();
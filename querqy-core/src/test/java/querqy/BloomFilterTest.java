@@ -19,6 +19,10 @@ package querqy;
 
 import org.junit.Test;
 
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+import static org.junit.Assert.assertArrayEquals;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertTrue;
@@ -47,6 +51,36 @@ public class BloomFilterTest {
         assertTrue(bf.contains(cs));
     }
 
+    @Test
+    public void streamingHashEqualsHashOfUtf8Bytes() {
+        final BloomFilter.Murmur3Hasher hasher = new BloomFilter.Murmur3Hasher();
+        final StringBuilder longTerm = new StringBuilder();
+        for (int i = 0; i < 40; i++) {
+            longTerm.append((char) ('a' + i % 26));
+            if (i % 7 == 0) {
+                longTerm.append("\u00fc\u20ac\ud83d\ude00");
+            }
+        }
+        for (final String term : List.of("", "a", "running", "laufschuhe", "gr\u00f6\u00dfe", "\u20ac",
+                "\ud83d\ude00", "x\ud83dy", "\ude00", "\ud83d", "0123456789abcde", "0123456789abcdef",
+                "0123456789abcdefg", longTerm.toString())) {
+            final byte[] bytes = term.getBytes(StandardCharsets.UTF_8);
+            hasher.hash(new StringBuilder(term));
+            assertArrayEquals(term, BloomFilter.murmur3_128(bytes, 0, bytes.length),
+                    new long[] {hasher.h1, hasher.h2});
+        }
+    }
+
+    @Test
+    public void containsAllReturnsTrueIffAllTermsAreContained() {
+        final BloomFilter bf = new BloomFilter(1024, 3);
+        bf.add("running");
+        bf.add("shoes");
+        assertTrue(bf.containsAll(List.of("running", new StringBuilder("shoes"))));
+        assertTrue(bf.containsAll(List.of()));
+        assertFalse(bf.containsAll(List.of("running", "hiking")));
+    }
+
     @Test
     public void toHexAndFromHexRoundtrip() {
         final BloomFilter original = new BloomFilter(128, 3);
@@ -0,0 +1,104 @@
+/*
+ * SPDX-License-Identifier: Apache-2.0
+ *
+ * Copyright 2026 Querqy Contributors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package querqy;
+
+import org.junit.Test;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+public class SegmentedLruCacheTest {
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testThatMaxSizeMustBePositive() {
+        new SegmentedLruCache<String, String>(0);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testThatNullValueIsRejected() {
+        new SegmentedLruCache<String, String>(10).put("a", null);
+    }
+
+    @Test
+    public void testThatSmallCacheUsesOneSegmentPerEntry() {
+        assertEquals(3, new SegmentedLruCache<String, String>(3).getNumSegments());
+        assertEquals(SegmentedLruCache.NUM_SEGMENTS, new SegmentedLruCache<String, String>(1000).getNumSegments());
+    }
+
+    @Test
+    public void testThatLeastRecentlyUsedEntryIsEvicted() {
+        final SegmentedLruCache<String, String> cache = new SegmentedLruCache<>(1);
+        cache.put("a", "1");
+        cache.put("b", "2");
+        assertNull(cache.get("a"));
+        assertEquals("2", cache.get("b"));
+        assertEquals(1, cache.size());
+        assertEquals(1L, cache.getEvictionCount());
+    }
+
+    @Test
+    public void testThatGetMarksEntryAsRecentlyUsed() {
+        final SegmentedLruCache<String, String> cache = new SegmentedLruCache<>(2, 1);
+        cache.put("a", "1");
+        cache.put("b", "2");
+        assertEquals("1", cache.get("a"));
+        cache.put("c", "3");
+        assertEquals("1", cache.get("a"));
+        assertNull(cache.get("b"));
+        assertEquals("3", cache.get("c"));
+    }
+
+    @Test
+    public void testThatSizeNeverExceedsMaxSize() {
+        final SegmentedLruCache<Integer, Integer> cache = new SegmentedLruCache<>(50);
+        for (int i = 0; i < 1000; i++) {
+            cache.put(i, i);
+        }
+        assertEquals(50, cache.size());
+        assertEquals(950L, cache.getEvictionCount());
+    }
+
+    @Test
+    public void testThatForEachVisitsAllEntries() {
+        final SegmentedLruCache<Integer, Integer> cache = new SegmentedLruCache<>(100);
+        for (int i = 0; i < 20; i++) {
+            cache.put(i, i * 2);
+        }
+        final Map<Integer, Integer> entries = new HashMap<>();
+        cache.forEach(entries::put);
+        assertEquals(20, entries.size());
+        for (int i = 0; i < 20; i++) {
+            assertEquals(Integer.valueOf(i * 2), entries.get(i));
+        }
+    }
+
+    @Test
+    public void testThatClearKeepsEvictionCount() {
+        final SegmentedLruCache<String, String> cache = new SegmentedLruCache<>(1);
+        cache.put("a", "1");
+        cache.put("b", "2");
+        cache.clear();
+        assertEquals(0, cache.size());
+        assertNull(cache.get("b"));
+        assertEquals(1L, cache.getEvictionCount());
+    }
+
+}
@@ -0,0 +1,69 @@
+/*
+ * SPDX-License-Identifier: Apache-2.0
+ *
+ * Copyright 2026 Querqy Contributors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package querqy.model;
+
+import org.junit.Test;
+import querqy.model.Clause.Occur;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class QueryStructureKeyTest {
+
+    @Test
+    public void testThatCloneHasSameKey() {
+        final Query query = query("f1", "a", false);
+        final String key = QueryStructureKey.create(query, false);
+        assertThat(key).isNotNull().isEqualTo(QueryStructureKey.create(query.clone((BooleanParent) null), false));
+        assertThat(key)
+                .isNotEqualTo(QueryStructureKey.create(query("f1", "a", true), false))
+                .isNotEqualTo(QueryStructureKey.create(query("f2", "a", false), false))
+                .isNotEqualTo(QueryStructureKey.create(query("f1", "b", false), false));
+    }
+
+    @Test
+    public void testRawQueries() {
+        final StringRawQuery stringRawQuery = new StringRawQuery(null, "f:a", Occur.SHOULD, false);
+        assertThat(QueryStructureKey.create(stringRawQuery, false)).isNull();
+        assertThat(QueryStructureKey.create(stringRawQuery, true))
+                .isNotNull()
+                .isEqualTo(QueryStructureKey.create(new StringRawQuery(null, "f:a", Occur.SHOULD, false), true))
+                .isNotEqualTo(QueryStructureKey.create(new StringRawQuery(null, "f:b", Occur.SHOULD, false), true));
+
+        final ParametrizedRawQuery withoutParameters = new ParametrizedRawQuery(null,
+                List.of(new ParametrizedRawQuery.Part("f:a", ParametrizedRawQuery.Part.Type.QUERY_PART)),
+                Occur.SHOULD, false);
+        assertThat(QueryStructureKey.create(withoutParameters, true)).isNotNull();
+
+        final ParametrizedRawQuery withParameter = new ParametrizedRawQuery(null,
+                List.of(new ParametrizedRawQuery.Part("f:", ParametrizedRawQuery.Part.Type.QUERY_PART),
+                        new ParametrizedRawQuery.Part("p", ParametrizedRawQuery.Part.Type.PARAMETER)),
+                Occur.SHOULD, false);
+        assertThat(QueryStructureKey.create(withParameter, true)).isNull();
+    }
+
+    private static Query query(final String field, final String value, final boolean generated) {
+        final Query query = new Query(generated);
+        final DisjunctionMaxQuery dmq = new DisjunctionMaxQuery(query, Occur.SHOULD, generated);
+        query.addClause(dmq);
+        dmq.addClause(new Term(dmq, field, value, generated));
+        return query;
+    }
+
+}
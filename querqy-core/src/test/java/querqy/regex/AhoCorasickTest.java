@@ -0,0 +1,63 @@
+/*
+ * SPDX-License-Identifier: Apache-2.0
+ *
+ * Copyright 2026 Querqy Contributors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package querqy.regex;
+
+import org.junit.Test;
+
+import java.util.List;
+
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class AhoCorasickTest {
+
+    @Test
+    public void testContainsAny() {
+        final AhoCorasick ac = new AhoCorasick(List.of("he", "she", "his", "hers"));
+        assertTrue(ac.containsAny("ushers"));
+        assertTrue(ac.containsAny("this"));
+        assertTrue(ac.containsAny("he"));
+        assertFalse(ac.containsAny("hi"));
+        assertFalse(ac.containsAny(""));
+        assertFalse(ac.containsAny("s h e"));
+    }
+
+    @Test
+    public void testThatFailureLinksFindLiteralInsideLongerPrefix() {
+        final AhoCorasick ac = new AhoCorasick(List.of("abcd", "bce"));
+        assertTrue(ac.containsAny("xabce"));
+        assertFalse(ac.containsAny("abcbc"));
+    }
+
+    @Test
+    public void testThatLiteralThatIsSuffixOfOtherLiteralIsFound() {
+        final AhoCorasick ac = new AhoCorasick(List.of("abcd", "c"));
+        assertTrue(ac.containsAny("abcx"));
+    }
+
+    @Test
+    public void testEmptyLiteralSet() {
+        assertFalse(new AhoCorasick(List.of()).containsAny("abc"));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testThatEmptyLiteralIsRejected() {
+        new AhoCorasick(List.of(""));
+    }
+
+}
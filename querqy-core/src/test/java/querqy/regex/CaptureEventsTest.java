@@ -0,0 +1,76 @@
+/*
+ * SPDX-License-Identifier: Apache-2.0
+ *
+ * Copyright 2026 Querqy Contributors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package querqy.regex;
+
+import org.junit.Test;
+import querqy.regex.MatchResult.GroupMatch;
+import querqy.regex.NFAState.GroupEnd;
+import querqy.regex.NFAState.GroupStart;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertSame;
+
+public class CaptureEventsTest {
+
+    @Test
+    public void testThatUnchangedSlotsAreShared() {
+        final CaptureEvents events = CaptureEvents.EMPTY.withGroupMarkers(List.of(new GroupStart(1)),
+                List.of(new GroupEnd(1)), 0, 2, 5);
+        assertEquals(2, events.getStart(1));
+        assertEquals(5, events.getEnd(1));
+        assertEquals(CaptureEvents.UNSET, events.getStart(3));
+
+        assertSame(events, events.withGroupMarkers(List.of(), List.of(), 0, 7, 7));
+        assertSame(events, events.withGroupMarkers(List.of(new GroupStart(1)), List.of(), 0, 2, 2));
+
+        final CaptureEvents changed = events.withGroupMarkers(List.of(), List.of(new GroupEnd(1)), 0, 6, 6);
+        assertEquals(6, changed.getEnd(1));
+        assertEquals(5, events.getEnd(1));
+    }
+
+    @Test
+    public void testEqualsIgnoresUnsetTrailingSlots() {
+        final CaptureEvents events1 = CaptureEvents.EMPTY.withGroupMarkers(List.of(new GroupStart(1)), List.of(),
+                0, 0, 0);
+        final CaptureEvents events2 = CaptureEvents.EMPTY.withGroupMarkers(List.of(new GroupStart(0)),
+                List.of(), 1, 0, 0).withGroupMarkers(List.of(), List.of(new GroupEnd(4)), 0, 3, 3);
+        assertNotEquals(events1, events2);
+
+        final CaptureEvents events3 = CaptureEvents.EMPTY.withGroupMarkers(List.of(new GroupStart(1)), List.of(),
+                0, 0, 0);
+        assertEquals(events1, events3);
+        assertEquals(events1.hashCode(), events3.hashCode());
+        assertEquals(CaptureEvents.EMPTY, CaptureEvents.EMPTY.withGroupMarkers(List.of(), List.of(), 0, 1, 1));
+    }
+
+    @Test
+    public void testGroupMatchesView() {
+        final CaptureEvents events = CaptureEvents.EMPTY
+                .withGroupMarkers(List.of(new GroupStart(1), new GroupStart(3)), List.of(new GroupEnd(1)), 0, 1, 3)
+                .withGroupMarkers(List.of(new GroupStart(2)), List.of(), 0, 2, 2);
+        final Map<Integer, GroupMatch> view = new GroupMatchesView("abcd", events, 3);
+        assertEquals(Map.of(0, new GroupMatch("abcd", 0), 1, new GroupMatch("bc", 1)), view);
+        assertEquals(view, Map.of(0, new GroupMatch("abcd", 0), 1, new GroupMatch("bc", 1)));
+        assertEquals(2, view.size());
+    }
+
+}
@@ -0,0 +1,71 @@
+/*
+ * SPDX-License-Identifier: Apache-2.0
+ *
+ * Copyright 2026 Querqy Contributors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package querqy.regex;
+
+import org.junit.Test;
+
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class CharRangesTest {
+
+    @Test
+    public void testThatRangesMatchLikeCharacterClass() {
+        for (final String pattern : List.of("[a-z]", "[^ ]", "[a-zA-Z0-9_]", "[0-9&&[^45]]", "[^a-c&&[b-d]]",
+                "[a-fc-k]", "[a]", "[\\]\\-x]", "[^a-z&&[^c]]", "[a-z&&[^aeiou]&&[^x-z]]")) {
+            final CharacterClass cc = CharClassParser.parse(pattern);
+            final CharRanges ranges = cc.toRanges();
+            for (int c = Character.MIN_VALUE; c <= Character.MAX_VALUE; c++) {
+                assertEquals(pattern + " " + c, cc.matches((char) c), ranges.matches((char) c));
+            }
+        }
+    }
+
+    @Test
+    public void testDigits() {
+        assertTrue(CharRanges.DIGITS.matches('0'));
+        assertTrue(CharRanges.DIGITS.matches('9'));
+        assertTrue(CharRanges.DIGITS.matches('٣')); // Arabic-Indic digit three
+        assertFalse(CharRanges.DIGITS.matches('a'));
+    }
+
+    @Test
+    public void testNegateAndIntersect() {
+        assertEquals(CharRanges.NONE, CharRanges.ALL.negate());
+        assertEquals(CharRanges.ALL, CharRanges.NONE.negate());
+        assertEquals(CharRanges.NONE, CharRanges.DIGITS.intersect(CharRanges.DIGITS.negate()));
+        assertEquals(CharRanges.DIGITS, CharRanges.DIGITS.negate().negate());
+        assertEquals(CharRanges.union(List.of(new char[] {'a', 'c'}, new char[] {'d', 'f'})),
+                CharRanges.union(List.of(new char[] {'a', 'f'})));
+    }
+
+    @Test
+    public void testBoundsRoundTrip() {
+        final CharRanges ranges = CharClassParser.parse("[a-cx-z5]").toRanges();
+        assertEquals(ranges, CharRanges.ofBounds(ranges.getBounds()));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testThatOverlappingBoundsAreRejected() {
+        CharRanges.ofBounds(new char[] {'a', 'f', 'c', 'k'});
+    }
+
+}
@@ -0,0 +1,115 @@
+/*
+ * SPDX-License-Identifier: Apache-2.0
+ *
+ * Copyright 2026 Querqy Contributors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package querqy.regex;
+
+import org.junit.Test;
+
+import java.util.BitSet;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class LazyDFATest {
+
+    private static final List<String> INPUTS = List.of("", "a", "abc", "abbc", "ac", "kgm", "opqxz", "oz", "7",
+            "a 7 b", "x 7", "efgfgd", "hbcbcbce", "abc hello", "k1l", "k4l", "aBc", "xy2ft", "ab", "f", "ff",
+            "größe 3", "ü");
+
+    @Test
+    public void testThatDfaAcceptsSameInputsAsNfa() {
+        for (final int maxStates : new int[] {0, 1, 3, RegexMap.DEFAULT_MAX_DFA_STATES}) {
+            final RegexMap<String> regexMap = createRegexMap(maxStates);
+            for (int round = 0; round < 2; round++) {
+                for (final String input : INPUTS) {
+                    final boolean nfaMatches = !regexMap.matcher.matchAll(regexMap.prefixlessStart, input, 0)
+                            .isEmpty();
+                    assertEquals("maxStates=" + maxStates + ", input=" + input, nfaMatches,
+                            regexMap.getDfa().matches(input));
+                }
+            }
+            assertTrue(regexMap.getDfa().getCachedStateCount() <= Math.max(1, maxStates));
+        }
+    }
+
+    @Test
+    public void testGetMatchLengths() {
+        final RegexMap<String> regexMap = new RegexMap<>();
+        regexMap.put("a", "1");
+        regexMap.put("a b", "2");
+        regexMap.put("a b+ c", "3");
+
+        final String input = "x a b c a";
+        final BitSet lengths = regexMap.getMatchLengths(input, 2, input.length());
+        final BitSet expected = new BitSet();
+        expected.set(1);
+        expected.set(3);
+        expected.set(5);
+        assertEquals(expected, lengths);
+
+        assertTrue(regexMap.getMatchLengths(input, 0, input.length()).isEmpty());
+        final BitSet last = regexMap.getMatchLengths(input, 8, input.length());
+        assertTrue(last.get(1));
+        assertEquals(1, last.cardinality());
+    }
+
+    @Test
+    public void testThatMatchLengthsDoNotDependOnTheOffset() {
+        final RegexMap<String> regexMap = new RegexMap<>();
+        regexMap.put("a b", "1");
+
+        final String input = "x ".repeat(10000) + "a b";
+        final BitSet lengths = regexMap.getMatchLengths(input, 20000, input.length());
+        assertEquals(1, lengths.cardinality());
+        assertTrue(lengths.get(3));
+        // the bit set must not grow with the start position
+        assertTrue(lengths.size() < 1000);
+    }
+
+    @Test
+    public void testThatPutInvalidatesDfa() {
+        final RegexMap<String> regexMap = new RegexMap<>();
+        regexMap.put("abc", "1");
+        assertTrue(regexMap.getAll("abd").isEmpty());
+        regexMap.put("abd", "2");
+        assertEquals(1, regexMap.getAll("abd").size());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testThatNegativeMaxStatesIsRejected() {
+        new RegexMap<String>(-1);
+    }
+
+    private static RegexMap<String> createRegexMap(final int maxStates) {
+        final RegexMap<String> regexMap = new RegexMap<>(maxStates);
+        regexMap.put("ab*c", "1");
+        regexMap.put("k[a-z]*m", "2");
+        regexMap.put("o(pqx)*z", "3");
+        regexMap.put("f*", "4");
+        regexMap.put("e(fg){2}d", "5");
+        regexMap.put("h(bc){2,3}e", "6");
+        regexMap.put("([^ ]+ ){0,}(abc)( [^ ]+){0,}", "7");
+        regexMap.put("k[0-9&&[^45]]l", "8");
+        regexMap.put("(.y).ft", "9");
+        regexMap.put("a[a-zA-Z]c", "10");
+        regexMap.put("größe \\d", "11");
+        regexMap.put("\\d", "12", "([^ ]+ ){0,}", "( [^ ]+){0,}");
+        return regexMap;
+    }
+
+}
@@ -0,0 +1,129 @@
+/*
+ * SPDX-License-Identifier: Apache-2.0
+ *
+ * Copyright 2026 Querqy Contributors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package querqy.regex;
+
+import org.junit.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+
+public class RegexMapSnapshotTest {
+
+    private static final RegexMapSnapshot.ValueWriter<String> WRITER = (value, out) -> out.writeUTF(value);
+
+    private static final RegexMapSnapshot.ValueReader<String> READER = buffer -> {
+        final byte[] bytes = new byte[buffer.getShort()];
+        buffer.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    };
+
+    @Test
+    public void testThatSnapshotMatchesLikeOriginal() throws IOException {
+        final RegexMap<String> original = new RegexMap<>();
+        original.put("ab*c", "1");
+        original.put("k[a-z]*m", "2");
+        original.put("o(pqx)*z", "3");
+        original.put("h(bc){2,3}e", "4");
+        original.put("([^ ]+ ){0,}(abc)( [^ ]+){0,}", "5");
+        original.put("k[0-9&&[^45]]l", "6");
+        original.put("a(b|c)d", "7");
+        original.put("\\d", "8", "([^ ]+ ){0,}", "( [^ ]+){0,}");
+        original.put("7", "9", "([^ ]+ ){0,}", "( [^ ]+){0,}");
+        original.put("x.y", "10", "pre ", null);
+
+        final RegexMap<String> restored = roundTrip(original);
+
+        for (final String input : List.of("", "abc", "abbc", "kgm", "opqxz", "hbcbcbce", "abc hello", "k1l", "k4l",
+                "abd", "acd", "7", "a 7 b", "x 3", "pre x.y", "pre xzy", "xzy", "nothing")) {
+            assertEquals(input, original.getAll(input), restored.getAll(input));
+            assertEquals(input, original.mayMatch(input), restored.mayMatch(input));
+        }
+    }
+
+    @Test
+    public void testThatRestoredMapCanBeExtended() throws IOException {
+        final RegexMap<String> original = new RegexMap<>();
+        original.put("a\\d", "1", "x ", null);
+        final RegexMap<String> restored = roundTrip(original);
+        restored.put("b\\d", "2", "x ", null);
+        assertEquals(1, restored.getAll("x a1").size());
+        assertEquals(1, restored.getAll("x b1").size());
+        assertFalse(restored.getAll("x b1").isEmpty());
+    }
+
+    @Test(expected = IOException.class)
+    public void testThatWrongMagicIsRejected() throws IOException {
+        RegexMapSnapshot.read(ByteBuffer.wrap(new byte[] {1, 2, 3, 4, 0, 0, 0, 1}), READER);
+    }
+
+    @Test(expected = IOException.class)
+    public void testThatTruncatedSnapshotIsRejected() throws IOException {
+        final RegexMap<String> original = new RegexMap<>();
+        original.put("abc", "1");
+        final byte[] bytes = write(original);
+        RegexMapSnapshot.read(ByteBuffer.wrap(bytes, 0, bytes.length - 3), READER);
+    }
+
+    @Test
+    public void testThatMaxDfaStatesAreKept() throws IOException {
+        final RegexMap<String> original = new RegexMap<>(7);
+        original.put("abc", "1");
+        assertEquals(7, roundTrip(original).getMaxDfaStates());
+    }
+
+    @Test(expected = IOException.class)
+    public void testThatNegativeLengthIsRejected() throws IOException {
+        RegexMapSnapshot.read(header().putInt(0).putInt(-1).flip(), READER);
+    }
+
+    @Test(expected = IOException.class)
+    public void testThatLengthBeyondBufferIsRejected() throws IOException {
+        RegexMapSnapshot.read(header().putInt(0).putInt(Integer.MAX_VALUE).flip(), READER);
+    }
+
+    @Test(expected = IOException.class)
+    public void testThatNegativeMaxDfaStatesAreRejected() throws IOException {
+        RegexMapSnapshot.read(ByteBuffer.allocate(64).putInt(RegexMapSnapshot.MAGIC)
+                .putInt(RegexMapSnapshot.FORMAT_VERSION).putInt(-1).flip(), READER);
+    }
+
+    /**
+     * @return A buffer with a valid header and maxDfaStates, followed by the number of values (0)
+     */
+    private static ByteBuffer header() {
+        return ByteBuffer.allocate(64).putInt(RegexMapSnapshot.MAGIC).putInt(RegexMapSnapshot.FORMAT_VERSION)
+                .putInt(RegexMap.DEFAULT_MAX_DFA_STATES);
+    }
+
+    private static RegexMap<String> roundTrip(final RegexMap<String> regexMap) throws IOException {
+        return RegexMapSnapshot.read(ByteBuffer.wrap(write(regexMap)), READER);
+    }
+
+    private static byte[] write(final RegexMap<String> regexMap) throws IOException {
+        final ByteArrayOutputStream out = new ByteArrayOutputStream();
+        RegexMapSnapshot.write(regexMap, WRITER, out);
+        return out.toByteArray();
+    }
+
+}
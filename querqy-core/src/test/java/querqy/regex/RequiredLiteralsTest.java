@@ -0,0 +1,68 @@
+/*
+ * SPDX-License-Identifier: Apache-2.0
+ *
+ * Copyright 2026 Querqy Contributors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package querqy.regex;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class RequiredLiteralsTest {
+
+    @Test
+    public void testLongestRequiredLiteral() {
+        assertEquals("abc", literal("abc"));
+        assertEquals("ab", literal("ab{1,}c"));
+        assertEquals("abbc", literal("ab{2}c"));
+        assertEquals("cde", literal("a[0-9]cde"));
+        assertEquals("hello", literal("(x|y) (hello)+"));
+        assertEquals("ab", literal("((ab))"));
+        assertEquals("xy", literal("ab*xy"));
+        assertEquals("", literal("[^ ]+"));
+        assertEquals("", literal("(abc)?"));
+        assertEquals("", literal("(abc|def)"));
+        assertEquals("", literal(""));
+    }
+
+    @Test
+    public void testThatMayMatchUsesRequiredLiterals() {
+        final RegexMap<String> regexMap = new RegexMap<>();
+        regexMap.put("[0-9]+ ?cm", "1");
+        regexMap.put("size ([a-z]+)", "2");
+        assertTrue(regexMap.mayMatch("shirt 50cm"));
+        assertTrue(regexMap.mayMatch("size l"));
+        assertFalse(regexMap.mayMatch("red shirt"));
+        assertTrue(regexMap.getAll("red shirt").isEmpty());
+        assertEquals(1, regexMap.getAll("50 cm").size());
+
+        regexMap.put("[a-z]+", "3");
+        assertTrue(regexMap.mayMatch("red shirt"));
+        assertEquals(1, regexMap.getAll("shirt").size());
+    }
+
+    @Test
+    public void testThatEmptyMapNeverMatches() {
+        assertFalse(new RegexMap<String>().mayMatch("abc"));
+    }
+
+    private static String literal(final String pattern) {
+        return RequiredLiterals.longestRequiredLiteral(new RegexParser().parse(pattern));
+    }
+
+}
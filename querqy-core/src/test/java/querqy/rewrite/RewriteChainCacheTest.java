@@ -0,0 +1,340 @@
+/*
+ * SPDX-License-Identifier: Apache-2.0
+ *
+ * Copyright 2026 Querqy Contributors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package querqy.rewrite;
+
+import org.junit.Before;
+import org.junit.Test;
+import querqy.model.BooleanParent;
+import querqy.model.BooleanQuery;
+import querqy.model.BoostQuery;
+import querqy.model.Clause.Occur;
+import querqy.model.DisjunctionMaxQuery;
+import querqy.model.EmptySearchEngineRequestAdapter;
+import querqy.model.ExpandedQuery;
+import querqy.model.Node;
+import querqy.model.QuerqyQuery;
+import querqy.model.Query;
+import querqy.model.RawQuery;
+import querqy.model.StringRawQuery;
+import querqy.model.Term;
+import querqy.parser.WhiteSpaceQuerqyParser;
+import querqy.rewrite.lookup.preprocessing.LookupPreprocessorType;
+import querqy.rewriter.commonrules.RulesDelta;
+import querqy.rewriter.commonrules.SimpleCommonRulesRewriterFactory;
+import querqy.rewriter.commonrules.WhiteSpaceQuerqyParserFactory;
+import querqy.rewriter.commonrules.model.BoostInstruction.BoostMethod;
+import querqy.rewriter.commonrules.model.DecorateInstruction;
+import querqy.rewriter.commonrules.select.ExpressionCriteriaSelectionStrategyFactory;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+public class RewriteChainCacheTest {
+
+    private static final String RULES = "a =>\n SYNONYM: s1\n DECORATE: deco1\n\n"
+            + "a b =>\n SYNONYM: s2\n\n"
+            + "c =>\n UP(10): d\n";
+
+    private final AtomicLong nanoTime = new AtomicLong();
+
+    private SimpleCommonRulesRewriterFactory rulesFactory;
+    private RewriteChainCache cache;
+    private RewriteChain chain;
+
+    @Before
+    public void setUp() throws IOException {
+        rulesFactory = new SimpleCommonRulesRewriterFactory("rules", new StringReader(RULES), false,
+                BoostMethod.ADDITIVE, new WhiteSpaceQuerqyParserFactory(), Collections.emptyMap(),
+                new ExpressionCriteriaSelectionStrategyFactory(), false, LookupPreprocessorType.NONE);
+        cache = new RewriteChainCache(100, Duration.ofMinutes(1), nanoTime::get);
+        chain = new RewriteChain(List.of(rulesFactory), cache);
+    }
+
+    @Test
+    public void testThat_cachedOutputEqualsRewrittenOutput() {
+        final String expected = rewrite(new RewriteChain(List.of(rulesFactory)), "a b", new ParamsAdapter());
+
+        assertThat(rewrite(chain, "a b", new ParamsAdapter())).isEqualTo(expected);
+        assertThat(rewrite(chain, "a b", new ParamsAdapter())).isEqualTo(expected);
+
+        assertThat(cache.getMissCount()).isEqualTo(1);
+        assertThat(cache.getHitCount()).isEqualTo(1);
+        assertThat(cache.size()).isEqualTo(1);
+    }
+
+    @Test
+    public void testThat_cachedQueryIsNotChanged_byChangingTheReturnedQuery() {
+        final RewriteChainOutput first = chain.rewrite(query("c"), new ParamsAdapter());
+        final String expected = first.getExpandedQuery().getUserQuery().toString();
+        ((Query) first.getExpandedQuery().getUserQuery()).getClauses().clear();
+        first.getExpandedQuery().getBoostUpQueries().clear();
+
+        final RewriteChainOutput second = chain.rewrite(query("c"), new ParamsAdapter());
+        assertThat(second.getExpandedQuery().getUserQuery().toString()).isEqualTo(expected);
+        assertThat(second.getExpandedQuery().getBoostUpQueries()).hasSize(1);
+        ((Query) second.getExpandedQuery().getUserQuery()).getClauses().clear();
+
+        final RewriteChainOutput third = chain.rewrite(query("c"), new ParamsAdapter());
+        assertThat(third.getExpandedQuery().getUserQuery().toString()).isEqualTo(expected);
+        assertThat(cache.getHitCount()).isEqualTo(2);
+    }
+
+    @Test
+    public void testThat_generatedFlagsAreKept_forCacheHit() {
+        final RewriteChainOutput uncached = new RewriteChain(List.of(rulesFactory))
+                .rewrite(query("a b c"), new ParamsAdapter());
+        final List<String> expected = generatedFlags(uncached.getExpandedQuery());
+        assertThat(expected).contains("a=false", "s1=true", "s2=true", "d=true");
+
+        final RewriteChainOutput miss = chain.rewrite(query("a b c"), new ParamsAdapter());
+        final RewriteChainOutput hit = chain.rewrite(query("a b c"), new ParamsAdapter());
+
+        assertThat(cache.getHitCount()).isEqualTo(1);
+        assertThat(generatedFlags(miss.getExpandedQuery())).isEqualTo(expected);
+        assertThat(generatedFlags(hit.getExpandedQuery())).isEqualTo(expected);
+    }
+
+    @Test
+    public void testThat_contextIsReplayed_forCacheHit() {
+        final ParamsAdapter first = new ParamsAdapter();
+        chain.rewrite(query("a"), first);
+
+        final ParamsAdapter second = new ParamsAdapter();
+        chain.rewrite(query("a"), second);
+
+        assertThat(cache.getHitCount()).isEqualTo(1);
+        assertThat(second.getContext()).isEqualTo(first.getContext());
+        assertThat(second.getContext().get(DecorateInstruction.DECORATION_CONTEXT_KEY))
+                .isEqualTo(Set.of("deco1"))
+                .isNotSameAs(first.getContext().get(DecorateInstruction.DECORATION_CONTEXT_KEY));
+    }
+
+    @Test
+    public void testThat_declaredRequestParamsArePartOfTheKey() {
+        final ParamsAdapter limited = new ParamsAdapter();
+        limited.params.put("querqy.rules.criteria.limit", new String[] {"1"});
+
+        final String unlimitedOutput = rewrite(chain, "a b", new ParamsAdapter());
+        final String limitedOutput = rewrite(chain, "a b", limited);
+        rewrite(chain, "a b", new ParamsAdapter().param("unrelated", "x"));
+
+        assertThat(limitedOutput).isNotEqualTo(unlimitedOutput);
+        assertThat(cache.getMissCount()).isEqualTo(2);
+        assertThat(cache.getHitCount()).isEqualTo(1);
+    }
+
+    @Test
+    public void testThat_entryIsDiscarded_afterRulesDelta() throws IOException {
+        rewrite(chain, "c", new ParamsAdapter());
+        rulesFactory.applyRulesDelta(RulesDelta.builder().rules("c =>\n SYNONYM: e\n").build());
+
+        assertThat(rewrite(chain, "c", new ParamsAdapter())).contains("e");
+        assertThat(cache.getMissCount()).isEqualTo(2);
+        assertThat(cache.getHitCount()).isEqualTo(0);
+    }
+
+    @Test
+    public void testThat_entryExpires_afterTimeToLive() {
+        rewrite(chain, "c", new ParamsAdapter());
+        nanoTime.addAndGet(Duration.ofSeconds(59).toNanos());
+        rewrite(chain, "c", new ParamsAdapter());
+        nanoTime.addAndGet(Duration.ofSeconds(2).toNanos());
+        rewrite(chain, "c", new ParamsAdapter());
+
+        assertThat(cache.getHitCount()).isEqualTo(1);
+        assertThat(cache.getMissCount()).isEqualTo(2);
+    }
+
+    @Test
+    public void testThat_leastRecentlyUsedEntryIsEvicted() {
+        final RewriteChain smallChain = new RewriteChain(List.of(rulesFactory),
+                new RewriteChainCache(1, Duration.ofMinutes(1), nanoTime::get));
+        final RewriteChainCache smallCache = smallChain.getCache().orElseThrow();
+
+        rewrite(smallChain, "a", new ParamsAdapter());
+        rewrite(smallChain, "c", new ParamsAdapter());
+        rewrite(smallChain, "a", new ParamsAdapter());
+
+        assertThat(smallCache.size()).isEqualTo(1);
+        assertThat(smallCache.getEvictionCount()).isEqualTo(2);
+        assertThat(smallCache.getHitCount()).isEqualTo(0);
+
+        rewrite(smallChain, "a", new ParamsAdapter());
+        assertThat(smallCache.getHitCount()).isEqualTo(1);
+
+        smallCache.invalidateAll();
+        assertThat(smallCache.size()).isEqualTo(0);
+    }
+
+    @Test
+    public void testThat_outputIsNotCached_forFactoryWithoutKeyParams() {
+        final RewriterFactory uncacheable = new RewriterFactory("uncacheable") {
+            @Override
+            public QueryRewriter createRewriter(final SearchEngineRequestAdapter searchEngineRequestAdapter) {
+                return (query, adapter) -> RewriterOutput.builder().expandedQuery(query).build();
+            }
+        };
+        final RewriteChain uncacheableChain = new RewriteChain(List.of(rulesFactory, uncacheable), cache);
+
+        rewrite(uncacheableChain, "a", new ParamsAdapter());
+        rewrite(uncacheableChain, "a", new ParamsAdapter());
+
+        assertThat(cache.size()).isEqualTo(0);
+        assertThat(cache.getMissCount()).isEqualTo(0);
+    }
+
+    @Test
+    public void testThat_outputIsNotCached_forDebugQueryOrNonEmptyContext() {
+        final ParamsAdapter debug = new ParamsAdapter();
+        debug.debug = true;
+        rewrite(chain, "a", debug);
+
+        final ParamsAdapter withContext = new ParamsAdapter();
+        withContext.getContext().put("key", "value");
+        rewrite(chain, "a", withContext);
+
+        assertThat(cache.size()).isEqualTo(0);
+    }
+
+    @Test
+    public void testThat_keyDependsOnQueryStructure() {
+        final List<RewriterFactory> factories = List.of(rulesFactory);
+        final ParamsAdapter adapter = new ParamsAdapter();
+
+        final Query query = new Query();
+        final DisjunctionMaxQuery dmq = new DisjunctionMaxQuery(query, Occur.SHOULD, false);
+        query.addClause(dmq);
+        dmq.addClause(new Term(dmq, "f1", "a"));
+
+        final Query generated = new Query();
+        final DisjunctionMaxQuery generatedDmq = new DisjunctionMaxQuery(generated, Occur.SHOULD, false);
+        generated.addClause(generatedDmq);
+        generatedDmq.addClause(new Term(generatedDmq, "f1", "a", true));
+
+        final Query mustQuery = new Query();
+        final DisjunctionMaxQuery mustDmq = new DisjunctionMaxQuery(mustQuery, Occur.MUST, false);
+        mustQuery.addClause(mustDmq);
+        mustDmq.addClause(new Term(mustDmq, "f1", "a"));
+
+        final Query otherField = new Query();
+        final DisjunctionMaxQuery otherFieldDmq = new DisjunctionMaxQuery(otherField, Occur.SHOULD, false);
+        otherField.addClause(otherFieldDmq);
+        otherFieldDmq.addClause(new Term(otherFieldDmq, "f1a", "a"));
+
+        final String key = RewriteChainCache.createKey(factories, new ExpandedQuery(query), adapter);
+        assertThat(key).isEqualTo(RewriteChainCache.createKey(factories, new ExpandedQuery(query.clone((BooleanParent) null)),
+                adapter));
+        assertThat(key)
+                .isNotEqualTo(RewriteChainCache.createKey(factories, new ExpandedQuery(generated), adapter))
+                .isNotEqualTo(RewriteChainCache.createKey(factories, new ExpandedQuery(mustQuery), adapter))
+                .isNotEqualTo(RewriteChainCache.createKey(factories, new ExpandedQuery(otherField), adapter));
+
+        final RawQuery rawQuery = new StringRawQuery(null, "raw", Occur.SHOULD, false);
+        assertThat(RewriteChainCache.createKey(factories, new ExpandedQuery(rawQuery), adapter)).isNull();
+    }
+
+    @Test
+    public void testThat_invalidArgumentsAreRejected() {
+        assertThatThrownBy(() -> new RewriteChainCache(0, Duration.ofMinutes(1)))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> new RewriteChainCache(10, Duration.ZERO))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    private static String rewrite(final RewriteChain chain, final String query, final ParamsAdapter adapter) {
+        final ExpandedQuery expandedQuery = chain.rewrite(query(query), adapter).getExpandedQuery();
+        return expandedQuery.getUserQuery() + " " + expandedQuery.getBoostUpQueries();
+    }
+
+    private static ExpandedQuery query(final String query) {
+        return new ExpandedQuery(new WhiteSpaceQuerqyParser().parse(query));
+    }
+
+    private static class ParamsAdapter extends EmptySearchEngineRequestAdapter {
+
+        final Map<String, String[]> params = new HashMap<>();
+        boolean debug = false;
+
+        ParamsAdapter param(final String name, final String value) {
+            params.put(name, new String[] {value});
+            return this;
+        }
+
+        @Override
+        public Optional<String> getRequestParam(final String name) {
+            final String[] values = getRequestParams(name);
+            return values.length == 0 ? Optional.empty() : Optional.of(values[0]);
+        }
+
+        @Override
+        public String[] getRequestParams(final String name) {
+            return params.getOrDefault(name, new String[0]);
+        }
+
+        @Override
+        public Optional<Integer> getIntegerRequestParam(final String name) {
+            return getRequestParam(name).map(Integer::valueOf);
+        }
+
+        @Override
+        public Optional<Boolean> getBooleanRequestParam(final String name) {
+            return getRequestParam(name).map(Boolean::valueOf);
+        }
+
+        @Override
+        public boolean isDebugQuery() {
+            return debug;
+        }
+    }
+
+
+    private static List<String> generatedFlags(final ExpandedQuery expandedQuery) {
+        final List<String> flags = new ArrayList<>();
+        collectGeneratedFlags((QuerqyQuery<?>) expandedQuery.getUserQuery(), flags);
+        for (final BoostQuery boostQuery : expandedQuery.getBoostUpQueries()) {
+            collectGeneratedFlags(boostQuery.getQuery(), flags);
+        }
+        return flags;
+    }
+
+    private static void collectGeneratedFlags(final Node node, final List<String> flags) {
+        if (node instanceof Term) {
+            flags.add(((Term) node).getValue() + "=" + node.isGenerated());
+        } else {
+            flags.add(node.getClass().getSimpleName() + "=" + node.isGenerated());
+            if (node instanceof BooleanQuery) {
+                ((BooleanQuery) node).getClauses().forEach(clause -> collectGeneratedFlags(clause, flags));
+            } else if (node instanceof DisjunctionMaxQuery) {
+                ((DisjunctionMaxQuery) node).getClauses().forEach(clause -> collectGeneratedFlags(clause, flags));
+            }
+        }
+    }
+
+}
@@ -61,7 +61,7 @@ public class TrieMapSequenceLookupTest {
 
         trieMapSequenceLookup.evaluateTerm(term("a"));
 
-        verify(trieMap).get(charSequenceCaptor.capture());
+        verify(trieMap).lookup(charSequenceCaptor.capture(), any());
         assertThat(charSequenceCaptor.getValue()).isEqualTo("b");
 
     }
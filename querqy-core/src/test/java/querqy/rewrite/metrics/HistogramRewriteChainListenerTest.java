@@ -0,0 +1,103 @@
+/*
+ * SPDX-License-Identifier: Apache-2.0
+ *
+ * Copyright 2026 Querqy Contributors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package querqy.rewrite.metrics;
+
+import org.junit.Test;
+import querqy.model.EmptySearchEngineRequestAdapter;
+import querqy.model.ExpandedQuery;
+import querqy.parser.WhiteSpaceQuerqyParser;
+import querqy.rewrite.RewriteChain;
+import querqy.rewrite.RewriteLoggingConfig;
+import querqy.rewrite.lookup.preprocessing.LookupPreprocessorType;
+import querqy.rewriter.ShingleRewriterFactory;
+import querqy.rewriter.commonrules.SimpleCommonRulesRewriterFactory;
+import querqy.rewriter.commonrules.WhiteSpaceQuerqyParserFactory;
+import querqy.rewriter.commonrules.model.BoostInstruction.BoostMethod;
+import querqy.rewriter.commonrules.select.ExpressionCriteriaSelectionStrategyFactory;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class HistogramRewriteChainListenerTest {
+
+    @Test
+    public void testThat_statsAreRecordedPerRewriter() throws IOException {
+        final HistogramRewriteChainListener listener = new HistogramRewriteChainListener(true);
+        final RewriteChain chain = new RewriteChain(List.of(rulesFactory(), new ShingleRewriterFactory("shingles")),
+                null, listener);
+
+        chain.rewrite(query("a b"), new EmptySearchEngineRequestAdapter());
+        chain.rewrite(query("x"), new EmptySearchEngineRequestAdapter());
+        chain.rewrite(query("a"), new DetailsAdapter());
+
+        final Map<String, HistogramRewriteChainListener.RewriterStats> stats = listener.getRewriterStats();
+        assertThat(stats.keySet()).containsExactly("rules", "shingles");
+
+        final HistogramRewriteChainListener.RewriterStats rulesStats = stats.get("rules");
+        assertThat(rulesStats.getLatency().getCount()).isEqualTo(3);
+        assertThat(rulesStats.getLatency().getMax()).isGreaterThan(0L);
+        assertThat(rulesStats.getAppliedCount()).isEqualTo(2);
+        assertThat(rulesStats.getMatchCount()).isEqualTo(1);
+        if (ThreadAllocation.isSupported()) {
+            assertThat(rulesStats.getAllocatedBytes()).isGreaterThan(0L);
+        } else {
+            assertThat(rulesStats.getAllocatedBytes()).isEqualTo(-1L);
+        }
+
+        assertThat(stats.get("shingles").getLatency().getCount()).isEqualTo(3);
+        assertThat(stats.get("shingles").getAppliedCount()).isEqualTo(0);
+        assertThat(listener.getChainStats().getCount()).isEqualTo(3);
+    }
+
+    @Test
+    public void testThat_allocationsAreNotTracked_byDefault() throws IOException {
+        final HistogramRewriteChainListener listener = new HistogramRewriteChainListener();
+        final RewriteChain chain = new RewriteChain(List.of(rulesFactory()), null, listener);
+
+        chain.rewrite(query("a"), new EmptySearchEngineRequestAdapter());
+
+        assertThat(listener.isAllocationTrackingEnabled()).isFalse();
+        assertThat(listener.getRewriterStats().get("rules").getAllocatedBytes()).isEqualTo(-1L);
+    }
+
+    private static SimpleCommonRulesRewriterFactory rulesFactory() throws IOException {
+        return new SimpleCommonRulesRewriterFactory("rules", new StringReader("a =>\n SYNONYM: s1\n"), false,
+                BoostMethod.ADDITIVE, new WhiteSpaceQuerqyParserFactory(), Collections.emptyMap(),
+                new ExpressionCriteriaSelectionStrategyFactory(), false, LookupPreprocessorType.NONE);
+    }
+
+    private static ExpandedQuery query(final String query) {
+        return new ExpandedQuery(new WhiteSpaceQuerqyParser().parse(query));
+    }
+
+    private static class DetailsAdapter extends EmptySearchEngineRequestAdapter {
+
+        @Override
+        public RewriteLoggingConfig getRewriteLoggingConfig() {
+            return RewriteLoggingConfig.builder().isActive(true).hasDetails(true)
+                    .includedRewriters(Set.of("rules")).build();
+        }
+    }
+
+}
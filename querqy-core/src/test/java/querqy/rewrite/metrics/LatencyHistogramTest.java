@@ -0,0 +1,75 @@
+/*
+ * SPDX-License-Identifier: Apache-2.0
+ *
+ * Copyright 2026 Querqy Contributors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package querqy.rewrite.metrics;
+
+import org.junit.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+public class LatencyHistogramTest {
+
+    @Test
+    public void testThat_valueIsWithinItsBucket() {
+        for (final long value : new long[] {0, 1, 7, 8, 9, 15, 16, 17, 100, 1_000, 123_456_789, Long.MAX_VALUE}) {
+            final int index = LatencyHistogram.bucketIndex(value);
+            assertThat(index).isBetween(0, LatencyHistogram.NUM_BUCKETS - 1);
+            assertThat(LatencyHistogram.bucketUpperBound(index)).isGreaterThanOrEqualTo(value);
+            if (index > 0) {
+                assertThat(LatencyHistogram.bucketUpperBound(index - 1)).isLessThan(value);
+            }
+        }
+    }
+
+    @Test
+    public void testThat_bucketsAreContiguous() {
+        for (int i = 1; i < LatencyHistogram.NUM_BUCKETS; i++) {
+            final long lowerBound = LatencyHistogram.bucketUpperBound(i - 1) + 1;
+            assertThat(LatencyHistogram.bucketIndex(lowerBound)).isEqualTo(i);
+        }
+    }
+
+    @Test
+    public void testThat_quantilesAreWithinRelativeError() {
+        final LatencyHistogram histogram = new LatencyHistogram();
+        for (long value = 1; value <= 10_000; value++) {
+            histogram.record(value * 1_000);
+        }
+
+        final LatencyHistogram.Snapshot snapshot = histogram.snapshot();
+        assertThat(snapshot.getCount()).isEqualTo(10_000);
+        assertThat(snapshot.getMax()).isEqualTo(10_000_000);
+        assertThat(snapshot.getMean()).isEqualTo(5_000_500.0);
+
+        assertThat(snapshot.getValueAtQuantile(0.5)).isBetween(5_000_000L, 5_625_000L);
+        assertThat(snapshot.getValueAtQuantile(0.99)).isBetween(9_900_000L, 10_000_000L);
+        assertThat(snapshot.getValueAtQuantile(1.0)).isEqualTo(10_000_000L);
+    }
+
+    @Test
+    public void testThat_emptyHistogramReturnsZero() {
+        assertThat(new LatencyHistogram().snapshot().getValueAtQuantile(0.99)).isEqualTo(0L);
+    }
+
+    @Test
+    public void testThat_invalidQuantileIsRejected() {
+        assertThatThrownBy(() -> new LatencyHistogram().snapshot().getValueAtQuantile(1.5))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+}
@@ -217,6 +217,39 @@ public class NumberConcatenationRewriterTest {
         );
     }
 
+    @Test
+    public void testThatRewriterCanBeReusedForSeveralQueries() {
+        NumberConcatenationRewriter rewriter = new NumberConcatenationRewriter(false, 3);
+
+        Query query1 = new Query();
+        addTerm(query1, "123");
+        addTerm(query1, "456");
+        addTerm(query1, "a");
+        rewriter.rewrite(new ExpandedQuery(query1), null);
+
+        Query query2 = new Query();
+        addTerm(query2, "b");
+        addTerm(query2, "78");
+        addTerm(query2, "9");
+        rewriter.rewrite(new ExpandedQuery(query2), null);
+
+        assertThat(query2,
+                bq(
+                        dmq(
+                                term("b")
+                        ),
+                        dmq(
+                                term("78"),
+                                term("789")
+                        ),
+                        dmq(
+                                term("9"),
+                                term("789")
+                        )
+                )
+        );
+    }
+
     private void addTerm(Query query, String value) {
         addTerm(query, null, value);
     }
@@ -24,9 +24,14 @@ import static org.junit.Assert.assertEquals;
 import static querqy.QuerqyMatchers.bq;
 import static querqy.QuerqyMatchers.dmq;
 import static querqy.QuerqyMatchers.term;
+import static querqy.rewriter.commonrules.select.SelectionStrategyFactory.DEFAULT_SELECTION_STRATEGY;
+
+import java.util.ArrayList;
+import java.util.List;
 
 import org.junit.Test;
 
+import querqy.model.BooleanQuery;
 import querqy.model.Clause;
 import querqy.model.EmptySearchEngineRequestAdapter;
 import querqy.model.ExpandedQuery;
@@ -279,4 +284,42 @@ public class CommonRulesRewriterTest extends AbstractCommonRulesTest {
         final RewriterOutput output = rewriter.rewrite(query, new EmptySearchEngineRequestAdapter());
         assertEquals(userQuery, output.getExpandedQuery().getUserQuery());
     }
+
+    @Test
+    public void testThatSubclassCanOverrideRewriteBooleanQuery() {
+        final CommonRulesRewriter rulesRewriter = rewriter(
+                rule(
+                        input("a"),
+                        synonym("s1")
+                )
+        );
+
+        final List<ExpandedQuery> rewrittenQueries = new ArrayList<>();
+        final CommonRulesRewriter rewriter = new CommonRulesRewriter(
+                rulesRewriter.getTrieMapLookupQueryVisitorFactory(), DEFAULT_SELECTION_STRATEGY) {
+            @Override
+            protected void rewriteBooleanQuery(final BooleanQuery booleanQuery) {
+                rewrittenQueries.add(expandedQuery);
+                super.rewriteBooleanQuery(booleanQuery);
+            }
+        };
+
+        final ExpandedQuery query = makeQuery("a");
+        final RewriterOutput output = rewriter.rewrite(query, new EmptySearchEngineRequestAdapter());
+
+        assertEquals(1, rewrittenQueries.size());
+        assertEquals(query, rewrittenQueries.get(0));
+        assertThat((Query) output.getExpandedQuery().getUserQuery(),
+                bq(
+                        dmq(
+                                term("a", false),
+                                term("s1", true)
+                        )
+                ));
+        assertEquals(true, output.getRewriterLog().get().hasAppliedRewriting());
+
+        final RewriterOutput unchanged = rewriter.rewrite(makeQuery("b"), new EmptySearchEngineRequestAdapter());
+        assertEquals(2, rewrittenQueries.size());
+        assertEquals(false, unchanged.getRewriterLog().get().hasAppliedRewriting());
+    }
 }
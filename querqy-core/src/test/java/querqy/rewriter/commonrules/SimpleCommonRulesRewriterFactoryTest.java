@@ -28,20 +28,36 @@ import org.junit.Before;
 import org.junit.Test;
 import org.junit.runner.RunWith;
 import org.mockito.Mock;
+import querqy.model.DisjunctionMaxQuery;
+import querqy.model.EmptySearchEngineRequestAdapter;
+import querqy.model.ExpandedQuery;
+import querqy.model.QuerqyQuery;
+import querqy.model.Query;
 import querqy.model.Term;
+import querqy.parser.WhiteSpaceQuerqyParser;
 import querqy.rewrite.QueryRewriter;
 import querqy.rewrite.SearchEngineRequestAdapter;
 import querqy.rewriter.commonrules.model.BoostInstruction.BoostMethod;
+import querqy.rewriter.commonrules.model.Instructions;
+import querqy.rewriter.commonrules.model.InstructionsSupplier;
+import querqy.rewriter.commonrules.select.ExpressionCriteriaSelectionStrategyFactory;
+import querqy.rewriter.commonrules.select.PrimitiveValueSelectionStrategyFactory;
+import querqy.rewriter.commonrules.select.RuleSelectionParams;
 import querqy.rewriter.commonrules.select.SelectionStrategy;
 import querqy.rewriter.commonrules.select.SelectionStrategyFactory;
 import querqy.rewrite.lookup.preprocessing.LookupPreprocessorType;
 
 import java.io.IOException;
 import java.io.StringReader;
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
 import java.util.Map;
 import java.util.Optional;
 import java.util.Set;
+import java.util.stream.Collectors;
 
 @RunWith(org.mockito.junit.MockitoJUnitRunner.class)
 public class SimpleCommonRulesRewriterFactoryTest {
@@ -187,4 +203,214 @@ public class SimpleCommonRulesRewriterFactoryTest {
         assertThat(terms, Matchers.empty());
     }
 
-}
\ No newline at end of file
+    @Test
+    public void testThatRulesDeltaAddsChangesAndRemovesRules() throws IOException {
+        final SimpleCommonRulesRewriterFactory factory = deltaFactory(
+                "a =>\n SYNONYM: a1\n @_id: \"r1\"\n" +
+                "b =>\n SYNONYM: b1\n @_id: \"r2\"\n" +
+                "c =>\n SYNONYM: c1\n");
+        assertEquals(3, factory.getRuleCount());
+
+        factory.applyRulesDelta(RulesDelta.builder()
+                .rules("a =>\n SYNONYM: a2\n @_id: \"r1\"\nd =>\n SYNONYM: d1\n @_id: \"r4\"")
+                .removedId("r2")
+                .removedId("unknown")
+                .build());
+
+        assertEquals(3, factory.getRuleCount());
+        final Map<Object, Instructions> rules = instructionsById(factory);
+        assertEquals(Set.of("r1", "c#2", "r4"), rules.keySet());
+        // the changed rule keeps its position, the added rule is appended
+        assertEquals(0, rules.get("r1").getOrd());
+        assertEquals(3, rules.get("r4").getOrd());
+        assertEquals(Set.of(new Term(null, "a2")), rules.get("r1").get(0).getGenerableTerms());
+    }
+
+    @Test
+    public void testThatRulesDeltaChangesRuleWithoutIdByInput() throws IOException {
+        final SimpleCommonRulesRewriterFactory factory = deltaFactory(
+                "a =>\n SYNONYM: a1\n" +
+                "b =>\n SYNONYM: b1\n");
+
+        factory.applyRulesDelta(RulesDelta.builder().rules("b =>\n SYNONYM: b2\nc =>\n SYNONYM: c1").build());
+
+        assertEquals(3, factory.getRuleCount());
+        final Map<Object, Instructions> rules = instructionsById(factory);
+        assertEquals(Set.of("a#0", "b#1", "c#2"), rules.keySet());
+        // the old rule for b is gone
+        assertEquals(Set.of(new Term(null, "b2")), rules.get("b#1").get(0).getGenerableTerms());
+        assertEquals(3, factory.getInstructions().size());
+    }
+
+    @Test
+    public void testThatRulesDeltaChangesRulesWithSharedPrefixAndSuffixInput() throws IOException {
+        when(requestAdapter.getRequestParam(any())).thenReturn(Optional.empty());
+        when(defaultSelectionStrategyFactory.createSelectionStrategy(any(), any()))
+                .thenReturn(SelectionStrategyFactory.DEFAULT_SELECTION_STRATEGY);
+
+        final SimpleCommonRulesRewriterFactory factory = deltaFactory(
+                "a =>\n SYNONYM: a1\n @_id: \"r1\"\n" +
+                "a =>\n SYNONYM: a2\n @_id: \"r2\"\n" +
+                "b* =>\n SYNONYM: b1\n @_id: \"r3\"\n" +
+                "*c =>\n SYNONYM: c1\n @_id: \"r4\"\n");
+        final QueryRewriter oldRewriter = factory.createRewriter(requestAdapter);
+
+        factory.applyRulesDelta(RulesDelta.builder()
+                .rules("a =>\n SYNONYM: a3\n @_id: \"r1\"\n" +
+                        "*c =>\n SYNONYM: c2\n @_id: \"r4\"\n" +
+                        "e* =>\n SYNONYM: e1\n @_id: \"r5\"")
+                .removedId("r3")
+                .build());
+        final QueryRewriter newRewriter = factory.createRewriter(requestAdapter);
+
+        assertEquals(Arrays.asList("a3", "a2"), synonyms(newRewriter, "a"));
+        assertEquals(Collections.emptyList(), synonyms(newRewriter, "bx"));
+        assertEquals(Collections.singletonList("c2"), synonyms(newRewriter, "xc"));
+        assertEquals(Collections.singletonList("e1"), synonyms(newRewriter, "ex"));
+
+        assertEquals(Arrays.asList("a1", "a2"), synonyms(oldRewriter, "a"));
+        assertEquals(Collections.singletonList("b1"), synonyms(oldRewriter, "bx"));
+        assertEquals(Collections.singletonList("c1"), synonyms(oldRewriter, "xc"));
+        assertEquals(Collections.emptyList(), synonyms(oldRewriter, "ex"));
+
+        factory.applyRulesDelta(RulesDelta.builder().removedId("r1").removedId("r2").build());
+        assertEquals(Collections.emptyList(), synonyms(factory.createRewriter(requestAdapter), "a"));
+        assertEquals(2, factory.getRuleCount());
+    }
+
+    @Test(expected = IOException.class)
+    public void testThatRulesDeltaRejectsAmbiguousRuleWithoutId() throws IOException {
+        deltaFactory("a =>\n SYNONYM: a1\na =>\n SYNONYM: a2\n").applyRulesDelta(RulesDelta.builder()
+                .rules("a =>\n SYNONYM: a3").build());
+    }
+
+    @Test
+    public void testThatRewritersKeepTheRulesOfTheirCreationTime() throws IOException {
+        when(requestAdapter.getRequestParam(any())).thenReturn(Optional.empty());
+        when(defaultSelectionStrategyFactory.createSelectionStrategy(any(), any()))
+                .thenReturn(SelectionStrategyFactory.DEFAULT_SELECTION_STRATEGY);
+
+        final SimpleCommonRulesRewriterFactory factory = deltaFactory("a =>\n SYNONYM: a1\n @_id: \"r1\"");
+        final QueryRewriter oldRewriter = factory.createRewriter(requestAdapter);
+
+        factory.applyRulesDelta(RulesDelta.builder().removedId("r1").build());
+        final QueryRewriter newRewriter = factory.createRewriter(requestAdapter);
+
+        assertEquals(1, countSynonyms(oldRewriter));
+        assertEquals(0, countSynonyms(newRewriter));
+    }
+
+    @Test
+    public void testThatInvalidRulesDeltaKeepsCurrentRules() throws IOException {
+        final SimpleCommonRulesRewriterFactory factory = deltaFactory("a =>\n SYNONYM: a1\n @_id: \"r1\"");
+        try {
+            factory.applyRulesDelta(RulesDelta.builder()
+                    .rules("b =>\n SYNONYM: b1\n @_id: \"r2\"\nThis is not a parsable rule")
+                    .removedId("r1")
+                    .build());
+            fail("IOException expected");
+        } catch (final IOException e) {
+            // expected
+        }
+        assertEquals(1, factory.getRuleCount());
+        assertEquals(1, factory.getInstructions().size());
+    }
+
+    @Test(expected = IOException.class)
+    public void testThatDuplicateIdsInRulesDeltaTriggerException() throws IOException {
+        deltaFactory("a =>\n SYNONYM: a1\n @_id: \"r1\"").applyRulesDelta(RulesDelta.builder()
+                .rules("b =>\n SYNONYM: b1\n @_id: \"r2\"\nc =>\n SYNONYM: c1\n @_id: \"r2\"")
+                .build());
+    }
+
+    @Test
+    public void testThatRewriterIsReusedForSameSelectionStrategyAndRules() throws IOException {
+        when(defaultSelectionStrategyFactory.createSelectionStrategy(any(), any()))
+                .thenReturn(defaultSelectionStrategy);
+        when(namedSelectionStrategyFactory.createSelectionStrategy(any(), any())).thenReturn(namedSelectionStrategy);
+        final SearchEngineRequestAdapter namedStrategyRequestAdapter = new EmptySearchEngineRequestAdapter() {
+            @Override
+            public Optional<String> getRequestParam(final String name) {
+                return Optional.of(STRATEGY_NAME1);
+            }
+        };
+
+        final SimpleCommonRulesRewriterFactory factory = deltaFactory("a =>\n SYNONYM: a1");
+        final QueryRewriter rewriter = factory.createRewriter(new EmptySearchEngineRequestAdapter());
+        assertSame(rewriter, factory.createRewriter(new EmptySearchEngineRequestAdapter()));
+
+        final QueryRewriter namedStrategyRewriter = factory.createRewriter(namedStrategyRequestAdapter);
+        assertNotSame(rewriter, namedStrategyRewriter);
+        assertSame(namedSelectionStrategy, ((CommonRulesRewriter) namedStrategyRewriter).selectionStrategy);
+
+        final QueryRewriter defaultStrategyRewriter = factory.createRewriter(new EmptySearchEngineRequestAdapter());
+        factory.applyRulesDelta(RulesDelta.builder().rules("b =>\n SYNONYM: b1").build());
+        assertNotSame(defaultStrategyRewriter, factory.createRewriter(new EmptySearchEngineRequestAdapter()));
+    }
+
+    @Test
+    public void testThatRewriteCacheKeyParamsIncludeBuiltInSelectionStrategyParams() throws IOException {
+        namedStrategyFactories.put(STRATEGY_NAME1, new PrimitiveValueSelectionStrategyFactory());
+        final SimpleCommonRulesRewriterFactory factory = commonRulesFactory("a =>\n SYNONYM: a1",
+                new ExpressionCriteriaSelectionStrategyFactory(), false);
+
+        assertEquals(Optional.of(new HashSet<>(Arrays.asList(
+                RuleSelectionParams.getStrategyParamName("someId"),
+                RuleSelectionParams.getLimitParamName("someId"),
+                RuleSelectionParams.getIsUseLevelsForLimitParamName("someId"),
+                RuleSelectionParams.getSortParamName("someId"),
+                RuleSelectionParams.getFilterParamName("someId")))),
+                factory.getRewriteCacheKeyParams());
+    }
+
+    @Test
+    public void testThatRewriteOutputIsNotCacheableForCustomSelectionStrategyFactory() throws IOException {
+        namedStrategyFactories.put(STRATEGY_NAME1, new ExpressionCriteriaSelectionStrategyFactory());
+        assertEquals(Optional.empty(), commonRulesFactory("a =>\n SYNONYM: a1").getRewriteCacheKeyParams());
+
+        final SimpleCommonRulesRewriterFactory subclassFactory = commonRulesFactory("a =>\n SYNONYM: a1",
+                new ExpressionCriteriaSelectionStrategyFactory() {}, false);
+        assertEquals(Optional.empty(), subclassFactory.getRewriteCacheKeyParams());
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void testThatRulesDeltaIsNotSupportedForBooleanInput() throws IOException {
+        commonRulesFactory("input =>\n DECORATE: deco1").applyRulesDelta(RulesDelta.builder().build());
+    }
+
+    private SimpleCommonRulesRewriterFactory deltaFactory(final String rules) throws IOException {
+        return new SimpleCommonRulesRewriterFactory("someId", new StringReader(rules), false, BoostMethod.ADDITIVE,
+                new WhiteSpaceQuerqyParserFactory(), namedStrategyFactories, defaultSelectionStrategyFactory, false,
+                LookupPreprocessorType.NONE);
+    }
+
+    private static Map<Object, Instructions> instructionsById(final SimpleCommonRulesRewriterFactory factory) {
+        final Map<Object, Instructions> result = new HashMap<>();
+        for (final InstructionsSupplier supplier
+                : factory.getRulesCollection().getTrieMapLookupQueryVisitorFactory().getTrieMap()) {
+            supplier.getInstructionsList().forEach(instructions -> result.put(instructions.getId(), instructions));
+        }
+        return result;
+    }
+
+    private static List<String> synonyms(final QueryRewriter rewriter, final String queryString) {
+        final ExpandedQuery query = new ExpandedQuery(new WhiteSpaceQuerqyParser().parse(queryString));
+        final QuerqyQuery<?> userQuery = rewriter.rewrite(query, new EmptySearchEngineRequestAdapter())
+                .getExpandedQuery().getUserQuery();
+        final DisjunctionMaxQuery dmq = (DisjunctionMaxQuery) ((Query) userQuery).getClauses().get(0);
+        return dmq.getClauses().stream()
+                .map(clause -> (Term) clause)
+                .filter(Term::isGenerated)
+                .map(term -> term.getValue().toString())
+                .collect(Collectors.toList());
+    }
+
+    private static int countSynonyms(final QueryRewriter rewriter) {
+        final ExpandedQuery query = new ExpandedQuery(new WhiteSpaceQuerqyParser().parse("a"));
+        final QuerqyQuery<?> userQuery = rewriter.rewrite(query, new EmptySearchEngineRequestAdapter())
+                .getExpandedQuery().getUserQuery();
+        final DisjunctionMaxQuery dmq = (DisjunctionMaxQuery) ((Query) userQuery).getClauses().get(0);
+        return dmq.getClauses().size() - 1;
+    }
+
+}
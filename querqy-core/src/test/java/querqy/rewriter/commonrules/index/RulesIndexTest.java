@@ -0,0 +1,186 @@
+/*
+ * SPDX-License-Identifier: Apache-2.0
+ *
+ * Copyright 2026 Querqy Contributors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package querqy.rewriter.commonrules.index;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import querqy.model.EmptySearchEngineRequestAdapter;
+import querqy.model.ExpandedQuery;
+import querqy.parser.WhiteSpaceQuerqyParser;
+import querqy.rewrite.lookup.preprocessing.LookupPreprocessorType;
+import querqy.rewriter.commonrules.SimpleCommonRulesRewriterFactory;
+import querqy.rewriter.commonrules.WhiteSpaceQuerqyParserFactory;
+import querqy.rewriter.commonrules.model.BoostInstruction.BoostMethod;
+import querqy.rewriter.commonrules.model.DecorateInstruction;
+import querqy.rewriter.commonrules.model.Instructions;
+import querqy.rewriter.commonrules.model.InstructionsSupplier;
+import querqy.rewriter.commonrules.rules.factory.config.RuleParserConfig;
+import querqy.rewriter.commonrules.select.ExpressionCriteriaSelectionStrategyFactory;
+import querqy.rewriter.commonrules.select.SelectionStrategyFactory;
+import querqy.trie.States;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.StringReader;
+import java.nio.ByteBuffer;
+import java.nio.file.Path;
+import java.util.Collections;
+import java.util.List;
+import java.util.stream.Collectors;
+
+public class RulesIndexTest {
+
+    private static final String RULES = String.join("\n",
+            "notebook =>",
+            "  SYNONYM: laptop",
+            "  UP(100): brand:apple",
+            "apple iphone =>",
+            "  DOWN(20): case",
+            "  FILTER: * category:phones",
+            "  DECORATE: redirect",
+            "  @_id: \"iphone\"",
+            "  @{ \"prio\": 5, \"tags\": [\"a\", \"b\"] }@",
+            "\"cheap\" =>",
+            "  DELETE",
+            "abc* =>",
+            "  SYNONYM: abc $1",
+            "*phone =>",
+            "  DECORATE: phone",
+            "notebook =>",
+            "  DOWN(10): refurbished",
+            "");
+
+    private static final RuleParserConfig CONFIG = SimpleCommonRulesRewriterFactory.ruleParserConfig(false,
+            BoostMethod.ADDITIVE, new WhiteSpaceQuerqyParserFactory());
+
+    private static final SelectionStrategyFactory STRATEGY_FACTORY = new ExpressionCriteriaSelectionStrategyFactory();
+
+    @Rule
+    public TemporaryFolder tempFolder = new TemporaryFolder();
+
+    @Test
+    public void testThatIndexedRulesRewriteLikeParsedRules() throws IOException {
+        final Path file = tempFolder.newFile("rules.idx").toPath();
+        new RulesIndexCompiler(CONFIG, LookupPreprocessorType.LOWERCASE).compile(new StringReader(RULES), file);
+
+        final SimpleCommonRulesRewriterFactory parsedFactory = new SimpleCommonRulesRewriterFactory("rules",
+                new StringReader(RULES), false, BoostMethod.ADDITIVE, new WhiteSpaceQuerqyParserFactory(),
+                Collections.emptyMap(), STRATEGY_FACTORY, false, LookupPreprocessorType.LOWERCASE);
+        final SimpleCommonRulesRewriterFactory indexedFactory = new SimpleCommonRulesRewriterFactory("rules",
+                RulesIndex.open(file, CONFIG), Collections.emptyMap(), STRATEGY_FACTORY, false);
+
+        for (final String query : new String[] {"notebook", "Apple iPhone", "cheap notebook", "abcdef",
+                "smartphone", "apple", "nothing here"}) {
+            assertEquals(query, rewrite(parsedFactory, query), rewrite(indexedFactory, query));
+        }
+
+        assertEquals(parsedFactory.getInstructions(), indexedFactory.getInstructions());
+    }
+
+    @Test
+    public void testThatInstructionsKeepIdOrdAndProperties() throws IOException {
+        final RulesIndex index = compile(RULES, LookupPreprocessorType.LOWERCASE);
+
+        final List<Instructions> notebook = index.getTrieMap().get("notebook").getStateForCompleteSequence()
+                .getValue().getInstructionsList();
+        assertThat(notebook.stream().map(Instructions::getOrd).collect(Collectors.toList()), contains(0, 5));
+        assertThat(notebook.stream().map(Instructions::getId).collect(Collectors.toList()),
+                contains("notebook#0", "notebook#5"));
+
+        final Instructions iphone = index.getTrieMap().get("apple iphone").getStateForCompleteSequence()
+                .getValue().getInstructionsList().get(0);
+        assertEquals("iphone", iphone.getId());
+        assertEquals(1, iphone.getOrd());
+        assertEquals(5, iphone.getProperty("prio").orElse(null));
+        assertEquals(3, iphone.size());
+        assertTrue(iphone.stream().anyMatch(instruction -> instruction instanceof DecorateInstruction));
+    }
+
+    @Test
+    public void testThatRulesAreLoadedOnFirstMatch() throws IOException {
+        final RulesIndex index = compile(RULES, LookupPreprocessorType.LOWERCASE);
+        assertEquals(6, index.getRuleCount());
+        // the suffix rule is loaded eagerly
+        assertEquals(1, index.getLoadedRuleCount());
+
+        final States<InstructionsSupplier> states = index.getTrieMap().get("notebook");
+        assertTrue(states.getStateForCompleteSequence().isFinal());
+        assertEquals(3, index.getLoadedRuleCount());
+
+        index.getTrieMap().get("notebook");
+        assertEquals(3, index.getLoadedRuleCount());
+
+        assertFalse(index.getTrieMap().get("apple").getStateForCompleteSequence().isFinal());
+        assertEquals(3, index.getLoadedRuleCount());
+    }
+
+    @Test
+    public void testThatLookupPreprocessorTypeIsStored() throws IOException {
+        assertEquals(LookupPreprocessorType.GERMAN, compile(RULES, LookupPreprocessorType.GERMAN)
+                .getLookupPreprocessorType());
+    }
+
+    @Test(expected = IOException.class)
+    public void testThatInvalidRulesTriggerException() throws IOException {
+        compile("This is not a parsable rule", LookupPreprocessorType.NONE);
+    }
+
+    @Test(expected = IOException.class)
+    public void testThatUnknownDataTriggersException() throws IOException {
+        RulesIndex.read(ByteBuffer.wrap(new byte[] {1, 2, 3, 4, 5, 6, 7, 8}), CONFIG);
+    }
+
+    @Test(expected = IOException.class)
+    public void testThatTruncatedIndexTriggersException() throws IOException {
+        final ByteArrayOutputStream out = new ByteArrayOutputStream();
+        new RulesIndexCompiler(CONFIG, LookupPreprocessorType.NONE).compile(new StringReader(RULES), out);
+        final byte[] bytes = out.toByteArray();
+        RulesIndex.read(ByteBuffer.wrap(bytes, 0, bytes.length - 10).slice(), CONFIG);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testThatBooleanInputIsNotSupported() {
+        new RulesIndexCompiler(RuleParserConfig.builder().isAllowedToParseBooleanInput(true).build(),
+                LookupPreprocessorType.NONE);
+    }
+
+    private static RulesIndex compile(final String rules, final LookupPreprocessorType lookupPreprocessorType)
+            throws IOException {
+        final ByteArrayOutputStream out = new ByteArrayOutputStream();
+        new RulesIndexCompiler(CONFIG, lookupPreprocessorType).compile(new StringReader(rules), out);
+        return RulesIndex.read(ByteBuffer.wrap(out.toByteArray()), CONFIG);
+    }
+
+    private static String rewrite(final SimpleCommonRulesRewriterFactory factory, final String query) {
+        final EmptySearchEngineRequestAdapter adapter = new EmptySearchEngineRequestAdapter();
+        final ExpandedQuery expandedQuery = factory.createRewriter(adapter)
+                .rewrite(new ExpandedQuery(new WhiteSpaceQuerqyParser().parse(query)), adapter)
+                .getExpandedQuery();
+        return expandedQuery.getUserQuery() + " | " + expandedQuery.getFilterQueries() + " | "
+                + expandedQuery.getBoostUpQueries() + " | " + expandedQuery.getBoostDownQueries() + " | "
+                + adapter.getContext();
+    }
+
+}
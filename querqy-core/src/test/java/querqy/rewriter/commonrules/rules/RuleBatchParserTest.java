@@ -0,0 +1,108 @@
+/*
+ * SPDX-License-Identifier: Apache-2.0
+ *
+ * Copyright 2026 Querqy Contributors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package querqy.rewriter.commonrules.rules;
+
+import org.junit.Test;
+import querqy.rewrite.RuleParseException;
+import querqy.rewriter.commonrules.model.Instructions;
+import querqy.rewriter.commonrules.rules.factory.config.RuleParserConfig;
+import querqy.rewriter.commonrules.rules.property.PropertyParser;
+import querqy.rewriter.commonrules.rules.rule.Rule;
+import querqy.rewriter.commonrules.rules.rule.skeleton.RuleSkeleton;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.Assert.assertThrows;
+import static querqy.rewriter.commonrules.rules.RuleParserTestUtils.skeletonBuilder;
+import static querqy.rewriter.commonrules.rules.RuleParserTestUtils.synonymSkeleton;
+import static querqy.rewriter.commonrules.rules.RuleParserTestUtils.upSkeleton;
+
+public class RuleBatchParserTest {
+
+    private static final int NUM_RULES = RuleBatchParser.MIN_SHARD_SIZE * 10 + 17;
+
+    @Test
+    public void testThat_parallelParsing_returnsSameRulesAsSequentialParsing() {
+        final List<RuleSkeleton> skeletons = skeletons(NUM_RULES);
+
+        final List<Rule> expected = parse(skeletons, 1);
+        final List<Rule> actual = parse(skeletons, 4);
+
+        assertThat(actual).isEqualTo(expected);
+        for (int i = 0; i < NUM_RULES; i++) {
+            final Instructions instructions = actual.get(i).getInstructionsSupplier().getInstructionsList().get(0);
+            assertThat(instructions.getOrd()).isEqualTo(i);
+            assertThat(instructions.getId()).isEqualTo(expected.get(i).getInstructionsSupplier()
+                    .getInstructionsList().get(0).getId());
+        }
+    }
+
+    @Test
+    public void testThat_exceptionIsThrown_forRepeatedIdInDifferentShards() {
+        final List<RuleSkeleton> skeletons = skeletons(NUM_RULES);
+        skeletons.set(1, skeletonBuilder()
+                .inputSkeleton("first")
+                .instructionSkeleton(synonymSkeleton("s"))
+                .property(PropertyParser.ID, "id")
+                .build());
+        skeletons.set(NUM_RULES - 1, skeletonBuilder()
+                .inputSkeleton("last")
+                .instructionSkeleton(synonymSkeleton("s"))
+                .property(PropertyParser.ID, "id")
+                .build());
+
+        final RuleParseException e = assertThrows(RuleParseException.class, () -> parse(skeletons, 4));
+        assertThat(e.getMessage()).contains("id");
+    }
+
+    @Test
+    public void testThat_firstErrorIsReported_forInvalidRulesInSeveralShards() {
+        final List<RuleSkeleton> skeletons = skeletons(NUM_RULES);
+        skeletons.set(NUM_RULES / 2, skeletonBuilder()
+                .inputSkeleton("first")
+                .instructionSkeleton(upSkeleton("x", "no number"))
+                .build());
+        skeletons.set(NUM_RULES - 1, skeletonBuilder()
+                .inputSkeleton("last")
+                .instructionSkeleton(upSkeleton("y", "no number"))
+                .build());
+
+        final RuleParseException sequential = assertThrows(RuleParseException.class, () -> parse(skeletons, 1));
+        final RuleParseException parallel = assertThrows(RuleParseException.class, () -> parse(skeletons, 4));
+        assertThat(parallel.getMessage()).isEqualTo(sequential.getMessage());
+    }
+
+    private static List<Rule> parse(final List<RuleSkeleton> skeletons, final int parallelism) {
+        return RuleBatchParser.of(RuleParserConfig.builder().parallelism(parallelism).build()).parse(skeletons);
+    }
+
+    private static List<RuleSkeleton> skeletons(final int count) {
+        final List<RuleSkeleton> skeletons = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            skeletons.add(skeletonBuilder()
+                    .inputSkeleton("input" + (i % 100) + " term" + i)
+                    .instructionSkeleton(synonymSkeleton("synonym" + i))
+                    .instructionSkeleton(upSkeleton("boost" + i, "10"))
+                    .build());
+        }
+        return skeletons;
+    }
+
+}
@@ -17,7 +17,9 @@
  */
 package querqy.rewriter.regexreplace;
 
+import org.junit.Rule;
 import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
 import querqy.model.Clause;
 import querqy.model.DisjunctionMaxQuery;
 import querqy.model.EmptySearchEngineRequestAdapter;
@@ -29,17 +31,65 @@ import java.io.ByteArrayInputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
 import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.util.Arrays;
 import java.util.List;
 
 import static org.hamcrest.MatcherAssert.assertThat;
+import static org.junit.Assert.assertEquals;
 import static querqy.QuerqyMatchers.bq;
 import static querqy.QuerqyMatchers.dmq;
 import static querqy.QuerqyMatchers.term;
 
 public class RegexReplaceRewriterTest {
 
+    @Rule
+    public TemporaryFolder tempFolder = new TemporaryFolder();
+
+    @Test(expected = IOException.class)
+    public void testThatReplacementWithNegativeLengthIsRejected() throws IOException {
+        Replacement.read(ByteBuffer.allocate(16).putFloat(1f).putInt(1).put((byte) 0).putInt(-1).flip());
+    }
+
+    @Test(expected = IOException.class)
+    public void testThatReplacementWithLengthBeyondBufferIsRejected() throws IOException {
+        Replacement.read(ByteBuffer.allocate(16).putFloat(1f).putInt(Integer.MAX_VALUE).flip());
+    }
+
+    @Test
+    public void testThatSnapshotRewritesLikeParsedRules() throws IOException {
+        final String rules = """
+                abc => def
+                a\\dc => first
+                a1c => second
+                ([0-9]+) ?cm => ${1}cm
+                (size|gr) ([a-z]+) => size_${2}
+                """;
+        final RegexReplaceRewriterFactory parsedFactory = factory(rules);
+
+        final Path file = tempFolder.newFile("regex.snapshot").toPath();
+        try (final OutputStream out = Files.newOutputStream(file)) {
+            new RegexReplaceRewriterRulesParser(new InputStreamReader(new ByteArrayInputStream(
+                    rules.getBytes(StandardCharsets.UTF_8))), true).parserConfig().writeSnapshot(out);
+        }
+        final RegexReplaceRewriterFactory snapshotFactory = new RegexReplaceRewriterFactory("id1",
+                RegexReplacing.openSnapshot(file));
+
+        for (final String query : new String[] {"abc", "pref abc", "a1c", "a2c", "shirt 50 cm", "size XL",
+                "gr m abc", "nothing"}) {
+            assertEquals(query, rewrite(parsedFactory, query), rewrite(snapshotFactory, query));
+        }
+    }
+
+    private static String rewrite(final RegexReplaceRewriterFactory factory, final String query) {
+        return factory.createRewriter(null).rewrite(query(query), new EmptySearchEngineRequestAdapter())
+                .getExpandedQuery().getUserQuery().toString();
+    }
+
     @Test
     public void testLiteralsOnly() throws IOException {
         RegexReplaceRewriterFactory factory = factory("""
@@ -156,6 +156,20 @@ public class RegexReplacingTest {
         assertEquals(expected, replacementResult.replacement());
     }
 
+    @Test
+    public void testThatEarliestOfEquallyGoodOverlappingMatchesWins() {
+        // Both alternatives belong to the same rule and overlap in "b", so only one of them can
+        // be replaced. The match that starts first wins, independent of the order of the
+        // alternatives.
+        final RegexReplacing regexReplacing = new RegexReplacing(true, null);
+        regexReplacing.put("a b|b c", "x");
+        assertReplacement(regexReplacing, "a b c", "x c");
+
+        final RegexReplacing reversed = new RegexReplacing(true, null);
+        reversed.put("b c|a b", "x");
+        assertReplacement(reversed, "a b c", "x c");
+    }
+
     @Test
     public void testMultiplePatterns() {
         RegexReplacing regexReplacing = new RegexReplacing(true, null);
@@ -23,6 +23,7 @@ import querqy.model.Clause;
 import querqy.model.DisjunctionMaxQuery;
 import querqy.model.EmptySearchEngineRequestAdapter;
 import querqy.model.ExpandedQuery;
+import querqy.model.Node;
 import querqy.model.Query;
 import querqy.model.StringRawQuery;
 import querqy.model.Term;
@@ -492,6 +493,40 @@ public class ReplaceRewriterTest {
 
     }
 
+    @Test
+    public void testThatRewriterCanBeReusedForSeveralQueries() {
+        SequenceLookup<ReplaceInstruction> sequenceLookup = new SequenceLookup<>();
+        sequenceLookup.put(tokenListFromString("a b"), getTermsReplaceInstruction(Collections.singletonList("c")));
+
+        ReplaceRewriter replaceRewriter = new ReplaceRewriter(sequenceLookup);
+
+        RewriterOutput replaced = replaceRewriter.rewrite(getQuery(Arrays.asList("a", "b")),
+                new EmptySearchEngineRequestAdapter());
+        assertThat((Query) replaced.getExpandedQuery().getUserQuery(), bq(dmq(term("c"))));
+
+        ExpandedQuery unmatched = getQuery(Arrays.asList("x", "y"));
+        RewriterOutput unchanged = replaceRewriter.rewrite(unmatched, new EmptySearchEngineRequestAdapter());
+        assertEquals(unmatched, unchanged.getExpandedQuery());
+        assertEquals(false, unchanged.getRewriterLog().get().hasAppliedRewriting());
+    }
+
+    @Test
+    public void testThatSubclassCanOverrideVisitTerm() {
+        SequenceLookup<ReplaceInstruction> sequenceLookup = new SequenceLookup<>();
+        sequenceLookup.put(tokenListFromString("a b"), getTermsReplaceInstruction(Collections.singletonList("c")));
+
+        ReplaceRewriter replaceRewriter = new ReplaceRewriter(sequenceLookup) {
+            @Override
+            public Node visit(final Term term) {
+                return "x".contentEquals(term.getValue()) ? null : super.visit(term);
+            }
+        };
+
+        RewriterOutput replaced = replaceRewriter.rewrite(getQuery(Arrays.asList("a", "x", "b")),
+                new EmptySearchEngineRequestAdapter());
+        assertThat((Query) replaced.getExpandedQuery().getUserQuery(), bq(dmq(term("c"))));
+    }
+
     private ExpandedQuery getQuery(List<String> tokens) {
         Query query = new Query();
         tokens.forEach(token -> addTerm(query, token));
@@ -0,0 +1,170 @@
+/*
+ * SPDX-License-Identifier: Apache-2.0
+ *
+ * Copyright 2026 Querqy Contributors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package querqy.rewriter.wordbreak;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.StringReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+public class CachingWordBreakerTest {
+
+    @Rule
+    public TemporaryFolder tempFolder = new TemporaryFolder();
+
+    private final AtomicInteger calls = new AtomicInteger();
+
+    // splits the lowercased word in the middle
+    private final WordBreaker delegate = (word, termCorpus, maxDecompoundExpansions, verifyCollation) -> {
+        calls.incrementAndGet();
+        final String lc = word.toString().toLowerCase();
+        if (lc.length() < 2) {
+            return List.of();
+        }
+        return List.<CharSequence[]>of(new CharSequence[] {
+                new StringBuilder(lc.substring(0, lc.length() / 2)), lc.substring(lc.length() / 2)});
+    };
+
+    private final TermCorpus termCorpus = mock(TermCorpus.class);
+
+    public CachingWordBreakerTest() {
+        when(termCorpus.getCacheVersion()).thenReturn(termCorpus);
+    }
+
+    @Test
+    public void testThatResultIsCached() throws IOException {
+        final CachingWordBreaker cache = new CachingWordBreaker(delegate, true, 100);
+        final List<CharSequence[]> result1 = cache.breakWord("Laufschuh", termCorpus, 3, false);
+        final List<CharSequence[]> result2 = cache.breakWord("laufschuh", termCorpus, 3, false);
+        assertEquals(1, calls.get());
+        assertEquals(1, result1.size());
+        assertArrayEquals(new CharSequence[] {"lauf", "schuh"}, result1.get(0));
+        assertArrayEquals(result1.get(0), result2.get(0));
+        assertEquals(1, cache.getHitCount());
+        assertEquals(1, cache.getMissCount());
+    }
+
+    @Test
+    public void testThatSettingsArePartOfTheKey() throws IOException {
+        final CachingWordBreaker cache = new CachingWordBreaker(delegate, false, 100);
+        cache.breakWord("laufschuh", termCorpus, 3, false);
+        cache.breakWord("laufschuh", termCorpus, 2, false);
+        cache.breakWord("laufschuh", termCorpus, 3, true);
+        cache.breakWord("Laufschuh", termCorpus, 3, false);
+        assertEquals(4, calls.get());
+        assertEquals(4, cache.size());
+    }
+
+    @Test
+    public void testThatEntriesAreDiscardedWhenCorpusVersionChanges() throws IOException {
+        final CachingWordBreaker cache = new CachingWordBreaker(delegate, true, 100);
+        cache.breakWord("laufschuh", termCorpus, 3, false);
+        when(termCorpus.getCacheVersion()).thenReturn(new Object());
+        cache.breakWord("laufschuh", termCorpus, 3, false);
+        assertEquals(2, calls.get());
+    }
+
+    @Test
+    public void testThatLeastRecentlyUsedEntriesAreEvicted() throws IOException {
+        final CachingWordBreaker cache = new CachingWordBreaker(delegate, true, 1);
+        cache.breakWord("laufschuh", termCorpus, 3, false);
+        cache.breakWord("wanderhose", termCorpus, 3, false);
+        assertEquals(1, cache.size());
+        cache.breakWord("laufschuh", termCorpus, 3, false);
+        assertEquals(3, calls.get());
+    }
+
+    @Test
+    public void testSaveAndLoad() throws IOException {
+        final CachingWordBreaker cache = new CachingWordBreaker(delegate, true, 100);
+        assertEquals(4, cache.precompute(new StringReader("laufschuh damen\n\n  wanderhose laufschuh\na"),
+                termCorpus, 3, false));
+        // "a" yields no word break, but the empty result is cached, too
+        assertEquals(4, cache.size());
+
+        final Path file = tempFolder.getRoot().toPath().resolve("wordbreaks.bin");
+        cache.save(file, termCorpus);
+
+        final CachingWordBreaker restored = new CachingWordBreaker(delegate, true, 100);
+        assertEquals(4, restored.load(file, termCorpus));
+        calls.set(0);
+        final List<CharSequence[]> result = restored.breakWord("Wanderhose", termCorpus, 3, false);
+        assertTrue(restored.breakWord("a", termCorpus, 3, false).isEmpty());
+        assertEquals(0, calls.get());
+        assertArrayEquals(new CharSequence[] {"wande", "rhose"}, result.get(0));
+    }
+
+    @Test(expected = IOException.class)
+    public void testThatLoadRejectsTruncatedFile() throws IOException {
+        final CachingWordBreaker cache = new CachingWordBreaker(delegate, true, 100);
+        cache.breakWord("laufschuh", termCorpus, 3, false);
+        final Path file = tempFolder.getRoot().toPath().resolve("wordbreaks.bin");
+        cache.save(file, termCorpus);
+        final byte[] bytes = Files.readAllBytes(file);
+        Files.write(file, Arrays.copyOf(bytes, bytes.length - 3));
+        new CachingWordBreaker(delegate, true, 100).load(file, termCorpus);
+    }
+
+    @Test(expected = IOException.class)
+    public void testThatLoadRejectsNegativeNumberOfParts() throws IOException {
+        final Path file = tempFolder.getRoot().toPath().resolve("wordbreaks.bin");
+        try (final DataOutputStream out = new DataOutputStream(Files.newOutputStream(file))) {
+            out.writeInt(CachingWordBreaker.MAGIC);
+            out.writeInt(CachingWordBreaker.FORMAT_VERSION);
+            out.writeInt(1);
+            out.writeInt(2);
+            out.write("ab".getBytes(StandardCharsets.UTF_8));
+            out.writeInt(3);
+            out.writeBoolean(false);
+            out.writeInt(1);
+            out.writeInt(-1);
+        }
+        new CachingWordBreaker(delegate, true, 100).load(file, termCorpus);
+    }
+
+    @Test
+    public void testThatKeyIsLowercasedLikeTheDelegateInput() throws IOException {
+        final CachingWordBreaker cache = new CachingWordBreaker(delegate, true, 100);
+        // String.toLowerCase turns U+0130 into two chars, LowerCaseCharSequence into 'i'
+        cache.breakWord("\u0130ab", termCorpus, 3, false);
+        cache.breakWord("iab", termCorpus, 3, false);
+        assertEquals(1, calls.get());
+        assertEquals(1, cache.getHitCount());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testThatMaxSizeMustBePositive() {
+        new CachingWordBreaker(delegate, true, 0);
+    }
+
+}
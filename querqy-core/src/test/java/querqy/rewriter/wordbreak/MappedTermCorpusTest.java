@@ -0,0 +1,169 @@
+/*
+ * SPDX-License-Identifier: Apache-2.0
+ *
+ * Copyright 2026 Querqy Contributors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package querqy.rewriter.wordbreak;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import querqy.BloomFilter;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.StringReader;
+import java.nio.ByteBuffer;
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class MappedTermCorpusTest {
+
+    private static final int HASH_FUNCTIONS = 3;
+
+    @Rule
+    public TemporaryFolder tempFolder = new TemporaryFolder();
+
+    private static String tsvLine(final String term, final int df, final String... cooccurring) {
+        final BloomFilter bf = new BloomFilter(128, HASH_FUNCTIONS);
+        for (final String cooc : cooccurring) {
+            bf.add(cooc);
+        }
+        return term + "\t" + df + "\t" + bf.toHex();
+    }
+
+    private static final String COOC_TSV = String.join("\n",
+            tsvLine("shoe", 10, "rack", "lace"),
+            tsvLine("rack", 5, "shoe"),
+            "",
+            tsvLine("größe", 7, "schuh"),
+            tsvLine("a", 1),
+            tsvLine("ab", 2, "shoe"),
+            tsvLine("shoe", 12, "box"));
+
+    private static final List<String> PROBES = List.of("shoe", "rack", "lace", "box", "größe", "schuh", "a", "ab",
+            "abc", "", "sho", "shoes", "zzz");
+
+    @Test
+    public void mappedCorpusBehavesLikeTsvCoocCorpus() throws IOException {
+        final Path file = tempFolder.getRoot().toPath().resolve("corpus.bin");
+        new MappedTermCorpusCompiler().reader(new StringReader(COOC_TSV)).hashFunctions(HASH_FUNCTIONS)
+                .compile(file);
+        final MappedTermCorpus mapped = MappedTermCorpus.open(file);
+        final TsvDfCoocTermCorpus tsv = TsvDfCoocTermCorpus.builder().reader(new StringReader(COOC_TSV))
+                .hashFunctions(HASH_FUNCTIONS).build();
+
+        assertEquals(5, mapped.size());
+        assertEquals(tsv.numDocs(), mapped.numDocs());
+        assertTrue(mapped.isCollationSupported());
+        assertEquals(12, mapped.docFreq("shoe"));
+        for (final String term1 : PROBES) {
+            assertEquals(term1, tsv.exists(term1), mapped.exists(term1));
+            assertEquals(term1, tsv.docFreq(term1), mapped.docFreq(term1));
+            for (final String term2 : PROBES) {
+                assertEquals(term1 + "/" + term2, tsv.coExist(term1, term2), mapped.coExist(term1, term2));
+            }
+        }
+        assertTrue(mapped.coExist("shoe", "box"));
+        assertFalse(mapped.coExist(new StringBuilder("rack"), "lace"));
+    }
+
+    @Test
+    public void mappedCorpusBehavesLikeTsvDfCorpus() throws IOException {
+        final String tsv = "shoe\t10\nrack\t5\ngröße\t7\n";
+        final MappedTermCorpus mapped = compile(new MappedTermCorpusCompiler().reader(new StringReader(tsv))
+                .numDocs(1000));
+        final TsvDfTermCorpus tsvCorpus = TsvDfTermCorpus.builder().reader(new StringReader(tsv)).numDocs(1000)
+                .build();
+
+        assertFalse(mapped.isCollationSupported());
+        assertEquals(1000, mapped.numDocs());
+        for (final String term : PROBES) {
+            assertEquals(term, tsvCorpus.exists(term), mapped.exists(term));
+            assertEquals(term, tsvCorpus.docFreq(term), mapped.docFreq(term));
+        }
+    }
+
+    @Test(expected = UnsupportedOperationException.class)
+    public void coExistThrowsWithoutCollationSupport() throws IOException {
+        compile(new MappedTermCorpusCompiler().reader(new StringReader("shoe\t10"))).coExist("shoe", "rack");
+    }
+
+    @Test
+    public void emptyCorpus() throws IOException {
+        final MappedTermCorpus mapped = compile(new MappedTermCorpusCompiler().reader(new StringReader("\n")));
+        assertEquals(0, mapped.size());
+        assertFalse(mapped.exists("shoe"));
+        assertEquals(0, mapped.docFreq("shoe"));
+    }
+
+    @Test(expected = IOException.class)
+    public void compileThrowsOnDifferentBloomSizes() throws IOException {
+        final BloomFilter small = new BloomFilter(64, HASH_FUNCTIONS);
+        compile(new MappedTermCorpusCompiler()
+                .reader(new StringReader(tsvLine("shoe", 10, "rack") + "\nrack\t5\t" + small.toHex()))
+                .hashFunctions(HASH_FUNCTIONS));
+    }
+
+    @Test(expected = IOException.class)
+    public void compileThrowsOnMissingBloomFilter() throws IOException {
+        compile(new MappedTermCorpusCompiler().reader(new StringReader("shoe\t10")).hashFunctions(HASH_FUNCTIONS));
+    }
+
+    @Test(expected = IOException.class)
+    public void compileThrowsOnZeroDocFreq() throws IOException {
+        compile(new MappedTermCorpusCompiler().reader(new StringReader("shoe\t0")));
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void compileThrowsWhenReaderIsMissing() throws IOException {
+        new MappedTermCorpusCompiler().compile(new ByteArrayOutputStream());
+    }
+
+    @Test
+    public void readThrowsOnTruncatedCorpus() throws IOException {
+        final ByteArrayOutputStream out = new ByteArrayOutputStream();
+        new MappedTermCorpusCompiler().reader(new StringReader(COOC_TSV)).hashFunctions(HASH_FUNCTIONS).compile(out);
+        final byte[] bytes = out.toByteArray();
+        for (final int length : new int[] {0, 7, 20, bytes.length / 2, bytes.length - 1}) {
+            try {
+                MappedTermCorpus.read(ByteBuffer.wrap(bytes, 0, length));
+                throw new AssertionError("Expected IOException for length " + length);
+            } catch (final IOException e) {
+                // expected
+            }
+        }
+    }
+
+    @Test(expected = IOException.class)
+    public void readThrowsOnUnsupportedVersion() throws IOException {
+        final ByteArrayOutputStream out = new ByteArrayOutputStream();
+        new MappedTermCorpusCompiler().reader(new StringReader("shoe\t10")).compile(out);
+        final ByteBuffer buffer = ByteBuffer.wrap(out.toByteArray());
+        buffer.putInt(4, MappedTermCorpus.FORMAT_VERSION + 1);
+        MappedTermCorpus.read(buffer);
+    }
+
+    private static MappedTermCorpus compile(final MappedTermCorpusCompiler compiler) throws IOException {
+        final ByteArrayOutputStream out = new ByteArrayOutputStream();
+        compiler.compile(out);
+        return MappedTermCorpus.read(ByteBuffer.wrap(out.toByteArray()));
+    }
+
+}
@@ -0,0 +1,221 @@
+/*
+ * SPDX-License-Identifier: Apache-2.0
+ *
+ * Copyright 2026 Querqy Contributors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package querqy.rewriter.wordbreak;
+
+import org.junit.AfterClass;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import querqy.BloomFilter;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.io.UncheckedIOException;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+public class MorphologicalWordBreakerTest {
+
+    private static final int HASH_FUNCTIONS = 3;
+
+    private static final Morphology GERMAN = new MorphologyProvider().get("GERMAN").get();
+
+    private static final List<String> WORDS = List.of("laufschuhe", "wanderschuhe", "damenlaufschuhe",
+            "herrenwanderhosen", "kinderfahrradhelm", "schuhe", "abc");
+
+    private static ExecutorService executor;
+    private static TermCorpus termCorpus;
+
+    @BeforeClass
+    public static void setUp() throws IOException {
+        executor = Executors.newFixedThreadPool(4);
+        final String[][] docs = {
+                {"lauf", "schuhe"}, {"wander", "schuhe"}, {"damen", "laufschuhe"}, {"damen", "lauf"},
+                {"herren", "wanderhosen"}, {"herren", "wander", "hosen"}, {"kinder", "fahrradhelm"},
+                {"kinder", "fahrrad", "helm"}, {"schuh"}, {"laufen", "schuhe"}, {"dam", "enlaufschuhe"}};
+        final StringBuilder tsv = new StringBuilder();
+        final Map<String, Integer> df = new TreeMap<>();
+        final Map<String, BloomFilter> cooc = new TreeMap<>();
+        for (final String[] doc : docs) {
+            for (final String term : doc) {
+                df.merge(term, 1, Integer::sum);
+                final BloomFilter bf = cooc.computeIfAbsent(term, t -> new BloomFilter(256, HASH_FUNCTIONS));
+                for (final String other : doc) {
+                    bf.add(other);
+                }
+            }
+        }
+        df.forEach((term, freq) -> tsv.append(term).append('\t').append(freq).append('\t')
+                .append(cooc.get(term).toHex()).append('\n'));
+        termCorpus = TsvDfCoocTermCorpus.builder().reader(new StringReader(tsv.toString()))
+                .hashFunctions(HASH_FUNCTIONS).numDocs(docs.length).build();
+    }
+
+    @AfterClass
+    public static void tearDown() {
+        executor.shutdown();
+    }
+
+    @Test
+    public void testThatParallelModeReturnsSameResultsAsSequentialMode() throws IOException {
+        for (final int maxEvaluations : new int[] {1, 2, 5, 100}) {
+            final MorphologicalWordBreaker sequential = new MorphologicalWordBreaker(GERMAN, true, 1, 3,
+                    maxEvaluations);
+            final MorphologicalWordBreaker parallel = new MorphologicalWordBreaker(GERMAN, true, 1, 3,
+                    maxEvaluations, MorphologicalWordBreaker.DEFAULT_WEIGHT_MORPHOLOGICAL_PATTERN, executor, 1);
+            for (final String word : WORDS) {
+                for (final int maxExpansions : new int[] {1, 2, 5}) {
+                    for (final boolean verifyCollation : new boolean[] {false, true}) {
+                        final String message = word + ", maxEvaluations=" + maxEvaluations + ", maxExpansions="
+                                + maxExpansions + ", verifyCollation=" + verifyCollation;
+                        assertEquals(message,
+                                toStrings(sequential.breakWord(word, termCorpus, maxExpansions, verifyCollation)),
+                                toStrings(parallel.breakWord(word, termCorpus, maxExpansions, verifyCollation)));
+                    }
+                }
+            }
+        }
+        assertFalse(new MorphologicalWordBreaker(GERMAN, true, 1, 3, 100,
+                MorphologicalWordBreaker.DEFAULT_WEIGHT_MORPHOLOGICAL_PATTERN, executor, 1)
+                .breakWord("laufschuhe", termCorpus, 5, true).isEmpty());
+    }
+
+    @Test
+    public void testThatCorpusIsProbedInBatches() throws IOException {
+        final BatchOnlyTermCorpus batchOnlyCorpus = new BatchOnlyTermCorpus(termCorpus);
+        final MorphologicalWordBreaker wordBreaker = new MorphologicalWordBreaker(GERMAN, true, 1, 3, 100);
+        for (final String word : WORDS) {
+            assertEquals(word, toStrings(wordBreaker.breakWord(word, termCorpus, 5, true)),
+                    toStrings(wordBreaker.breakWord(word, batchOnlyCorpus, 5, true)));
+        }
+        assertTrue(batchOnlyCorpus.docFreqsCalls > 0);
+        assertTrue(batchOnlyCorpus.coExistCalls > 0);
+    }
+
+    @Test
+    public void testThatParallelModeStopsSubmittingLookupsAfterMaxEvaluations() throws IOException {
+        final AtomicInteger headLookups = new AtomicInteger();
+        final TermCorpus countingCorpus = mock(TermCorpus.class);
+        when(countingCorpus.numDocs()).thenReturn(10);
+        when(countingCorpus.docFreq(any())).thenAnswer(invocation -> {
+            headLookups.incrementAndGet();
+            return 5;
+        });
+        when(countingCorpus.docFreqs(any())).thenAnswer(invocation -> {
+            final int[] docFreqs = new int[invocation.<List<?>>getArgument(0).size()];
+            Arrays.fill(docFreqs, 5);
+            return docFreqs;
+        });
+
+        final String word = "kinderfahrradhelm";
+        final int numWordBreaks = GERMAN.suggestWordBreaks(word, 3).size();
+        assertTrue(numWordBreaks > 2);
+
+        assertEquals(1, new MorphologicalWordBreaker(GERMAN, true, 1, 3, 1,
+                MorphologicalWordBreaker.DEFAULT_WEIGHT_MORPHOLOGICAL_PATTERN, executor, 2)
+                .breakWord(word, countingCorpus, 5, false).size());
+        // only the first batch of two word breaks
+        assertTrue(headLookups.get() <= 2);
+    }
+
+    @Test(expected = UncheckedIOException.class)
+    public void testThatCorpusExceptionIsRethrownInParallelMode() throws IOException {
+        final TermCorpus failingCorpus = mock(TermCorpus.class);
+        when(failingCorpus.numDocs()).thenReturn(10);
+        when(failingCorpus.docFreq(any())).thenThrow(new UncheckedIOException(new IOException("broken")));
+        new MorphologicalWordBreaker(GERMAN, true, 1, 3, 100,
+                MorphologicalWordBreaker.DEFAULT_WEIGHT_MORPHOLOGICAL_PATTERN, executor, 1)
+                .breakWord("laufschuhe", failingCorpus, 5, false);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testThatMinParallelWordBreaksMustBePositive() {
+        new MorphologicalWordBreaker(GERMAN, true, 1, 3, 100,
+                MorphologicalWordBreaker.DEFAULT_WEIGHT_MORPHOLOGICAL_PATTERN, executor, 0);
+    }
+
+    /**
+     * Only answers batch lookups, so that any single-term lookup fails the test.
+     */
+    private static class BatchOnlyTermCorpus implements TermCorpus {
+
+        final TermCorpus delegate;
+        int docFreqsCalls = 0;
+        int coExistCalls = 0;
+
+        BatchOnlyTermCorpus(final TermCorpus delegate) {
+            this.delegate = delegate;
+        }
+
+        @Override
+        public boolean exists(final CharSequence term) {
+            throw new AssertionError("Unexpected single-term lookup: " + term);
+        }
+
+        @Override
+        public int docFreq(final CharSequence term) {
+            throw new AssertionError("Unexpected single-term lookup: " + term);
+        }
+
+        @Override
+        public boolean coExist(final CharSequence term1, final CharSequence term2) {
+            throw new AssertionError("Unexpected single-pair lookup: " + term1 + ", " + term2);
+        }
+
+        @Override
+        public int[] docFreqs(final List<? extends CharSequence> terms) {
+            docFreqsCalls++;
+            return delegate.docFreqs(terms);
+        }
+
+        @Override
+        public boolean[] coExist(final List<? extends CharSequence> terms1, final CharSequence term2) {
+            coExistCalls++;
+            return delegate.coExist(terms1, term2);
+        }
+
+        @Override
+        public int numDocs() {
+            return delegate.numDocs();
+        }
+
+        @Override
+        public boolean isCollationSupported() {
+            return delegate.isCollationSupported();
+        }
+    }
+
+    private static List<List<String>> toStrings(final List<CharSequence[]> result) {
+        return result.stream()
+                .map(parts -> Arrays.stream(parts).map(CharSequence::toString).collect(Collectors.toList()))
+                .collect(Collectors.toList());
+    }
+
+}
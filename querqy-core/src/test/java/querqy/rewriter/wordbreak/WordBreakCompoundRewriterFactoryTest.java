@@ -243,6 +243,42 @@ public class WordBreakCompoundRewriterFactoryTest {
         assertEquals(OptionalModifierConfig.DISABLED, factory.getOptionalModifierConfig());
     }
 
+    @Test
+    public void testThatDecompoundResultsAreCachedIfConfigured() throws IOException {
+        final WordBreakCompoundRewriterFactory factory = new WordBreakCompoundRewriterFactory(
+                "w1", emptyCorpus(), true, 1, 1,
+                Collections.emptyList(), false, 2, false,
+                Collections.emptyList(), "DEFAULT", "DEFAULT", null, 1f,
+                DecompoundOptions.builder().cacheSize(10).build());
+
+        assertTrue(factory.getWordBreaker() instanceof CachingWordBreaker);
+    }
+
+    @Test
+    public void testThatDecompoundResultsAreNotCachedByDefault() throws IOException {
+        final WordBreakCompoundRewriterFactory factory = new WordBreakCompoundRewriterFactory(
+                "w1", emptyCorpus(), true, 1, 1,
+                Collections.emptyList(), false, 2, false,
+                Collections.emptyList(), "DEFAULT", "DEFAULT", null, 1f,
+                DecompoundOptions.defaultOptions());
+
+        assertTrue(factory.getWordBreaker() instanceof MorphologicalWordBreaker);
+    }
+
+    @Test
+    public void testThatFactoryThrowsForNegativeDecompoundCacheSize() throws IOException {
+        try {
+            new WordBreakCompoundRewriterFactory(
+                    "w1", emptyCorpus(), true, 1, 1,
+                    Collections.emptyList(), false, 2, false,
+                    Collections.emptyList(), "DEFAULT", "DEFAULT", null, 1f,
+                    DecompoundOptions.builder().cacheSize(-1).build());
+            fail("expected IllegalArgumentException");
+        } catch (final IllegalArgumentException e) {
+            // expected
+        }
+    }
+
     @Test
     public void testThatFactoryThrowsForUnknownOptionalModifierPosition() throws IOException {
         try {
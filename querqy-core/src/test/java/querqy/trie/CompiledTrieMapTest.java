@@ -0,0 +1,359 @@
+/*
+ * SPDX-License-Identifier: Apache-2.0
+ *
+ * Copyright 2026 Querqy Contributors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package querqy.trie;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.containsInAnyOrder;
+import static org.hamcrest.Matchers.empty;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.Test;
+
+public class CompiledTrieMapTest {
+
+    @Test
+    public void testThatEmptyMapAlwaysReturnsUnknownState() {
+        final CompiledTrieMap<Integer> map = CompiledTrieMap.compile(new TrieMap<>());
+        final State<Integer> state = map.get("abc").getStateForCompleteSequence();
+        assertFalse(state.isKnown());
+        assertEquals(-1, state.getIndex());
+        assertFalse(map.iterator().hasNext());
+        assertEquals(0, map.getNodeCount());
+    }
+
+    @Test
+    public void testThatBlankLookupSequenceReturnsUnknownState() {
+        final TrieMap<Integer> trieMap = new TrieMap<>();
+        trieMap.put("abc", 1);
+        final State<Integer> state = CompiledTrieMap.compile(trieMap).get("").getStateForCompleteSequence();
+        assertFalse(state.isKnown());
+        assertFalse(state.isFinal());
+    }
+
+    @Test
+    public void testKnownAndFinalStates() {
+        final TrieMap<Integer> trieMap = new TrieMap<>();
+        trieMap.put("abc", 1);
+        trieMap.put("abd", 2);
+        trieMap.put("b", 3);
+        final CompiledTrieMap<Integer> map = CompiledTrieMap.compile(trieMap);
+
+        assertEquals(5, map.getNodeCount());
+
+        State<Integer> state = map.get("ab").getStateForCompleteSequence();
+        assertTrue(state.isKnown());
+        assertFalse(state.isFinal());
+        assertEquals(1, state.getIndex());
+
+        state = map.get("abd").getStateForCompleteSequence();
+        assertTrue(state.isFinal());
+        assertEquals(Integer.valueOf(2), state.getValue());
+        assertEquals(2, state.getIndex());
+
+        state = map.get("b").getStateForCompleteSequence();
+        assertTrue(state.isFinal());
+        assertEquals(Integer.valueOf(3), state.getValue());
+
+        assertFalse(map.get("abe").getStateForCompleteSequence().isKnown());
+        assertFalse(map.get("abcd").getStateForCompleteSequence().isKnown());
+        assertFalse(map.get("c").getStateForCompleteSequence().isKnown());
+        assertSame(States.unknown(), map.get("c"));
+    }
+
+    @Test
+    public void testResumingFromKnownState() {
+        final TrieMap<Integer> trieMap = new TrieMap<>();
+        trieMap.put("ab", 1);
+        trieMap.put("ab cd", 2);
+        final CompiledTrieMap<Integer> map = CompiledTrieMap.compile(trieMap);
+
+        final State<Integer> state = map.get("ab").getStateForCompleteSequence();
+        assertTrue(state.isFinal());
+
+        final State<Integer> next = map.get(" cd", state).getStateForCompleteSequence();
+        assertTrue(next.isFinal());
+        assertEquals(Integer.valueOf(2), next.getValue());
+
+        assertFalse(map.get(" ce", state).getStateForCompleteSequence().isKnown());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testThatResumingFromUnknownStateThrowsException() {
+        final TrieMap<Integer> trieMap = new TrieMap<>();
+        trieMap.put("ab", 1);
+        final CompiledTrieMap<Integer> map = CompiledTrieMap.compile(trieMap);
+        map.get("b", map.get("x").getStateForCompleteSequence());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testThatResumingFromStateOfMutableTrieMapThrowsException() {
+        final TrieMap<Integer> trieMap = new TrieMap<>();
+        trieMap.put("ab", 1);
+        CompiledTrieMap.compile(trieMap).get("b", trieMap.get("a").getStateForCompleteSequence());
+    }
+
+    @Test(expected = UnsupportedOperationException.class)
+    public void testThatPutIsNotSupported() {
+        CompiledTrieMap.compile(new TrieMap<Integer>()).put("a", 1);
+    }
+
+    @Test
+    public void testPrefixes() {
+        final TrieMap<Integer> trieMap = new TrieMap<>();
+        trieMap.putPrefix("ab", 1);
+        trieMap.putPrefix("abcd", 2);
+        trieMap.put("abcdef", 3);
+        final CompiledTrieMap<Integer> map = CompiledTrieMap.compile(trieMap);
+
+        final States<Integer> states = map.get("abcdefg");
+        assertFalse(states.getStateForCompleteSequence().isKnown());
+        final List<State<Integer>> prefixes = states.getPrefixes();
+        assertEquals(2, prefixes.size());
+        // deepest prefix first, like in TrieMap
+        assertEquals(Integer.valueOf(2), prefixes.get(0).getValue());
+        assertEquals(3, prefixes.get(0).getIndex());
+        assertEquals(Integer.valueOf(1), prefixes.get(1).getValue());
+        assertEquals(1, prefixes.get(1).getIndex());
+
+        // the prefix must be followed by at least one char
+        assertNull(map.get("ab").getPrefixes());
+    }
+
+    @Test
+    public void testThatMissReturnsSharedUnknownStates() {
+        final TrieMap<Integer> trieMap = new TrieMap<>();
+        trieMap.put("abc", 1);
+        final CompiledTrieMap<Integer> map = CompiledTrieMap.compile(trieMap);
+
+        assertSame(States.unknown(), map.get("x"));
+        assertSame(States.unknown(), map.get("abcd"));
+        final State<Integer> ab = map.get("ab").getStateForCompleteSequence();
+        assertSame(States.unknown(), map.get("x", ab));
+    }
+
+    @Test
+    public void testIteratorReturnsAllValues() {
+        final TrieMap<Integer> trieMap = new TrieMap<>();
+        trieMap.put("b", 1);
+        trieMap.put("ab", 2);
+        trieMap.putPrefix("ab", 3);
+        trieMap.put("a", 4);
+        final CompiledTrieMap<Integer> map = CompiledTrieMap.compile(trieMap);
+
+        final List<Integer> values = new ArrayList<>();
+        for (final Integer value : map) {
+            values.add(value);
+        }
+        assertThat(values, contains(4, 2, 3, 1));
+    }
+
+    @Test
+    public void testCollectPartialMatchValues() {
+        final TrieMap<Integer> trieMap = new TrieMap<>();
+        trieMap.put("a", 1);
+        trieMap.put("abc", 2);
+        trieMap.put("abcde", 3);
+        final CompiledTrieMap<Integer> map = CompiledTrieMap.compile(trieMap);
+
+        assertThat(map.collectPartialMatchValues("abcdx"), contains(1, 2));
+        assertThat(map.collectPartialMatchValues("x"), empty());
+        assertThat(map.collectPartialMatchValues(""), empty());
+    }
+
+    @Test
+    public void testThatLookupsEqualTheLookupsInTheMutableTrieMap() {
+        final Random random = new Random(42L);
+        final TrieMap<Integer> trieMap = new TrieMap<>();
+        final List<String> keys = new ArrayList<>();
+        for (int i = 0; i < 2000; i++) {
+            final String key = randomString(random);
+            keys.add(key);
+            if (random.nextInt(5) == 0) {
+                trieMap.putPrefix(key, i);
+            } else {
+                trieMap.put(key, i);
+            }
+        }
+
+        final CompiledTrieMap<Integer> map = CompiledTrieMap.compile(trieMap);
+
+        final List<Integer> expectedValues = new ArrayList<>();
+        trieMap.forEach(expectedValues::add);
+        final List<Integer> actualValues = new ArrayList<>();
+        map.forEach(actualValues::add);
+        assertThat(actualValues, containsInAnyOrder(expectedValues.toArray()));
+
+        final LookupCursor<Integer> cursor = new LookupCursor<>();
+        final LookupCursor<Integer> mutableCursor = new LookupCursor<>();
+        for (int i = 0; i < 5000; i++) {
+            final String seq = i < keys.size()
+                    ? keys.get(i) + (random.nextBoolean() ? "" : randomString(random))
+                    : randomString(random);
+            assertSameStates(trieMap.get(seq), map.get(seq));
+            map.lookup(seq, cursor);
+            assertSameStates(trieMap.get(seq), cursor.toStates());
+            trieMap.lookup(seq, mutableCursor);
+            assertSameStates(trieMap.get(seq), mutableCursor.toStates());
+            assertEquals(trieMap.collectPartialMatchValues(seq), map.collectPartialMatchValues(seq));
+
+            final State<Integer> mutableState = trieMap.get(seq).getStateForCompleteSequence();
+            if (mutableState.isKnown()) {
+                final String next = " " + randomString(random);
+                final State<Integer> compiledState = map.get(seq).getStateForCompleteSequence();
+                assertSameStates(trieMap.get(next, mutableState), map.get(next, compiledState));
+                map.lookup(next, compiledState, cursor);
+                assertSameStates(trieMap.get(next, mutableState), cursor.toStates());
+            }
+        }
+    }
+
+    @Test
+    public void testThatToTrieMapKeepsAllValues() {
+        final Random random = new Random(11L);
+        final TrieMap<Integer> trieMap = new TrieMap<>();
+        final List<String> keys = new ArrayList<>();
+        for (int i = 0; i < 500; i++) {
+            final String key = randomString(random);
+            keys.add(key);
+            if (random.nextInt(5) == 0) {
+                trieMap.putPrefix(key, i);
+            } else {
+                trieMap.put(key, i);
+            }
+        }
+
+        final TrieMap<Integer> copy = CompiledTrieMap.compile(trieMap).toTrieMap();
+        assertFalse(copy instanceof ArrayTrieMap);
+
+        final List<Integer> expectedValues = new ArrayList<>();
+        trieMap.forEach(expectedValues::add);
+        final List<Integer> actualValues = new ArrayList<>();
+        copy.forEach(actualValues::add);
+        assertThat(actualValues, containsInAnyOrder(expectedValues.toArray()));
+
+        for (final String key : keys) {
+            final String seq = key + (random.nextBoolean() ? "" : randomString(random));
+            assertSameStates(trieMap.get(seq), copy.get(seq));
+        }
+    }
+
+    @Test(expected = UnsupportedOperationException.class)
+    public void testThatCopyWithIsNotSupported() {
+        CompiledTrieMap.compile(new TrieMap<Integer>()).copyWith("a", 1, false);
+    }
+
+    @Test
+    public void testThatMappedTrieMapEqualsCompiledTrieMap() throws IOException {
+        final Random random = new Random(7L);
+        final TrieMap<Integer> trieMap = new TrieMap<>();
+        for (int i = 0; i < 1000; i++) {
+            if (random.nextInt(5) == 0) {
+                trieMap.putPrefix(randomString(random), i);
+            } else {
+                trieMap.put(randomString(random), i);
+            }
+        }
+        final CompiledTrieMap<Integer> map = CompiledTrieMap.compile(trieMap);
+
+        final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (final DataOutputStream out = new DataOutputStream(bytes)) {
+            out.writeInt(42);
+            map.writeTo(out, value -> value);
+            out.writeInt(43);
+        }
+        final ByteBuffer buffer = ByteBuffer.wrap(bytes.toByteArray());
+        assertEquals(42, buffer.getInt());
+        final MappedTrieMap<Integer> mappedMap = MappedTrieMap.read(buffer, valueId -> valueId);
+        assertEquals(43, buffer.getInt());
+        assertFalse(buffer.hasRemaining());
+
+        assertEquals(map.getNodeCount(), mappedMap.getNodeCount());
+        final List<Integer> expectedValues = new ArrayList<>();
+        map.forEach(expectedValues::add);
+        final List<Integer> actualValues = new ArrayList<>();
+        mappedMap.forEach(actualValues::add);
+        assertEquals(expectedValues, actualValues);
+
+        for (int i = 0; i < 5000; i++) {
+            final String seq = randomString(random);
+            assertSameStates(map.get(seq), mappedMap.get(seq));
+            final State<Integer> state = map.get(seq).getStateForCompleteSequence();
+            if (state.isKnown()) {
+                final String next = " " + randomString(random);
+                assertSameStates(map.get(next, state),
+                        mappedMap.get(next, mappedMap.get(seq).getStateForCompleteSequence()));
+            }
+        }
+    }
+
+    @Test(expected = IOException.class)
+    public void testThatTruncatedDataCannotBeMapped() throws IOException {
+        final TrieMap<Integer> trieMap = new TrieMap<>();
+        trieMap.put("abc", 1);
+        final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        CompiledTrieMap.compile(trieMap).writeTo(new DataOutputStream(bytes), value -> value);
+        MappedTrieMap.read(ByteBuffer.wrap(bytes.toByteArray(), 0, bytes.size() - 4).slice(), valueId -> valueId);
+    }
+
+    private static String randomString(final Random random) {
+        final int length = 1 + random.nextInt(6);
+        final StringBuilder sb = new StringBuilder(length);
+        for (int i = 0; i < length; i++) {
+            // small alphabet to get many shared prefixes, plus the occasional blank
+            sb.append(random.nextInt(12) == 0 ? ' ' : (char) ('a' + random.nextInt(20)));
+        }
+        return sb.toString();
+    }
+
+    private static void assertSameStates(final States<Integer> expected, final States<Integer> actual) {
+        assertSameState(expected.getStateForCompleteSequence(), actual.getStateForCompleteSequence());
+        final List<State<Integer>> expectedPrefixes = expected.getPrefixes();
+        final List<State<Integer>> actualPrefixes = actual.getPrefixes();
+        if (expectedPrefixes == null) {
+            assertNull(actualPrefixes);
+        } else {
+            assertEquals(expectedPrefixes.size(), actualPrefixes.size());
+            final Iterator<State<Integer>> it = actualPrefixes.iterator();
+            for (final State<Integer> expectedPrefix : expectedPrefixes) {
+                assertSameState(expectedPrefix, it.next());
+            }
+        }
+    }
+
+    private static void assertSameState(final State<Integer> expected, final State<Integer> actual) {
+        assertEquals(expected.isKnown(), actual.isKnown());
+        assertEquals(expected.isFinal(), actual.isFinal());
+        assertEquals(expected.getValue(), actual.getValue());
+        assertEquals(expected.getIndex(), actual.getIndex());
+    }
+
+}
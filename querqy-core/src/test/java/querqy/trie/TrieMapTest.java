@@ -328,6 +328,116 @@ public class TrieMapTest {
         
     }
     
+    @Test
+    public void testThatMissReturnsSharedUnknownStates() throws Exception {
+        TrieMap<Integer> map = new TrieMap<>();
+        map.put("abc", 1);
+        assertSame(States.unknown(), map.get("x"));
+        assertSame(States.unknown(), map.get("abcd"));
+        assertSame(States.unknown(), map.get(""));
+        assertSame(States.unknown(), new TrieMap<Integer>().get("a"));
+        assertSame(State.unknown(), map.get("x").getStateForCompleteSequence());
+    }
+
+    @Test(expected = UnsupportedOperationException.class)
+    public void testThatSharedUnknownStatesCannotBeChanged() throws Exception {
+        States.<Integer>unknown().addPrefix(new State<>(true, 1, null, 0));
+    }
+
+    @Test
+    public void testThatPrefixMatchDoesNotChangeSharedUnknownStates() throws Exception {
+        TrieMap<Integer> map = new TrieMap<>();
+        map.putPrefix("ab", 1);
+        States<Integer> states = map.get("abx");
+        assertNotSame(States.unknown(), states);
+        assertEquals(1, states.getPrefixes().size());
+        assertNull(States.unknown().getPrefixes());
+    }
+
+    @Test
+    public void testLookupWithCursor() throws Exception {
+        TrieMap<Integer> map = new TrieMap<>();
+        map.put("ab", 1);
+        map.put("ab cd", 2);
+        map.putPrefix("a", 3);
+        map.putPrefix("ab c", 4);
+
+        LookupCursor<Integer> cursor = new LookupCursor<>();
+
+        map.lookup("ab", cursor);
+        assertTrue(cursor.isKnown());
+        assertTrue(cursor.isFinal());
+        assertEquals(Integer.valueOf(1), cursor.getValue());
+        assertEquals(1, cursor.getIndex());
+        assertEquals(1, cursor.getNumPrefixes());
+        assertThat(cursor.getStateForCompleteSequence(), state(true, true, 1, 1));
+        assertSame(cursor.toStates(), cursor.toStates());
+
+        State<Integer> ab = cursor.getStateForCompleteSequence();
+        map.lookup(" cde", ab, cursor);
+        assertFalse(cursor.isKnown());
+        assertTrue(cursor.hasMatch());
+        States<Integer> expected = map.get(" cde", ab);
+        States<Integer> actual = cursor.toStates();
+        assertEquals(expected.getPrefixes().size(), actual.getPrefixes().size());
+        assertThat(actual.getPrefixes().get(0), state(true, true, 0, 4));
+
+        map.lookup("x", cursor);
+        assertFalse(cursor.isKnown());
+        assertFalse(cursor.hasMatch());
+        assertEquals(0, cursor.getNumPrefixes());
+        assertEquals(-1, cursor.getIndex());
+        assertSame(States.unknown(), cursor.toStates());
+    }
+
+    @Test
+    public void testCopyWithChangesOnlyTheCopy() throws Exception {
+        TrieMap<Integer> map = new TrieMap<>();
+        map.put("ab", 1);
+        map.put("ac", 2);
+        map.put("b", 3);
+
+        TrieMap<Integer> copy = map.copyWith("ac", 4, false)
+                .copyWith("ad", 5, false)
+                .copyWith("a", 6, true)
+                .copyWith("b", null, false);
+
+        assertEquals(Integer.valueOf(2), map.get("ac").getStateForCompleteSequence().value);
+        assertFalse(map.get("ad").getStateForCompleteSequence().isKnown());
+        assertNull(map.get("ab").getPrefixes());
+        assertEquals(Integer.valueOf(3), map.get("b").getStateForCompleteSequence().value);
+
+        assertEquals(Integer.valueOf(1), copy.get("ab").getStateForCompleteSequence().value);
+        assertEquals(Integer.valueOf(4), copy.get("ac").getStateForCompleteSequence().value);
+        assertEquals(Integer.valueOf(5), copy.get("ad").getStateForCompleteSequence().value);
+        assertThat(copy.get("ab").getPrefixes(), contains(state(true, true, 0, 6)));
+        assertTrue(copy.get("b").getStateForCompleteSequence().isKnown());
+        assertNull(copy.get("b").getStateForCompleteSequence().value);
+
+        assertNull(copy.copyWith("a", null, true).get("ab").getPrefixes());
+    }
+
+    @Test
+    public void testThatCopyWithSharesNodesThatAreNotOnThePath() throws Exception {
+        TrieMap<Integer> map = new TrieMap<>();
+        map.put("xy", 1);
+        map.put("ab", 2);
+
+        TrieMap<Integer> copy = map.copyWith("ab", 3, false);
+
+        assertSame(map.get("xy").getStateForCompleteSequence().node,
+                copy.get("xy").getStateForCompleteSequence().node);
+        assertNotSame(map.get("ab").getStateForCompleteSequence().node,
+                copy.get("ab").getStateForCompleteSequence().node);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testThatLookupWithCursorFromUnknownStateThrowsException() throws Exception {
+        TrieMap<Integer> map = new TrieMap<>();
+        map.put("ab", 1);
+        map.lookup("b", State.unknown(), new LookupCursor<>());
+    }
+
     public static <T> StateMatcher<T> state(boolean isKnown, boolean isFinal, int index, T value) {
         return new StateMatcher<T>(isKnown, isFinal, index, value);
     }
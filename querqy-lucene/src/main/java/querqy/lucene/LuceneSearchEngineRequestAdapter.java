@@ -23,7 +23,9 @@ import org.apache.lucene.search.Query;
 import querqy.lucene.rewrite.infologging.InfoLoggingContext;
 import querqy.rewrite.SearchEngineRequestAdapter;
 import querqy.lucene.rewrite.SearchFieldsAndBoosting.FieldBoostModel;
+import querqy.lucene.rewrite.cache.PrecompiledQueryCache;
 import querqy.lucene.rewrite.cache.TermQueryCache;
+import querqy.lucene.rewrite.prms.PRMSFieldProbabilityCache;
 import querqy.model.ExpandedQuery;
 import querqy.model.QuerqyQuery;
 import querqy.model.RawQuery;
@@ -83,6 +85,29 @@ public interface LuceneSearchEngineRequestAdapter extends SearchEngineRequestAda
      */
     Optional<TermQueryCache> getTermQueryCache();
 
+    /**
+     * <p>Get an optional {@link PrecompiledQueryCache} for the Lucene queries that are built from Querqy filter and
+     * boost queries.</p>
+     *
+     * <p>Only return a cache if {@link #rawQueryToQuery(RawQuery)} creates the same query for the same raw query
+     * string in all requests that share the cache.</p>
+     *
+     * @return The optional PrecompiledQueryCache. Defaults to empty.
+     */
+    default Optional<PrecompiledQueryCache> getPrecompiledQueryCache() {
+        return Optional.empty();
+    }
+
+    /**
+     * Get an optional {@link PRMSFieldProbabilityCache}, which is used if the field boost model is
+     * {@link FieldBoostModel#PRMS}.
+     *
+     * @return The optional PRMSFieldProbabilityCache. Defaults to empty.
+     */
+    default Optional<PRMSFieldProbabilityCache> getPRMSFieldProbabilityCache() {
+        return Optional.empty();
+    }
+
     /**
      * <p>Should Querqy boost queries be added to the main query?</p>
      *
@@ -18,42 +18,73 @@
 package querqy.lucene;
 
 import org.apache.lucene.index.IndexReader;
-import org.apache.lucene.index.IndexReaderContext;
 import org.apache.lucene.index.LeafReaderContext;
 import org.apache.lucene.index.PostingsEnum;
-import org.apache.lucene.index.Term;
 import org.apache.lucene.index.Terms;
 import org.apache.lucene.index.TermsEnum;
 import org.apache.lucene.search.DocIdSetIterator;
-import org.apache.lucene.search.IndexSearcher;
 import org.apache.lucene.util.BytesRef;
 import querqy.rewriter.wordbreak.TermCorpus;
 
 import java.io.IOException;
 import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.function.Supplier;
 
 /**
  * {@link TermCorpus} implementation backed by a Lucene index field.
  * The {@code dictionaryField} and any case-normalization are encapsulated here;
  * callers pass plain {@link CharSequence} values that are already normalized.
+ *
+ * <p>DocFreqs and co-existence results are cached per {@link IndexReader}. The cache is dropped as soon as the
+ * supplier returns a different reader and it is flushed when it grows beyond maxCacheEntries.</p>
  */
 public class LuceneTermCorpus implements TermCorpus {
 
+    public static final int DEFAULT_MAX_CACHE_ENTRIES = 10_000;
+
     private final Supplier<IndexReader> indexReaderSupplier;
     private final String dictionaryField;
+    private final int maxCacheEntries;
+    private volatile ReaderCache cache;
 
     public LuceneTermCorpus(final Supplier<IndexReader> indexReaderSupplier, final String dictionaryField) {
-        this.indexReaderSupplier = indexReaderSupplier;
-        this.dictionaryField = dictionaryField;
+        this(indexReaderSupplier, dictionaryField, DEFAULT_MAX_CACHE_ENTRIES);
     }
 
-    private IndexReader reader() {
-        return indexReaderSupplier.get();
+    /**
+     * @param indexReaderSupplier Supplies the current index reader
+     * @param dictionaryField The field to look up terms in
+     * @param maxCacheEntries The max. number of docFreqs and co-existence results to cache per reader. 0 disables
+     *                        caching.
+     */
+    public LuceneTermCorpus(final Supplier<IndexReader> indexReaderSupplier, final String dictionaryField,
+                            final int maxCacheEntries) {
+        if (maxCacheEntries < 0) {
+            throw new IllegalArgumentException("maxCacheEntries must not be negative");
+        }
+        this.indexReaderSupplier = indexReaderSupplier;
+        this.dictionaryField = dictionaryField;
+        this.maxCacheEntries = maxCacheEntries;
     }
 
-    private Term toTerm(final CharSequence value) {
-        return new Term(dictionaryField, new BytesRef(value));
+    private ReaderCache cache() {
+        final IndexReader reader = indexReaderSupplier.get();
+        final ReaderCache c = cache;
+        if (c != null && c.reader == reader) {
+            return c;
+        }
+        final ReaderCache newCache = new ReaderCache(reader);
+        cache = newCache;
+        return newCache;
     }
 
     @Override
@@ -61,6 +92,14 @@ public class LuceneTermCorpus implements TermCorpus {
         return true;
     }
 
+    /**
+     * @return The current index reader
+     */
+    @Override
+    public Object getCacheVersion() {
+        return indexReaderSupplier.get();
+    }
+
     @Override
     public boolean exists(final CharSequence term) {
         return docFreq(term) > 0;
@@ -68,105 +107,228 @@ public class LuceneTermCorpus implements TermCorpus {
 
     @Override
     public int docFreq(final CharSequence term) {
-        try {
-            return reader().docFreq(toTerm(term));
-        } catch (final IOException e) {
-            throw new UncheckedIOException(e);
+        final Integer cached = cache().docFreqs.get(term.toString());
+        return cached != null ? cached : docFreqs(List.of(term))[0];
+    }
+
+    @Override
+    public int[] docFreqs(final List<? extends CharSequence> terms) {
+        final ReaderCache c = cache();
+        final int[] docFreqs = new int[terms.size()];
+        final List<String> missing = new ArrayList<>();
+        final List<Integer> missingIndexes = new ArrayList<>();
+        for (int i = 0; i < docFreqs.length; i++) {
+            final String term = terms.get(i).toString();
+            final Integer df = c.docFreqs.get(term);
+            if (df != null) {
+                docFreqs[i] = df;
+            } else {
+                missing.add(term);
+                missingIndexes.add(i);
+            }
+        }
+        if (missing.isEmpty()) {
+            return docFreqs;
         }
+
+        final Map<String, Integer> read = readDocFreqs(c.reader, missing);
+        for (int i = 0; i < missing.size(); i++) {
+            final String term = missing.get(i);
+            final int df = read.get(term);
+            docFreqs[missingIndexes.get(i)] = df;
+            c.put(c.docFreqs, term, df);
+        }
+        return docFreqs;
     }
 
     @Override
     public int numDocs() {
-        return reader().numDocs();
+        return indexReaderSupplier.get().numDocs();
     }
 
     @Override
     public boolean coExist(final CharSequence term1, final CharSequence term2) {
-        final Term t1 = toTerm(term1);
-        final Term t2 = toTerm(term2);
-        try {
-            return hasMinMatches(1, t1, t2);
-        } catch (final IOException e) {
-            throw new UncheckedIOException(e);
-        }
+        final Boolean cached = cache().coExist.get(new TermPair(term1.toString(), term2.toString()));
+        return cached != null ? cached : coExist(term1, List.of(term2))[0];
     }
 
-    private boolean hasMinMatches(final int minCount, final Term term1, final Term term2)
-            throws IOException {
+    @Override
+    public boolean[] coExist(final CharSequence term1, final List<? extends CharSequence> terms2) {
+        final ReaderCache c = cache();
+        final String t1 = term1.toString();
+        final boolean[] coExist = new boolean[terms2.size()];
 
-        final IndexSearcher searcher = new IndexSearcher(reader());
-        final IndexReaderContext topReaderContext = searcher.getTopReaderContext();
-        final IndexReader indexReader = topReaderContext.reader();
-        // TODO: deleted documents?
-        final int numDocs = indexReader.numDocs();
-        if (minCount > numDocs) {
-            return false;
+        final List<String> missing = new ArrayList<>();
+        final List<Integer> missingIndexes = new ArrayList<>();
+        for (int i = 0; i < coExist.length; i++) {
+            final String t2 = terms2.get(i).toString();
+            final Boolean cached = c.coExist.get(new TermPair(t1, t2));
+            if (cached != null) {
+                coExist[i] = cached;
+            } else {
+                missing.add(t2);
+                missingIndexes.add(i);
+            }
         }
-
-        final int df1 = indexReader.docFreq(term1);
-        if (minCount > df1) {
-            return false;
+        if (missing.isEmpty()) {
+            return coExist;
         }
 
-        final int df2 = indexReader.docFreq(term2);
-        if (minCount > df2) {
-            return false;
+        final List<String> probe = new ArrayList<>(missing.size());
+        final List<String> all = new ArrayList<>(missing.size() + 1);
+        all.add(t1);
+        all.addAll(missing);
+        final int[] docFreqs = docFreqs(all);
+        if (docFreqs[0] > 0) {
+            for (int i = 0; i < missing.size(); i++) {
+                if (docFreqs[i + 1] > 0) {
+                    probe.add(missing.get(i));
+                }
+            }
         }
 
-        int count = 0;
-
-        for (final LeafReaderContext context : topReaderContext.leaves()) {
+        final Set<String> found = probe.isEmpty() ? Set.of() : findCoExisting(c.reader, t1, probe);
+        for (int i = 0; i < missing.size(); i++) {
+            final String t2 = missing.get(i);
+            final boolean result = found.contains(t2);
+            coExist[missingIndexes.get(i)] = result;
+            c.put(c.coExist, new TermPair(t1, t2), result);
+        }
+        return coExist;
+    }
 
-            final Terms terms1 = context.reader().terms(term1.field());
+    /**
+     * Co-occurrence in the index is symmetric, so this seeks {@code term2} once and intersects its postings with
+     * those of all {@code terms1}, like {@link #coExist(CharSequence, List)}.
+     */
+    @Override
+    public boolean[] coExist(final List<? extends CharSequence> terms1, final CharSequence term2) {
+        return coExist(term2, terms1);
+    }
 
-            if (terms1 != null) {
+    /**
+     * Seeks all terms in sorted order, once per segment, and sums up their docFreqs.
+     */
+    private Map<String, Integer> readDocFreqs(final IndexReader reader, final Collection<String> terms) {
+        final TreeMap<BytesRef, String> sorted = sortByBytes(terms);
+        final int[] docFreqs = new int[sorted.size()];
+        try {
+            for (final LeafReaderContext context : reader.leaves()) {
+                final Terms fieldTerms = context.reader().terms(dictionaryField);
+                if (fieldTerms == null) {
+                    continue;
+                }
+                final TermsEnum termsEnum = fieldTerms.iterator();
+                int i = 0;
+                for (final BytesRef bytes : sorted.keySet()) {
+                    if (termsEnum.seekExact(bytes)) {
+                        docFreqs[i] += termsEnum.docFreq();
+                    }
+                    i++;
+                }
+            }
+        } catch (final IOException e) {
+            throw new UncheckedIOException(e);
+        }
 
-                final Terms terms2 = context.reader().terms(term2.field());
-                if (terms2 != null) {
+        final Map<String, Integer> result = new HashMap<>();
+        int i = 0;
+        for (final String term : sorted.values()) {
+            result.put(term, docFreqs[i++]);
+        }
+        return result;
+    }
 
-                    final TermsEnum termsEnum1 = terms1.iterator();
-                    if (!termsEnum1.seekExact(term1.bytes())) {
-                        continue;
-                    }
+    /**
+     * Seeks term1 once per segment and then the other terms in sorted order, intersecting the postings of term1
+     * with the postings of each other term that has not yet been found in a previous segment.
+     */
+    private Set<String> findCoExisting(final IndexReader reader, final String term1, final Collection<String> terms2) {
+        // TODO: deleted documents?
+        final BytesRef bytes1 = new BytesRef(term1);
+        final TreeMap<BytesRef, String> sorted = sortByBytes(terms2);
+        final Set<String> found = new HashSet<>();
 
-                    final TermsEnum termsEnum2 = terms2.iterator();
-                    if (!termsEnum2.seekExact(term2.bytes())) {
+        try {
+            for (final LeafReaderContext context : reader.leaves()) {
+                final Terms fieldTerms = context.reader().terms(dictionaryField);
+                if (fieldTerms == null) {
+                    continue;
+                }
+                final TermsEnum termsEnum1 = fieldTerms.iterator();
+                if (!termsEnum1.seekExact(bytes1)) {
+                    continue;
+                }
+                final TermsEnum termsEnum2 = fieldTerms.iterator();
+                PostingsEnum postings1 = null;
+                PostingsEnum postings2 = null;
+                for (final Map.Entry<BytesRef, String> entry : sorted.entrySet()) {
+                    if (found.contains(entry.getValue()) || !termsEnum2.seekExact(entry.getKey())) {
                         continue;
                     }
-
-                    final PostingsEnum postings1 = termsEnum1.postings(null, PostingsEnum.NONE);
-                    final PostingsEnum postings2 = termsEnum2.postings(null, PostingsEnum.NONE);
-
-                    int doc1 = postings1.nextDoc();
-                    while (doc1 != DocIdSetIterator.NO_MORE_DOCS) {
-                        int doc2 = postings2.advance(doc1);
-                        if (doc2 == DocIdSetIterator.NO_MORE_DOCS) {
-                            break;
-                        }
-                        if (doc2 == doc1) {
-                            count++;
-                            if (count >= minCount) {
-                                return true;
-                            }
-                        } else if (doc2 > doc1) {
-                            doc1 = postings1.advance(doc2);
-                            if (doc2 == doc1) {
-                                count++;
-                                if (count >= minCount) {
-                                    return true;
-                                }
-                            }
-                        }
+                    postings1 = termsEnum1.postings(postings1, PostingsEnum.NONE);
+                    postings2 = termsEnum2.postings(postings2, PostingsEnum.NONE);
+                    if (intersects(postings1, postings2)) {
+                        found.add(entry.getValue());
                     }
-
                 }
+                if (found.size() == sorted.size()) {
+                    break;
+                }
+            }
+        } catch (final IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return found;
+    }
 
+    private static boolean intersects(final PostingsEnum postings1, final PostingsEnum postings2) throws IOException {
+        int doc1 = postings1.nextDoc();
+        while (doc1 != DocIdSetIterator.NO_MORE_DOCS) {
+            final int doc2 = postings2.advance(doc1);
+            if (doc2 == DocIdSetIterator.NO_MORE_DOCS) {
+                return false;
             }
+            if (doc2 == doc1) {
+                return true;
+            }
+            doc1 = postings1.advance(doc2);
+            if (doc1 == doc2) {
+                return true;
+            }
+        }
+        return false;
+    }
 
+    private static TreeMap<BytesRef, String> sortByBytes(final Collection<String> terms) {
+        final TreeMap<BytesRef, String> sorted = new TreeMap<>();
+        for (final String term : terms) {
+            sorted.put(new BytesRef(term), term);
         }
+        return sorted;
+    }
 
-        return false;
+    private record TermPair(String term1, String term2) {}
+
+    private final class ReaderCache {
 
+        final IndexReader reader;
+        final Map<String, Integer> docFreqs = new ConcurrentHashMap<>();
+        final Map<TermPair, Boolean> coExist = new ConcurrentHashMap<>();
+
+        ReaderCache(final IndexReader reader) {
+            this.reader = reader;
+        }
+
+        <K, V> void put(final Map<K, V> map, final K key, final V value) {
+            if (maxCacheEntries == 0) {
+                return;
+            }
+            if (map.size() >= maxCacheEntries) {
+                map.clear();
+            }
+            map.put(key, value);
+        }
     }
 
 }
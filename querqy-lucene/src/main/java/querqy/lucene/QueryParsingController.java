@@ -35,17 +35,20 @@ import org.apache.lucene.search.MatchAllDocsQuery;
 import org.apache.lucene.search.Query;
 import querqy.lucene.LuceneSearchEngineRequestAdapter.SyntaxException;
 import querqy.lucene.rewrite.AdditiveBoostFunction;
+import querqy.lucene.rewrite.AnalyzedTerms;
 import querqy.lucene.rewrite.DocumentFrequencyCorrection;
 import querqy.lucene.rewrite.LuceneQueryBuilder;
 import querqy.lucene.rewrite.LuceneTermQueryBuilder;
 import querqy.lucene.rewrite.SearchFieldsAndBoosting;
 import querqy.lucene.rewrite.SearchFieldsAndBoosting.FieldBoostModel;
 import querqy.lucene.rewrite.TermQueryBuilder;
+import querqy.lucene.rewrite.cache.PrecompiledQueryCache;
 import querqy.model.BoostQuery;
 import querqy.model.ExpandedQuery;
 import querqy.model.MatchAllQuery;
 import querqy.model.PhraseQuery;
 import querqy.model.QuerqyQuery;
+import querqy.model.QueryStructureKey;
 import querqy.model.RawQuery;
 import querqy.rewrite.logging.RewriteChainLog;
 import querqy.rewrite.RewriteChainOutput;
@@ -91,6 +94,11 @@ public class QueryParsingController {
      */
     protected static final FieldBoostModel DEFAULT_FIELD_BOOST_MODEL = FieldBoostModel.FIXED;
 
+    /**
+     * The prefix of {@link PrecompiledQueryCache} keys for raw queries, which don't depend on the query settings
+     */
+    protected static final String RAW_QUERY_CACHE_KEY_PREFIX = "R|";
+
     /**
      * The default QuerqyParser class for parsing the user query string. (= {@link querqy.parser.WhiteSpaceQuerqyParser})
      */
@@ -104,12 +112,25 @@ public class QueryParsingController {
     protected final String queryString;
     protected final boolean needsScores;
     protected final Analyzer queryAnalyzer;
+    /**
+     * The analysis results of this request, shared by the builders of the main, filter and boost queries
+     */
+    protected final AnalyzedTerms analyzedTerms;
     protected final SearchFieldsAndBoosting searchFieldsAndBoosting;
     protected final DocumentFrequencyCorrection dfc;
     protected final LuceneQueryBuilder builder;
     protected final TermQueryBuilder boostTermQueryBuilder;
     protected final SearchFieldsAndBoosting boostSearchFieldsAndBoostings;
     protected final boolean addQuerqyBoostQueriesToMainQuery;
+    protected final PrecompiledQueryCache precompiledQueryCache;
+    /**
+     * The prefix of the {@link PrecompiledQueryCache} keys for filter queries or null if they must not be cached
+     */
+    protected final String filterQueryCacheKeyPrefix;
+    /**
+     * The prefix of the {@link PrecompiledQueryCache} keys for boost queries or null if they must not be cached
+     */
+    protected final String boostQueryCacheKeyPrefix;
     protected String parserDebugInfo = null;
     protected RewriteChainLog rewriteChainLogging = null;
 
@@ -118,6 +139,7 @@ public class QueryParsingController {
         this.queryString = getValidatedQueryString();
         needsScores = requestAdapter.needsScores();
         queryAnalyzer = requestAdapter.getQueryAnalyzer();
+        analyzedTerms = queryAnalyzer != null ? new AnalyzedTerms(queryAnalyzer) : null;
 
         final Map<String, Float> queryFieldsAndBoostings = requestAdapter.getQueryFieldsAndBoostings();
         final float gfb = requestAdapter.getGeneratedFieldBoost().orElse(DEFAULT_GENERATED_FIELD_BOOST);
@@ -145,21 +167,28 @@ public class QueryParsingController {
                         : FieldBoostModel.FIXED, // TODO: better use NONE as FBM?
                 queryFieldsAndBoostings,
                 generatedQueryFieldsAndBoostings,
-                gfb);
+                gfb,
+                requestAdapter.getPRMSFieldProbabilityCache().orElse(null));
+
+        precompiledQueryCache = requestAdapter.getPrecompiledQueryCache().orElse(null);
 
         if (!needsScores) {
             addQuerqyBoostQueriesToMainQuery = true;
             dfc = null;
             boostTermQueryBuilder = null;
             boostSearchFieldsAndBoostings = null;
-            builder = new LuceneQueryBuilder(new LuceneTermQueryBuilder(), queryAnalyzer, searchFieldsAndBoosting, 1f,
-                    1f, requestAdapter.getTermQueryCache().orElse(null), q -> {
+            final TermQueryBuilder termQueryBuilder = new LuceneTermQueryBuilder();
+            builder = new LuceneQueryBuilder(termQueryBuilder, queryAnalyzer, searchFieldsAndBoosting, 1f,
+                    1f, true, requestAdapter.getTermQueryCache().orElse(null), analyzedTerms, q -> {
                 try {
                     return requestAdapter.rawQueryToQuery(q);
                 } catch (final SyntaxException e) {
                     throw new RuntimeException(e);
                 }
             });
+            filterQueryCacheKeyPrefix = createQueryCacheKeyPrefix('F', termQueryBuilder, searchFieldsAndBoosting,
+                    1f, 1f);
+            boostQueryCacheKeyPrefix = null;
         } else {
             addQuerqyBoostQueriesToMainQuery = requestAdapter.addQuerqyBoostQueriesToMainQuery();
 
@@ -180,15 +209,22 @@ public class QueryParsingController {
 
 
 
+            final float tiebreaker = requestAdapter.getTiebreaker().orElse(DEFAULT_TIEBREAKER);
+            final float multiMatchTiebreaker = requestAdapter.getMultiMatchTiebreaker()
+                    .orElse(DEFAULT_MULTI_MATCH_TIEBREAKER);
             builder = new LuceneQueryBuilder(userTermQueryBuilder,
-                    queryAnalyzer, searchFieldsAndBoosting, requestAdapter.getTiebreaker().orElse(DEFAULT_TIEBREAKER),
-                    requestAdapter.getMultiMatchTiebreaker().orElse(DEFAULT_MULTI_MATCH_TIEBREAKER),
-                    requestAdapter.getTermQueryCache().orElse(null), q -> {
+                    queryAnalyzer, searchFieldsAndBoosting, tiebreaker, multiMatchTiebreaker, true,
+                    requestAdapter.getTermQueryCache().orElse(null), analyzedTerms, q -> {
                 try {
                     return requestAdapter.rawQueryToQuery(q);
                 } catch (final SyntaxException e) {
                     throw new RuntimeException(e);
                 }});
+            filterQueryCacheKeyPrefix = createQueryCacheKeyPrefix('F', userTermQueryBuilder, searchFieldsAndBoosting,
+                    tiebreaker, multiMatchTiebreaker);
+            // we don't have to apply multiMatchTie for boostings
+            boostQueryCacheKeyPrefix = createQueryCacheKeyPrefix('B', boostTermQueryBuilder,
+                    boostSearchFieldsAndBoostings, tiebreaker, 1f);
 
         }
     }
@@ -319,17 +355,31 @@ public class QueryParsingController {
 
             for (final QuerqyQuery<?> qfq : filterQueries) {
 
-                if (qfq instanceof RawQuery) {
+                final boolean isRawQuery = qfq instanceof RawQuery;
+                final String cacheKey = createQueryCacheKey(isRawQuery ? RAW_QUERY_CACHE_KEY_PREFIX
+                        : filterQueryCacheKeyPrefix, qfq);
+                Query luceneQuery = cacheKey != null ? precompiledQueryCache.get(cacheKey) : null;
 
-                    fqs.add(requestAdapter.rawQueryToQuery((RawQuery) qfq));
+                if (luceneQuery == null) {
 
-                } else {
+                    if (isRawQuery) {
+
+                        luceneQuery = requestAdapter.rawQueryToQuery((RawQuery) qfq);
+
+                    } else {
 
-                    builder.reset();
+                        builder.reset();
 
-                    fqs.add(builder.createQuery(qfq));
+                        luceneQuery = builder.createQuery(qfq);
 
+                    }
+
+                    if (cacheKey != null && luceneQuery != null) {
+                        precompiledQueryCache.put(cacheKey, luceneQuery);
+                    }
                 }
+
+                fqs.add(luceneQuery);
             }
 
             return fqs;
@@ -398,34 +448,8 @@ public class QueryParsingController {
 
             for (final BoostQuery bq : boostQueries) {
 
-                final Query luceneQuery;
                 final QuerqyQuery<?> boostQuery = bq.getQuery();
-
-                if (boostQuery instanceof RawQuery) {
-
-                    luceneQuery = requestAdapter.rawQueryToQuery((RawQuery) boostQuery);
-
-                } else if (boostQuery instanceof querqy.model.Query || boostQuery instanceof PhraseQuery) {
-
-                    final LuceneQueryBuilder luceneQueryBuilder =
-                            new LuceneQueryBuilder(boostTermQueryBuilder, queryAnalyzer,
-                                    boostSearchFieldsAndBoostings,
-                                    requestAdapter.getTiebreaker().orElse(DEFAULT_TIEBREAKER),
-                                    1f, // we don't have to apply multiMatchTie for boostings
-                                    requestAdapter.getTermQueryCache().orElse(null), q -> {
-                                try {
-                                    return requestAdapter.rawQueryToQuery(q);
-                                } catch (final SyntaxException e) {
-                                    throw new RuntimeException(e);
-                                }});
-
-                    luceneQuery = boostQuery instanceof PhraseQuery
-                            ? luceneQueryBuilder.createQuery(boostQuery)
-                            : luceneQueryBuilder.createQuery((querqy.model.Query) boostQuery, factor < 0f);
-
-                } else {
-                    luceneQuery = null;
-                }
+                final Query luceneQuery = getBoostLuceneQuery(boostQuery, factor < 0f);
 
                 if (luceneQuery != null) {
 
@@ -503,30 +527,7 @@ public class QueryParsingController {
             result = new LinkedList<>();
 
             for (final BoostQuery boostQuery : boostQueries) {
-                final Query luceneQuery;
-                final QuerqyQuery<?> query = boostQuery.getQuery();
-
-                // todo: this is copied from transformAdditiveBoostQueries, any way to combine or simplify?
-                if (query instanceof RawQuery) {
-                    luceneQuery = requestAdapter.rawQueryToQuery((RawQuery) query);
-                } else if (query instanceof querqy.model.Query || query instanceof PhraseQuery) {
-                    final LuceneQueryBuilder luceneQueryBuilder =
-                            new LuceneQueryBuilder(boostTermQueryBuilder, queryAnalyzer,
-                                    boostSearchFieldsAndBoostings,
-                                    requestAdapter.getTiebreaker().orElse(DEFAULT_TIEBREAKER),
-                                    1f, // we don't have to apply multiMatchTie for boostings
-                                    requestAdapter.getTermQueryCache().orElse(null), q -> {
-                                try {
-                                    return requestAdapter.rawQueryToQuery(q);
-                                } catch (final SyntaxException e) {
-                                    throw new RuntimeException(e);
-                                }});
-                    luceneQuery = query instanceof PhraseQuery
-                            ? luceneQueryBuilder.createQuery(query)
-                            : luceneQueryBuilder.createQuery((querqy.model.Query) query, true);
-                } else {
-                    luceneQuery = null;
-                }
+                final Query luceneQuery = getBoostLuceneQuery(boostQuery.getQuery(), true);
 
                 if (luceneQuery != null) {
                     ValueSource queryValueSource = new QueryValueSource(luceneQuery, 0f);
@@ -545,6 +546,99 @@ public class QueryParsingController {
         return result;
     }
 
+    /**
+     * Creates the Lucene query for an additive or multiplicative boost query, using the {@link PrecompiledQueryCache}
+     * if possible.
+     *
+     * @param boostQuery The Querqy boost query
+     * @param negate Iff true, a purely negative boost query will be turned into a query for the negated clauses
+     * @return The Lucene query or null if the type of the boost query is not supported
+     * @throws SyntaxException if a raw query cannot be parsed
+     */
+    protected Query getBoostLuceneQuery(final QuerqyQuery<?> boostQuery, final boolean negate)
+            throws SyntaxException {
+
+        final boolean isRawQuery = boostQuery instanceof RawQuery;
+        if (!(isRawQuery || boostQuery instanceof querqy.model.Query || boostQuery instanceof PhraseQuery)) {
+            return null;
+        }
+
+        final String cacheKey = isRawQuery
+                ? createQueryCacheKey(RAW_QUERY_CACHE_KEY_PREFIX, boostQuery)
+                : createQueryCacheKey(boostQueryCacheKeyPrefix == null
+                        ? null
+                        : boostQueryCacheKeyPrefix + (negate && !(boostQuery instanceof PhraseQuery) ? '-' : '+'),
+                boostQuery);
+        if (cacheKey != null) {
+            final Query cached = precompiledQueryCache.get(cacheKey);
+            if (cached != null) {
+                return cached;
+            }
+        }
+
+        final Query luceneQuery;
+        if (isRawQuery) {
+
+            luceneQuery = requestAdapter.rawQueryToQuery((RawQuery) boostQuery);
+
+        } else {
+
+            final LuceneQueryBuilder luceneQueryBuilder =
+                    new LuceneQueryBuilder(boostTermQueryBuilder, queryAnalyzer,
+                            boostSearchFieldsAndBoostings,
+                            requestAdapter.getTiebreaker().orElse(DEFAULT_TIEBREAKER),
+                            1f, // we don't have to apply multiMatchTie for boostings
+                            true, requestAdapter.getTermQueryCache().orElse(null), analyzedTerms, q -> {
+                        try {
+                            return requestAdapter.rawQueryToQuery(q);
+                        } catch (final SyntaxException e) {
+                            throw new RuntimeException(e);
+                        }});
+
+            luceneQuery = boostQuery instanceof PhraseQuery
+                    ? luceneQueryBuilder.createQuery(boostQuery)
+                    : luceneQueryBuilder.createQuery((querqy.model.Query) boostQuery, negate);
+        }
+
+        if (cacheKey != null && luceneQuery != null) {
+            precompiledQueryCache.put(cacheKey, luceneQuery);
+        }
+        return luceneQuery;
+    }
+
+    /**
+     * @return The key for the {@link PrecompiledQueryCache} or null if the query must not be cached
+     */
+    protected String createQueryCacheKey(final String prefix, final QuerqyQuery<?> query) {
+        if (precompiledQueryCache == null || prefix == null) {
+            return null;
+        }
+        final String structureKey = QueryStructureKey.create(query, true);
+        return structureKey == null ? null : prefix + structureKey;
+    }
+
+    /**
+     * Creates the prefix of the {@link PrecompiledQueryCache} keys for the settings that are used for building
+     * queries from Querqy queries.
+     *
+     * @param kind The kind of queries, for example 'F' for filter queries
+     * @param termQueryBuilder The term query builder
+     * @param searchFieldsAndBoosting The query fields and boost factors
+     * @param tiebreaker The tiebreaker
+     * @param multiMatchTiebreaker The multi-match tiebreaker
+     * @return The prefix or null if the queries depend on the request or on the index and must not be cached
+     */
+    protected static String createQueryCacheKeyPrefix(final char kind, final TermQueryBuilder termQueryBuilder,
+                                                      final SearchFieldsAndBoosting searchFieldsAndBoosting,
+                                                      final float tiebreaker, final float multiMatchTiebreaker) {
+        if (termQueryBuilder.getDocumentFrequencyCorrection().isPresent()
+                || searchFieldsAndBoosting.getFieldBoostModel() == FieldBoostModel.PRMS) {
+            return null;
+        }
+        return kind + "|" + termQueryBuilder.getClass().getName() + "|" + tiebreaker + "|" + multiMatchTiebreaker + "|"
+                + searchFieldsAndBoosting.getCacheKey() + "|";
+    }
+
     private void processRewriteLogging() {
         requestAdapter.getInfoLoggingContext().ifPresent(
                 infoLoggingContext -> rewriteChainLogging.getRewriteChain().forEach(
@@ -0,0 +1,96 @@
+/*
+ * SPDX-License-Identifier: Apache-2.0
+ *
+ * Copyright 2026 Querqy Contributors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package querqy.lucene.rewrite;
+
+import java.io.IOException;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+
+import org.apache.lucene.analysis.Analyzer;
+
+import querqy.lucene.rewrite.cache.CacheKey;
+import querqy.model.Term;
+import querqy.rewriter.commonrules.model.PositionSequence;
+
+/**
+ * <p>The analysis results for the terms of a single request. Each distinct term value is analyzed only once per
+ * field, no matter how often it occurs in the DMQ alternatives of the user query and in the boost and filter
+ * queries. Share an instance between the {@link LuceneQueryBuilder}s of a request.</p>
+ *
+ * <p>The analyzed terms are kept for the lifetime of this object, which should not outlive the request. Instances
+ * are not thread-safe.</p>
+ */
+public class AnalyzedTerms {
+
+    private final Analyzer analyzer;
+    private final Map<CacheKey, PositionSequence<org.apache.lucene.index.Term>> sequences = new HashMap<>();
+
+    public AnalyzedTerms(final Analyzer analyzer) {
+        if (analyzer == null) {
+            throw new IllegalArgumentException("analyzer must not be null");
+        }
+        this.analyzer = analyzer;
+    }
+
+    /**
+     * Analyzes all terms for a field. Terms that have the same value or that have already been analyzed for this
+     * field are analyzed only once.
+     *
+     * @param fieldname The field name
+     * @param terms The terms
+     * @throws IOException if the analysis fails
+     */
+    public void analyze(final String fieldname, final Collection<? extends Term> terms) throws IOException {
+        for (final Term term : terms) {
+            get(fieldname, term);
+        }
+    }
+
+    /**
+     * Gets the tokens of a term for a field, analyzing the term if it hasn't been analyzed yet. The returned sequence
+     * is shared and must not be modified.
+     *
+     * @param fieldname The field name
+     * @param term The term. Only its value is analyzed, its own field name is ignored.
+     * @return The tokens by position
+     * @throws IOException if the analysis fails
+     */
+    public PositionSequence<org.apache.lucene.index.Term> get(final String fieldname, final Term term)
+            throws IOException {
+        final CacheKey key = new CacheKey(fieldname, term);
+        PositionSequence<org.apache.lucene.index.Term> sequence = sequences.get(key);
+        if (sequence == null) {
+            sequence = TermSubQueryBuilder.analyze(analyzer, fieldname, term.getValue());
+            sequences.put(key, sequence);
+        }
+        return sequence;
+    }
+
+    public Analyzer getAnalyzer() {
+        return analyzer;
+    }
+
+    /**
+     * @return The number of field/term value combinations that were analyzed
+     */
+    public int getAnalysisCount() {
+        return sequences.size();
+    }
+
+}
@@ -21,6 +21,7 @@ import java.io.IOException;
 import java.util.Objects;
 
 import org.apache.lucene.index.IndexReader;
+import org.apache.lucene.search.TaskExecutor;
 
 public class BoostedDelegatingFieldBoost implements FieldBoost {
 
@@ -38,6 +39,12 @@ public class BoostedDelegatingFieldBoost implements FieldBoost {
         return computedBoost * boost;
     }
 
+    @Override
+    public float getBoost(final String fieldname, final IndexReader indexReader, final TaskExecutor taskExecutor)
+            throws IOException {
+        return delegate.getBoost(fieldname, indexReader, taskExecutor) * boost;
+    }
+
     @Override
     public void registerTermSubQuery(final TermSubQueryFactory termSubQueryFactory) {
         delegate.registerTermSubQuery(termSubQueryFactory);
@@ -113,7 +113,7 @@ public class DependentTermQueryBuilder implements TermQueryBuilder {
         public Weight createWeight(final IndexSearcher searcher, final ScoreMode scoreMode, final float boost) throws IOException {
 
             final DocumentFrequencyCorrection.DocumentFrequencyAndTermContext dftc
-                    = dftcp.getDocumentFrequencyAndTermContext(tqIndex, searcher.getTopReaderContext());
+                    = dftcp.getDocumentFrequencyAndTermContext(tqIndex, searcher);
 
             if (dftc.df < 1) {
                 return new NeverMatchWeight();
@@ -238,7 +238,8 @@ public class DependentTermQueryBuilder implements TermQueryBuilder {
                     // We've modelled field boosting in a FieldBoost implementation so that for example
                     // field boosts can also depend on the term distribution over fields. Calculate the field boost
                     // using that FieldBoost model and multiply with the general boost
-                    final float fieldBoostFactor = fieldBoost.getBoost(term.field(), searcher.getIndexReader());
+                    final float fieldBoostFactor = fieldBoost.getBoost(term.field(), searcher.getIndexReader(),
+                            searcher.getTaskExecutor());
                     this.simScorer = similarity.scorer(boost * fieldBoostFactor, collectionStats, termStats);
                 }
             }
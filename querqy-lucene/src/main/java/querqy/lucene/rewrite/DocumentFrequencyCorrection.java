@@ -19,7 +19,10 @@ package querqy.lucene.rewrite;
 
 import java.io.IOException;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
 import java.util.List;
+import java.util.concurrent.Callable;
 
 import org.apache.lucene.index.IndexReaderContext;
 import org.apache.lucene.index.LeafReaderContext;
@@ -29,12 +32,23 @@ import org.apache.lucene.index.TermStates;
 import org.apache.lucene.index.Terms;
 import org.apache.lucene.index.TermsEnum;
 import org.apache.lucene.search.IndexSearcher;
+import org.apache.lucene.search.TaskExecutor;
 
 /**
- * Created by rene on 10/09/2016.
+ * <p>Created by rene on 10/09/2016.</p>
+ *
+ * <p>The term statistics are read per index segment. If they are requested for an {@link IndexSearcher} and the index
+ * has at least minParallelLeaves segments, the segments are read in parallel using the searcher's
+ * {@link TaskExecutor}, which runs the tasks on the calling thread if the searcher was created without an executor.
+ * The results are merged in segment order on the calling thread.</p>
  */
 public class DocumentFrequencyCorrection {
 
+    /**
+     * The default min. number of index segments for reading term statistics in parallel
+     */
+    public static final int DEFAULT_MIN_PARALLEL_LEAVES = 8;
+
     final List<Term> terms = new ArrayList<>(16);
     enum Status {
         USER_QUERY, OTHER_QUERY
@@ -48,34 +62,60 @@ public class DocumentFrequencyCorrection {
     protected int maxInUserQuery = -1;
     protected long maxTotalTermFreqInUserQuery = -1;
     int termIndex = -1;
+    private final int minParallelLeaves;
+
+    public DocumentFrequencyCorrection() {
+        this(DEFAULT_MIN_PARALLEL_LEAVES);
+    }
+
+    /**
+     * @param minParallelLeaves The min. number of index segments for reading term statistics in parallel. Use
+     *                          {@link Integer#MAX_VALUE} to always read them on the calling thread.
+     */
+    public DocumentFrequencyCorrection(final int minParallelLeaves) {
+        if (minParallelLeaves < 1) {
+            throw new IllegalArgumentException("minParallelLeaves must be >= 1");
+        }
+        this.minParallelLeaves = minParallelLeaves;
+    }
 
 
     protected TermStats doCalculateTermContexts(final IndexReaderContext indexReaderContext) throws IOException {
+        return doCalculateTermContexts(indexReaderContext, null);
+    }
+
+    /**
+     * @param indexReaderContext The top reader context
+     * @param taskExecutor The executor for reading the segments in parallel or null to read them sequentially
+     * @return The term stats
+     * @throws IOException if the index cannot be read
+     */
+    protected TermStats doCalculateTermContexts(final IndexReaderContext indexReaderContext,
+                                                final TaskExecutor taskExecutor) throws IOException {
 
         final int[] dfs = new int[terms.size()];
         final long[] totalTermFrequencies = new long[dfs.length];
         final TermStates[] states = new TermStates[dfs.length];
 
         for (int i = 0; i < dfs.length; i++) {
-
-            final Term term = terms.get(i);
-
             states[i] = new TermStates(indexReaderContext);
+        }
 
-            for (final LeafReaderContext ctx : indexReaderContext.leaves()) {
-
-                final Terms terms = ctx.reader().terms(term.field());
-                if (terms != null) {
-                    final TermsEnum termsEnum = terms.iterator();
-                    if (termsEnum.seekExact(term.bytes())) {
-                        final TermState termState = termsEnum.termState();
-                        dfs[i] = dfs[i] + termsEnum.docFreq();
-                        totalTermFrequencies[i] = totalTermFrequencies[i] + termsEnum.totalTermFreq();
-                        // we'll update df and ttf later, just register the ord
-                        states[i].register(termState, ctx.ord, 0, 0L);
-                    }
+        final int[] termOrder = sortedTermOrder();
+        final List<LeafReaderContext> leaves = indexReaderContext.leaves();
+        final List<LeafTermStats> allLeafTermStats = readLeafTermStats(leaves, termOrder, taskExecutor);
+
+        for (int leaf = 0, numLeaves = leaves.size(); leaf < numLeaves; leaf++) {
+            final LeafReaderContext ctx = leaves.get(leaf);
+            final LeafTermStats leafTermStats = allLeafTermStats.get(leaf);
+            for (int i = 0; i < dfs.length; i++) {
+                final TermState termState = leafTermStats.termStates[i];
+                if (termState != null) {
+                    dfs[i] = dfs[i] + leafTermStats.dfs[i];
+                    totalTermFrequencies[i] = totalTermFrequencies[i] + leafTermStats.totalTermFrequencies[i];
+                    // we'll update df and ttf later, just register the ord
+                    states[i].register(termState, ctx.ord, 0, 0L);
                 }
-
             }
         }
 
@@ -120,6 +160,81 @@ public class DocumentFrequencyCorrection {
     }
 
 
+    /**
+     * @return The indexes of the terms, ordered by field and bytes
+     */
+    int[] sortedTermOrder() {
+        final Integer[] order = new Integer[terms.size()];
+        for (int i = 0; i < order.length; i++) {
+            order[i] = i;
+        }
+        Arrays.sort(order, Comparator.comparing(terms::get));
+        final int[] result = new int[order.length];
+        for (int i = 0; i < order.length; i++) {
+            result[i] = order[i];
+        }
+        return result;
+    }
+
+    /**
+     * Looks up the terms in all segments, in parallel if the executor is not null and if there are at least
+     * minParallelLeaves segments.
+     *
+     * @return The stats per segment, in the order of the leaves
+     */
+    List<LeafTermStats> readLeafTermStats(final List<LeafReaderContext> leaves, final int[] termOrder,
+                                          final TaskExecutor taskExecutor) throws IOException {
+
+        if (taskExecutor == null || leaves.size() < minParallelLeaves || terms.isEmpty()) {
+            final List<LeafTermStats> result = new ArrayList<>(leaves.size());
+            for (final LeafReaderContext ctx : leaves) {
+                result.add(readLeafTermStats(ctx, termOrder));
+            }
+            return result;
+        }
+
+        final List<Callable<LeafTermStats>> tasks = new ArrayList<>(leaves.size());
+        for (final LeafReaderContext ctx : leaves) {
+            tasks.add(() -> readLeafTermStats(ctx, termOrder));
+        }
+        // invokeAll returns the results in the order of the tasks
+        return taskExecutor.invokeAll(tasks);
+    }
+
+    /**
+     * Looks up the terms in a single segment. The terms are visited in the given order, which must group them by
+     * field, so that the terms dictionary of each field is only opened once, and which should sort them by bytes
+     * within a field, so that the TermsEnum only moves forward.
+     *
+     * @param ctx The segment
+     * @param termOrder The order in which to seek the terms
+     * @return The stats of the terms in this segment, indexed like the terms
+     * @throws IOException if the index cannot be read
+     */
+    LeafTermStats readLeafTermStats(final LeafReaderContext ctx, final int[] termOrder) throws IOException {
+
+        final LeafTermStats leafTermStats = new LeafTermStats(terms.size());
+
+        String field = null;
+        TermsEnum termsEnum = null;
+
+        for (final int i : termOrder) {
+            final Term term = terms.get(i);
+            if (!term.field().equals(field)) {
+                field = term.field();
+                final Terms fieldTerms = ctx.reader().terms(field);
+                termsEnum = fieldTerms == null ? null : fieldTerms.iterator();
+            }
+            if (termsEnum != null && termsEnum.seekExact(term.bytes())) {
+                leafTermStats.termStates[i] = termsEnum.termState();
+                leafTermStats.dfs[i] = termsEnum.docFreq();
+                leafTermStats.totalTermFrequencies[i] = termsEnum.totalTermFreq();
+            }
+        }
+
+        return leafTermStats;
+    }
+
     public void prepareTerm(Term term) {
         terms.add(term);
     }
@@ -147,6 +262,28 @@ public class DocumentFrequencyCorrection {
         return new DocumentFrequencyAndTermContext(ts.documentFrequencies[tqIndex], ts.termStates[tqIndex]);
     }
 
+    /**
+     * Same as {@link #getDocumentFrequencyAndTermContext(int, IndexReaderContext)} for the top reader context of the
+     * searcher, but the segments might be read in parallel using the searcher's executor.
+     *
+     * @param tqIndex The term index
+     * @param searcher The searcher
+     * @return The document frequency and term context
+     * @throws IOException if the index cannot be read
+     */
+    public DocumentFrequencyAndTermContext getDocumentFrequencyAndTermContext(final int tqIndex,
+                                                                              final IndexSearcher searcher)
+            throws IOException {
+
+        final IndexReaderContext indexReaderContext = searcher.getTopReaderContext();
+        TermStats ts = termStats;
+        if (ts == null || ts.topReaderContext != indexReaderContext) {
+            ts = calculateTermContexts(indexReaderContext, searcher.getTaskExecutor());
+        }
+
+        return new DocumentFrequencyAndTermContext(ts.documentFrequencies[tqIndex], ts.termStates[tqIndex]);
+    }
+
     protected TermStats calculateTermContexts(final IndexReaderContext indexReaderContext)
             throws IOException {
 
@@ -154,6 +291,13 @@ public class DocumentFrequencyCorrection {
 
     }
 
+    protected TermStats calculateTermContexts(final IndexReaderContext indexReaderContext,
+                                              final TaskExecutor taskExecutor) throws IOException {
+
+        return setTermStats(doCalculateTermContexts(indexReaderContext, taskExecutor));
+
+    }
+
     private synchronized TermStats setTermStats(final TermStats ts) {
         this.termStats = ts;
         return this.termStats;
@@ -231,6 +375,18 @@ public class DocumentFrequencyCorrection {
 
     }
 
+    static class LeafTermStats {
+        final TermState[] termStates;
+        final int[] dfs;
+        final long[] totalTermFrequencies;
+
+        LeafTermStats(final int numTerms) {
+            termStates = new TermState[numTerms];
+            dfs = new int[numTerms];
+            totalTermFrequencies = new long[numTerms];
+        }
+    }
+
     public static class TermStats {
         final int[] documentFrequencies;
         final TermStates[] termStates;
@@ -21,6 +21,7 @@ import java.io.IOException;
 
 import org.apache.lucene.index.IndexReader;
 import org.apache.lucene.search.IndexSearcher;
+import org.apache.lucene.search.TaskExecutor;
 
 import querqy.model.Term;
 
@@ -34,6 +35,23 @@ import querqy.model.Term;
 public interface FieldBoost {
     
     float getBoost(String fieldname, IndexReader indexReader) throws IOException;
+
+    /**
+     * <p>Get the boost for a field when creating the weight of a query.</p>
+     *
+     * <p>Implementations that read statistics from the index can use the task executor of the searcher. The default
+     * implementation calls {@link #getBoost(String, IndexReader)}.</p>
+     *
+     * @param fieldname The field name
+     * @param indexReader The index reader of the searcher
+     * @param taskExecutor The task executor of the searcher, see {@link IndexSearcher#getTaskExecutor()}
+     * @return The boost factor
+     * @throws IOException if the index cannot be read
+     */
+    default float getBoost(final String fieldname, final IndexReader indexReader, final TaskExecutor taskExecutor)
+            throws IOException {
+        return getBoost(fieldname, indexReader);
+    }
     
     void registerTermSubQuery(TermSubQueryFactory termSubQueryFactory);
     
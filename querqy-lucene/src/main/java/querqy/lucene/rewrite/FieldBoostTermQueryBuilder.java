@@ -82,7 +82,8 @@ public class FieldBoostTermQueryBuilder implements TermQueryBuilder {
 
             final TermStates termState = TermStates.build(searcher, term, scoreMode.needsScores());
             // TODO: set boosts to 1f if needsScores is false?
-            return new FieldBoostWeight(termState, scoreMode, boost, fieldBoost.getBoost(term.field(), searcher.getIndexReader()));
+            return new FieldBoostWeight(termState, scoreMode, boost, fieldBoost.getBoost(term.field(),
+                    searcher.getIndexReader(), searcher.getTaskExecutor()));
         }
 
 
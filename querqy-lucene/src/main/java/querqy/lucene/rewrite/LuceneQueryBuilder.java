@@ -22,11 +22,15 @@ import java.util.ArrayList;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
+import java.util.function.Consumer;
 import java.util.function.Function;
 
 import org.apache.lucene.analysis.Analyzer;
+import org.apache.lucene.search.BooleanClause;
 import org.apache.lucene.search.BooleanClause.Occur;
+import org.apache.lucene.search.BoostQuery;
 import org.apache.lucene.search.MatchAllDocsQuery;
+import org.apache.lucene.search.MatchNoDocsQuery;
 import org.apache.lucene.search.Query;
 import org.apache.lucene.util.QueryBuilder;
 
@@ -38,6 +42,7 @@ import querqy.model.AbstractNodeVisitor;
 import querqy.model.BooleanQuery;
 import querqy.model.BoostedPhraseQuery;
 import querqy.model.BoostedTerm;
+import querqy.model.DisjunctionMaxClause;
 import querqy.model.DisjunctionMaxQuery;
 import querqy.model.MatchAllQuery;
 import querqy.model.PhraseQuery;
@@ -71,6 +76,7 @@ public class LuceneQueryBuilder extends AbstractNodeVisitor<LuceneQueryFactory<?
    boolean useBooleanQueryForDMQ = false;
 
    private ParentType parentType = ParentType.BQ;
+   private boolean singlePassEnabled = true;
 
 
 
@@ -112,6 +118,22 @@ public class LuceneQueryBuilder extends AbstractNodeVisitor<LuceneQueryFactory<?
                               final float dmqTieBreakerMultiplier, final float multiMatchTieBreakerMultiplier,
                               final boolean normalizeBooleanQueryBoost,
                               final TermQueryCache termQueryCache, final Function<RawQuery, Query> rawQueryParser) {
+        this(termQueryBuilder, analyzer, searchFieldsAndBoosting, dmqTieBreakerMultiplier,
+                multiMatchTieBreakerMultiplier, normalizeBooleanQueryBoost, termQueryCache, null, rawQueryParser);
+    }
+
+    /**
+     * <p>Same as the constructor above but analyzes terms via the given {@link AnalyzedTerms}, which can be shared
+     * with the other builders of the request.</p>
+     *
+     * @param analyzedTerms The analysis results of the current request or null. If set, it must use the same analyzer.
+     */
+    public LuceneQueryBuilder(final TermQueryBuilder termQueryBuilder, final Analyzer analyzer,
+                              final SearchFieldsAndBoosting searchFieldsAndBoosting,
+                              final float dmqTieBreakerMultiplier, final float multiMatchTieBreakerMultiplier,
+                              final boolean normalizeBooleanQueryBoost,
+                              final TermQueryCache termQueryCache, final AnalyzedTerms analyzedTerms,
+                              final Function<RawQuery, Query> rawQueryParser) {
         if (termQueryBuilder == null) {
             throw new IllegalArgumentException("TermQueryBuilder must not be null");
         }
@@ -133,7 +155,7 @@ public class LuceneQueryBuilder extends AbstractNodeVisitor<LuceneQueryFactory<?
         this.multiMatchTieBreakerMultiplier = multiMatchTieBreakerMultiplier;
         this.termQueryBuilder = termQueryBuilder;
         this.analyzer = analyzer;
-        termSubQueryBuilder = new TermSubQueryBuilder(analyzer, termQueryCache);
+        termSubQueryBuilder = new TermSubQueryBuilder(analyzer, termQueryCache, analyzedTerms);
         this.rawQueryParser = rawQueryParser;
     }
 
@@ -144,6 +166,30 @@ public class LuceneQueryBuilder extends AbstractNodeVisitor<LuceneQueryFactory<?
         parentType = ParentType.BQ;
     }
 
+    /**
+     * <p>Iff enabled (the default), boolean queries are turned into Lucene queries in a single pass over the querqy
+     * query, without building the intermediate {@link LuceneQueryFactory} tree. This only applies if there is no
+     * {@link DocumentFrequencyCorrection} and if no multi-match dismax query has to be added, as both need the
+     * factory tree. The resulting Lucene query is the same in both modes.</p>
+     *
+     * @param singlePassEnabled true to build queries in a single pass where possible
+     */
+    public void setSinglePassEnabled(final boolean singlePassEnabled) {
+        this.singlePassEnabled = singlePassEnabled;
+    }
+
+    public boolean isSinglePassEnabled() {
+        return singlePassEnabled;
+    }
+
+    /**
+     * @return true iff boolean queries will be created in a single pass
+     * @see #setSinglePassEnabled(boolean)
+     */
+    public boolean isSinglePassApplicable() {
+        return singlePassEnabled && !mustAddMultiMatchDmq && termQueryBuilder.getDocumentFrequencyCorrection().isEmpty();
+    }
+
     public Query createQuery(final querqy.model.Query query, final boolean useBooleanQueryForDMQ) {
         boolean tmp = this.useBooleanQueryForDMQ;
         try {
@@ -157,6 +203,11 @@ public class LuceneQueryBuilder extends AbstractNodeVisitor<LuceneQueryFactory<?
     public Query createQuery(final QuerqyQuery<?> query) {
 
         if (query instanceof querqy.model.BooleanQuery) {
+            if (isSinglePassApplicable()) {
+                final BooleanClause clause = createBooleanClause((BooleanQuery) query);
+                // no sub-query - this can happen if analysis filters out all tokens (stopwords)
+                return clause == null ? new MatchNoDocsQuery() : clause.query();
+            }
             parentType = ParentType.BQ;
             final LuceneQueryFactory<?> origFactory = query.accept(this);
             final LuceneQueryFactory<?> factory = mustAddMultiMatchDmq
@@ -297,6 +348,135 @@ public class LuceneQueryBuilder extends AbstractNodeVisitor<LuceneQueryFactory<?
         }
     }
 
+    /*
+     * Single-pass mode. The methods below mirror the visit methods but create the Lucene queries directly. They must
+     * produce the same query as the factory tree.
+     */
+
+    /**
+     * Creates the clause for a boolean query below a boolean query (or at the top level).
+     *
+     * @return The clause or null if the query has no clauses
+     */
+    private BooleanClause createBooleanClause(final BooleanQuery booleanQuery) {
+        final List<BooleanClause> clauses = createClauses(booleanQuery);
+        if (clauses.isEmpty()) {
+            return null;
+        }
+        if (clauses.size() == 1 && clauses.get(0).occur() == Occur.SHOULD) {
+            // propagate the single clause up one level (see visit(BooleanQuery))
+            return clauses.get(0);
+        }
+        return new BooleanClause(createLuceneBooleanQuery(clauses, false), occur(booleanQuery.occur));
+    }
+
+    /**
+     * Creates the disjunct for a boolean query below a dismax query.
+     *
+     * @return The disjunct or null if the query has no clauses
+     */
+    private Query createDisjunct(final BooleanQuery booleanQuery) {
+        final List<BooleanClause> clauses = createClauses(booleanQuery);
+        if (clauses.isEmpty()) {
+            return null;
+        }
+        final Query query = createLuceneBooleanQuery(clauses, normalizeBooleanQueryBoost);
+        final Occur occur = occur(booleanQuery.occur);
+        if (occur == Occur.SHOULD || (clauses.size() == 1 && clauses.get(0).occur() == Occur.SHOULD)) {
+            return query;
+        }
+        // create a wrapper query
+        return createLuceneBooleanQuery(List.of(new BooleanClause(query, occur)), false);
+    }
+
+    private List<BooleanClause> createClauses(final BooleanQuery booleanQuery) {
+        final List<querqy.model.BooleanClause> querqyClauses = booleanQuery.getClauses();
+        final List<BooleanClause> clauses = new ArrayList<>(querqyClauses.size());
+        for (final querqy.model.BooleanClause querqyClause : querqyClauses) {
+            if (querqyClause instanceof DisjunctionMaxQuery) {
+                addClause((DisjunctionMaxQuery) querqyClause, clauses);
+            } else if (querqyClause instanceof BooleanQuery) {
+                final BooleanClause clause = createBooleanClause((BooleanQuery) querqyClause);
+                if (clause != null) {
+                    clauses.add(clause);
+                }
+            } else if (querqyClause instanceof PhraseQuery) {
+                final PhraseQuery phraseQuery = (PhraseQuery) querqyClause;
+                clauses.add(new BooleanClause(createLucenePhraseQueryOrNeverMatch(phraseQuery),
+                        occur(phraseQuery.occur)));
+            }
+        }
+        return clauses;
+    }
+
+    private void addClause(final DisjunctionMaxQuery disjunctionMaxQuery, final List<BooleanClause> clauses) {
+
+        final List<DisjunctionMaxClause> querqyClauses = disjunctionMaxQuery.getClauses();
+        final List<Query> disjuncts = new ArrayList<>(querqyClauses.size());
+        List<TermSubQueryFactory> termSubQueries = null;
+        for (final DisjunctionMaxClause querqyClause : querqyClauses) {
+            if (querqyClause instanceof Term) {
+                // All sub-queries of a term must be registered with its FieldBoost before we create a Lucene query
+                // from any of them, as the FieldBoost might change its hashCode() with each registration (PRMS)
+                if (termSubQueries == null) {
+                    termSubQueries = new ArrayList<>(searchFieldsAndBoosting.queryFieldsAndBoostings.size());
+                } else {
+                    termSubQueries.clear();
+                }
+                addTermSubQueries((Term) querqyClause, termSubQueries::add);
+                for (final TermSubQueryFactory termSubQuery : termSubQueries) {
+                    disjuncts.add(termSubQuery.createQuery(null, termQueryBuilder));
+                }
+            } else if (querqyClause instanceof BooleanQuery) {
+                final Query disjunct = createDisjunct((BooleanQuery) querqyClause);
+                if (disjunct != null) {
+                    disjuncts.add(disjunct);
+                }
+            } else if (querqyClause instanceof PhraseQuery) {
+                disjuncts.add(createLucenePhraseQueryOrNeverMatch((PhraseQuery) querqyClause));
+            }
+        }
+
+        final Occur occur = occur(disjunctionMaxQuery.occur);
+        switch (disjuncts.size()) {
+            case 0:
+                // no sub-query - this can happen if analysis filters out all tokens (stopwords)
+                return;
+            case 1:
+                clauses.add(new BooleanClause(disjuncts.get(0), occur));
+                return;
+            default:
+                if (useBooleanQueryForDMQ || occur == Occur.MUST_NOT) {
+                    final List<BooleanClause> shouldClauses = new ArrayList<>(disjuncts.size());
+                    for (final Query disjunct : disjuncts) {
+                        shouldClauses.add(new BooleanClause(disjunct, Occur.SHOULD));
+                    }
+                    clauses.add(new BooleanClause(createLuceneBooleanQuery(shouldClauses, false), occur));
+                } else {
+                    final float tie = disjunctionMaxQuery.getTieBreaker().orElse(dmqTieBreakerMultiplier);
+                    clauses.add(new BooleanClause(new org.apache.lucene.search.DisjunctionMaxQuery(disjuncts, tie),
+                            occur));
+                }
+        }
+    }
+
+    private Query createLucenePhraseQueryOrNeverMatch(final PhraseQuery phraseQuery) {
+        final Query lucenePhraseQuery = createLucenePhraseQuery(phraseQuery);
+        return lucenePhraseQuery != null ? lucenePhraseQuery : new MatchNoDocsQuery();
+    }
+
+    /**
+     * Same as {@link BooleanQueryFactory#createQuery(FieldBoost, TermQueryBuilder)}
+     */
+    private static Query createLuceneBooleanQuery(final List<BooleanClause> clauses, final boolean normalizeBoost) {
+        final org.apache.lucene.search.BooleanQuery.Builder builder = new org.apache.lucene.search.BooleanQuery.Builder();
+        for (final BooleanClause clause : clauses) {
+            builder.add(clause);
+        }
+        final Query bq = builder.build();
+        return normalizeBoost ? new BoostQuery(bq, 1f / (float) clauses.size()) : bq;
+    }
+
     protected Occur occur(final querqy.model.SubQuery.Occur occur) {
         switch (occur) {
             case MUST:
@@ -380,9 +560,16 @@ public class LuceneQueryBuilder extends AbstractNodeVisitor<LuceneQueryFactory<?
 
     @Override
     public LuceneQueryFactory<?> visit(final Term term) {
+        addTermSubQueries(term, dmqStack.getLast()::add);
+        return null;
+    }
+
+    /**
+     * Looks up the {@link FieldBoost} for the term, analyzes it for each search field and passes the resulting
+     * {@link TermSubQueryFactory}s to the target.
+     */
+    private void addTermSubQueries(final Term term, final Consumer<? super TermSubQueryFactory> target) {
 
-        final DisjunctionMaxQueryFactory siblings = dmqStack.getLast();
-      
         final String fieldname = term.getField();
 
         Term termToUse = null;
@@ -414,7 +601,7 @@ public class LuceneQueryBuilder extends AbstractNodeVisitor<LuceneQueryFactory<?
             }
           
             for (final String searchField: searchFieldsAndBoosting.getSearchFields(termToUse)) {
-                addTerm(searchField, fieldBoost, siblings, termToUse);
+                addTerm(searchField, fieldBoost, target, termToUse);
             }
 
 
@@ -425,15 +612,13 @@ public class LuceneQueryBuilder extends AbstractNodeVisitor<LuceneQueryFactory<?
             throw new RuntimeException(e);
         }
 
-        return null;
-
     }
 
    /**
     * 
     * <p>
-    * Applies analysis to a term and adds the result to the Lucene query factory
-    * tree.
+    * Applies analysis to a term and passes the result to the target (the Lucene
+    * query factory tree or, in single-pass mode, the list of disjuncts).
     * </p>
     * 
     * <p>
@@ -453,11 +638,11 @@ public class LuceneQueryBuilder extends AbstractNodeVisitor<LuceneQueryFactory<?
     * @param sourceTerm
     * @throws IOException
     */
-    void addTerm(final String fieldname, final FieldBoost boost, final DisjunctionMaxQueryFactory target,
+    void addTerm(final String fieldname, final FieldBoost boost, final Consumer<? super TermSubQueryFactory> target,
                  final Term sourceTerm) throws IOException {
         final TermSubQueryFactory queryFactory = termSubQueryBuilder.termToFactory(fieldname, sourceTerm, boost);
         if (queryFactory != null) {
-            target.add(queryFactory);
+            target.accept(queryFactory);
             boost.registerTermSubQuery(queryFactory);
         }
     }
@@ -20,8 +20,10 @@ package querqy.lucene.rewrite;
 import java.util.Collections;
 import java.util.Map;
 import java.util.Set;
+import java.util.TreeMap;
 
 import querqy.lucene.rewrite.prms.PRMSFieldBoost;
+import querqy.lucene.rewrite.prms.PRMSFieldProbabilityCache;
 import querqy.model.Term;
 
 /**
@@ -36,11 +38,29 @@ public class SearchFieldsAndBoosting {
     final Map<String, Float> queryFieldsAndBoostings;
     final Map<String, Float> generatedQueryFieldsAndBoostings;
     final FieldBoostModel fieldBoostModel;
+    final PRMSFieldProbabilityCache prmsFieldProbabilityCache;
     
     public SearchFieldsAndBoosting(final FieldBoostModel fieldBoostModel,
                                    final Map<String, Float> queryFieldsAndBoostings,
                                    final Map<String, Float> generatedQueryFieldsAndBoostings,
                                    final float defaultGeneratedFieldBoostFactor) {
+        this(fieldBoostModel, queryFieldsAndBoostings, generatedQueryFieldsAndBoostings,
+                defaultGeneratedFieldBoostFactor, null);
+    }
+
+    /**
+     * @param fieldBoostModel The field boost model
+     * @param queryFieldsAndBoostings The query fields and their boost factors
+     * @param generatedQueryFieldsAndBoostings The query fields and their boost factors for generated terms
+     * @param defaultGeneratedFieldBoostFactor The default boost factor for generated terms
+     * @param prmsFieldProbabilityCache The cache for field probabilities if the field boost model is
+     *                                  {@link FieldBoostModel#PRMS}, or null
+     */
+    public SearchFieldsAndBoosting(final FieldBoostModel fieldBoostModel,
+                                   final Map<String, Float> queryFieldsAndBoostings,
+                                   final Map<String, Float> generatedQueryFieldsAndBoostings,
+                                   final float defaultGeneratedFieldBoostFactor,
+                                   final PRMSFieldProbabilityCache prmsFieldProbabilityCache) {
         if (fieldBoostModel == null) {
             throw new IllegalArgumentException("FieldBoostModel must not be null");
         }
@@ -48,13 +68,26 @@ public class SearchFieldsAndBoosting {
         this.queryFieldsAndBoostings = queryFieldsAndBoostings;
         this.generatedQueryFieldsAndBoostings = generatedQueryFieldsAndBoostings;
         this.defaultGeneratedFieldBoostFactor = defaultGeneratedFieldBoostFactor;
+        this.prmsFieldProbabilityCache = prmsFieldProbabilityCache;
     }
 
     public SearchFieldsAndBoosting withFieldBoostModel(final FieldBoostModel newModel) {
         return new SearchFieldsAndBoosting(newModel, queryFieldsAndBoostings, generatedQueryFieldsAndBoostings,
-                defaultGeneratedFieldBoostFactor);
+                defaultGeneratedFieldBoostFactor, prmsFieldProbabilityCache);
     }
     
+    public FieldBoostModel getFieldBoostModel() {
+        return fieldBoostModel;
+    }
+
+    /**
+     * @return A string that identifies the field boost model, the query fields and their boost factors
+     */
+    public String getCacheKey() {
+        return fieldBoostModel + "|" + defaultGeneratedFieldBoostFactor + "|" + new TreeMap<>(queryFieldsAndBoostings)
+                + "|" + new TreeMap<>(generatedQueryFieldsAndBoostings);
+    }
+
     public boolean hasSearchField(String searchField, Term term) {
         String fieldname = term.getField();
         if (fieldname != null) {
@@ -96,7 +129,8 @@ public class SearchFieldsAndBoosting {
 
                 case NONE: return ConstantFieldBoost.NORM_BOOST;
 
-                case PRMS: return new PRMSFieldBoost();
+                case PRMS: return new PRMSFieldBoost(PRMSFieldBoost.DEFAULT_MIN_PARALLEL_LEAVES,
+                        prmsFieldProbabilityCache);
 
                 default: throw new IllegalStateException("Unknown FieldBoostModel: " + fieldBoostModel);
 
@@ -53,7 +53,8 @@ public class SimilarityTermQueryBuilder implements TermQueryBuilder {
         @Override
         public Weight createWeight(IndexSearcher searcher, ScoreMode scoreMode, float boost) throws IOException {
             return super.createWeight(searcher, scoreMode,
-                    boost * fieldBoost.getBoost(getTerm().field(), searcher.getIndexReader()));
+                    boost * fieldBoost.getBoost(getTerm().field(), searcher.getIndexReader(),
+                            searcher.getTaskExecutor()));
         }
 
         @Override
@@ -18,6 +18,7 @@
 package querqy.lucene.rewrite;
 
 import org.apache.lucene.index.IndexReader;
+import org.apache.lucene.search.TaskExecutor;
 
 import java.io.IOException;
 import java.util.Objects;
@@ -52,6 +53,12 @@ public class SingleFieldBoost implements FieldBoost {
         return field.equals(fieldname) ? delegate.getBoost(fieldname, indexReader) : 0f;
     }
 
+    @Override
+    public float getBoost(final String fieldname, final IndexReader indexReader, final TaskExecutor taskExecutor)
+            throws IOException {
+        return field.equals(fieldname) ? delegate.getBoost(fieldname, indexReader, taskExecutor) : 0f;
+    }
+
     @Override
     public void registerTermSubQuery(final TermSubQueryFactory termSubQueryFactory) {
         delegate.registerTermSubQuery(termSubQueryFactory);
@@ -50,10 +50,25 @@ public class TermSubQueryBuilder {
     
     private final TermQueryCache termQueryCache;
     private final Analyzer analyzer;
+    private final AnalyzedTerms analyzedTerms;
 
     public TermSubQueryBuilder(final Analyzer analyzer, final TermQueryCache termQueryCache) {
+        this(analyzer, termQueryCache, null);
+    }
+
+    /**
+     * @param analyzer The query analyzer
+     * @param termQueryCache The term query cache or null
+     * @param analyzedTerms The analysis results of the current request or null. If set, it must use the same analyzer.
+     */
+    public TermSubQueryBuilder(final Analyzer analyzer, final TermQueryCache termQueryCache,
+                               final AnalyzedTerms analyzedTerms) {
+        if (analyzedTerms != null && analyzedTerms.getAnalyzer() != analyzer) {
+            throw new IllegalArgumentException("analyzedTerms must use the same analyzer");
+        }
         this.termQueryCache = termQueryCache;
         this.analyzer = analyzer;
+        this.analyzedTerms = analyzedTerms;
     }
     
     public TermSubQueryFactory termToFactory(final String fieldname, final Term sourceTerm, final FieldBoost boost)
@@ -80,17 +95,37 @@ public class TermSubQueryBuilder {
             cacheKey = null;
         }
         
-        final LuceneQueryFactoryAndPRMSQuery root;
+        final PositionSequence<org.apache.lucene.index.Term> sequence = analyzedTerms != null
+                ? analyzedTerms.get(fieldname, sourceTerm)
+                : analyze(analyzer, fieldname, sourceTerm);
+        final LuceneQueryFactoryAndPRMSQuery root = positionSequenceToQueryFactoryAndPRMS(sequence, sourceTerm);
+
+        putQueryFactoryAndPRMSQueryIntoCache(cacheKey, root);
+        
+        return root == null ? null : new TermSubQueryFactory(root, boost, sourceTerm, fieldname);
+    }
+
+    /**
+     * Analyzes a term value for a field.
+     *
+     * @param analyzer The analyzer
+     * @param fieldname The field name
+     * @param value The term value
+     * @return The tokens by position
+     * @throws IOException if the analysis fails
+     */
+    static PositionSequence<org.apache.lucene.index.Term> analyze(final Analyzer analyzer, final String fieldname,
+                                                                  final CharSequence value) throws IOException {
         TokenStream ts = null;
         try {
-           ts = analyzer.tokenStream(fieldname, new CharSequenceReader(sourceTerm));
+           ts = analyzer.tokenStream(fieldname, new CharSequenceReader(value));
            final CharTermAttribute termAttr = ts.addAttribute(CharTermAttribute.class);
            final PositionIncrementAttribute posIncAttr = ts.addAttribute(PositionIncrementAttribute.class);
            ts.reset();
-         
+
            final PositionSequence<org.apache.lucene.index.Term> sequence = new PositionSequence<>();
            while (ts.incrementToken()) {
-              
+
                final int inc = posIncAttr.getPositionIncrement();
                if (inc > 0 || sequence.isEmpty()) {
                    sequence.nextPosition();
@@ -98,8 +133,8 @@ public class TermSubQueryBuilder {
 
                sequence.addElement(new org.apache.lucene.index.Term(fieldname, new BytesRef(termAttr)));
            }
-           
-           root = positionSequenceToQueryFactoryAndPRMS(sequence, sourceTerm);
+
+           return sequence;
 
         } finally {
            if (ts != null) {
@@ -109,10 +144,6 @@ public class TermSubQueryBuilder {
                }
            }
         }
-
-        putQueryFactoryAndPRMSQueryIntoCache(cacheKey, root);
-        
-        return root == null ? null : new TermSubQueryFactory(root, boost, sourceTerm, fieldname);
     }
 
     protected void putQueryFactoryAndPRMSQueryIntoCache(final CacheKey cacheKey, final LuceneQueryFactoryAndPRMSQuery value) {
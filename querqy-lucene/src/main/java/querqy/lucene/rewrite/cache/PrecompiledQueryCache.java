@@ -0,0 +1,102 @@
+/*
+ * SPDX-License-Identifier: Apache-2.0
+ *
+ * Copyright 2026 Querqy Contributors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package querqy.lucene.rewrite.cache;
+
+import org.apache.lucene.search.Query;
+import querqy.SegmentedLruCache;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * <p>A size-bounded cache for the Lucene queries that are built from the filter and boost queries of rewriters,
+ * for example from the FILTER and UP/DOWN instructions of common rules. It can be shared by all request threads.</p>
+ *
+ * <p>The keys are created by the {@link querqy.lucene.QueryParsingController} from the structure of the Querqy query
+ * and from the settings that influence query building. Queries are only cached if they do not depend on the
+ * request, which means that they are not cached if they are scored using document frequency correction, if they use
+ * the PRMS field boost model or if they contain a raw query with parameters. Lucene queries do not reference the
+ * index reader and the cache need not be cleared when the index changes. As the {@link TermQueryCache}, a cache
+ * instance must only be used with a single query analyzer.</p>
+ *
+ * <p>Handing out the same Query object again for the same filter also helps Lucene's query cache to find its
+ * entries.</p>
+ *
+ * <p>The entries are kept in a {@link SegmentedLruCache}.</p>
+ */
+public class PrecompiledQueryCache {
+
+    private final SegmentedLruCache<String, Query> cache;
+
+    private final LongAdder hitCount = new LongAdder();
+    private final LongAdder missCount = new LongAdder();
+
+    /**
+     * @param maxSize The maximum number of entries
+     */
+    public PrecompiledQueryCache(final int maxSize) {
+        cache = new SegmentedLruCache<>(maxSize);
+    }
+
+    /**
+     * @param key The key
+     * @return The cached query or null
+     */
+    public Query get(final String key) {
+        final Query query = cache.get(key);
+        if (query == null) {
+            missCount.increment();
+        } else {
+            hitCount.increment();
+        }
+        return query;
+    }
+
+    public void put(final String key, final Query query) {
+        if (query == null) {
+            throw new IllegalArgumentException("query must not be null");
+        }
+        cache.put(key, query);
+    }
+
+    /**
+     * Removes all entries. The counters are not reset.
+     */
+    public void clear() {
+        cache.clear();
+    }
+
+    /**
+     * @return The current number of entries
+     */
+    public int size() {
+        return cache.size();
+    }
+
+    public long getHitCount() {
+        return hitCount.sum();
+    }
+
+    public long getMissCount() {
+        return missCount.sum();
+    }
+
+    public long getEvictionCount() {
+        return cache.getEvictionCount();
+    }
+
+}
@@ -0,0 +1,293 @@
+/*
+ * SPDX-License-Identifier: Apache-2.0
+ *
+ * Copyright 2026 Querqy Contributors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package querqy.lucene.rewrite.cache;
+
+import org.apache.lucene.analysis.Analyzer;
+import querqy.lucene.rewrite.ConstantFieldBoost;
+import querqy.lucene.rewrite.TermSubQueryBuilder;
+import querqy.model.Term;
+import querqy.rewrite.RewriterFactory;
+
+import java.io.IOException;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * <p>A size-bounded {@link TermQueryCache} that can be shared by all request threads.</p>
+ *
+ * <p>The entries are spread over a number of independently locked stripes. Each stripe uses segmented LRU eviction:
+ * new entries go into a probationary segment and are only promoted into the protected segment when they are hit again.
+ * Entries are evicted from the probationary segment first, so that a burst of terms that are seen only once (like a
+ * crawler running through a long tail of queries) cannot push out the frequently used terms.</p>
+ *
+ * <p>The cached values reference {@link querqy.lucene.rewrite.prms.PRMSQuery} objects that remember their likelihood
+ * once it has been calculated. If the PRMS field boost model is used, call {@link #clear()} when the index changes.</p>
+ */
+public class SegmentedLRUTermQueryCache implements TermQueryCache {
+
+    /**
+     * The share of a stripe's capacity that is reserved for protected entries
+     */
+    public static final float PROTECTED_RATIO = 0.8f;
+
+    private final Stripe[] stripes;
+    private final int stripeMask;
+    private final int maxSize;
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder puts = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+
+    /**
+     * Creates a cache with a concurrency level derived from the number of available processors.
+     *
+     * @param maxSize The maximum number of entries
+     */
+    public SegmentedLRUTermQueryCache(final int maxSize) {
+        this(maxSize, 4 * Runtime.getRuntime().availableProcessors());
+    }
+
+    /**
+     * @param maxSize The maximum number of entries
+     * @param concurrencyLevel The expected number of threads that access the cache concurrently. It is rounded up to
+     *                         the next power of two and used as the number of stripes, but it will be reduced so that
+     *                         each stripe can hold at least 16 entries.
+     */
+    public SegmentedLRUTermQueryCache(final int maxSize, final int concurrencyLevel) {
+        if (maxSize < 1) {
+            throw new IllegalArgumentException("maxSize must be >= 1, got: " + maxSize);
+        }
+        if (concurrencyLevel < 1) {
+            throw new IllegalArgumentException("concurrencyLevel must be >= 1, got: " + concurrencyLevel);
+        }
+
+        int numStripes = 1;
+        while (numStripes < concurrencyLevel && (numStripes << 1) * 16 <= maxSize) {
+            numStripes <<= 1;
+        }
+
+        this.maxSize = maxSize;
+        stripes = new Stripe[numStripes];
+        stripeMask = numStripes - 1;
+
+        final int stripeCapacity = maxSize / numStripes;
+        final int remainder = maxSize % numStripes;
+        for (int i = 0; i < numStripes; i++) {
+            stripes[i] = new Stripe(i < remainder ? stripeCapacity + 1 : stripeCapacity);
+        }
+    }
+
+    @Override
+    public void put(final CacheKey key, final TermQueryCacheValue value) {
+        puts.increment();
+        final int evicted = stripeFor(key).put(key, value);
+        if (evicted > 0) {
+            evictions.add(evicted);
+        }
+    }
+
+    @Override
+    public TermQueryCacheValue get(final CacheKey key) {
+        final TermQueryCacheValue value = stripeFor(key).get(key);
+        if (value == null) {
+            misses.increment();
+        } else {
+            hits.increment();
+        }
+        return value;
+    }
+
+    /**
+     * <p>Analyzes the terms that the given rewriter factories might generate and puts the resulting term queries into
+     * the cache.</p>
+     *
+     * <p>Terms that have a field name are only analyzed for this field if it is contained in the given fields.
+     * Pre-warming does not count as lookups in the stats.</p>
+     *
+     * @param analyzer The query analyzer
+     * @param fieldnames The query fields
+     * @param factories The rewriter factories, see {@link RewriterFactory#getCacheableGenerableTerms()}
+     * @return The number of term/field combinations that were looked at
+     * @throws IOException if the analysis fails
+     */
+    public int prewarm(final Analyzer analyzer, final Collection<String> fieldnames,
+                       final Collection<? extends RewriterFactory> factories) throws IOException {
+
+        // The builder looks up the cache before analyzing a term and puts the result into it afterwards. Give it a
+        // view of this cache that puts entries straight into the protected segment and that does not count lookups.
+        final TermSubQueryBuilder termSubQueryBuilder = new TermSubQueryBuilder(analyzer, new TermQueryCache() {
+            @Override
+            public void put(final CacheKey key, final TermQueryCacheValue value) {
+                final int evicted = stripeFor(key).putProtected(key, value);
+                if (evicted > 0) {
+                    evictions.add(evicted);
+                }
+            }
+
+            @Override
+            public TermQueryCacheValue get(final CacheKey key) {
+                return stripeFor(key).peek(key);
+            }
+        });
+
+        int count = 0;
+        for (final RewriterFactory factory : factories) {
+            for (final Term term : factory.getCacheableGenerableTerms()) {
+                final String termField = term.getField();
+                if (termField != null) {
+                    if (fieldnames.contains(termField)) {
+                        termSubQueryBuilder.termToFactory(termField, term, ConstantFieldBoost.NORM_BOOST);
+                        count++;
+                    }
+                } else {
+                    for (final String fieldname : fieldnames) {
+                        termSubQueryBuilder.termToFactory(fieldname, term, ConstantFieldBoost.NORM_BOOST);
+                        count++;
+                    }
+                }
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Removes all entries. The counters are not reset.
+     */
+    public void clear() {
+        for (final Stripe stripe : stripes) {
+            stripe.clear();
+        }
+    }
+
+    /**
+     * @return The current number of entries
+     */
+    public int size() {
+        int size = 0;
+        for (final Stripe stripe : stripes) {
+            size += stripe.size();
+        }
+        return size;
+    }
+
+    public int getMaxSize() {
+        return maxSize;
+    }
+
+    public TermQueryCacheStats getStats() {
+        return new TermQueryCacheStats(hits.sum(), misses.sum(), puts.sum(), evictions.sum(), size());
+    }
+
+    private Stripe stripeFor(final CacheKey key) {
+        final int h = key.hashCode();
+        return stripes[(h ^ (h >>> 16)) & stripeMask];
+    }
+
+    private static class Stripe {
+
+        private final int capacity;
+        private final int protectedCapacity;
+
+        // insertion order == LRU order, we re-insert on access
+        private final LinkedHashMap<CacheKey, TermQueryCacheValue> probation = new LinkedHashMap<>();
+        private final LinkedHashMap<CacheKey, TermQueryCacheValue> protectedSegment = new LinkedHashMap<>();
+
+        Stripe(final int capacity) {
+            this.capacity = capacity;
+            this.protectedCapacity = Math.max(1, (int) (capacity * PROTECTED_RATIO));
+        }
+
+        synchronized TermQueryCacheValue get(final CacheKey key) {
+
+            TermQueryCacheValue value = protectedSegment.remove(key);
+            if (value != null) {
+                protectedSegment.put(key, value);
+                return value;
+            }
+
+            value = probation.remove(key);
+            if (value != null) {
+                promote(key, value);
+            }
+            return value;
+        }
+
+        /**
+         * Get without changing the order of entries
+         */
+        synchronized TermQueryCacheValue peek(final CacheKey key) {
+            final TermQueryCacheValue value = protectedSegment.get(key);
+            return value != null ? value : probation.get(key);
+        }
+
+        synchronized int put(final CacheKey key, final TermQueryCacheValue value) {
+            if (protectedSegment.containsKey(key)) {
+                protectedSegment.put(key, value);
+                return 0;
+            }
+            probation.remove(key);
+            probation.put(key, value);
+            return evict();
+        }
+
+        synchronized int putProtected(final CacheKey key, final TermQueryCacheValue value) {
+            probation.remove(key);
+            protectedSegment.remove(key);
+            promote(key, value);
+            return evict();
+        }
+
+        synchronized void clear() {
+            probation.clear();
+            protectedSegment.clear();
+        }
+
+        synchronized int size() {
+            return probation.size() + protectedSegment.size();
+        }
+
+        private void promote(final CacheKey key, final TermQueryCacheValue value) {
+            protectedSegment.put(key, value);
+            if (protectedSegment.size() > protectedCapacity) {
+                // demote the least recently used protected entry, it gets another chance in probation
+                final Iterator<Map.Entry<CacheKey, TermQueryCacheValue>> it = protectedSegment.entrySet().iterator();
+                final Map.Entry<CacheKey, TermQueryCacheValue> eldest = it.next();
+                it.remove();
+                probation.put(eldest.getKey(), eldest.getValue());
+            }
+        }
+
+        private int evict() {
+            int evicted = 0;
+            while (probation.size() + protectedSegment.size() > capacity) {
+                final LinkedHashMap<CacheKey, TermQueryCacheValue> segment = probation.isEmpty()
+                        ? protectedSegment : probation;
+                final Iterator<CacheKey> it = segment.keySet().iterator();
+                it.next();
+                it.remove();
+                evicted++;
+            }
+            return evicted;
+        }
+
+    }
+}
@@ -0,0 +1,81 @@
+/*
+ * SPDX-License-Identifier: Apache-2.0
+ *
+ * Copyright 2026 Querqy Contributors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package querqy.lucene.rewrite.cache;
+
+/**
+ * A point-in-time snapshot of the counters of a {@link TermQueryCache}.
+ */
+public class TermQueryCacheStats {
+
+    private final long hitCount;
+    private final long missCount;
+    private final long putCount;
+    private final long evictionCount;
+    private final int size;
+
+    public TermQueryCacheStats(final long hitCount, final long missCount, final long putCount,
+                               final long evictionCount, final int size) {
+        this.hitCount = hitCount;
+        this.missCount = missCount;
+        this.putCount = putCount;
+        this.evictionCount = evictionCount;
+        this.size = size;
+    }
+
+    public long getHitCount() {
+        return hitCount;
+    }
+
+    public long getMissCount() {
+        return missCount;
+    }
+
+    public long getPutCount() {
+        return putCount;
+    }
+
+    public long getEvictionCount() {
+        return evictionCount;
+    }
+
+    /**
+     * @return The number of entries at the time the snapshot was taken
+     */
+    public int getSize() {
+        return size;
+    }
+
+    /**
+     * @return The ratio of hits to lookups or 0 if there was no lookup yet
+     */
+    public double getHitRate() {
+        final long lookups = hitCount + missCount;
+        return lookups == 0L ? 0.0 : (double) hitCount / (double) lookups;
+    }
+
+    @Override
+    public String toString() {
+        return "TermQueryCacheStats{" +
+                "hitCount=" + hitCount +
+                ", missCount=" + missCount +
+                ", putCount=" + putCount +
+                ", evictionCount=" + evictionCount +
+                ", size=" + size +
+                '}';
+    }
+}
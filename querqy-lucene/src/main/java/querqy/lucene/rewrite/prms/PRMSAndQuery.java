@@ -18,6 +18,7 @@
 package querqy.lucene.rewrite.prms;
 
 import java.io.IOException;
+import java.util.Collection;
 import java.util.List;
 
 import org.apache.lucene.index.IndexReader;
@@ -64,6 +65,13 @@ public class PRMSAndQuery implements PRMSQuery {
         
     }
 
+    @Override
+    public void collectTermQueries(final Collection<PRMSTermQuery> termQueries) {
+        for (final PRMSQuery clause : clauses) {
+            clause.collectTermQueries(termQueries);
+        }
+    }
+
     public List<PRMSQuery> getClauses() {
         return clauses;
     }
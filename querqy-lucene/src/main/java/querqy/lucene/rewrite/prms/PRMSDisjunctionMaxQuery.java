@@ -18,6 +18,7 @@
 package querqy.lucene.rewrite.prms;
 
 import java.io.IOException;
+import java.util.Collection;
 import java.util.List;
 
 import org.apache.lucene.index.IndexReader;
@@ -60,6 +61,13 @@ public class PRMSDisjunctionMaxQuery implements PRMSQuery {
         return probability;
     }
 
+    @Override
+    public void collectTermQueries(final Collection<PRMSTermQuery> termQueries) {
+        for (final PRMSQuery disjunct : disjuncts) {
+            disjunct.collectTermQueries(termQueries);
+        }
+    }
+
     public List<PRMSQuery> getDisjuncts() {
         return disjuncts;
     }
@@ -18,34 +18,100 @@
 package querqy.lucene.rewrite.prms;
 
 import java.io.IOException;
+import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 
 import org.apache.lucene.index.IndexReader;
 import org.apache.lucene.search.IndexSearcher;
+import org.apache.lucene.search.TaskExecutor;
 
 import querqy.lucene.rewrite.FieldBoost;
 import querqy.lucene.rewrite.TermSubQueryFactory;
 import querqy.model.Term;
 
 /**
+ * <p>A {@link FieldBoost} that derives the boost factors from the probability of the term in each field.</p>
+ *
+ * <p>If the boost is requested with the {@link TaskExecutor} of an {@link IndexSearcher} and the index has at least
+ * minParallelLeaves segments, the term statistics of all fields are read from the segments in parallel.</p>
+ *
+ * <p>If a {@link PRMSFieldProbabilityCache} is given, the probabilities are looked up in the cache before calculating
+ * them and they are put into the cache afterwards.</p>
+ *
  * @author rene
  *
  */
 public class PRMSFieldBoost implements FieldBoost {
-    
+
+    /**
+     * The default min. number of index segments for reading term statistics in parallel
+     */
+    public static final int DEFAULT_MIN_PARALLEL_LEAVES = 8;
+
     Map<String, PRMSQuery> fieldPRMSQueries = new HashMap<>();
     Map<String, Float> probabilities = null;
+    private final int minParallelLeaves;
+    private final PRMSFieldProbabilityCache probabilityCache;
+
+    public PRMSFieldBoost() {
+        this(DEFAULT_MIN_PARALLEL_LEAVES);
+    }
+
+    /**
+     * @param minParallelLeaves The min. number of index segments for reading term statistics in parallel. Use
+     *                          {@link Integer#MAX_VALUE} to always read them on the calling thread.
+     */
+    public PRMSFieldBoost(final int minParallelLeaves) {
+        this(minParallelLeaves, null);
+    }
+
+    /**
+     * @param minParallelLeaves The min. number of index segments for reading term statistics in parallel. Use
+     *                          {@link Integer#MAX_VALUE} to always read them on the calling thread.
+     * @param probabilityCache The cache for the field probabilities or null if they should not be cached
+     */
+    public PRMSFieldBoost(final int minParallelLeaves, final PRMSFieldProbabilityCache probabilityCache) {
+        if (minParallelLeaves < 1) {
+            throw new IllegalArgumentException("minParallelLeaves must be >= 1");
+        }
+        this.minParallelLeaves = minParallelLeaves;
+        this.probabilityCache = probabilityCache;
+    }
 
     /* (non-Javadoc)
      * @see querqy.lucene.rewrite.TermQueryBoost#getBoost()
      */
     @Override
     public float getBoost(String fieldname, IndexReader indexReader) throws IOException {
+        return getBoost(fieldname, indexReader, null);
+    }
+
+    @Override
+    public float getBoost(final String fieldname, final IndexReader indexReader, final TaskExecutor taskExecutor)
+            throws IOException {
         if (probabilities == null) {
-            calculateProbabilities(indexReader);
+            final String cacheKey = probabilityCache == null
+                    ? null : PRMSFieldProbabilityCache.createKey(fieldPRMSQueries);
+            final Map<String, Float> cached = cacheKey == null ? null : probabilityCache.get(indexReader, cacheKey);
+            if (cached != null) {
+                probabilities = cached;
+            } else {
+                if (taskExecutor != null && indexReader.leaves().size() >= minParallelLeaves) {
+                    final List<PRMSTermQuery> termQueries = new ArrayList<>();
+                    for (final PRMSQuery prmsQuery : fieldPRMSQueries.values()) {
+                        prmsQuery.collectTermQueries(termQueries);
+                    }
+                    PRMSTermQuery.calculateLikelihoods(termQueries, indexReader, taskExecutor);
+                }
+                calculateProbabilities(indexReader);
+                if (cacheKey != null) {
+                    probabilityCache.put(indexReader, cacheKey, probabilities);
+                }
+            }
         }
-        Float p = probabilities.get(fieldname);
+        final Float p = probabilities.get(fieldname);
         return p == null ? 0f : p;
     }
     
@@ -71,8 +137,8 @@ public class PRMSFieldBoost implements FieldBoost {
             for (Map.Entry<String, Double> entry: likelihoods.entrySet()) {
                 probs.put(entry.getKey(), (float) (entry.getValue() / sum));
             }
-            probabilities = probs;
         }
+        probabilities = probs;
     }
 
     @Override
@@ -0,0 +1,198 @@
+/*
+ * SPDX-License-Identifier: Apache-2.0
+ *
+ * Copyright 2026 Querqy Contributors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package querqy.lucene.rewrite.prms;
+
+import org.apache.lucene.index.IndexReader;
+import org.apache.lucene.index.Term;
+import org.apache.lucene.store.AlreadyClosedException;
+import querqy.model.QueryStructureKey;
+
+import java.util.Collections;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * <p>A cache of the field probabilities that {@link PRMSFieldBoost} calculates from the index. It can be shared by
+ * all request threads.</p>
+ *
+ * <p>The probabilities are cached per index reader and keyed by the structure of the {@link PRMSQuery} of each
+ * field. The entries of a reader are dropped when the reader is closed, using the reader's
+ * {@link IndexReader.CacheHelper}. Nothing is cached for readers that don't provide a cache helper. If the number of
+ * entries of a reader reaches maxEntriesPerReader, the entries of this reader are flushed.</p>
+ */
+public class PRMSFieldProbabilityCache {
+
+    public static final int DEFAULT_MAX_ENTRIES_PER_READER = 10_000;
+
+    private final int maxEntriesPerReader;
+    private final Map<IndexReader.CacheKey, Map<String, Map<String, Float>>> readerCaches =
+            new ConcurrentHashMap<>();
+
+    private final LongAdder hitCount = new LongAdder();
+    private final LongAdder missCount = new LongAdder();
+
+    public PRMSFieldProbabilityCache() {
+        this(DEFAULT_MAX_ENTRIES_PER_READER);
+    }
+
+    /**
+     * @param maxEntriesPerReader The max. number of entries per index reader
+     */
+    public PRMSFieldProbabilityCache(final int maxEntriesPerReader) {
+        if (maxEntriesPerReader < 1) {
+            throw new IllegalArgumentException("maxEntriesPerReader must be >= 1");
+        }
+        this.maxEntriesPerReader = maxEntriesPerReader;
+    }
+
+    /**
+     * @param indexReader The index reader
+     * @param key The key, see {@link #createKey(Map)}
+     * @return The probabilities by field name or null if they are not in the cache
+     */
+    public Map<String, Float> get(final IndexReader indexReader, final String key) {
+        final IndexReader.CacheHelper cacheHelper = indexReader.getReaderCacheHelper();
+        final Map<String, Map<String, Float>> readerCache = cacheHelper == null
+                ? null : readerCaches.get(cacheHelper.getKey());
+        final Map<String, Float> probabilities = readerCache == null ? null : readerCache.get(key);
+        if (probabilities == null) {
+            missCount.increment();
+        } else {
+            hitCount.increment();
+        }
+        return probabilities;
+    }
+
+    /**
+     * @param indexReader The index reader from which the probabilities were calculated
+     * @param key The key, see {@link #createKey(Map)}
+     * @param probabilities The probabilities by field name
+     */
+    public void put(final IndexReader indexReader, final String key, final Map<String, Float> probabilities) {
+        final IndexReader.CacheHelper cacheHelper = indexReader.getReaderCacheHelper();
+        if (cacheHelper == null) {
+            return;
+        }
+        final Map<String, Map<String, Float>> readerCache;
+        try {
+            readerCache = readerCaches.computeIfAbsent(cacheHelper.getKey(), cacheKey -> {
+                cacheHelper.addClosedListener(readerCaches::remove);
+                return new ConcurrentHashMap<>();
+            });
+        } catch (final AlreadyClosedException e) {
+            return;
+        }
+        if (readerCache.size() >= maxEntriesPerReader) {
+            readerCache.clear();
+        }
+        readerCache.put(key, Collections.unmodifiableMap(probabilities));
+    }
+
+    /**
+     * Removes all entries. The counters are not reset.
+     */
+    public void clear() {
+        readerCaches.values().forEach(Map::clear);
+    }
+
+    /**
+     * @return The number of entries over all readers
+     */
+    public int size() {
+        int size = 0;
+        for (final Map<String, Map<String, Float>> readerCache : readerCaches.values()) {
+            size += readerCache.size();
+        }
+        return size;
+    }
+
+    /**
+     * @return The number of index readers for which entries are kept
+     */
+    public int getReaderCount() {
+        return readerCaches.size();
+    }
+
+    public long getHitCount() {
+        return hitCount.sum();
+    }
+
+    public long getMissCount() {
+        return missCount.sum();
+    }
+
+    /**
+     * @return The ratio of hits to lookups or 0 if there was no lookup yet
+     */
+    public double getHitRate() {
+        final long hits = hitCount.sum();
+        final long lookups = hits + missCount.sum();
+        return lookups == 0L ? 0.0 : (double) hits / (double) lookups;
+    }
+
+    /**
+     * Creates the key for the PRMS queries of a {@link PRMSFieldBoost}.
+     *
+     * @param fieldPRMSQueries The PRMS queries by field name
+     * @return The key or null if a query has a type that this cache doesn't know
+     */
+    public static String createKey(final Map<String, PRMSQuery> fieldPRMSQueries) {
+        final StringBuilder key = new StringBuilder();
+        for (final Map.Entry<String, PRMSQuery> entry : new TreeMap<>(fieldPRMSQueries).entrySet()) {
+            QueryStructureKey.appendString(key, entry.getKey());
+            if (!appendQuery(key, entry.getValue())) {
+                return null;
+            }
+        }
+        return key.toString();
+    }
+
+    private static boolean appendQuery(final StringBuilder key, final PRMSQuery query) {
+        if (query instanceof PRMSTermQuery) {
+            final Term term = ((PRMSTermQuery) query).getTerm();
+            QueryStructureKey.appendString(key.append('T'), term.field());
+            QueryStructureKey.appendString(key, term.text());
+            return true;
+        }
+        if (query instanceof PRMSAndQuery) {
+            return appendClauses(key.append('A'), ((PRMSAndQuery) query).getClauses());
+        }
+        if (query instanceof PRMSDisjunctionMaxQuery) {
+            return appendClauses(key.append('D'), ((PRMSDisjunctionMaxQuery) query).getDisjuncts());
+        }
+        if (query == PRMSQuery.NEVER_MATCH_PRMS_QUERY) {
+            key.append('N');
+            return true;
+        }
+        return false;
+    }
+
+    private static boolean appendClauses(final StringBuilder key, final Iterable<PRMSQuery> clauses) {
+        key.append('(');
+        for (final PRMSQuery clause : clauses) {
+            if (!appendQuery(key, clause)) {
+                return false;
+            }
+        }
+        key.append(')');
+        return true;
+    }
+
+}
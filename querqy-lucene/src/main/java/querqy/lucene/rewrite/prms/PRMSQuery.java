@@ -18,6 +18,7 @@
 package querqy.lucene.rewrite.prms;
 
 import java.io.IOException;
+import java.util.Collection;
 
 import org.apache.lucene.index.IndexReader;
 
@@ -41,4 +42,13 @@ public interface PRMSQuery {
      */
     double calculateLikelihood(IndexReader indexReader) throws IOException;
 
+    /**
+     * Adds the {@link PRMSTermQuery}s of this query, so that their likelihoods can be calculated in a single pass over
+     * the index segments before calling {@link #calculateLikelihood(IndexReader)}.
+     *
+     * @param termQueries The collection to add the term queries to
+     */
+    default void collectTermQueries(final Collection<PRMSTermQuery> termQueries) {
+    }
+
 }
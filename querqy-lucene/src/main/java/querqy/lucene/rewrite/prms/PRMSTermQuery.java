@@ -18,9 +18,18 @@
 package querqy.lucene.rewrite.prms;
 
 import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
 
 import org.apache.lucene.index.IndexReader;
+import org.apache.lucene.index.LeafReader;
+import org.apache.lucene.index.LeafReaderContext;
 import org.apache.lucene.index.Term;
+import org.apache.lucene.search.TaskExecutor;
 
 /**
  * @author rene
@@ -64,6 +73,92 @@ public class PRMSTermQuery implements PRMSQuery {
         return likelihood;
     }
 
+    @Override
+    public void collectTermQueries(final Collection<PRMSTermQuery> termQueries) {
+        termQueries.add(this);
+    }
+
+    /**
+     * <p>Calculates the likelihoods of the given term queries, reading the index segments in parallel using the
+     * task executor. Queries that already know their likelihood are skipped.</p>
+     *
+     * <p>This reads the same statistics as {@link #calculateLikelihood(IndexReader)} but fans out the lookups over
+     * the segments instead of visiting them one after the other for each term.</p>
+     *
+     * @param termQueries The term queries
+     * @param indexReader The index reader
+     * @param taskExecutor The task executor, see {@link org.apache.lucene.search.IndexSearcher#getTaskExecutor()}
+     * @throws IOException if the index cannot be read
+     */
+    public static void calculateLikelihoods(final Collection<PRMSTermQuery> termQueries,
+                                            final IndexReader indexReader,
+                                            final TaskExecutor taskExecutor) throws IOException {
+
+        final List<PRMSTermQuery> pending = new ArrayList<>(termQueries.size());
+        final Map<String, Integer> fieldIndexes = new LinkedHashMap<>();
+        for (final PRMSTermQuery termQuery : termQueries) {
+            if (termQuery.likelihood == null) {
+                pending.add(termQuery);
+                fieldIndexes.putIfAbsent(termQuery.term.field(), fieldIndexes.size());
+            }
+        }
+        if (pending.isEmpty()) {
+            return;
+        }
+
+        final String[] fields = fieldIndexes.keySet().toArray(new String[0]);
+        final List<Callable<long[][]>> tasks = new ArrayList<>();
+        for (final LeafReaderContext ctx : indexReader.leaves()) {
+            tasks.add(() -> {
+                final LeafReader reader = ctx.reader();
+                final long[] sumTotalTermFreqs = new long[fields.length];
+                for (int i = 0; i < fields.length; i++) {
+                    sumTotalTermFreqs[i] = reader.getSumTotalTermFreq(fields[i]);
+                }
+                final long[] totalTermFreqs = new long[pending.size()];
+                for (int i = 0; i < totalTermFreqs.length; i++) {
+                    totalTermFreqs[i] = reader.totalTermFreq(pending.get(i).term);
+                }
+                return new long[][] {sumTotalTermFreqs, totalTermFreqs};
+            });
+        }
+
+        final long[] sumTotalTermFreqs = new long[fields.length];
+        final long[] totalTermFreqs = new long[pending.size()];
+        for (final long[][] leafStats : taskExecutor.invokeAll(tasks)) {
+            for (int i = 0; i < sumTotalTermFreqs.length; i++) {
+                sumTotalTermFreqs[i] = addStatistic(sumTotalTermFreqs[i], leafStats[0][i]);
+            }
+            for (int i = 0; i < totalTermFreqs.length; i++) {
+                totalTermFreqs[i] = addStatistic(totalTermFreqs[i], leafStats[1][i]);
+            }
+        }
+
+        for (int i = 0; i < totalTermFreqs.length; i++) {
+            final PRMSTermQuery termQuery = pending.get(i);
+            final long totalTermsInField = sumTotalTermFreqs[fieldIndexes.get(termQuery.term.field())];
+            if (totalTermsInField == -1L) {
+                throw new UnsupportedOperationException("Codec does not support IndexReader.getSumTotalTermFreq(field)");
+            }
+            if (totalTermsInField < 1L) {
+                termQuery.likelihood = 0.0;
+                continue;
+            }
+            if (totalTermFreqs[i] == -1L) {
+                throw new UnsupportedOperationException("Codec does not support IndexReader.totalTermFreq(term)");
+            }
+            termQuery.likelihood = ((double) totalTermFreqs[i]) / (double) totalTermsInField;
+        }
+    }
+
+    /**
+     * Adds up a statistic over the segments. -1 means that a segment doesn't support the statistic, which makes the
+     * sum -1 as well.
+     */
+    private static long addStatistic(final long sum, final long leafValue) {
+        return sum == -1L || leafValue == -1L ? -1L : sum + leafValue;
+    }
+
     public Term getTerm() {
         return term;
     }
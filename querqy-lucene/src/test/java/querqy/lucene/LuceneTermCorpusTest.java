@@ -28,7 +28,10 @@ import org.junit.BeforeClass;
 import org.junit.Test;
 
 import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicReference;
 
+import static org.junit.Assert.assertArrayEquals;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertTrue;
@@ -118,4 +121,52 @@ public class LuceneTermCorpusTest extends LuceneTestCase {
         final LuceneTermCorpus f2Corpus = new LuceneTermCorpus(() -> reader, "f2");
         assertFalse(f2Corpus.coExist("apple", "banana"));
     }
+
+    @Test
+    public void docFreqsReturnsDocFreqPerTermInInputOrder() {
+        assertArrayEquals(new int[] {3, 0, 5, 5, 3},
+                corpus.docFreqs(List.of("cherry", "mango", "banana", new StringBuilder("apple"), "cherry")));
+    }
+
+    @Test
+    public void batchCoExistReturnsResultPerTermInInputOrder() {
+        final LuceneTermCorpus uncached = new LuceneTermCorpus(() -> reader, "f1", 0);
+        final boolean[] expected = {true, false, false, true};
+        assertArrayEquals(expected, uncached.coExist("apple", List.of("banana", "cherry", "mango", "apple")));
+        assertArrayEquals(expected, corpus.coExist("apple", List.of("banana", "cherry", "mango", "apple")));
+        // now from the cache
+        assertArrayEquals(expected, corpus.coExist("apple", List.of("banana", "cherry", "mango", "apple")));
+        assertArrayEquals(new boolean[] {false, false}, corpus.coExist("mango", List.of("apple", "banana")));
+    }
+
+    @Test
+    public void batchCoExistWithFixedSecondTermReturnsResultPerTermInInputOrder() {
+        assertArrayEquals(new boolean[] {true, false, false, true},
+                corpus.coExist(List.of("banana", "cherry", "mango", "apple"), "apple"));
+    }
+
+    @Test
+    public void cacheIsDroppedWhenReaderChanges() throws IOException {
+        final Directory otherDirectory = newDirectory();
+        final RandomIndexWriter writer = new RandomIndexWriter(random(), otherDirectory, new WhitespaceAnalyzer());
+        addNumDocsWithTextField("f1", "apple cherry", writer, 2);
+        writer.close();
+        try (final IndexReader otherReader = DirectoryReader.open(otherDirectory)) {
+            final AtomicReference<IndexReader> current = new AtomicReference<>(reader);
+            final LuceneTermCorpus switchingCorpus = new LuceneTermCorpus(current::get, "f1");
+            assertEquals(5, switchingCorpus.docFreq("apple"));
+            assertFalse(switchingCorpus.coExist("apple", "cherry"));
+
+            current.set(otherReader);
+            assertEquals(2, switchingCorpus.docFreq("apple"));
+            assertTrue(switchingCorpus.coExist("apple", "cherry"));
+        } finally {
+            otherDirectory.close();
+        }
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void constructorRejectsNegativeMaxCacheEntries() {
+        new LuceneTermCorpus(() -> reader, "f1", -1);
+    }
 }
@@ -0,0 +1,133 @@
+/*
+ * SPDX-License-Identifier: Apache-2.0
+ *
+ * Copyright 2026 Querqy Contributors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package querqy.lucene;
+
+import org.apache.lucene.analysis.standard.StandardAnalyzer;
+import org.apache.lucene.index.Term;
+import org.apache.lucene.search.Query;
+import org.apache.lucene.search.TermQuery;
+import org.junit.Test;
+import querqy.lucene.rewrite.cache.PrecompiledQueryCache;
+import querqy.model.BoostQuery;
+import querqy.model.Clause.Occur;
+import querqy.model.QuerqyQuery;
+import querqy.model.RawQuery;
+import querqy.model.StringRawQuery;
+import querqy.parser.WhiteSpaceQuerqyParser;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public class QueryParsingControllerTest {
+
+    @Test
+    public void testThatFilterQueriesAreTakenFromPrecompiledQueryCache() throws Exception {
+        final PrecompiledQueryCache cache = new PrecompiledQueryCache(100);
+        final LuceneSearchEngineRequestAdapter adapter = createAdapter(false, cache);
+
+        final QuerqyQuery<?> filterQuery = parse("a b");
+        final Query first = new QueryParsingController(adapter).transformFilterQueries(List.of(filterQuery)).get(0);
+        final Query second = new QueryParsingController(adapter)
+                .transformFilterQueries(List.of(filterQuery.clone(null, false))).get(0);
+        assertSame(first, second);
+        assertEquals(1, cache.size());
+        assertEquals(1L, cache.getHitCount());
+
+        final Query other = new QueryParsingController(adapter).transformFilterQueries(List.of(parse("a c"))).get(0);
+        assertNotSame(first, other);
+        assertEquals(2, cache.size());
+    }
+
+    @Test
+    public void testThatRawFilterQueriesAreParsedOnlyOnce() throws Exception {
+        final PrecompiledQueryCache cache = new PrecompiledQueryCache(100);
+        final LuceneSearchEngineRequestAdapter adapter = createAdapter(true, cache);
+        when(adapter.rawQueryToQuery(any(RawQuery.class))).thenAnswer(invocation ->
+                new TermQuery(new Term("f1", ((StringRawQuery) invocation.getArgument(0)).getQueryString())));
+
+        final Query first = new QueryParsingController(adapter)
+                .transformFilterQueries(List.of(new StringRawQuery(null, "x", Occur.MUST, true))).get(0);
+        final Query second = new QueryParsingController(adapter)
+                .transformFilterQueries(List.of(new StringRawQuery(null, "x", Occur.MUST, true))).get(0);
+        assertSame(first, second);
+        verify(adapter, times(1)).rawQueryToQuery(any(RawQuery.class));
+    }
+
+    @Test
+    public void testThatFilterQueriesAreNotCachedIfTheyUseDocumentFrequencyCorrection() throws Exception {
+        final PrecompiledQueryCache cache = new PrecompiledQueryCache(100);
+        final LuceneSearchEngineRequestAdapter adapter = createAdapter(true, cache);
+
+        final QuerqyQuery<?> filterQuery = parse("a b");
+        final Query first = new QueryParsingController(adapter).transformFilterQueries(List.of(filterQuery)).get(0);
+        final Query second = new QueryParsingController(adapter).transformFilterQueries(List.of(filterQuery)).get(0);
+        assertNotSame(first, second);
+        assertEquals(first, second);
+        assertEquals(0, cache.size());
+    }
+
+    @Test
+    public void testThatBoostQueriesAreTakenFromPrecompiledQueryCache() throws Exception {
+        final PrecompiledQueryCache cache = new PrecompiledQueryCache(100);
+        final LuceneSearchEngineRequestAdapter adapter = createAdapter(true, cache);
+        when(adapter.getBoostQuerySimilarityScoring())
+                .thenReturn(Optional.of(QuerySimilarityScoring.SIMILARITY_SCORE_OFF));
+
+        final BoostQuery boostQuery = new BoostQuery(parse("a"), 1f);
+        final Query first = new QueryParsingController(adapter)
+                .transformAdditiveBoostQueries(List.of(boostQuery), 1f).get(0);
+        final Query second = new QueryParsingController(adapter)
+                .transformAdditiveBoostQueries(List.of(boostQuery), 1f).get(0);
+        assertSame(first, second);
+        assertEquals(1, cache.size());
+
+        new QueryParsingController(adapter).transformAdditiveBoostQueries(List.of(boostQuery), -1f);
+        assertEquals(2, cache.size());
+
+        // DFC-based boost queries are not cached
+        when(adapter.getBoostQuerySimilarityScoring()).thenReturn(Optional.of(QuerySimilarityScoring.DFC));
+        new QueryParsingController(adapter).transformAdditiveBoostQueries(List.of(boostQuery), 1f);
+        assertEquals(2, cache.size());
+    }
+
+    private static QuerqyQuery<?> parse(final String input) {
+        return new WhiteSpaceQuerqyParser().parse(input);
+    }
+
+    private static LuceneSearchEngineRequestAdapter createAdapter(final boolean needsScores,
+                                                                  final PrecompiledQueryCache cache) {
+        final LuceneSearchEngineRequestAdapter adapter = mock(LuceneSearchEngineRequestAdapter.class);
+        when(adapter.getQueryString()).thenReturn("q");
+        when(adapter.needsScores()).thenReturn(needsScores);
+        when(adapter.getQueryAnalyzer()).thenReturn(new StandardAnalyzer());
+        when(adapter.getQueryFieldsAndBoostings()).thenReturn(Map.of("f1", 1f, "f2", 2f));
+        when(adapter.getPrecompiledQueryCache()).thenReturn(Optional.of(cache));
+        return adapter;
+    }
+
+}
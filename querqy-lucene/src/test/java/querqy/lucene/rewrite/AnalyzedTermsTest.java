@@ -0,0 +1,107 @@
+/*
+ * SPDX-License-Identifier: Apache-2.0
+ *
+ * Copyright 2026 Querqy Contributors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package querqy.lucene.rewrite;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+import org.apache.lucene.analysis.Analyzer;
+import org.apache.lucene.analysis.CharArraySet;
+import org.apache.lucene.analysis.standard.StandardAnalyzer;
+import org.apache.lucene.search.Query;
+import org.junit.Test;
+
+import querqy.lucene.rewrite.SearchFieldsAndBoosting.FieldBoostModel;
+import querqy.model.Term;
+import querqy.parser.WhiteSpaceQuerqyParser;
+import querqy.rewriter.commonrules.model.PositionSequence;
+
+public class AnalyzedTermsTest {
+
+    static final Analyzer ANALYZER = new StandardAnalyzer();
+
+    @Test
+    public void testThatEachValueIsAnalyzedOncePerField() throws Exception {
+        final AnalyzedTerms analyzedTerms = new AnalyzedTerms(ANALYZER);
+        analyzedTerms.analyze("f1", Arrays.asList(new Term(null, "abc"), new Term(null, "abc", true),
+                new Term(null, "d-e")));
+        assertEquals(2, analyzedTerms.getAnalysisCount());
+
+        final PositionSequence<org.apache.lucene.index.Term> sequence = analyzedTerms.get("f1",
+                new Term(null, "f2", "abc"));
+        assertEquals(2, analyzedTerms.getAnalysisCount());
+        assertSame(sequence, analyzedTerms.get("f1", new Term(null, "abc")));
+        assertEquals(TermSubQueryBuilder.analyze(ANALYZER, "f1", "abc"), sequence);
+
+        final PositionSequence<org.apache.lucene.index.Term> deSequence = analyzedTerms.get("f1",
+                new Term(null, "d-e"));
+        assertEquals(2, deSequence.size());
+        assertEquals(new org.apache.lucene.index.Term("f1", "e"), deSequence.getLast().get(0));
+
+        analyzedTerms.get("f2", new Term(null, "abc"));
+        assertEquals(3, analyzedTerms.getAnalysisCount());
+    }
+
+    @Test
+    public void testThatStopWordsAreAnalyzedOnlyOnce() throws Exception {
+        final AnalyzedTerms analyzedTerms = new AnalyzedTerms(new StandardAnalyzer(
+                new CharArraySet(Arrays.asList("the"), true)));
+        assertTrue(analyzedTerms.get("f1", new Term(null, "the")).isEmpty());
+        assertTrue(analyzedTerms.get("f1", new Term(null, "the")).isEmpty());
+        assertEquals(1, analyzedTerms.getAnalysisCount());
+    }
+
+    @Test
+    public void testThatSharedAnalysisCreatesSameQuery() {
+        final Map<String, Float> fields = new HashMap<>();
+        fields.put("f1", 1f);
+        fields.put("f2", 2f);
+        final SearchFieldsAndBoosting searchFieldsAndBoosting = new SearchFieldsAndBoosting(FieldBoostModel.FIXED,
+                fields, fields, 0.5f);
+
+        final querqy.model.Query query = new WhiteSpaceQuerqyParser().parse("a b-c a d");
+
+        final Query expected = new LuceneQueryBuilder(new LuceneTermQueryBuilder(), ANALYZER, searchFieldsAndBoosting,
+                0.1f, 1f, null, null).createQuery(query);
+
+        final AnalyzedTerms analyzedTerms = new AnalyzedTerms(ANALYZER);
+        for (int i = 0; i < 2; i++) {
+            final Query actual = new LuceneQueryBuilder(new LuceneTermQueryBuilder(), ANALYZER,
+                    searchFieldsAndBoosting, 0.1f, 1f, true, null, analyzedTerms, null).createQuery(query);
+            assertEquals(expected, actual);
+        }
+        // a, b-c and d for two fields each
+        assertEquals(6, analyzedTerms.getAnalysisCount());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testThatAnalyzerMustBeSet() {
+        new AnalyzedTerms(null);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testThatTermSubQueryBuilderRejectsOtherAnalyzer() {
+        new TermSubQueryBuilder(new StandardAnalyzer(), null, new AnalyzedTerms(ANALYZER));
+    }
+
+}
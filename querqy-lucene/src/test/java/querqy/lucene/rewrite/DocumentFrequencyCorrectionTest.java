@@ -20,6 +20,7 @@ package querqy.lucene.rewrite;
 import org.apache.lucene.analysis.Analyzer;
 import org.apache.lucene.index.DirectoryReader;
 import org.apache.lucene.index.IndexReader;
+import org.apache.lucene.index.NoMergePolicy;
 import org.apache.lucene.index.Term;
 import org.apache.lucene.search.IndexSearcher;
 import org.apache.lucene.store.Directory;
@@ -30,6 +31,9 @@ import org.junit.Test;
 import querqy.lucene.rewrite.DependentTermQueryBuilder.DependentTermQuery;
 import querqy.lucene.rewrite.DocumentFrequencyCorrection.DocumentFrequencyAndTermContext;
 
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
 import static querqy.lucene.rewrite.TestUtil.addNumDocsWithStringField;
 import static querqy.lucene.rewrite.TestUtil.newTerm;
 
@@ -71,6 +75,109 @@ public class DocumentFrequencyCorrectionTest extends LuceneTestCase {
         
     }
     
+    @Test
+    public void testTermsFromSeveralFieldsAndSegments() throws Exception {
+
+        Analyzer analyzer = new MockAnalyzer(random());
+
+        Directory directory = newDirectory();
+        RandomIndexWriter indexWriter = new RandomIndexWriter(random(), directory, analyzer);
+
+        addNumDocsWithStringField("f1", "b", indexWriter, 3);
+        addNumDocsWithStringField("f2", "a", indexWriter, 2);
+        indexWriter.commit();
+        addNumDocsWithStringField("f1", "a", indexWriter, 4);
+        addNumDocsWithStringField("f1", "b", indexWriter, 1);
+        indexWriter.commit();
+        addNumDocsWithStringField("f2", "c", indexWriter, 5);
+
+        indexWriter.close();
+
+        IndexReader indexReader = DirectoryReader.open(directory);
+        IndexSearcher indexSearcher = newSearcher(indexReader);
+
+        DocumentFrequencyCorrection dfc = new DocumentFrequencyCorrection();
+        // unsorted, across fields, including unknown terms and an unknown field
+        String[][] fieldsAndValues = {{"f2", "c"}, {"f1", "b"}, {"f3", "a"}, {"f1", "x"}, {"f2", "a"}, {"f1", "a"},
+                {"f2", "b"}, {"f1", "b"}};
+        DependentTermQuery[] queries = new DependentTermQuery[fieldsAndValues.length];
+        for (int i = 0; i < fieldsAndValues.length; i++) {
+            dfc.newClause();
+            queries[i] = new DependentTermQuery(newTerm(fieldsAndValues[i][0], fieldsAndValues[i][1], dfc), dfc,
+                    ConstantFieldBoost.NORM_BOOST);
+        }
+        dfc.finishedUserQuery();
+
+        for (DependentTermQuery query : queries) {
+            DocumentFrequencyAndTermContext dftc = dfc.getDocumentFrequencyAndTermContext(query.tqIndex,
+                    indexSearcher.getTopReaderContext());
+            int expectedDf = indexReader.docFreq(query.getTerm());
+            assertEquals(query.getTerm().toString(), expectedDf, dftc.df);
+            if (expectedDf > 0) {
+                assertEquals(query.getTerm().toString(), expectedDf, dftc.termStates.docFreq());
+            }
+        }
+
+        indexReader.close();
+        directory.close();
+        analyzer.close();
+    }
+
+    @Test
+    public void testThatLeavesReadInParallelGiveSameStats() throws Exception {
+
+        Analyzer analyzer = new MockAnalyzer(random());
+
+        Directory directory = newDirectory();
+        RandomIndexWriter indexWriter = new RandomIndexWriter(random(), directory,
+                newIndexWriterConfig(analyzer).setMergePolicy(NoMergePolicy.INSTANCE));
+
+        for (int i = 0; i < 6; i++) {
+            addNumDocsWithStringField("f1", "a", indexWriter, i + 1);
+            addNumDocsWithStringField(i % 2 == 0 ? "f1" : "f2", "b", indexWriter, 2);
+            indexWriter.commit();
+        }
+        indexWriter.close();
+
+        IndexReader indexReader = DirectoryReader.open(directory);
+        assertTrue(indexReader.leaves().size() > 1);
+        ExecutorService executor = Executors.newFixedThreadPool(3);
+        try {
+            String[][] fieldsAndValues = {{"f1", "b"}, {"f2", "b"}, {"f1", "a"}, {"f2", "x"}};
+            DocumentFrequencyCorrection sequentialDfc = new DocumentFrequencyCorrection(Integer.MAX_VALUE);
+            DocumentFrequencyCorrection parallelDfc = new DocumentFrequencyCorrection(1);
+            DependentTermQuery[] sequentialQueries = new DependentTermQuery[fieldsAndValues.length];
+            DependentTermQuery[] parallelQueries = new DependentTermQuery[fieldsAndValues.length];
+            for (int i = 0; i < fieldsAndValues.length; i++) {
+                sequentialDfc.newClause();
+                sequentialQueries[i] = new DependentTermQuery(newTerm(fieldsAndValues[i][0], fieldsAndValues[i][1],
+                        sequentialDfc), sequentialDfc, ConstantFieldBoost.NORM_BOOST);
+                parallelDfc.newClause();
+                parallelQueries[i] = new DependentTermQuery(newTerm(fieldsAndValues[i][0], fieldsAndValues[i][1],
+                        parallelDfc), parallelDfc, ConstantFieldBoost.NORM_BOOST);
+            }
+            sequentialDfc.finishedUserQuery();
+            parallelDfc.finishedUserQuery();
+
+            IndexSearcher indexSearcher = new IndexSearcher(indexReader, executor);
+            for (int i = 0; i < fieldsAndValues.length; i++) {
+                DocumentFrequencyAndTermContext expected = sequentialDfc.getDocumentFrequencyAndTermContext(
+                        sequentialQueries[i].tqIndex, indexSearcher.getTopReaderContext());
+                DocumentFrequencyAndTermContext actual = parallelDfc.getDocumentFrequencyAndTermContext(
+                        parallelQueries[i].tqIndex, indexSearcher);
+                assertEquals(expected.df, actual.df);
+                assertEquals(expected.termStates.docFreq(), actual.termStates.docFreq());
+                assertEquals(expected.termStates.totalTermFreq(), actual.termStates.totalTermFreq());
+            }
+        } finally {
+            executor.shutdown();
+        }
+
+        indexReader.close();
+        directory.close();
+        analyzer.close();
+    }
+
     @Test
     public void testEmptyClauses() throws Exception {
         
@@ -878,4 +878,85 @@ public class LuceneQueryBuilderTest extends AbstractLuceneQueryTest {
        assertTrue(q1.equals(q2));
        assertEquals(q1.hashCode(), q2.hashCode());
    }
+
+   @Test
+   public void testThatSinglePassCreatesSameQueryAsFactoryTree() throws Exception {
+       prepareRequestAdapterForLogging();
+       final Analyzer stopWordAnalyzer = new StandardAnalyzer(new CharArraySet(stopWords, true));
+       final String[] inputs = {"a", "a b", "b c d", "+a -b c", "j f", "-bb cc dd a", "g h +abc", "f1:a b",
+               "stopA", "a stopA", "100-2 f"};
+
+       for (final String input : inputs) {
+           final querqy.model.Query query = rewriteWithSynonyms(input);
+           for (final Analyzer queryAnalyzer : Arrays.asList(analyzer, stopWordAnalyzer)) {
+               for (final boolean normalize : new boolean[] {false, true}) {
+                   for (final boolean useBooleanQueryForDMQ : new boolean[] {false, true}) {
+
+                       final Query[] expected = new Query[4];
+                       final Query[] actual = new Query[4];
+                       for (final boolean singlePass : new boolean[] {false, true}) {
+                           final Query[] target = singlePass ? actual : expected;
+                           target[0] = buildForSinglePassTest(query, queryAnalyzer, FieldBoostModel.FIXED,
+                                   new LuceneTermQueryBuilder(), normalize, useBooleanQueryForDMQ, singlePass);
+                           target[1] = buildForSinglePassTest(query, queryAnalyzer, FieldBoostModel.FIXED,
+                                   new SimilarityTermQueryBuilder(), normalize, useBooleanQueryForDMQ, singlePass);
+                           target[2] = buildForSinglePassTest(query, queryAnalyzer, FieldBoostModel.FIXED,
+                                   new FieldBoostTermQueryBuilder(), normalize, useBooleanQueryForDMQ, singlePass);
+                           target[3] = buildForSinglePassTest(query, queryAnalyzer, FieldBoostModel.PRMS,
+                                   new FieldBoostTermQueryBuilder(), normalize, useBooleanQueryForDMQ, singlePass);
+                       }
+
+                       for (int i = 0; i < expected.length; i++) {
+                           assertEquals("input: " + input + ", variant: " + i, expected[i], actual[i]);
+                       }
+                   }
+               }
+           }
+       }
+   }
+
+   @Test
+   public void testThatSinglePassIsOnlyAppliedWithoutDfcAndMultiMatchDmq() {
+       final SearchFieldsAndBoosting searchFieldsAndBoosting = new SearchFieldsAndBoosting(FieldBoostModel.FIXED,
+               fields("f1", "f2"), fields("f1", "f2"), 0.8f);
+
+       final LuceneQueryBuilder builder = new LuceneQueryBuilder(new LuceneTermQueryBuilder(), analyzer,
+               searchFieldsAndBoosting, 0.1f, 1f, null, null);
+       assertTrue(builder.isSinglePassApplicable());
+       builder.setSinglePassEnabled(false);
+       assertFalse(builder.isSinglePassApplicable());
+
+       assertFalse(new LuceneQueryBuilder(new LuceneTermQueryBuilder(), analyzer, searchFieldsAndBoosting, 0.1f,
+               0.5f, null, null).isSinglePassApplicable());
+       assertFalse(new LuceneQueryBuilder(new DependentTermQueryBuilder(new DocumentFrequencyCorrection()), analyzer,
+               searchFieldsAndBoosting, 0.1f, 1f, null, null).isSinglePassApplicable());
+   }
+
+   private querqy.model.Query rewriteWithSynonyms(final String input) throws IOException {
+       final SimpleCommonRulesRewriterFactory factory = new SimpleCommonRulesRewriterFactory("CommonRulesRewriter",
+               new BufferedReader(new InputStreamReader(Objects.requireNonNull(
+                       getClass().getClassLoader().getResourceAsStream("rules-synonyms.txt")),
+                       StandardCharsets.UTF_8)), true, BoostMethod.ADDITIVE,
+               new WhiteSpaceQuerqyParserFactory(), Collections.emptyMap(),
+               (rewriterId, searchEngineRequestAdapter) -> SelectionStrategyFactory.DEFAULT_SELECTION_STRATEGY,
+               true, LookupPreprocessorType.NONE);
+
+       final QueryRewriter rewriter = factory.createRewriter(searchEngineRequestAdapter);
+       final querqy.model.Query q = new FieldAwareWhiteSpaceQuerqyParser().parse(input);
+       return (querqy.model.Query) rewriter.rewrite(new ExpandedQuery(q), searchEngineRequestAdapter)
+               .getExpandedQuery().getUserQuery();
+   }
+
+   private Query buildForSinglePassTest(final querqy.model.Query query, final Analyzer queryAnalyzer,
+                                        final FieldBoostModel fieldBoostModel,
+                                        final TermQueryBuilder termQueryBuilder, final boolean normalize,
+                                        final boolean useBooleanQueryForDMQ, final boolean singlePass) {
+       final SearchFieldsAndBoosting searchFieldsAndBoosting = new SearchFieldsAndBoosting(fieldBoostModel,
+               fields("f1", "f2", "f3"), fields("f1", "f2"), 0.8f);
+       final LuceneQueryBuilder builder = new LuceneQueryBuilder(termQueryBuilder, queryAnalyzer,
+               searchFieldsAndBoosting, 0.1f, 1f, normalize, null, null);
+       builder.setSinglePassEnabled(singlePass);
+       assertEquals(singlePass, builder.isSinglePassApplicable());
+       return builder.createQuery(query, useBooleanQueryForDMQ);
+   }
 }
@@ -0,0 +1,191 @@
+/*
+ * SPDX-License-Identifier: Apache-2.0
+ *
+ * Copyright 2026 Querqy Contributors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package querqy.lucene.rewrite.cache;
+
+import org.apache.lucene.analysis.standard.StandardAnalyzer;
+import org.apache.lucene.index.Term;
+import org.junit.Test;
+import querqy.lucene.rewrite.ConstantFieldBoost;
+import querqy.lucene.rewrite.TermQueryFactory;
+import querqy.lucene.rewrite.TermSubQueryBuilder;
+import querqy.lucene.rewrite.prms.PRMSTermQuery;
+import querqy.rewrite.QueryRewriter;
+import querqy.rewrite.RewriterFactory;
+import querqy.rewrite.SearchEngineRequestAdapter;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.lessThanOrEqualTo;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+
+public class SegmentedLRUTermQueryCacheTest {
+
+    @Test
+    public void testGetReturnsPutValue() {
+        final SegmentedLRUTermQueryCache cache = new SegmentedLRUTermQueryCache(100, 1);
+        final TermQueryCacheValue value = value("a");
+        cache.put(key("f1", "a"), value);
+
+        assertSame(value, cache.get(key("f1", "a")));
+        assertNull(cache.get(key("f2", "a")));
+        assertNull(cache.get(key("f1", "b")));
+
+        final TermQueryCacheStats stats = cache.getStats();
+        assertEquals(1L, stats.getHitCount());
+        assertEquals(2L, stats.getMissCount());
+        assertEquals(1L, stats.getPutCount());
+        assertEquals(0L, stats.getEvictionCount());
+        assertEquals(1, stats.getSize());
+        assertEquals(1.0 / 3.0, stats.getHitRate(), 0.0001);
+    }
+
+    @Test
+    public void testSizeIsBounded() {
+        final SegmentedLRUTermQueryCache cache = new SegmentedLRUTermQueryCache(64, 4);
+        for (int i = 0; i < 1000; i++) {
+            cache.put(key("f", "t" + i), value("t" + i));
+        }
+        assertEquals(64, cache.size());
+        assertEquals(1000L - 64L, cache.getStats().getEvictionCount());
+    }
+
+    @Test
+    public void testEntriesThatWereHitSurviveAScanOfNewEntries() {
+        final SegmentedLRUTermQueryCache cache = new SegmentedLRUTermQueryCache(10, 1);
+        for (int i = 0; i < 5; i++) {
+            cache.put(key("f", "hot" + i), value("hot" + i));
+            assertNotNull(cache.get(key("f", "hot" + i)));
+        }
+
+        for (int i = 0; i < 100; i++) {
+            cache.put(key("f", "cold" + i), value("cold" + i));
+        }
+
+        for (int i = 0; i < 5; i++) {
+            assertNotNull(cache.get(key("f", "hot" + i)));
+        }
+        assertNull(cache.get(key("f", "cold0")));
+        assertEquals(10, cache.size());
+    }
+
+    @Test
+    public void testClearRemovesEntriesButKeepsStats() {
+        final SegmentedLRUTermQueryCache cache = new SegmentedLRUTermQueryCache(10, 1);
+        cache.put(key("f", "a"), value("a"));
+        cache.get(key("f", "a"));
+        cache.clear();
+
+        assertNull(cache.get(key("f", "a")));
+        assertEquals(0, cache.size());
+        assertEquals(1L, cache.getStats().getHitCount());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testThatMaxSizeMustBePositive() {
+        new SegmentedLRUTermQueryCache(0, 1);
+    }
+
+    @Test
+    public void testPrewarm() throws Exception {
+        final SegmentedLRUTermQueryCache cache = new SegmentedLRUTermQueryCache(100, 1);
+
+        final Set<querqy.model.Term> terms = new HashSet<>(Arrays.asList(
+                new querqy.model.Term(null, "Laptop"),
+                new querqy.model.Term(null, "f2", "Notebook"),
+                new querqy.model.Term(null, "f3", "ignored")));
+
+        final RewriterFactory factory = new RewriterFactory("r1") {
+            @Override
+            public QueryRewriter createRewriter(final SearchEngineRequestAdapter searchEngineRequestAdapter) {
+                return null;
+            }
+
+            @Override
+            public Set<querqy.model.Term> getCacheableGenerableTerms() {
+                return terms;
+            }
+        };
+
+        final int count = cache.prewarm(new StandardAnalyzer(), Arrays.asList("f1", "f2"),
+                Collections.singletonList(factory));
+        assertEquals(3, count);
+        assertEquals(3, cache.size());
+        assertEquals(0L, cache.getStats().getMissCount());
+
+        // the builder must find the pre-warmed entries
+        final TermSubQueryBuilder builder = new TermSubQueryBuilder(new StandardAnalyzer(), cache);
+        assertNotNull(builder.termToFactory("f1", new querqy.model.Term(null, "Laptop"),
+                ConstantFieldBoost.NORM_BOOST));
+        assertNotNull(builder.termToFactory("f2", new querqy.model.Term(null, "f2", "Notebook"),
+                ConstantFieldBoost.NORM_BOOST));
+        assertEquals(2L, cache.getStats().getHitCount());
+        assertEquals(0L, cache.getStats().getMissCount());
+    }
+
+    @Test
+    public void testConcurrentAccess() throws Exception {
+        final SegmentedLRUTermQueryCache cache = new SegmentedLRUTermQueryCache(256, 8);
+        final ExecutorService executor = Executors.newFixedThreadPool(8);
+        try {
+            final List<Future<?>> futures = new ArrayList<>();
+            for (int t = 0; t < 8; t++) {
+                final int offset = t * 100;
+                futures.add(executor.submit(() -> {
+                    for (int i = 0; i < 10_000; i++) {
+                        final String value = "t" + ((i * 7 + offset) % 1000);
+                        final CacheKey key = key("f", value);
+                        if (cache.get(key) == null) {
+                            cache.put(key, value(value));
+                        }
+                    }
+                }));
+            }
+            for (final Future<?> future : futures) {
+                future.get();
+            }
+        } finally {
+            executor.shutdown();
+        }
+
+        assertThat(cache.size(), lessThanOrEqualTo(256));
+        final TermQueryCacheStats stats = cache.getStats();
+        assertEquals(80_000L, stats.getHitCount() + stats.getMissCount());
+    }
+
+    private static CacheKey key(final String field, final String value) {
+        return new CacheKey(field, new querqy.model.Term(null, value));
+    }
+
+    private static TermQueryCacheValue value(final String value) {
+        final Term term = new Term("f", value);
+        return new TermQueryCacheValue(new TermQueryFactory(term, new querqy.model.Term(null, value)),
+                new PRMSTermQuery(term));
+    }
+}
@@ -22,6 +22,8 @@ import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 
 import org.apache.lucene.analysis.Analyzer;
 import org.apache.lucene.analysis.standard.StandardAnalyzer;
@@ -30,9 +32,14 @@ import org.apache.lucene.document.Document;
 import org.apache.lucene.document.Field.Store;
 import org.apache.lucene.document.TextField;
 import org.apache.lucene.index.DirectoryReader;
+import org.apache.lucene.index.FilterLeafReader;
 import org.apache.lucene.index.IndexReader;
 import org.apache.lucene.index.IndexWriter;
 import org.apache.lucene.index.IndexWriterConfig;
+import org.apache.lucene.index.LeafReader;
+import org.apache.lucene.index.NoMergePolicy;
+import org.apache.lucene.index.Term;
+import org.apache.lucene.index.Terms;
 import org.apache.lucene.search.*;
 import org.apache.lucene.search.similarities.Similarity;
 import org.apache.lucene.store.Directory;
@@ -138,6 +145,111 @@ public class PRMSFieldBoostTest extends LuceneTestCase {
         
     }
     
+    @Test
+    public void testThatLikelihoodsCalculatedInParallelEqualSequentialLikelihoods() throws Exception {
+
+        Directory directory = newDirectory();
+        Analyzer analyzer = new StandardAnalyzer();
+
+        IndexWriterConfig conf = new IndexWriterConfig(analyzer);
+        conf.setCodec(Codec.forName(TestUtil.LUCENE_CODEC));
+        conf.setMergePolicy(NoMergePolicy.INSTANCE);
+        IndexWriter indexWriter = new IndexWriter(directory, conf);
+        for (int i = 0; i < 4; i++) {
+            addNumDocs("f1", "abc", indexWriter, i + 1);
+            addNumDocs("f2", "abc def", indexWriter, 2);
+            indexWriter.commit();
+        }
+        indexWriter.close();
+
+        IndexReader indexReader = DirectoryReader.open(directory);
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        try {
+            String[][] fieldsAndValues = {{"f1", "abc"}, {"f2", "abc"}, {"f2", "def"}, {"f1", "def"}, {"f3", "abc"}};
+            List<PRMSTermQuery> parallel = new ArrayList<>();
+            for (String[] fieldAndValue : fieldsAndValues) {
+                new PRMSTermQuery(new Term(fieldAndValue[0], fieldAndValue[1])).collectTermQueries(parallel);
+            }
+
+            PRMSTermQuery.calculateLikelihoods(parallel, indexReader,
+                    new IndexSearcher(indexReader, executor).getTaskExecutor());
+
+            for (PRMSTermQuery query : parallel) {
+                PRMSTermQuery sequential = new PRMSTermQuery(query.getTerm());
+                assertEquals(query.getTerm().toString(), sequential.calculateLikelihood(indexReader),
+                        query.calculateLikelihood(indexReader), 0.000001);
+            }
+        } finally {
+            executor.shutdown();
+        }
+
+        indexReader.close();
+        directory.close();
+        analyzer.close();
+    }
+
+    @Test
+    public void testThatParallelLikelihoodsRejectUnsupportedStatisticsLikeSequentialLikelihoods() throws Exception {
+
+        Directory directory = newDirectory();
+        Analyzer analyzer = new StandardAnalyzer();
+
+        IndexWriterConfig conf = new IndexWriterConfig(analyzer);
+        conf.setCodec(Codec.forName(TestUtil.LUCENE_CODEC));
+        IndexWriter indexWriter = new IndexWriter(directory, conf);
+        addNumDocs("f1", "abc", indexWriter, 2);
+        indexWriter.close();
+
+        DirectoryReader directoryReader = DirectoryReader.open(directory);
+        LeafReader leafReader = new NoSumTotalTermFreqLeafReader(directoryReader.leaves().get(0).reader());
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        try {
+            Term term = new Term("f1", "abc");
+            expectThrows(UnsupportedOperationException.class,
+                    () -> new PRMSTermQuery(term).calculateLikelihood(leafReader));
+            expectThrows(UnsupportedOperationException.class,
+                    () -> PRMSTermQuery.calculateLikelihoods(List.of(new PRMSTermQuery(term)), leafReader,
+                            new IndexSearcher(leafReader, executor).getTaskExecutor()));
+        } finally {
+            executor.shutdown();
+        }
+
+        directoryReader.close();
+        directory.close();
+        analyzer.close();
+    }
+
+    /**
+     * Simulates a codec that doesn't support sumTotalTermFreq.
+     */
+    private static class NoSumTotalTermFreqLeafReader extends FilterLeafReader {
+
+        NoSumTotalTermFreqLeafReader(LeafReader in) {
+            super(in);
+        }
+
+        @Override
+        public Terms terms(String field) throws IOException {
+            Terms terms = super.terms(field);
+            return terms == null ? null : new FilterTerms(terms) {
+                @Override
+                public long getSumTotalTermFreq() {
+                    return -1L;
+                }
+            };
+        }
+
+        @Override
+        public CacheHelper getCoreCacheHelper() {
+            return null;
+        }
+
+        @Override
+        public CacheHelper getReaderCacheHelper() {
+            return null;
+        }
+    }
+
     public static void addNumDocs(String fieldname, String value, IndexWriter indexWriter, int num) throws IOException {
         for (int i = 0; i < num; i++) {
             Document doc = new Document();
@@ -0,0 +1,104 @@
+/*
+ * SPDX-License-Identifier: Apache-2.0
+ *
+ * Copyright 2026 Querqy Contributors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package querqy.lucene.rewrite.prms;
+
+import org.apache.lucene.analysis.Analyzer;
+import org.apache.lucene.analysis.standard.StandardAnalyzer;
+import org.apache.lucene.index.DirectoryReader;
+import org.apache.lucene.index.IndexReader;
+import org.apache.lucene.index.IndexWriter;
+import org.apache.lucene.index.IndexWriterConfig;
+import org.apache.lucene.index.Term;
+import org.apache.lucene.store.Directory;
+import org.apache.lucene.tests.util.LuceneTestCase;
+import org.junit.Test;
+
+import java.util.List;
+import java.util.Map;
+
+import static querqy.lucene.rewrite.prms.PRMSFieldBoostTest.addNumDocs;
+
+public class PRMSFieldProbabilityCacheTest extends LuceneTestCase {
+
+    @Test
+    public void testThatProbabilitiesAreCachedPerReader() throws Exception {
+
+        Directory directory = newDirectory();
+        Analyzer analyzer = new StandardAnalyzer();
+        IndexWriter indexWriter = new IndexWriter(directory, new IndexWriterConfig(analyzer));
+        addNumDocs("f1", "abc", indexWriter, 1);
+        addNumDocs("f1", "def", indexWriter, 3);
+        addNumDocs("f2", "abc", indexWriter, 3);
+        addNumDocs("f2", "def", indexWriter, 1);
+        indexWriter.close();
+
+        PRMSFieldProbabilityCache cache = new PRMSFieldProbabilityCache();
+        IndexReader indexReader = DirectoryReader.open(directory);
+
+        PRMSFieldBoost first = createFieldBoost(cache, "abc");
+        float f1Boost = first.getBoost("f1", indexReader);
+        float f2Boost = first.getBoost("f2", indexReader);
+        assertEquals(1L, cache.getMissCount());
+        assertEquals(0L, cache.getHitCount());
+        assertEquals(1, cache.size());
+
+        PRMSFieldBoost second = createFieldBoost(cache, "abc");
+        assertEquals(f1Boost, second.getBoost("f1", indexReader), 0.00001f);
+        assertEquals(f2Boost, second.getBoost("f2", indexReader), 0.00001f);
+        assertEquals(1L, cache.getHitCount());
+        assertEquals(0.5, cache.getHitRate(), 0.00001);
+
+        PRMSFieldBoost other = createFieldBoost(cache, "def");
+        assertEquals(f2Boost, other.getBoost("f1", indexReader), 0.00001f);
+        assertEquals(2, cache.size());
+        assertEquals(1, cache.getReaderCount());
+
+        indexReader.close();
+        assertEquals(0, cache.getReaderCount());
+        assertEquals(0, cache.size());
+
+        directory.close();
+        analyzer.close();
+    }
+
+    @Test
+    public void testCreateKey() {
+        PRMSQuery abc = new PRMSDisjunctionMaxQuery(List.of(new PRMSTermQuery(new Term("f1", "abc")),
+                new PRMSTermQuery(new Term("f1", "abcd"))));
+        PRMSQuery abcd = new PRMSAndQuery(List.of(new PRMSTermQuery(new Term("f1", "abc")),
+                new PRMSTermQuery(new Term("f1", "abcd"))));
+
+        String key = PRMSFieldProbabilityCache.createKey(Map.of("f1", abc, "f2", PRMSQuery.NEVER_MATCH_PRMS_QUERY));
+        assertNotNull(key);
+        assertEquals(key, PRMSFieldProbabilityCache.createKey(Map.of("f2", PRMSQuery.NEVER_MATCH_PRMS_QUERY,
+                "f1", abc)));
+        assertFalse(key.equals(PRMSFieldProbabilityCache.createKey(Map.of("f1", abcd,
+                "f2", PRMSQuery.NEVER_MATCH_PRMS_QUERY))));
+
+        PRMSQuery unknown = indexReader -> 0.5;
+        assertNull(PRMSFieldProbabilityCache.createKey(Map.of("f1", abc, "f2", unknown)));
+    }
+
+    private static PRMSFieldBoost createFieldBoost(PRMSFieldProbabilityCache cache, String value) {
+        PRMSFieldBoost fieldBoost = new PRMSFieldBoost(PRMSFieldBoost.DEFAULT_MIN_PARALLEL_LEAVES, cache);
+        fieldBoost.fieldPRMSQueries.put("f1", new PRMSTermQuery(new Term("f1", value)));
+        fieldBoost.fieldPRMSQueries.put("f2", new PRMSTermQuery(new Term("f2", value)));
+        return fieldBoost;
+    }
+
+}